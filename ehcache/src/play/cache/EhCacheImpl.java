@@ -12,6 +12,11 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.errorprone.annotations.CheckReturnValue;
 import java.io.Serializable;
 import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
 import java.util.function.Supplier;
 import net.sf.oval.exception.InvalidConfigurationException;
 import org.ehcache.Cache;
@@ -22,6 +27,7 @@ import org.ehcache.expiry.ExpiryPolicy;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
 import play.Play;
+import play.exceptions.CacheException;
 import play.libs.Lazy;
 
 /**
@@ -107,6 +113,85 @@ public class EhCacheImpl implements CacheImpl {
     }
   }
 
+  @Override
+  public Map<String, Object> getMulti(Collection<String> keys) {
+    Map<String, Object> values = new HashMap<>(keys.size());
+    cache
+        .getAll(new HashSet<>(keys))
+        .forEach(
+            (key, valueWrapper) -> {
+              if (valueWrapper != null && valueWrapper.value != null) {
+                values.put(key, valueWrapper.value);
+              }
+            });
+    return values;
+  }
+
+  @Override
+  public void setMulti(Map<String, ?> values, int expiration) {
+    Map<String, ValueWrapper> wrappers = new HashMap<>(values.size());
+    values.forEach((key, value) -> wrappers.put(key, new ValueWrapper(value, expiration)));
+    cache.putAll(wrappers);
+  }
+
+  @Override
+  public boolean add(String key, Object value, int expiration) {
+    return cache.putIfAbsent(key, new ValueWrapper(value, expiration)) == null;
+  }
+
+  @Override
+  public boolean replace(String key, Object value, int expiration) {
+    return cache.replace(key, new ValueWrapper(value, expiration)) != null;
+  }
+
+  @Override
+  public boolean compareAndSet(
+      String key, @Nullable Object expected, Object value, int expiration) {
+    if (expected == null) {
+      return add(key, value, expiration);
+    }
+    // ValueWrapper.equals() compares values only
+    return cache.replace(
+        key, new ValueWrapper(expected, expiration), new ValueWrapper(value, expiration));
+  }
+
+  @Override
+  public long incr(String key, long by, long initial, int expiration) {
+    return addToCounter(key, by, initial, expiration);
+  }
+
+  @Override
+  public long decr(String key, long by, long initial, int expiration) {
+    return addToCounter(key, -by, initial, expiration);
+  }
+
+  private long addToCounter(String key, long delta, long initial, int expiration) {
+    while (true) {
+      ValueWrapper current = cache.get(key);
+      if (current == null) {
+        if (cache.putIfAbsent(key, new ValueWrapper(initial, expiration)) == null) {
+          return initial;
+        }
+      } else {
+        long value = Math.max(0, counterValue(key, current.value) + delta);
+        if (cache.replace(key, current, new ValueWrapper(value, current.expiration))) {
+          return value;
+        }
+      }
+    }
+  }
+
+  private static long counterValue(String key, @Nullable Object value) {
+    if (value instanceof Number number) {
+      return number.longValue();
+    }
+    try {
+      return Long.parseLong(String.valueOf(value));
+    } catch (NumberFormatException e) {
+      throw new CacheException("Cannot increment non-numeric value of " + key, e);
+    }
+  }
+
   @NullMarked
   @CheckReturnValue
   private static class ValueWrapper implements Serializable {
@@ -118,6 +203,16 @@ public class EhCacheImpl implements CacheImpl {
       this.value = value;
       this.expiration = expiration;
     }
+
+    @Override
+    public boolean equals(@Nullable Object other) {
+      return other instanceof ValueWrapper wrapper && Objects.equals(value, wrapper.value);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(value);
+    }
   }
 
   private static class ValueWrapperAwareExpiry implements ExpiryPolicy<String, ValueWrapper> {
@@ -6,12 +6,15 @@ import static org.assertj.core.api.Assertions.fail;
 import static org.ehcache.config.ResourceType.Core.HEAP;
 import static org.ehcache.config.ResourceType.Core.OFFHEAP;
 
+import java.util.List;
+import java.util.Map;
 import net.sf.oval.exception.InvalidConfigurationException;
 import org.ehcache.config.ResourcePools;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import play.Play;
+import play.exceptions.CacheException;
 
 public class EhCacheImplTest {
 
@@ -166,4 +169,44 @@ public class EhCacheImplTest {
         .isInstanceOf(InvalidConfigurationException.class)
         .hasMessageStartingWith("Must specify nonzero");
   }
+
+  @Test
+  public void getMultiAndSetMulti() {
+    cache.setMulti(Map.of("multi1", 1, "multi2", 2), 10);
+
+    assertThat(cache.getMulti(List.of("multi1", "multi2", "multi3")))
+        .isEqualTo(Map.of("multi1", 1, "multi2", 2));
+  }
+
+  @Test
+  public void addAndReplace() {
+    assertThat(cache.replace("add", 1, 10)).isFalse();
+    assertThat(cache.add("add", 1, 10)).isTrue();
+    assertThat(cache.add("add", 2, 10)).isFalse();
+    assertThat(cache.get("add")).isEqualTo(1);
+
+    assertThat(cache.replace("add", 3, 10)).isTrue();
+    assertThat(cache.get("add")).isEqualTo(3);
+  }
+
+  @Test
+  public void compareAndSet() {
+    assertThat(cache.compareAndSet("cas", null, "a", 10)).isTrue();
+    assertThat(cache.compareAndSet("cas", null, "b", 10)).isFalse();
+    assertThat(cache.compareAndSet("cas", "b", "c", 10)).isFalse();
+    assertThat(cache.compareAndSet("cas", "a", "c", 10)).isTrue();
+    assertThat(cache.get("cas")).isEqualTo("c");
+  }
+
+  @Test
+  public void incrAndDecr() {
+    assertThat(cache.incr("counter", 1, 10, 10)).isEqualTo(10);
+    assertThat(cache.incr("counter", 5, 10, 10)).isEqualTo(15);
+    assertThat(cache.decr("counter", 20, 0, 10)).isEqualTo(0);
+
+    cache.set("text", "not a number", 10);
+    assertThatThrownBy(() -> cache.incr("text", 1, 0, 10))
+        .isInstanceOf(CacheException.class)
+        .hasMessage("Cannot increment non-numeric value of text");
+  }
 }
@@ -0,0 +1,109 @@
+package play.templates;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.text.StringEscapeUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import play.utils.HTML;
+import play.utils.HTML.HtmlCharacterEntityReferences;
+
+/**
+ * Escaping of values printed by templates: {@link HTML#htmlEscape(String)} returning clean values
+ * as is, and escaping directly into the template output, compared to building a new String for
+ * each value as it was done before.
+ *
+ * <p>Run with e.g. <code>./gradlew :fastergt:jmh -PjmhArgs="EscapingBenchmark -prof gc"</code> to
+ * see the allocations.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class EscapingBenchmark {
+  private static final HtmlCharacterEntityReferences references =
+      new HtmlCharacterEntityReferences();
+
+  @Param({"plain", "markup", "cyrillic", "french"})
+  public String content;
+
+  private String value;
+  private final StringBuffer out = new StringBuffer(4096);
+
+  @Setup
+  public void setUp() {
+    value =
+        switch (content) {
+          case "plain" -> "Order 12345 was shipped to John Smith on 2024-05-17";
+          case "markup" -> "Tom & Jerry's <b>\"best\"</b> episodes > 10";
+          case "cyrillic" -> "Заказ 12345 отправлен Ивану Петрову 17 мая";
+          case "french" -> "Commande 12345 expédiée à François Lefèvre, déjà payée";
+          default -> throw new IllegalArgumentException(content);
+        };
+  }
+
+  @Benchmark
+  public String htmlEscape() {
+    return HTML.htmlEscape(value);
+  }
+
+  @Benchmark
+  public int htmlEscapeIntoOutput() throws IOException {
+    out.setLength(0);
+    HTML.htmlEscape(value, out);
+    return out.length();
+  }
+
+  @Benchmark
+  public String htmlEscapeBefore() {
+    StringBuilder escaped = new StringBuilder(value.length() * 2);
+    for (int i = 0; i < value.length(); i++) {
+      char character = value.charAt(i);
+      String reference = references.convertToReference(character);
+      if (reference != null) {
+        escaped.append(reference);
+      } else {
+        escaped.append(character);
+      }
+    }
+    return escaped.toString();
+  }
+
+  @Benchmark
+  public String escapeXml11() {
+    return Escapers.escapeXml11(value);
+  }
+
+  @Benchmark
+  public String escapeXml11Before() {
+    return StringEscapeUtils.escapeXml11(value);
+  }
+
+  @Benchmark
+  public String escapeCsv() {
+    return Escapers.escapeCsv(value);
+  }
+
+  @Benchmark
+  public String escapeCsvBefore() {
+    return StringEscapeUtils.escapeCsv(value);
+  }
+
+  @Benchmark
+  public String escapeJavaScript() {
+    return JavaScriptEscaper.escape(value);
+  }
+}
@@ -1,5 +1,7 @@
 package play.modules.gtengineplugin;
 
+import static java.lang.Integer.parseInt;
+
 import java.io.File;
 import java.util.Optional;
 import play.Play;
@@ -43,6 +45,13 @@ public class GTEnginePlugin extends PlayPlugin {
   public void onApplicationStart() {
     // need to re-init when app restarts
     init();
+    if ("true".equals(Play.configuration.getProperty("play.templates.warmup", "false"))) {
+      TemplateLoader.warmup(
+          parseInt(
+              Play.configuration.getProperty(
+                  "play.templates.warmup.threads",
+                  String.valueOf(Runtime.getRuntime().availableProcessors()))));
+    }
   }
 
   @Override
@@ -1,11 +1,10 @@
 package play.modules.gtengineplugin;
 
-import static java.nio.charset.StandardCharsets.UTF_8;
-
 import com.google.errorprone.annotations.CheckReturnValue;
-import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
 import play.Play;
@@ -16,6 +15,7 @@ import play.template2.GTJavaBase;
 import play.template2.GTRenderingResult;
 import play.template2.GTTemplateLocation;
 import play.templates.Template;
+import play.templates.TemplateOutput;
 
 @NullMarked
 @CheckReturnValue
@@ -39,13 +39,15 @@ public class GTTemplate extends Template {
 
   @Override
   protected String internalRender(Map<String, Object> args) {
-    GTRenderingResult renderingResult = internalGTRender(args);
-    ByteArrayOutputStream out = new ByteArrayOutputStream();
-    renderingResult.writeOutput(out, UTF_8);
-    return out.toString(UTF_8);
+    return internalGTRender(args).getAsString();
   }
 
   public GTRenderingResult internalGTRender(Map<String, Object> templateArgs) {
+    return internalGTRender(templateArgs, null);
+  }
+
+  private GTRenderingResult internalGTRender(
+      Map<String, Object> templateArgs, @Nullable Consumer<GTRenderingResult> flushHandler) {
     Map<String, Object> args = new HashMap<>(templateArgs);
     Http.Request currentResponse = Http.Request.current();
     if (currentResponse != null) {
@@ -55,7 +57,7 @@ public class GTTemplate extends Template {
     args.put("messages", new Messages());
     args.put("lang", Lang.get());
 
-    return renderGTTemplate(args);
+    return renderGTTemplate(args, flushHandler);
   }
 
   protected GTJavaBase getGTTemplateInstance() {
@@ -67,8 +69,13 @@ public class GTTemplate extends Template {
   }
 
   protected GTRenderingResult renderGTTemplate(Map<String, Object> args) {
+    return renderGTTemplate(args, null);
+  }
+
+  protected GTRenderingResult renderGTTemplate(
+      Map<String, Object> args, @Nullable Consumer<GTRenderingResult> flushHandler) {
     GTJavaBase gtTemplate = getGTTemplateInstance();
-    gtTemplate.renderTemplate(args);
+    gtTemplate.renderTemplate(args, flushHandler);
     return gtTemplate;
   }
 
@@ -76,4 +83,22 @@ public class GTTemplate extends Template {
   public String render(Map<String, Object> args) {
     return internalRender(args);
   }
+
+  @Override
+  public TemplateOutput render(Map<String, Object> args, Charset encoding) {
+    return encode(internalGTRender(args), encoding);
+  }
+
+  @Override
+  public TemplateOutput render(
+      Map<String, Object> args, Charset encoding, Consumer<TemplateOutput> flush) {
+    return encode(
+        internalGTRender(args, flushed -> flush.accept(encode(flushed, encoding))), encoding);
+  }
+
+  private static TemplateOutput encode(GTRenderingResult renderingResult, Charset encoding) {
+    TemplateOutput output = new TemplateOutput(encoding);
+    renderingResult.writeOutput(output);
+    return output.finish();
+  }
 }
@@ -1,15 +1,28 @@
 package play.modules.gtengineplugin;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import play.Play;
 import play.PlayPlugin;
 import play.plugins.PluginCollection;
 import play.templates.Template;
-import play.templates.TemplateLoader;
 
+/**
+ * Compiles all templates of an application into classes, written with their {@link
+ * play.template2.GTPreCompiledIndex} into the folder given by system property <code>
+ * precompile.output</code>. Fails if any template does not compile.
+ *
+ * <p>See <code>gradle/precompile-templates.gradle</code> to run it when building the application
+ * jar.
+ */
 public class PrecompileTemplates {
+  private static final Logger logger = LoggerFactory.getLogger(PrecompileTemplates.class);
+
   public static void main(String[] args) {
     System.setProperty("precompile", "true");
     loadPrecompiledJavaClasses();
@@ -25,7 +38,24 @@ public class PrecompileTemplates {
   }
 
   private static void precompileTemplates() {
-    TemplateLoader.getAllTemplate();
+    List<String> failures = new ArrayList<>();
+    for (File file : TemplateLoader.findTemplates()) {
+      compile(file, failures);
+    }
+    if (!failures.isEmpty()) {
+      throw new IllegalStateException(
+          failures.size() + " templates failed to compile:\n" + String.join("\n", failures));
+    }
+    TemplateLoader.writePreCompiledIndex();
+  }
+
+  private static void compile(File current, List<String> failures) {
+    try {
+      play.templates.TemplateLoader.load(current).compile();
+    } catch (RuntimeException e) {
+      logger.error("Failed to compile {}", current, e);
+      failures.add(Play.relativePath(current) + ": " + e.getMessage());
+    }
   }
 
   private static class SinglePluginCollection extends PluginCollection {
@@ -1,10 +1,20 @@
 package play.modules.gtengineplugin;
 
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
 import java.io.File;
 import java.net.MalformedURLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import com.google.errorprone.annotations.CheckReturnValue;
 import org.jspecify.annotations.Nullable;
 import org.jspecify.annotations.NullMarked;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import play.Play;
 import play.exceptions.TemplateNotFoundException;
 import play.modules.gtengineplugin.gt_integration.GTFileResolver1xImpl;
@@ -13,6 +23,7 @@ import play.modules.gtengineplugin.gt_integration.GTTagContextBridge;
 import play.modules.gtengineplugin.gt_integration.PreCompilerFactory;
 import play.template2.GTFileResolver;
 import play.template2.GTJavaBase;
+import play.template2.GTPreCompiledIndex;
 import play.template2.GTTagContext;
 import play.template2.GTTemplateLocation;
 import play.template2.GTTemplateLocationReal;
@@ -21,10 +32,12 @@ import play.template2.GTTemplateRepo;
 import play.template2.compile.GTCompiler;
 import play.template2.compile.GTGroovyPimpTransformer;
 import play.templates.Template;
+import play.utils.PThreadFactory;
 
 @NullMarked
 @CheckReturnValue
 public class TemplateLoader {
+  private static final Logger logger = LoggerFactory.getLogger(TemplateLoader.class);
 
   @Nullable
   private static GTTemplateRepo templateRepo;
@@ -46,7 +59,7 @@ public class TemplateLoader {
 
     File folderToDumpClassesIn = null;
     if (System.getProperty("precompile") != null) {
-      folderToDumpClassesIn = new File(Play.appRoot, "precompiled/java");
+      folderToDumpClassesIn = precompiledClassesFolder();
     } else if (Play.mode != Play.Mode.PROD) {
       folderToDumpClassesIn = new File(Play.appRoot, "tmp/gttemplates");
     }
@@ -57,6 +70,98 @@ public class TemplateLoader {
             new PreCompilerFactory(),
             Play.usePrecompiled,
             folderToDumpClassesIn);
+
+    if (Play.usePrecompiled && System.getProperty("precompile") == null) {
+      int registered =
+          templateRepo.registerPreCompiledTemplates(
+              Thread.currentThread().getContextClassLoader());
+      logger.info("Registered {} precompiled templates", registered);
+    }
+  }
+
+  /**
+   * Compile all templates of {@link Play#templatesPath} in parallel, so that the first requests do
+   * not wait for them: in PROD, a template is otherwise compiled on its first use.
+   *
+   * @param threads maximum number of templates compiled at the same time
+   */
+  static void warmup(int threads) {
+    List<File> files = findTemplates();
+    long start = nanoTime();
+    ExecutorService pool =
+        Executors.newFixedThreadPool(threads, new PThreadFactory("templates-warmup"));
+    try {
+      CompletableFuture.allOf(
+              files.stream()
+                  .map(file -> CompletableFuture.runAsync(() -> warmup(file), pool))
+                  .toArray(CompletableFuture[]::new))
+          .join();
+    } finally {
+      pool.shutdownNow();
+    }
+    logger.info(
+        "Loaded {} templates in {} ms with {} threads",
+        files.size(),
+        NANOSECONDS.toMillis(nanoTime() - start),
+        threads);
+  }
+
+  private static void warmup(File file) {
+    long start = nanoTime();
+    try {
+      play.templates.TemplateLoader.load(file).compile();
+      logger.info(
+          "Loaded template {} in {} ms",
+          Play.relativePath(file),
+          NANOSECONDS.toMillis(nanoTime() - start));
+    } catch (RuntimeException e) {
+      // it will fail again when used
+      logger.warn("Failed to compile template {}", Play.relativePath(file), e);
+    }
+  }
+
+  /**
+   * @return all files of {@link Play#templatesPath} but the hidden ones, as compiled by {@link
+   *     PrecompileTemplates}
+   */
+  static List<File> findTemplates() {
+    List<File> templates = new ArrayList<>();
+    for (File folder : Play.templatesPath) {
+      if (folder != null) {
+        findTemplates(folder, templates);
+      }
+    }
+    return templates;
+  }
+
+  private static void findTemplates(File current, List<File> templates) {
+    if (current.getName().startsWith(".")) {
+      return;
+    }
+    if (current.isDirectory()) {
+      File[] files = current.listFiles();
+      if (files != null) {
+        for (File file : files) {
+          findTemplates(file, templates);
+        }
+      }
+    } else {
+      templates.add(current);
+    }
+  }
+
+  /** Write the index of the templates compiled by {@link PrecompileTemplates} */
+  static void writePreCompiledIndex() {
+    GTPreCompiledIndex.write(templateRepo.getTemplateClassNames(), precompiledClassesFolder());
+  }
+
+  /**
+   * @return folder of the precompiled template classes: system property <code>precompile.output
+   *     </code>, <code>precompiled/java</code> in the application by default
+   */
+  private static File precompiledClassesFolder() {
+    File folder = new File(System.getProperty("precompile.output", "precompiled/java"));
+    return folder.isAbsolute() ? folder : new File(Play.appRoot, folder.getPath());
   }
 
   /**
@@ -1,10 +1,9 @@
 package play.modules.gtengineplugin.gt_integration;
 
 import static org.apache.commons.text.StringEscapeUtils.escapeHtml4;
-import static org.apache.commons.text.StringEscapeUtils.escapeXml11;
 
+import java.io.IOException;
 import java.util.Map;
-import org.apache.commons.text.StringEscapeUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import play.cache.Cache;
@@ -18,6 +17,7 @@ import play.template2.GTTemplateLocation;
 import play.template2.exceptions.GTRuntimeException;
 import play.template2.exceptions.GTTemplateNotFoundWithSourceInfo;
 import play.templates.BaseTemplate;
+import play.templates.Escapers;
 import play.utils.HTML;
 
 public abstract class GTJavaBase1xImpl extends GTJavaBase {
@@ -76,14 +76,19 @@ public abstract class GTJavaBase1xImpl extends GTJavaBase {
     return HTML.htmlEscape(s);
   }
 
+  @Override
+  public void escapeHTML(String s, Appendable out) throws IOException {
+    HTML.htmlEscape(s, out);
+  }
+
   @Override
   public String escapeXML(String s) {
-    return escapeXml11(s);
+    return Escapers.escapeXml11(s);
   }
 
   @Override
   public String escapeCsv(String s) {
-    return StringEscapeUtils.escapeCsv(s);
+    return Escapers.escapeCsv(s);
   }
 
   @Override
@@ -2,17 +2,21 @@ package play.template2;
 
 import groovy.lang.Binding;
 import groovy.lang.Script;
+import java.io.IOException;
 import java.io.OutputStream;
 import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Formattable;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import play.template2.exceptions.GTCompilationException;
 import play.template2.exceptions.GTRuntimeException;
 import play.template2.exceptions.GTTemplateNotFoundWithSourceInfo;
@@ -38,12 +42,19 @@ public abstract class GTJavaBase extends GTRenderingResult {
 
   // If someone is extending us, this is the ref to their rendered template - used when dumping their output
   protected GTJavaBase extendingTemplate;
+  // With #{layout}, the body of the extending template, rendered when we reach #{doLayout}
+  private Runnable extendingBody;
 
   // When invoking a template as a tag, the content of the tag / body is stored here.
   public GTContentRenderer contentRenderer;
 
   public GTTemplateRepo templateRepo;
 
+  // When the page is streamed, receives its output each time it is flushed with #{flush/}.
+  private Consumer<GTRenderingResult> flushHandler;
+  // The output of the page, if this template renders it (and not a tag or an include).
+  private List<StringWriter> pageOuts;
+
   public final GTTemplateLocation templateLocation;
 
   public static final ThreadLocal<Map<Object, Object>> layoutData = new ThreadLocal<>();
@@ -67,6 +78,15 @@ public abstract class GTJavaBase extends GTRenderingResult {
     super.writeOutput(ps, encoding);
   }
 
+  @Override
+  public void writeOutput(Appendable out) {
+    if (extendedTemplate != null) {
+      extendedTemplate.writeOutput(out);
+      return;
+    }
+    super.writeOutput(out);
+  }
+
   public void insertOutput(GTRenderingResult otherTemplate) {
     allOuts.addAll(otherTemplate.allOuts);
     initNewOut();
@@ -85,7 +105,17 @@ public abstract class GTJavaBase extends GTRenderingResult {
 
   public void renderTemplate(Map<String, Object> args)
       throws GTTemplateNotFoundWithSourceInfo, GTRuntimeException {
+    renderTemplate(args, null);
+  }
+
+  /**
+   * Render the page, passing its output to <code>flushHandler</code> each time the template
+   * flushes it with #{flush/}. The output which is not flushed stays in this rendering result.
+   */
+  public void renderTemplate(Map<String, Object> args, Consumer<GTRenderingResult> flushHandler)
+      throws GTTemplateNotFoundWithSourceInfo, GTRuntimeException {
     // This is the main rendering start of the actual template.
+    this.flushHandler = flushHandler;
 
     // Init layout data which should be visible for all templates involved.
     layoutData.set(new HashMap<>());
@@ -123,6 +153,10 @@ public abstract class GTJavaBase extends GTRenderingResult {
       GTTagContext.singleton.init();
     }
 
+    // Only the page and its layout render the output of the page: the output of tags and includes
+    // is inserted in it afterwards.
+    pageOuts = callingTemplate == null ? allOuts : null;
+
     try {
 
       // Must store a copy of args, so we can pass the same (unchanged) args to an extending template.
@@ -155,6 +189,7 @@ public abstract class GTJavaBase extends GTRenderingResult {
 
           // Tell it that "we" extended it.
           extendedTemplate.extendingTemplate = this;
+          extendedTemplate.flushHandler = flushHandler;
 
           // Ok, render it with original args.
           extendedTemplate.internalRenderTemplate(bindingsMap, false, null);
@@ -176,6 +211,62 @@ public abstract class GTJavaBase extends GTRenderingResult {
 
   protected abstract void _renderTemplate();
 
+  /**
+   * #{layout 'main.html'}page#{/layout}: render the layout right away and the body of the tag when
+   * the layout reaches #{doLayout}, instead of rendering the page first like #{extends}. A
+   * #{flush/} in the layout before #{doLayout} (e.g. after <code>&lt;/head&gt;</code>) thus sends
+   * the head before the page body renders. Values the head gets with #{get} must be set before
+   * #{layout}. In a tag or an include, the body is rendered at once and the tag works as #{extends}.
+   */
+  public void renderLayoutFirst(GTTemplateLocationReal layoutLocation, Runnable body) {
+    if (pageOuts == null) {
+      body.run();
+      extendsTemplateLocation = layoutLocation;
+      return;
+    }
+    extendedTemplate = templateRepo.getTemplateInstance(layoutLocation);
+    extendedTemplate.extendingTemplate = this;
+    extendedTemplate.extendingBody = body;
+    extendedTemplate.flushHandler = flushHandler;
+    extendedTemplate.internalRenderTemplate(binding.getVariables(), false, null);
+  }
+
+  /** #{doLayout/}: insert the output of the template extending this layout. */
+  public void doLayout() {
+    if (extendingTemplate == null) {
+      throw new GTRuntimeException("No template is currently extending this template");
+    }
+    if (extendingBody != null) {
+      Runnable body = extendingBody;
+      extendingBody = null;
+      body.run();
+    }
+    insertOutput(extendingTemplate);
+  }
+
+  /**
+   * #{flush/}: when the page is streamed, pass its output rendered so far to the flush handler.
+   * Ignored in tags, in tag bodies and in templates using #{extends}, whose output is not final: it
+   * is inserted in the page or in the layout afterwards. In the body of #{layout}, the output is
+   * flushed through the layout, which has already flushed its head.
+   */
+  public void flushOutput() {
+    if (flushHandler == null || allOuts != pageOuts || extendsTemplateLocation != null) {
+      return;
+    }
+    if (extendedTemplate != null) {
+      extendedTemplate.insertOutput(this);
+      allOuts.clear();
+      initNewOut();
+      extendedTemplate.flushOutput();
+      return;
+    }
+    GTRenderingResult flushed = new GTRenderingResult(new ArrayList<>(allOuts));
+    allOuts.clear();
+    initNewOut();
+    flushHandler.accept(flushed);
+  }
+
   protected void enterTag(String tagName) {
     GTTagContext.singleton.enterTag(tagName);
   }
@@ -195,10 +286,30 @@ public abstract class GTJavaBase extends GTRenderingResult {
 
   public abstract String escapeHTML(String s);
 
+  /** Escape directly into the output. Framework should override it to not build a String. */
+  public void escapeHTML(String s, Appendable out) throws IOException {
+    out.append(escapeHTML(s));
+  }
+
   public abstract String escapeXML(String s);
 
   public abstract String escapeCsv(String s);
 
+  // Print the value of ${expression}: HTML is escaped straight into the output.
+  // We know that `o` is never `null`.
+  public void printObject(Object o) {
+    if (isRawData(o) || !templateLocation.relativePath.endsWith(".html") || isInsideScriptTag()) {
+      out.append(objectToString(o));
+      return;
+    }
+    try {
+      escapeHTML(o.toString(), out.getBuffer());
+    } catch (IOException e) {
+      // StringBuffer does not throw it
+      throw new UncheckedIOException(e);
+    }
+  }
+
   // We know that `o` is never `null`.
   public String objectToString(Object o) {
     if (isRawData(o)) {
@@ -215,14 +326,18 @@ public abstract class GTJavaBase extends GTRenderingResult {
     if (!templateLocation.relativePath.endsWith(".html")) {
       return objectAsString;
     }
-    if (binding.hasVariable("__inside_script_tag")
-        && "true".equals(binding.getVariable("__inside_script_tag"))) {
+    if (isInsideScriptTag()) {
       return JavaScriptEscaper.escape(objectAsString);
     } else {
       return escapeHTML(objectAsString);
     }
   }
 
+  private boolean isInsideScriptTag() {
+    return binding.hasVariable("__inside_script_tag")
+        && "true".equals(binding.getVariable("__inside_script_tag"));
+  }
+
   private boolean isRawData(Object value) {
     Class rawDataClass = getRawDataClass();
     return rawDataClass != null && rawDataClass.isAssignableFrom(value.getClass());
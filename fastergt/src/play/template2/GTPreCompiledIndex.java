@@ -0,0 +1,56 @@
+package play.template2;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import play.template2.exceptions.GTException;
+
+/**
+ * Index of the templates precompiled at build time, packaged with their classes: one <code>
+ * relativePath=className</code> line per template. {@link GTTemplateRepo} reads the indexes of all
+ * jars at startup instead of looking for the class of each template in the classpath.
+ */
+public class GTPreCompiledIndex {
+  public static final String RESOURCE = "play/template2/generated_templates/templates.idx";
+
+  private GTPreCompiledIndex() {}
+
+  /** Write the index into the folder of the precompiled classes. */
+  public static void write(Map<String, String> classNamesByPath, File folder) {
+    StringBuilder index = new StringBuilder();
+    classNamesByPath.forEach(
+        (relativePath, className) ->
+            index.append(relativePath).append('=').append(className).append('\n'));
+    IO.write(index.toString().getBytes(UTF_8), new File(folder, RESOURCE));
+  }
+
+  /** @return class names by template relative path, read from all indexes in the classpath */
+  public static Map<String, String> read(ClassLoader classLoader) {
+    Map<String, String> classNamesByPath = new LinkedHashMap<>();
+    try {
+      Enumeration<URL> indexes = classLoader.getResources(RESOURCE);
+      while (indexes.hasMoreElements()) {
+        URL index = indexes.nextElement();
+        try (InputStream in = index.openStream()) {
+          for (String line : new String(in.readAllBytes(), UTF_8).split("\n")) {
+            // class names have no '=', while paths might
+            int separator = line.lastIndexOf('=');
+            if (separator > 0) {
+              classNamesByPath.putIfAbsent(
+                  line.substring(0, separator), line.substring(separator + 1).trim());
+            }
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw new GTException("Failed to read " + RESOURCE, e);
+    }
+    return classNamesByPath;
+  }
+}
@@ -1,9 +1,8 @@
 package play.template2;
 
-import static java.nio.charset.StandardCharsets.UTF_8;
-
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.io.StringWriter;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
@@ -29,6 +28,20 @@ public class GTRenderingResult {
     }
   }
 
+  /**
+   * Append the output part by part, without building a String of the whole output: e.g. to a
+   * {@link play.templates.TemplateOutput} encoding it directly into bytes.
+   */
+  public void writeOutput(Appendable out) {
+    try {
+      for (StringWriter s : allOuts) {
+        out.append(s.getBuffer());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
   /**
    * returns the rendering-output as string, but remember: when dumping output to an output stream,
    * it is better to use writeOutput()
@@ -36,8 +49,8 @@ public class GTRenderingResult {
    * @return the rendering-output as string
    */
   public String getAsString() {
-    ByteArrayOutputStream out = new ByteArrayOutputStream();
-    writeOutput(out, UTF_8);
-    return out.toString(UTF_8);
+    StringBuilder out = new StringBuilder();
+    writeOutput(out);
+    return out.toString();
   }
 }
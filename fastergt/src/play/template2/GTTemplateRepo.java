@@ -2,6 +2,9 @@ package play.template2;
 
 import java.io.File;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import org.jspecify.annotations.Nullable;
 import play.template2.compile.GTCompiler;
@@ -21,8 +24,14 @@ public class GTTemplateRepo {
   @Nullable private final File folderToDumpClassesIn;
 
   private final Map<String, TemplateInfo> loadedTemplates = new ConcurrentHashMap<>();
+  /** Templates being loaded or compiled, so that each one is compiled once */
+  private final Map<String, CompletableFuture<TemplateInfo>> loadingTemplates =
+      new ConcurrentHashMap<>();
   protected Map<String, TemplateInfo> classname2TemplateInfo = new ConcurrentHashMap<>();
 
+  /** Class loader of the templates precompiled at build time, once registered from their index */
+  @Nullable private volatile ClassLoader preCompiledClassLoader;
+
   public static class TemplateInfo {
     public final GTTemplateLocation templateLocation;
     public final long fileSize;
@@ -108,6 +117,62 @@ public class GTTemplateRepo {
     this.folderToDumpClassesIn = folderToDumpClassesIn;
   }
 
+  /**
+   * Register the templates listed in the {@link GTPreCompiledIndex} of the classpath, so that they
+   * are not looked up in the classpath on first use. Templates missing from the index (or all of
+   * them, without index) are still looked up by class name on first use.
+   *
+   * @return number of registered templates
+   */
+  public int registerPreCompiledTemplates(ClassLoader classLoader) {
+    if (!preCompiledMode) {
+      throw new GTException("Precompiled templates are only used in precompiled mode");
+    }
+    preCompiledClassLoader = classLoader;
+    Map<String, String> index = GTPreCompiledIndex.read(classLoader);
+    int registered = 0;
+    for (Map.Entry<String, String> entry : index.entrySet()) {
+      GTTemplateLocationReal templateLocation =
+          GTFileResolver.impl.getTemplateLocationFromRelativePath(entry.getKey());
+      if (templateLocation == null) {
+        // e.g. a template from a module which is not used
+        continue;
+      }
+      Class<? extends GTJavaBase> templateClass;
+      try {
+        templateClass =
+            Class.forName(entry.getValue(), false, classLoader).asSubclass(GTJavaBase.class);
+      } catch (ClassNotFoundException e) {
+        throw new GTException(
+            String.format(
+                "Class %s of precompiled template %s is missing",
+                entry.getValue(), entry.getKey()),
+            e);
+      }
+      addTemplate(
+          entry.getKey(),
+          new TemplateInfo(
+              templateLocation, new GTTemplateInstanceFactoryRegularClass(templateClass)));
+      registered++;
+    }
+    return registered;
+  }
+
+  /**
+   * @return class names of the templates loaded from files so far, by relative path, to write the
+   *     {@link GTPreCompiledIndex}
+   */
+  public Map<String, String> getTemplateClassNames() {
+    Map<String, String> classNamesByPath = new TreeMap<>();
+    loadedTemplates.forEach(
+        (relativePath, ti) -> {
+          if (ti.templateLocation instanceof GTTemplateLocationReal) {
+            classNamesByPath.put(relativePath, ti.getTemplateClass().getName());
+          }
+        });
+    return classNamesByPath;
+  }
+
   public boolean templateExists(GTTemplateLocation templateLocation) {
     if (templateLocation == null) return false;
     try {
@@ -142,58 +207,95 @@ public class GTTemplateRepo {
 
     // Is this a loaded template ?
     TemplateInfo ti = loadedTemplates.get(templateLocation.relativePath);
-    if (ti == null || checkForChanges) {
-      synchronized (loadedTemplates) {
-        ti = loadedTemplates.get(templateLocation.relativePath);
-
-        if (ti == null) {
-          // look for compiled class (precompiled class or class in cache.)
-          ti = lookForPreCompiledOrCached(templateLocation);
-        }
-
-        if (ti != null) {
-          // is it changed on disk?
-          if (ti.isModified()) {
-            // remove it
-            removeTemplate(templateLocation.relativePath);
-            ti = null;
-          }
+    if (ti == null || (checkForChanges && ti.isModified())) {
+      if (!doCompile) {
+        // only checking that it exists, e.g. while compiling a (possibly recursive) tag: no waiting
+        if (!loadingTemplates.containsKey(templateLocation.relativePath)
+            && !templateFileExists(templateLocation)) {
+          throw new GTTemplateNotFound(templateLocation.relativePath);
         }
+        return null;
+      }
+      ti = loadTemplate(templateLocation);
+    }
 
-        if (ti == null) {
-          // new or modified - must compile it
-
-          if (templateLocation instanceof GTTemplateLocationReal) {
-
-            try {
-              // test if it works
-              ((GTTemplateLocationReal) templateLocation).realFileURL.openStream().close();
-            } catch (Exception e) {
-              throw new GTTemplateNotFound(templateLocation.relativePath);
-            }
-          }
+    // already compile and unchanged - lets return the template instance
+    return ti.templateInstanceFactory.create(this);
+  }
 
-          if (!doCompile) {
-            // We know the compile exists - skip compiling.
-            return null;
-          }
+  /**
+   * Load or compile the template once: concurrent requests for the same template wait for the
+   * first one, while other templates are loaded in parallel.
+   */
+  private TemplateInfo loadTemplate(GTTemplateLocation templateLocation) {
+    String templatePath = templateLocation.relativePath;
+    CompletableFuture<TemplateInfo> loading = new CompletableFuture<>();
+    CompletableFuture<TemplateInfo> alreadyLoading =
+        loadingTemplates.putIfAbsent(templatePath, loading);
+    if (alreadyLoading != null) {
+      return await(alreadyLoading);
+    }
+    try {
+      TemplateInfo ti = loadedTemplates.get(templatePath);
+      if (ti != null && checkForChanges && ti.isModified()) {
+        removeTemplate(templatePath);
+        ti = null;
+      }
 
-          ti = compileTemplate(templateLocation);
+      if (ti == null) {
+        // look for compiled class (precompiled class or class in cache.)
+        ti = lookForPreCompiledOrCached(templateLocation);
+        // is it changed on disk?
+        if (ti != null && ti.isModified()) {
+          ti = null;
         }
+      }
 
-        if (ti != null) {
-          // store it
-          addTemplate(templateLocation.relativePath, ti);
+      if (ti == null) {
+        // new or modified - must compile it
+        if (!templateFileExists(templateLocation)) {
+          throw new GTTemplateNotFound(templateLocation.relativePath);
         }
+        ti = compileTemplate(templateLocation);
       }
+
+      // store it
+      addTemplate(templatePath, ti);
+      loading.complete(ti);
+      return ti;
+    } catch (RuntimeException | Error e) {
+      loading.completeExceptionally(e);
+      throw e;
+    } finally {
+      loadingTemplates.remove(templatePath, loading);
     }
+  }
 
-    if (ti == null) {
-      throw new GTTemplateNotFound(templateLocation.relativePath);
+  private static TemplateInfo await(CompletableFuture<TemplateInfo> loading) {
+    try {
+      return loading.join();
+    } catch (CompletionException e) {
+      // the exception of the thread which loaded the template, e.g. a compilation error
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw e;
     }
+  }
 
-    // already compile and unchanged - lets return the template instance
-    return ti.templateInstanceFactory.create(this);
+  private static boolean templateFileExists(GTTemplateLocation templateLocation) {
+    if (templateLocation instanceof GTTemplateLocationReal real) {
+      try {
+        // test if it works
+        real.realFileURL.openStream().close();
+      } catch (Exception e) {
+        return false;
+      }
+    }
+    return true;
   }
 
   // If running in precompiled mode, we look in parent classloader,
@@ -207,9 +309,13 @@ public class GTTemplateRepo {
     if (preCompiledMode) {
       // compiled template classes are loaded by framework as regular classes....
       // look for it
+      ClassLoader classLoader = preCompiledClassLoader;
       try {
         Class<? extends GTJavaBase> templateClass =
-            (Class<? extends GTJavaBase>) Class.forName(templateClassName);
+            (Class<? extends GTJavaBase>)
+                (classLoader == null
+                    ? Class.forName(templateClassName)
+                    : Class.forName(templateClassName, true, classLoader));
         // found it
         return new TemplateInfo(
             templateLocation, new GTTemplateInstanceFactoryRegularClass(templateClass));
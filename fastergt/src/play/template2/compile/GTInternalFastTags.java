@@ -1,6 +1,5 @@
 package play.template2.compile;
 
-import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Arrays.binarySearch;
 import static play.utils.HTML.htmlEscape;
 
@@ -15,7 +14,6 @@ import play.Play;
 import play.template2.GTContentRenderer;
 import play.template2.GTFastTag;
 import play.template2.GTJavaBase;
-import play.template2.GTRenderingResult;
 import play.template2.GTTagContext;
 import play.template2.GTTemplateLocationReal;
 import play.template2.exceptions.GTTemplateRuntimeException;
@@ -189,9 +187,7 @@ public class GTInternalFastTags extends GTFastTag {
       template.insertOutput(body.render());
     } else {
       // render body to string and store it with the name in as
-      ByteArrayOutputStream out = new ByteArrayOutputStream();
-      body.render().writeOutput(out, UTF_8);
-      body.setRuntimeProperty(as, out.toString(UTF_8));
+      body.setRuntimeProperty(as, body.render().getAsString());
     }
 
     // do we have anything to reset?
@@ -200,6 +196,12 @@ public class GTInternalFastTags extends GTFastTag {
     }
   }
 
+  // #{flush/}: send the page rendered so far to the browser, if it is streamed
+  public static void tag_flush(
+      GTJavaBase template, Map<String, Object> args, GTContentRenderer content) {
+    template.flushOutput();
+  }
+
   public static void tag_cache(
       GTJavaBase template, Map<String, Object> args, GTContentRenderer _content) {
     String key = args.get("arg").toString();
@@ -212,10 +214,7 @@ public class GTInternalFastTags extends GTFastTag {
       template.out.append(cached.toString());
       return;
     }
-    GTRenderingResult renderingResult = _content.render();
-    ByteArrayOutputStream out = new ByteArrayOutputStream();
-    renderingResult.writeOutput(out, UTF_8);
-    String result = new String(out.toByteArray(), UTF_8);
+    String result = _content.render().getAsString();
     template.cacheSet(key, result, duration);
     template.out.append(result);
   }
@@ -118,6 +118,20 @@ public class GTInternalTagsCompiler {
 
   public void tag_extends(
       String tagName, String contentMethodName, GTPreCompiler.SourceContext sc, int startLine) {
+    resolveLayout(sc, startLine);
+    sc.jprintln(" this.extendsTemplateLocation = templateLocation;");
+
+    // that's it..
+  }
+
+  // like extends, but renders the layout first and our body when the layout reaches #{doLayout}
+  public void tag_layout(
+      String tagName, String contentMethodName, GTPreCompiler.SourceContext sc, int startLine) {
+    resolveLayout(sc, startLine);
+    sc.jprintln(" this.renderLayoutFirst(templateLocation, () -> ", contentMethodName, "());");
+  }
+
+  private void resolveLayout(GTPreCompiler.SourceContext sc, int startLine) {
     // the template we extends is the single argument named 'args'
 
     String templateNameVar = "_tn_" + (sc.nextMethodIndex++);
@@ -135,22 +149,14 @@ public class GTInternalTagsCompiler {
         ", this.templateLocation, ",
         String.valueOf(startLine + 1),
         ");}");
-
-    sc.jprintln(" this.extendsTemplateLocation = templateLocation;");
-
-    // that's it..
   }
 
   // used when dumping the output from the template that extended this one
   public void tag_doLayout(
       String tagName, String contentMethodName, GTPreCompiler.SourceContext sc, int startLine) {
     // someone is extending us - and we are supposed to dump the output now..
-    sc.jprintln(
-        startLine,
-        " if( this.extendingTemplate == null) throw new play.template2.exceptions.GTRuntimeException(\"No template is currently extending this template\");"
-    );
     // inject all the output from the extending template into our output stream
-    sc.jprintln(" this.insertOutput(this.extendingTemplate);");
+    sc.jprintln(startLine, " this.doLayout();");
 
     // done..
   }
@@ -682,9 +682,9 @@ public class GTPreCompiler {
             + "();\n"
             + "if ("
             + varName
-            + "!=null) out.append( objectToString("
+            + "!=null) printObject("
             + varName
-            + "));\n";
+            + ");\n";
     return new GTFragmentCode(lineNo, javaCode);
   }
 
@@ -0,0 +1,52 @@
+package play.templates;
+
+import org.apache.commons.text.StringEscapeUtils;
+
+/**
+ * XML and CSV escaping which first checks whether the string needs escaping: most values in
+ * templates do not, and are then returned as is instead of being copied by {@link
+ * StringEscapeUtils}.
+ */
+public class Escapers {
+  private Escapers() {}
+
+  /** Same as {@link StringEscapeUtils#escapeXml11(String)} */
+  public static String escapeXml11(String str) {
+    return str == null || isXml11Clean(str) ? str : StringEscapeUtils.escapeXml11(str);
+  }
+
+  /** Same as {@link StringEscapeUtils#escapeCsv(String)} */
+  public static String escapeCsv(String str) {
+    return str == null || isCsvClean(str) ? str : StringEscapeUtils.escapeCsv(str);
+  }
+
+  private static boolean isXml11Clean(String str) {
+    for (int i = 0; i < str.length(); i++) {
+      char ch = str.charAt(i);
+      boolean clean =
+          ch >= 0x20 && ch < 0x7f
+              ? ch != '&' && ch != '<' && ch != '>' && ch != '"' && ch != '\''
+              : ch == '\t'
+                  || ch == '\n'
+                  || ch == '\r'
+                  || ch == 0x85
+                  || (ch >= 0xa0 && ch < Character.MIN_SURROGATE)
+                  || (ch > Character.MAX_SURROGATE && ch < 0xfffe);
+      if (!clean) {
+        // also for surrogate pairs, which are kept: let StringEscapeUtils check them
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isCsvClean(String str) {
+    for (int i = 0; i < str.length(); i++) {
+      char ch = str.charAt(i);
+      if (ch == ',' || ch == '"' || ch == '\r' || ch == '\n') {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -1,6 +1,6 @@
 package play.templates;
 
-import static org.apache.commons.text.StringEscapeUtils.escapeXml11;
+import static play.templates.Escapers.escapeXml11;
 import static play.utils.Utils.formatMemorySize;
 
 import groovy.lang.Closure;
@@ -3,85 +3,105 @@ package play.templates;
 import static org.apache.commons.lang3.StringUtils.isEmpty;
 
 import java.io.IOException;
-import java.io.StringWriter;
-import java.io.Writer;
 
 public class JavaScriptEscaper {
+  /** @return the escaped string, or the string itself if it has nothing to escape */
   public static String escape(String str) {
     if (isEmpty(str)) {
       return str;
     }
+    int first = indexOfEscaped(str);
+    if (first < 0) {
+      return str;
+    }
     try {
-      StringWriter writer = new StringWriter(str.length() * 2);
-      escapeJavaStyleString(writer, str);
-      return writer.toString();
+      StringBuilder escaped = new StringBuilder(str.length() + 16);
+      escaped.append(str, 0, first);
+      escapeJavaStyleString(escaped, str, first);
+      return escaped.toString();
     } catch (IOException ioe) {
       throw new RuntimeException(ioe);
     }
   }
 
-  private static void escapeJavaStyleString(Writer out, String str) throws IOException {
-    if (out == null) {
-      throw new IllegalArgumentException("The Writer must not be null");
-    }
-    if (str == null) {
-      return;
+  /** Escape a string directly into the output, e.g. a template output buffer. */
+  public static void escape(CharSequence str, Appendable out) throws IOException {
+    int first = indexOfEscaped(str);
+    if (first < 0) {
+      out.append(str);
+    } else {
+      out.append(str, 0, first);
+      escapeJavaStyleString(out, str, first);
     }
+  }
+
+  private static int indexOfEscaped(CharSequence str) {
     for (int i = 0; i < str.length(); i++) {
       char ch = str.charAt(i);
+      if (ch <= 0x7f && (ch < 32 || ch == '\'' || ch == '"' || ch == '\\' || ch == '/')) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static void escapeJavaStyleString(Appendable out, CharSequence str, int from)
+      throws IOException {
+    for (int i = from; i < str.length(); i++) {
+      char ch = str.charAt(i);
 
       if (ch > 0x7f) {
-        out.write(ch);
+        out.append(ch);
       } else if (ch < 32) {
         switch (ch) {
           case '\b':
-            out.write('\\');
-            out.write('b');
+            out.append('\\');
+            out.append('b');
             break;
           case '\n':
-            out.write('\\');
-            out.write('n');
+            out.append('\\');
+            out.append('n');
             break;
           case '\t':
-            out.write('\\');
-            out.write('t');
+            out.append('\\');
+            out.append('t');
             break;
           case '\f':
-            out.write('\\');
-            out.write('f');
+            out.append('\\');
+            out.append('f');
             break;
           case '\r':
-            out.write('\\');
-            out.write('r');
+            out.append('\\');
+            out.append('r');
             break;
           default:
             if (ch > 0xf) {
-              out.write("\\u00" + hex(ch));
+              out.append("\\u00" + hex(ch));
             } else {
-              out.write("\\u000" + hex(ch));
+              out.append("\\u000" + hex(ch));
             }
             break;
         }
       } else {
         switch (ch) {
           case '\'':
-            out.write('\\');
-            out.write('\'');
+            out.append('\\');
+            out.append('\'');
             break;
           case '"':
-            out.write('\\');
-            out.write('"');
+            out.append('\\');
+            out.append('"');
             break;
           case '\\':
-            out.write('\\');
-            out.write('\\');
+            out.append('\\');
+            out.append('\\');
             break;
           case '/':
-            out.write('\\');
-            out.write('/');
+            out.append('\\');
+            out.append('/');
             break;
           default:
-            out.write(ch);
+            out.append(ch);
             break;
         }
       }
@@ -1,6 +1,6 @@
 package play.templates.types;
 
-import static org.apache.commons.text.StringEscapeUtils.escapeCsv;
+import static play.templates.Escapers.escapeCsv;
 
 import play.templates.SafeFormatter;
 import play.templates.Template;
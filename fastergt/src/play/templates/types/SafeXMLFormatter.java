@@ -1,6 +1,6 @@
 package play.templates.types;
 
-import static org.apache.commons.text.StringEscapeUtils.escapeXml11;
+import static play.templates.Escapers.escapeXml11;
 
 import play.templates.SafeFormatter;
 import play.templates.Template;
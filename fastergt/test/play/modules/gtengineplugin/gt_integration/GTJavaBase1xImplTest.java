@@ -56,4 +56,16 @@ public class GTJavaBase1xImplTest {
             template.objectToString(new RawData("this is a way <script>alert('to hell')</script>")))
         .isEqualTo("this is a way <script>alert('to hell')</script>");
   }
+
+  @Test
+  public void printsValuesEscapedIntoOutput() {
+    GTJavaBase template = new TestTemplate("/app/views/home.html");
+    template.out.append("<p>");
+
+    template.printObject("Tom & Jerry");
+    template.printObject(new RawData("<br/>"));
+    template.printObject(42);
+
+    assertThat(template.out.toString()).isEqualTo("<p>Tom &amp; Jerry<br/>42");
+  }
 }
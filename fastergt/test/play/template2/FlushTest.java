@@ -0,0 +1,106 @@
+package play.template2;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class FlushTest {
+  private final GTTemplateRepo tr =
+      new GTTemplateRepoBuilder().withTemplateRootFolder(new TemplateRootFolder()).build();
+  private final List<String> flushed = new ArrayList<>();
+
+  @Test
+  public void flushPassesOutputRenderedSoFar() {
+    GTJavaBase t =
+        tr.getTemplateInstance(
+            new GTTemplateLocationWithEmbeddedSource("<head/>#{flush/}<body/>#{flush/}end"));
+
+    t.renderTemplate(new HashMap<>(), output -> flushed.add(output.getAsString()));
+
+    assertThat(flushed).containsExactly("<head/>", "<body/>");
+    assertThat(t.getAsString()).isEqualTo("end");
+  }
+
+  @Test
+  public void layoutIsFlushedButNotTheTemplateExtendingIt() {
+    GTJavaBase t =
+        tr.getTemplateInstance(new GTTemplateLocation("templateUsingStreamedLayout.txt"));
+
+    t.renderTemplate(new HashMap<>(), output -> flushed.add(output.getAsString()));
+
+    assertThat(flushed).containsExactly("head");
+    assertThat(t.getAsString()).isEqualTo("bodyend");
+  }
+
+  @Test
+  public void layoutHeadIsFlushedBeforeTheBodyOfLayoutRenders() {
+    List<String> flushedBeforeSlowPart = new ArrayList<>();
+    Object slow =
+        new Object() {
+          @Override
+          public String toString() {
+            flushedBeforeSlowPart.addAll(flushed);
+            return "slow";
+          }
+        };
+    GTJavaBase t =
+        tr.getTemplateInstance(new GTTemplateLocation("templateUsingStreamedLayoutFirst.txt"));
+
+    t.renderTemplate(
+        new HashMap<>(Map.of("slow", slow)), output -> flushed.add(output.getAsString()));
+
+    assertThat(flushedBeforeSlowPart).containsExactly("<head><title>Hi</title></head>");
+    assertThat(flushed).containsExactly("<head><title>Hi</title></head>", "<body>slow");
+    assertThat(t.getAsString()).isEqualTo("more</html>");
+  }
+
+  @Test
+  public void layoutRendersItsBodyWhenNotStreamed() {
+    GTJavaBase t =
+        tr.getTemplateInstance(new GTTemplateLocation("templateUsingStreamedLayoutFirst.txt"));
+
+    t.renderTemplate(new HashMap<>(Map.of("slow", "slow")));
+
+    assertThat(t.getAsString())
+        .isEqualTo("<head><title>Hi</title></head><body>slowmore</html>");
+  }
+
+  @Test
+  public void flushInListAndIf() {
+    GTJavaBase t =
+        tr.getTemplateInstance(
+            new GTTemplateLocationWithEmbeddedSource(
+                "#{list items:[1, 2], as:'i'}${i}#{if i == 2}#{flush/}#{/if}#{/list}end"));
+
+    t.renderTemplate(new HashMap<>(), output -> flushed.add(output.getAsString()));
+
+    assertThat(flushed).containsExactly("12");
+    assertThat(t.getAsString()).isEqualTo("end");
+  }
+
+  @Test
+  public void flushInTagIsIgnored() {
+    GTJavaBase t =
+        tr.getTemplateInstance(
+            new GTTemplateLocationWithEmbeddedSource("#{printBody}a#{flush/}b#{/printBody}"));
+
+    t.renderTemplate(new HashMap<>(), output -> flushed.add(output.getAsString()));
+
+    assertThat(flushed).isEmpty();
+    assertThat(t.getAsString()).isEqualTo("[from tag. body: ab]");
+  }
+
+  @Test
+  public void flushIsIgnoredWithoutFlushHandler() {
+    GTJavaBase t =
+        tr.getTemplateInstance(new GTTemplateLocationWithEmbeddedSource("a#{flush/}b"));
+
+    t.renderTemplate(new HashMap<>());
+
+    assertThat(t.getAsString()).isEqualTo("ab");
+  }
+}
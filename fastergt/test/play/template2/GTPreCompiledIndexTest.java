@@ -0,0 +1,78 @@
+package play.template2;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import play.template2.GTTemplateRepoBuilder.GTPreCompilerFactoryImpl;
+
+public class GTPreCompiledIndexTest {
+  @TempDir File classes;
+
+  @Test
+  public void indexIsReadFromClasspath() throws Exception {
+    GTPreCompiledIndex.write(Map.of("app/views/a=b.html", "GTTemplate_a"), classes);
+
+    try (URLClassLoader classLoader = classLoader()) {
+      assertThat(GTPreCompiledIndex.read(classLoader))
+          .containsExactly(Map.entry("app/views/a=b.html", "GTTemplate_a"));
+    }
+  }
+
+  @Test
+  public void precompiledTemplatesAreRegisteredWithoutCompiling() throws Exception {
+    new GTTemplateRepoBuilder().withTemplateRootFolder(new TemplateRootFolder()).build();
+    GTTemplateRepo compiler =
+        new GTTemplateRepo(false, new GTPreCompilerFactoryImpl(), false, classes);
+    for (String template : new String[] {"templateUsingStreamedLayout.txt", "streamedLayout.txt"}) {
+      compiler.getTemplateInstance(GTFileResolver.impl.getTemplateLocationReal(template));
+    }
+    GTPreCompiledIndex.write(compiler.getTemplateClassNames(), classes);
+
+    try (URLClassLoader classLoader = classLoader()) {
+      GTTemplateRepo repo = new GTTemplateRepo(false, new GTPreCompilerFactoryImpl(), true, null);
+      assertThat(repo.registerPreCompiledTemplates(classLoader)).isEqualTo(2);
+
+      GTJavaBase t =
+          repo.getTemplateInstance(
+              GTFileResolver.impl.getTemplateLocationReal("templateUsingStreamedLayout.txt"));
+      assertThat(t.getClass().getClassLoader()).isSameAs(classLoader);
+      t.renderTemplate(new HashMap<>());
+      assertThat(t.getAsString()).isEqualTo("headbodyend");
+    }
+  }
+
+  @Test
+  public void precompiledTemplatesMissingFromIndexAreLookedUpByClassName() throws Exception {
+    new GTTemplateRepoBuilder().withTemplateRootFolder(new TemplateRootFolder()).build();
+    GTTemplateRepo compiler =
+        new GTTemplateRepo(false, new GTPreCompilerFactoryImpl(), false, classes);
+    for (String template : new String[] {"templateUsingStreamedLayout.txt", "streamedLayout.txt"}) {
+      compiler.getTemplateInstance(GTFileResolver.impl.getTemplateLocationReal(template));
+    }
+    Map<String, String> index = new HashMap<>(compiler.getTemplateClassNames());
+    index.keySet().removeIf(path -> path.endsWith("templateUsingStreamedLayout.txt"));
+    GTPreCompiledIndex.write(index, classes);
+
+    try (URLClassLoader classLoader = classLoader()) {
+      GTTemplateRepo repo = new GTTemplateRepo(false, new GTPreCompilerFactoryImpl(), true, null);
+      assertThat(repo.registerPreCompiledTemplates(classLoader)).isEqualTo(1);
+
+      GTJavaBase t =
+          repo.getTemplateInstance(
+              GTFileResolver.impl.getTemplateLocationReal("templateUsingStreamedLayout.txt"));
+      assertThat(t.getClass().getClassLoader()).isSameAs(classLoader);
+      t.renderTemplate(new HashMap<>());
+      assertThat(t.getAsString()).isEqualTo("headbodyend");
+    }
+  }
+
+  private URLClassLoader classLoader() throws Exception {
+    return new URLClassLoader(new URL[] {classes.toURI().toURL()}, getClass().getClassLoader());
+  }
+}
@@ -0,0 +1,89 @@
+package play.template2;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class GTTemplateRepoTest {
+  private final GTTemplateRepo tr = new GTTemplateRepoBuilder().build();
+  private final ExecutorService threads = Executors.newFixedThreadPool(8);
+  private final CountDownLatch reading = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+  private final AtomicInteger reads = new AtomicInteger();
+
+  @AfterEach
+  public void tearDown() {
+    threads.shutdownNow();
+  }
+
+  @Test
+  public void concurrentRequestsForTemplateWaitForOneCompilation() throws Exception {
+    GTTemplateLocation page = new SlowTemplate("page", "Hello ${name}");
+    CountDownLatch requested = new CountDownLatch(8);
+
+    List<Future<GTJavaBase>> instances = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      instances.add(
+          threads.submit(
+              () -> {
+                requested.countDown();
+                return tr.getTemplateInstance(page);
+              }));
+    }
+    reading.await(5, SECONDS);
+    requested.await(5, SECONDS);
+    release.countDown();
+
+    Class<?> templateClass = instances.get(0).get(5, SECONDS).getClass();
+    for (Future<GTJavaBase> instance : instances) {
+      assertThat(instance.get(5, SECONDS)).isExactlyInstanceOf(templateClass);
+    }
+    assertThat(reads).hasValue(1);
+  }
+
+  @Test
+  public void otherTemplatesCompileWhileOneIsCompiling() throws Exception {
+    Future<GTJavaBase> slow =
+        threads.submit(() -> tr.getTemplateInstance(new SlowTemplate("slow", "slow")));
+    reading.await(5, SECONDS);
+
+    GTJavaBase fast =
+        threads
+            .submit(() -> tr.getTemplateInstance(new GTTemplateLocationWithEmbeddedSource("fast")))
+            .get(5, SECONDS);
+    fast.renderTemplate(new HashMap<>());
+    assertThat(fast.getAsString()).isEqualTo("fast");
+    assertThat(slow).isNotDone();
+
+    release.countDown();
+    assertThat(slow.get(5, SECONDS)).isNotNull();
+  }
+
+  private class SlowTemplate extends GTTemplateLocationWithEmbeddedSource {
+    private SlowTemplate(String relativePath, String source) {
+      super(relativePath, source);
+    }
+
+    @Override
+    public String readSource() {
+      reads.incrementAndGet();
+      reading.countDown();
+      try {
+        release.await(5, SECONDS);
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+      return super.readSource();
+    }
+  }
+}
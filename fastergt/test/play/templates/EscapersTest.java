@@ -0,0 +1,53 @@
+package play.templates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.commons.text.StringEscapeUtils;
+import org.junit.jupiter.api.Test;
+
+public class EscapersTest {
+  private static final String[] VALUES = {
+    "",
+    "Plain text 123",
+    "Tom & Jerry's <b>\"cartoon\"</b>",
+    "Привет, мир",
+    "tab\tand\nnew line\r",
+    "control \u0001\u000b\u007f\u0085\u0090 chars",
+    "removed \u0000\ufffe\uffff chars",
+    "emoji 😀 and unpaired \ud83d surrogate",
+    "a,b;c"
+  };
+
+  @Test
+  public void escapeXml11() {
+    for (String value : VALUES) {
+      assertThat(Escapers.escapeXml11(value))
+          .as(value)
+          .isEqualTo(StringEscapeUtils.escapeXml11(value));
+    }
+    String clean = "Привет 123";
+    assertThat(Escapers.escapeXml11(clean)).isSameAs(clean);
+    assertThat(Escapers.escapeXml11(null)).isNull();
+  }
+
+  @Test
+  public void escapeCsv() {
+    for (String value : VALUES) {
+      assertThat(Escapers.escapeCsv(value)).as(value).isEqualTo(StringEscapeUtils.escapeCsv(value));
+    }
+    String clean = "Привет; 123";
+    assertThat(Escapers.escapeCsv(clean)).isSameAs(clean);
+  }
+
+  @Test
+  public void escapeJavaScript() throws Exception {
+    assertThat(JavaScriptEscaper.escape("it's </script>\n"))
+        .isEqualTo("it\\'s <\\/script>\\n");
+    String clean = "Привет 123";
+    assertThat(JavaScriptEscaper.escape(clean)).isSameAs(clean);
+
+    StringBuilder out = new StringBuilder("var s = '");
+    JavaScriptEscaper.escape("it's", out);
+    assertThat(out).hasToString("var s = 'it\\'s");
+  }
+}
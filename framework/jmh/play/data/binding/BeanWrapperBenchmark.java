@@ -0,0 +1,224 @@
+package play.data.binding;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Setting all properties of a 50-field entity (25 public fields, 25 setters) via {@link
+ * BeanWrapper}, with generated accessors and with reflection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BeanWrapperBenchmark {
+
+  @Param({"generated", "reflection"})
+  public String accessors;
+
+  private BeanWrapper wrapper;
+  private final List<String> names = new ArrayList<>();
+  private final List<Object> values = new ArrayList<>();
+
+  @Setup
+  public void setUp() {
+    wrapper = new BeanWrapper(Entity.class, "generated".equals(accessors));
+    for (BeanWrapper.Property property : wrapper.getWrappers()) {
+      names.add(property.getName());
+      values.add(sampleValue(property.getType()));
+    }
+  }
+
+  @Benchmark
+  public Entity setAllProperties() {
+    Entity entity = new Entity();
+    for (int i = 0; i < names.size(); i++) {
+      wrapper.set(names.get(i), entity, values.get(i));
+    }
+    return entity;
+  }
+
+  @Benchmark
+  public Entity setAllPropertiesInBindingOrder() {
+    Entity entity = new Entity();
+    int i = 0;
+    for (BeanWrapper.Property property : wrapper.getWrappers()) {
+      property.setValue(entity, values.get(i++));
+    }
+    return entity;
+  }
+
+  private static Object sampleValue(Class<?> type) {
+    if (type == int.class || type == Integer.class) return 42;
+    if (type == long.class) return 42L;
+    if (type == boolean.class) return true;
+    return "value";
+  }
+
+  public static class Entity {
+    public String field00;
+    public String field01;
+    public String field02;
+    public String field03;
+    public String field04;
+    public String field05;
+    public String field06;
+    public String field07;
+    public String field08;
+    public String field09;
+    public String field10;
+    public String field11;
+    public String field12;
+    public String field13;
+    public String field14;
+    public String field15;
+    public String field16;
+    public String field17;
+    public String field18;
+    public String field19;
+    public String field20;
+    public String field21;
+    public String field22;
+    public String field23;
+    public String field24;
+    private String property00;
+    private int property01;
+    private long property02;
+    private Integer property03;
+    private boolean property04;
+    private String property05;
+    private int property06;
+    private long property07;
+    private Integer property08;
+    private boolean property09;
+    private String property10;
+    private int property11;
+    private long property12;
+    private Integer property13;
+    private boolean property14;
+    private String property15;
+    private int property16;
+    private long property17;
+    private Integer property18;
+    private boolean property19;
+    private String property20;
+    private int property21;
+    private long property22;
+    private Integer property23;
+    private boolean property24;
+
+    public void setProperty00(String value) {
+      this.property00 = value;
+    }
+
+    public void setProperty01(int value) {
+      this.property01 = value;
+    }
+
+    public void setProperty02(long value) {
+      this.property02 = value;
+    }
+
+    public void setProperty03(Integer value) {
+      this.property03 = value;
+    }
+
+    public void setProperty04(boolean value) {
+      this.property04 = value;
+    }
+
+    public void setProperty05(String value) {
+      this.property05 = value;
+    }
+
+    public void setProperty06(int value) {
+      this.property06 = value;
+    }
+
+    public void setProperty07(long value) {
+      this.property07 = value;
+    }
+
+    public void setProperty08(Integer value) {
+      this.property08 = value;
+    }
+
+    public void setProperty09(boolean value) {
+      this.property09 = value;
+    }
+
+    public void setProperty10(String value) {
+      this.property10 = value;
+    }
+
+    public void setProperty11(int value) {
+      this.property11 = value;
+    }
+
+    public void setProperty12(long value) {
+      this.property12 = value;
+    }
+
+    public void setProperty13(Integer value) {
+      this.property13 = value;
+    }
+
+    public void setProperty14(boolean value) {
+      this.property14 = value;
+    }
+
+    public void setProperty15(String value) {
+      this.property15 = value;
+    }
+
+    public void setProperty16(int value) {
+      this.property16 = value;
+    }
+
+    public void setProperty17(long value) {
+      this.property17 = value;
+    }
+
+    public void setProperty18(Integer value) {
+      this.property18 = value;
+    }
+
+    public void setProperty19(boolean value) {
+      this.property19 = value;
+    }
+
+    public void setProperty20(String value) {
+      this.property20 = value;
+    }
+
+    public void setProperty21(int value) {
+      this.property21 = value;
+    }
+
+    public void setProperty22(long value) {
+      this.property22 = value;
+    }
+
+    public void setProperty23(Integer value) {
+      this.property23 = value;
+    }
+
+    public void setProperty24(boolean value) {
+      this.property24 = value;
+    }
+  }
+}
@@ -0,0 +1,107 @@
+package play.data.validation;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.sf.oval.ConstraintViolation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Validating the parameter of an action, a form with nested {@link Valid} beans, as {@link
+ * ValidationPlugin} does for a request: with new validators for each request and with the shared
+ * ones.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ValidationBenchmark {
+
+  @Param({"perRequest", "shared"})
+  public String validator;
+
+  private Method action;
+  private final Object[] args = {sampleForm()};
+
+  @Setup
+  public void setUp() throws NoSuchMethodException {
+    action = ValidationBenchmark.class.getMethod("save", Form.class);
+    ValidationPlugin.keys.set(new HashMap<>());
+    Validation.current.set(new Validation());
+  }
+
+  @TearDown
+  public void tearDown() {
+    ValidationPlugin.keys.remove();
+    Validation.current.remove();
+  }
+
+  @Benchmark
+  public List<ConstraintViolation> validateAction() {
+    if ("perRequest".equals(validator)) {
+      // What happened before validators were shared: constraints are introspected again
+      ValidationPlugin.resetValidators();
+    }
+    List<ConstraintViolation> violations =
+        ValidationPlugin.validator().validateParameters(action, args);
+    ValidationPlugin.keys.get().clear();
+    return violations;
+  }
+
+  public static void save(@Valid Form form) {}
+
+  private static Form sampleForm() {
+    Form form = new Form();
+    form.name = "John Smith";
+    form.email = "john@example.com";
+    form.age = 42;
+    form.billing = sampleAddress();
+    form.shipping = sampleAddress();
+    return form;
+  }
+
+  private static Address sampleAddress() {
+    Address address = new Address();
+    address.street = "Main street 1";
+    address.city = "Tallinn";
+    address.zip = "10111";
+    address.country = new Country();
+    address.country.code = "EE";
+    address.country.name = "Estonia";
+    return address;
+  }
+
+  public static class Form {
+    @Required @MaxSize(100) public String name;
+    @Required @Email public String email;
+    @Min(18) @Max(150) public int age;
+    @Valid public Address billing;
+    @Valid public Address shipping;
+  }
+
+  public static class Address {
+    @Required @MaxSize(200) public String street;
+    @Required @MaxSize(100) public String city;
+    @Required @Match("[0-9]{5}") public String zip;
+    @Valid public Country country;
+  }
+
+  public static class Country {
+    @Required @MinSize(2) @MaxSize(2) public String code;
+    @Required public String name;
+  }
+}
@@ -8,6 +8,7 @@ import java.util.concurrent.ThreadPoolExecutor.AbortPolicy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import play.utils.PThreadFactory;
+import play.utils.VirtualThreadScheduledExecutor;
 
 /** Run some code in a Play! context */
 public class Invoker {
@@ -18,10 +19,16 @@ public class Invoker {
 
   static {
     String configuredPoolSize = Play.configuration.getProperty("play.pool");
-    int poolSize = configuredPoolSize != null ? parseInt(configuredPoolSize) : defaultPoolSize();
-    log.info("Replay thread pool size: {}, mode: {}", poolSize, Play.mode);
-    executor =
-        new ScheduledThreadPoolExecutor(poolSize, new PThreadFactory("play"), new AbortPolicy());
+    if ("virtual".equals(configuredPoolSize)) {
+      int concurrency = parseInt(Play.configuration.getProperty("play.pool.concurrency", "200"));
+      log.info("Replay virtual threads concurrency: {}, mode: {}", concurrency, Play.mode);
+      executor = new VirtualThreadScheduledExecutor("play", concurrency);
+    } else {
+      int poolSize = configuredPoolSize != null ? parseInt(configuredPoolSize) : defaultPoolSize();
+      log.info("Replay thread pool size: {}, mode: {}", poolSize, Play.mode);
+      executor =
+          new ScheduledThreadPoolExecutor(poolSize, new PThreadFactory("play"), new AbortPolicy());
+    }
   }
 
   private static int defaultPoolSize() {
@@ -97,6 +97,7 @@ public class Play {
 
   private final ConfLoader confLoader;
 
+  private final SessionStore sessionStore;
   private final ActionInvoker actionInvoker;
 
   public Play() {
@@ -110,6 +111,7 @@ public class Play {
   public Play(ConfLoader confLoader, BeanSource beanSource, SessionStore sessionStore) {
     Play.beanSource = beanSource;
     this.confLoader = confLoader;
+    this.sessionStore = sessionStore;
     this.actionInvoker = new ActionInvoker(sessionStore);
   }
 
@@ -317,6 +319,7 @@ public class Play {
       logger.info("Stopping the play application");
       pluginCollection.onApplicationStop();
       started = false;
+      sessionStore.stop();
       Cache.stop();
       Router.lastLoading = 0L;
     } else {
@@ -4,15 +4,26 @@ import java.io.NotSerializableException;
 import java.io.Serializable;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import com.google.errorprone.annotations.CheckReturnValue;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import play.Play;
 import play.exceptions.CacheException;
 import play.exceptions.ConfigurationException;
 import play.libs.Time;
 
+import static java.util.Arrays.asList;
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -35,6 +46,22 @@ public abstract class Cache {
   @Nullable
   static CacheImpl cacheImpl;
 
+  private static final SingleFlight singleFlight = new SingleFlight(System::currentTimeMillis);
+
+  private static final Executor refreshExecutor =
+      new ThreadPoolExecutor(
+          0,
+          8,
+          1,
+          TimeUnit.MINUTES,
+          new SynchronousQueue<>(),
+          runnable -> {
+            Thread thread = new Thread(runnable, "cache-refresh");
+            thread.setDaemon(true);
+            return thread;
+          },
+          new ThreadPoolExecutor.CallerRunsPolicy());
+
   /**
    * Set an element.
    *
@@ -68,6 +95,180 @@ public abstract class Cache {
     cacheImpl().delete(key);
   }
 
+  /**
+   * Retrieve several objects at once, in one round trip if supported by the cache implementation.
+   *
+   * @param keys The element keys
+   * @return The values found, by key
+   */
+  public static Map<String, Object> getMulti(Collection<String> keys) {
+    return cacheImpl().getMulti(keys);
+  }
+
+  /** @see #getMulti(Collection) */
+  public static Map<String, Object> getMulti(String... keys) {
+    return getMulti(asList(keys));
+  }
+
+  /**
+   * Set several elements with the same expiration.
+   *
+   * @param values     Element values by key
+   * @param expiration Ex: 10s, 3mn, 8h
+   */
+  public static void setMulti(Map<String, ?> values, String expiration) {
+    values.values().forEach(Cache::checkSerializable);
+    cacheImpl().setMulti(values, Time.parseDuration(expiration));
+  }
+
+  /**
+   * Retrieve an object without waiting for it.
+   *
+   * @param key The element key
+   * @return A future of the element value or null
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> CompletableFuture<@Nullable T> getAsync(String key) {
+    return (CompletableFuture<@Nullable T>) (CompletableFuture<?>) cacheImpl().getAsync(key);
+  }
+
+  /** @see #getMulti(Collection) */
+  public static CompletableFuture<Map<String, Object>> getMultiAsync(Collection<String> keys) {
+    return cacheImpl().getMultiAsync(keys);
+  }
+
+  /**
+   * Set an element without waiting for it to be stored.
+   *
+   * @return A future completed with true once the value is stored
+   */
+  @CanIgnoreReturnValue
+  public static CompletableFuture<Boolean> setAsync(
+      String key, @Nullable Object value, String expiration) {
+    checkSerializable(value);
+    return cacheImpl().setAsync(key, value, Time.parseDuration(expiration));
+  }
+
+  /**
+   * Set an element only if it is not in the cache.
+   *
+   * @return true if the value was stored
+   */
+  @CanIgnoreReturnValue
+  public static boolean add(String key, Object value, String expiration) {
+    checkSerializable(value);
+    return cacheImpl().add(key, value, Time.parseDuration(expiration));
+  }
+
+  /**
+   * Set an element only if it is in the cache.
+   *
+   * @return true if the value was stored
+   */
+  @CanIgnoreReturnValue
+  public static boolean replace(String key, Object value, String expiration) {
+    checkSerializable(value);
+    return cacheImpl().replace(key, value, Time.parseDuration(expiration));
+  }
+
+  /**
+   * Set an element only if its cached value equals the expected one.
+   *
+   * @param expected The current value, or null if the element must not be in the cache
+   * @return true if the value was stored
+   * @see CacheImpl#compareAndSet(String, Object, Object, int)
+   */
+  public static boolean compareAndSet(
+      String key, @Nullable Object expected, Object value, String expiration) {
+    checkSerializable(value);
+    return cacheImpl().compareAndSet(key, expected, value, Time.parseDuration(expiration));
+  }
+
+  /**
+   * Atomically increment a counter. Read it with <code>incr(key, 0, ...)</code>: {@link
+   * #get(String)} returns a String or a Long depending on the cache implementation.
+   *
+   * @param initial The value to store (and return) if the counter is not in the cache
+   * @return The new value of the counter
+   */
+  @CanIgnoreReturnValue
+  public static long incr(String key, long by, long initial, String expiration) {
+    return cacheImpl().incr(key, by, initial, Time.parseDuration(expiration));
+  }
+
+  /**
+   * Atomically decrement a counter, which never goes below 0.
+   *
+   * @param initial The value to store (and return) if the counter is not in the cache
+   * @return The new value of the counter
+   */
+  @CanIgnoreReturnValue
+  public static long decr(String key, long by, long initial, String expiration) {
+    return cacheImpl().decr(key, by, initial, Time.parseDuration(expiration));
+  }
+
+  /**
+   * Get a value, computing and caching it if it is missing. Threads missing the same key at the
+   * same time wait for the value computed by the first one, instead of all computing it.
+   *
+   * <p>The computation must not get the same key with <code>getOrCompute</code>: it would wait for
+   * itself, so it fails with an {@link IllegalStateException}.
+   *
+   * @param key The element key
+   * @param expiration Ex: 10s, 3mn, 8h
+   * @param compute Computes the value, not cached if null
+   * @return The cached or computed value
+   */
+  @Nullable
+  public static <T> T getOrCompute(
+      String key, String expiration, Supplier<? extends @Nullable T> compute) {
+    return getOrCompute(key, expiration, "0s", compute);
+  }
+
+  /**
+   * Get a value, computing and caching it if it is missing. Once the value is older than the
+   * expiration, it is still returned during <code>staleWhileRevalidate</code> while it is
+   * recomputed in the background.
+   *
+   * <p>Values cached this way must be read with this method, not with {@link #get(String)}.
+   *
+   * @param key The element key
+   * @param expiration Ex: 10s, 3mn, 8h
+   * @param staleWhileRevalidate Ex: 1mn, or 0s to wait for the value to be computed
+   * @param compute Computes the value, not cached if null
+   * @return The cached or computed value
+   */
+  @Nullable
+  public static <T> T getOrCompute(
+      String key,
+      String expiration,
+      String staleWhileRevalidate,
+      Supplier<? extends @Nullable T> compute) {
+    return getOrCompute(key, expiration, staleWhileRevalidate, compute, refreshExecutor);
+  }
+
+  /**
+   * Same as {@link #getOrCompute(String, String, String, Supplier)}, with stale values refreshed
+   * by the given executor. With <code>Runnable::run</code>, the thread finding the value stale
+   * recomputes it while the others get the stale value: for computations which need the context
+   * of the calling thread, like <code>@CacheFor</code> actions.
+   */
+  @Nullable
+  public static <T> T getOrCompute(
+      String key,
+      String expiration,
+      String staleWhileRevalidate,
+      Supplier<? extends @Nullable T> compute,
+      Executor refreshExecutor) {
+    return singleFlight.getOrCompute(
+        cacheImpl(),
+        key,
+        Time.parseDuration(expiration),
+        Time.parseDuration(staleWhileRevalidate),
+        compute,
+        refreshExecutor);
+  }
+
   /** Clear all data from cache. */
   public static void clear() {
     if (cacheImpl != null) {
@@ -102,6 +303,9 @@ public abstract class Cache {
         // Since it implements the `CacheImpl` interface, it should have a static `instance` method.
         Method method = cacheImplClass.getDeclaredMethod("instance");
         cacheImpl = (CacheImpl) method.invoke(null);
+        if (cacheImplClass == memcacheImplClass) {
+          cacheImpl = NearCacheImpl.wrap(cacheImpl, Play.configuration);
+        }
       } catch (NoSuchMethodException | InvocationTargetException | IllegalAccessException e) {
         logger.error("Error while instantiating cache", e);
         throw new ConfigurationException("Failed to start the caching system", e);
@@ -124,7 +328,7 @@ public abstract class Cache {
   }
 
   /** Utility that check that an object is serializable. */
-  private static void checkSerializable(@Nullable Object value) {
+  static void checkSerializable(@Nullable Object value) {
     if (value != null && !(value instanceof Serializable)) {
       throw new CacheException(
           "Cannot cache a non-serializable value of type " + value.getClass().getName(),
@@ -132,7 +336,8 @@ public abstract class Cache {
     }
   }
 
-  private static CacheImpl cacheImpl() {
+  /** @return the cache implementation in use, once the cache is initialized */
+  public static CacheImpl cacheImpl() {
     return requireNonNull(cacheImpl, "Cache is not initialized");
   }
 }
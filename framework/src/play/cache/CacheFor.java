@@ -11,6 +11,11 @@ import java.lang.annotation.Target;
  * <p>If a time is not specified, the results will be cached for 1 hour by default.
  *
  * <p>Example: <code>@CacheFor("1h")</code>
+ *
+ * <p>Concurrent requests missing the cache wait for the result of the first one instead of all
+ * invoking the action. With <code>@CacheFor(value = "1h", staleWhileRevalidate = "10mn")</code>,
+ * the first request after one hour invokes the action again, while the others get the previous
+ * result during at most 10 minutes.
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
@@ -18,4 +23,17 @@ public @interface CacheFor {
   String value() default "1h";
 
   String id() default "";
+
+  String staleWhileRevalidate() default "0s";
+
+  /**
+   * Cache the rendered response (status, headers and body) instead of the result of the action.
+   * Cached responses are served without rendering their template again, with a strong ETag, and
+   * pre-compressed with gzip if <code>play.compression.enabled</code>. Their cache key includes
+   * the format and the language of the request.
+   */
+  boolean response() default false;
+
+  /** Request headers whose values select different cached results, e.g. "Accept" */
+  String[] vary() default {};
 }
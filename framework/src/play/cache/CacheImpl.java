@@ -1,8 +1,17 @@
 package play.cache;
 
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import com.google.errorprone.annotations.CheckReturnValue;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
+import play.exceptions.CacheException;
 
 /**
  * A cache implementation. expiration is specified in seconds.
@@ -15,6 +24,11 @@ import org.jspecify.annotations.Nullable;
  *
  * This method is used by RePlay's {@link play.cache.Cache} class to load the implementation.
  *
+ * <p>Only the first methods are required. Bulk and async methods have default implementations
+ * calling them one key at a time. "Atomic" methods also have best-effort defaults calling <code>
+ * get</code> and <code>set</code>, which are <b>not atomic</b>: a concurrent update between them
+ * is lost. Implement them with the native operations of the cache when it has some.
+ *
  * @see play.cache.Cache and RePlay's 'memcached' and 'ehcache' packages.
  */
 @NullMarked
@@ -31,4 +45,135 @@ public interface CacheImpl {
   void delete(String key);
 
   void stop();
+
+  /** @return the values of the keys found in the cache, by key */
+  default Map<String, Object> getMulti(Collection<String> keys) {
+    Map<String, Object> values = new HashMap<>(keys.size());
+    for (String key : keys) {
+      Object value = get(key);
+      if (value != null) {
+        values.put(key, value);
+      }
+    }
+    return values;
+  }
+
+  default void setMulti(Map<String, ?> values, int expiration) {
+    values.forEach((key, value) -> set(key, value, expiration));
+  }
+
+  default CompletableFuture<@Nullable Object> getAsync(String key) {
+    return completedFuture(get(key));
+  }
+
+  default CompletableFuture<Map<String, Object>> getMultiAsync(Collection<String> keys) {
+    return completedFuture(getMulti(keys));
+  }
+
+  /** @return a future completed with true once the value is stored */
+  @CanIgnoreReturnValue
+  default CompletableFuture<Boolean> setAsync(String key, @Nullable Object value, int expiration) {
+    set(key, value, expiration);
+    return completedFuture(true);
+  }
+
+  /** @return a future completed with true once the key is deleted, false if it was missing */
+  @CanIgnoreReturnValue
+  default CompletableFuture<Boolean> deleteAsync(String key) {
+    delete(key);
+    return completedFuture(true);
+  }
+
+  /**
+   * Set the value only if the key is not in the cache.
+   *
+   * @return true if the value was stored
+   */
+  @CanIgnoreReturnValue
+  default boolean add(String key, Object value, int expiration) {
+    if (get(key) != null) {
+      return false;
+    }
+    set(key, value, expiration);
+    return true;
+  }
+
+  /**
+   * Set the value only if the key is in the cache.
+   *
+   * @return true if the value was stored
+   */
+  @CanIgnoreReturnValue
+  default boolean replace(String key, Object value, int expiration) {
+    if (get(key) == null) {
+      return false;
+    }
+    set(key, value, expiration);
+    return true;
+  }
+
+  /**
+   * Set the value only if the cached value equals the expected one, e.g. to update a value without
+   * losing the updates of other threads or servers:
+   *
+   * <pre>{@code
+   * List<String> list, newList;
+   * do {
+   *   list = (List<String>) cache.get(key);
+   *   newList = append(list, item);
+   * } while (!cache.compareAndSet(key, list, newList, expiration));
+   * }</pre>
+   *
+   * @param expected the current value, or null if the key must not be in the cache
+   * @return true if the value was stored
+   */
+  default boolean compareAndSet(
+      String key, @Nullable Object expected, Object value, int expiration) {
+    if (!Objects.equals(get(key), expected)) {
+      return false;
+    }
+    set(key, value, expiration);
+    return true;
+  }
+
+  /**
+   * Atomically increment a counter (not atomic by default, see above).
+   *
+   * @param initial the value to store (and return) if the key is not in the cache
+   * @return the new value of the counter
+   */
+  @CanIgnoreReturnValue
+  default long incr(String key, long by, long initial, int expiration) {
+    return addToCounter(key, by, initial, expiration);
+  }
+
+  /**
+   * Atomically decrement a counter, which never goes below 0 (as in memcached). Not atomic by
+   * default, see above.
+   *
+   * @param initial the value to store (and return) if the key is not in the cache
+   * @return the new value of the counter
+   */
+  @CanIgnoreReturnValue
+  default long decr(String key, long by, long initial, int expiration) {
+    return addToCounter(key, -by, initial, expiration);
+  }
+
+  private long addToCounter(String key, long delta, long initial, int expiration) {
+    Object current = get(key);
+    long value;
+    if (current == null) {
+      value = initial;
+    } else if (current instanceof Number number) {
+      value = Math.max(0, number.longValue() + delta);
+    } else {
+      try {
+        value = Math.max(0, Long.parseLong(current.toString().trim()) + delta);
+      } catch (NumberFormatException e) {
+        throw new CacheException("Cannot increment non-numeric value of " + key, e);
+      }
+    }
+    set(key, value, expiration);
+    return value;
+  }
 }
@@ -10,7 +10,8 @@ import play.libs.Lazy;
 /**
  * This class implements no caching at all. Since RePlay expects an implementation of the CacheImpl
  * interface to be present, we have created this "dummy" implementation that does nothing.
- * All `get` calls "miss", and `set` calls do nothing on purpose.
+ * All `get` calls "miss", and `set` calls do nothing on purpose: `add` always succeeds, `replace`
+ * always fails, and counters always have their initial value.
  */
 @NullMarked
 @CheckReturnValue
@@ -41,4 +42,30 @@ public class DummyCacheImpl implements CacheImpl {
 
   @Override
   public void stop() {}
+
+  @Override
+  public boolean add(String key, Object value, int expiration) {
+    return true;
+  }
+
+  @Override
+  public boolean replace(String key, Object value, int expiration) {
+    return false;
+  }
+
+  @Override
+  public boolean compareAndSet(
+      String key, @Nullable Object expected, Object value, int expiration) {
+    return expected == null;
+  }
+
+  @Override
+  public long incr(String key, long by, long initial, int expiration) {
+    return initial;
+  }
+
+  @Override
+  public long decr(String key, long by, long initial, int expiration) {
+    return initial;
+  }
 }
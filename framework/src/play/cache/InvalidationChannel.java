@@ -0,0 +1,28 @@
+package play.cache;
+
+import java.util.function.Consumer;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Tells the {@link NearCacheImpl near caches} of other nodes which keys were changed, so that they
+ * read them again from the shared cache.
+ *
+ * @see MulticastInvalidationChannel
+ * @see LocalInvalidationChannel
+ */
+@NullMarked
+public interface InvalidationChannel {
+
+  /**
+   * Notify other nodes that a key changed.
+   *
+   * @param key the changed key, or null if the whole cache was cleared
+   */
+  void publish(@Nullable String key);
+
+  /** @param listener called with the keys changed by other nodes (null: all keys) */
+  void subscribe(Consumer<@Nullable String> listener);
+
+  void close();
+}
@@ -0,0 +1,55 @@
+package play.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Delivers invalidations between channels of the same JVM, to run several "nodes" in one process,
+ * e.g. in tests:
+ *
+ * <pre>{@code
+ * LocalInvalidationChannel node1 = new LocalInvalidationChannel();
+ * LocalInvalidationChannel node2 = node1.join();
+ * }</pre>
+ */
+@NullMarked
+public class LocalInvalidationChannel implements InvalidationChannel {
+  private final List<LocalInvalidationChannel> group;
+  private final List<Consumer<@Nullable String>> listeners = new CopyOnWriteArrayList<>();
+
+  public LocalInvalidationChannel() {
+    this(new CopyOnWriteArrayList<>());
+  }
+
+  private LocalInvalidationChannel(List<LocalInvalidationChannel> group) {
+    this.group = group;
+    group.add(this);
+  }
+
+  /** @return a new channel receiving the invalidations of this one, and vice versa */
+  public LocalInvalidationChannel join() {
+    return new LocalInvalidationChannel(group);
+  }
+
+  @Override
+  public void publish(@Nullable String key) {
+    for (LocalInvalidationChannel node : group) {
+      if (node != this) {
+        node.listeners.forEach(listener -> listener.accept(key));
+      }
+    }
+  }
+
+  @Override
+  public void subscribe(Consumer<@Nullable String> listener) {
+    listeners.add(listener);
+  }
+
+  @Override
+  public void close() {
+    group.remove(this);
+  }
+}
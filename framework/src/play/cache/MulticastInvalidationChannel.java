@@ -0,0 +1,101 @@
+package play.cache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends invalidations to the other nodes of the local network with UDP multicast: one small
+ * datagram per changed key, without acknowledgment. A lost datagram leaves a stale value in a near
+ * cache until its TTL expires.
+ */
+@NullMarked
+public class MulticastInvalidationChannel implements InvalidationChannel {
+  private static final Logger logger = LoggerFactory.getLogger(MulticastInvalidationChannel.class);
+
+  private static final char DELETE = 'D';
+  private static final char CLEAR = 'C';
+
+  private final String nodeId = UUID.randomUUID().toString();
+  private final InetSocketAddress group;
+  private final MulticastSocket socket;
+  private final List<Consumer<@Nullable String>> listeners = new CopyOnWriteArrayList<>();
+
+  /** @param address multicast group and port, e.g. "239.255.27.1:27027" */
+  public MulticastInvalidationChannel(String address) throws IOException {
+    int colon = address.lastIndexOf(':');
+    if (colon == -1) {
+      throw new IllegalArgumentException("Expected host:port, got " + address);
+    }
+    group =
+        new InetSocketAddress(
+            InetAddress.getByName(address.substring(0, colon)),
+            Integer.parseInt(address.substring(colon + 1)));
+    socket = new MulticastSocket(group.getPort());
+    socket.setTimeToLive(1);
+    socket.joinGroup(group, null);
+
+    Thread receiver = new Thread(this::receive, "cache-invalidation");
+    receiver.setDaemon(true);
+    receiver.start();
+  }
+
+  @Override
+  public void publish(@Nullable String key) {
+    byte[] message = (nodeId + (key == null ? CLEAR : DELETE + key)).getBytes(UTF_8);
+    try {
+      socket.send(new DatagramPacket(message, message.length, group));
+    } catch (IOException e) {
+      logger.warn("Failed to send invalidation of {} to {}", key, group, e);
+    }
+  }
+
+  @Override
+  public void subscribe(Consumer<@Nullable String> listener) {
+    listeners.add(listener);
+  }
+
+  private void receive() {
+    byte[] buffer = new byte[1024];
+    while (!socket.isClosed()) {
+      DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+      try {
+        socket.receive(packet);
+      } catch (IOException e) {
+        if (!socket.isClosed()) {
+          logger.warn("Failed to receive invalidation from {}", group, e);
+        }
+        continue;
+      }
+      String message = new String(packet.getData(), 0, packet.getLength(), UTF_8);
+      if (message.length() <= nodeId.length() || message.startsWith(nodeId)) {
+        // Malformed, or sent by this node
+        continue;
+      }
+      char type = message.charAt(nodeId.length());
+      String key = type == DELETE ? message.substring(nodeId.length() + 1) : null;
+      try {
+        listeners.forEach(listener -> listener.accept(key));
+      } catch (RuntimeException e) {
+        logger.error("Failed to invalidate {}", key, e);
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    socket.close();
+  }
+}
@@ -0,0 +1,468 @@
+package play.cache;
+
+import static java.lang.Integer.parseInt;
+
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import com.google.errorprone.annotations.CheckReturnValue;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import play.exceptions.ConfigurationException;
+import play.libs.Time;
+
+/**
+ * Keeps the values read from a remote cache (memcached) in memory for a short time, so that hot
+ * keys are neither fetched nor deserialized on each read.
+ *
+ * <ul>
+ *   <li><code>cache.near.maxEntries</code> - number of values kept in memory, 0 (the default)
+ *       disables the near cache. The oldest values are evicted first.
+ *   <li><code>cache.near.ttl</code> - how long a value is kept (10s by default), at most its
+ *       expiration in the remote cache
+ *   <li><code>cache.near.invalidation</code> - <code>none</code> (the default): other nodes see a
+ *       change after at most <code>cache.near.ttl</code>; <code>multicast</code>: changed keys are
+ *       sent to other nodes with UDP multicast to <code>cache.near.multicast.address</code> (<code>
+ *       239.255.27.1:27027</code> by default)
+ * </ul>
+ *
+ * <p>Values are shared by all threads reading them, as with ehcache: they must not be modified.
+ */
+@NullMarked
+@CheckReturnValue
+public class NearCacheImpl implements CacheImpl {
+  static final String MAX_ENTRIES_SETTING = "cache.near.maxEntries";
+  static final String TTL_SETTING = "cache.near.ttl";
+  static final String INVALIDATION_SETTING = "cache.near.invalidation";
+  static final String MULTICAST_ADDRESS_SETTING = "cache.near.multicast.address";
+
+  private final CacheImpl remote;
+  private final int maxEntries;
+  private final int ttl;
+  @Nullable private final InvalidationChannel channel;
+  private final LongSupplier clock;
+
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  /** Keys in order of insertion, possibly including keys removed since. */
+  private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger insertionOrderSize = new AtomicInteger();
+  /**
+   * Incremented when a key (or another one with the same hash) is changed or invalidated, so that a
+   * value read from the remote cache before that is not kept.
+   */
+  private final AtomicLongArray generations = new AtomicLongArray(1024);
+  private final Statistics statistics = new Statistics();
+
+  /**
+   * @param ttl seconds to keep values in memory
+   * @param channel to tell other nodes about changed keys, and be told by them
+   */
+  public NearCacheImpl(
+      CacheImpl remote, int maxEntries, int ttl, @Nullable InvalidationChannel channel) {
+    this(remote, maxEntries, ttl, channel, System::currentTimeMillis);
+  }
+
+  NearCacheImpl(
+      CacheImpl remote,
+      int maxEntries,
+      int ttl,
+      @Nullable InvalidationChannel channel,
+      LongSupplier clock) {
+    this.remote = remote;
+    this.maxEntries = maxEntries;
+    this.ttl = ttl;
+    this.channel = channel;
+    this.clock = clock;
+    if (channel != null) {
+      channel.subscribe(this::invalidated);
+    }
+  }
+
+  /** @return the remote cache with a near cache in front of it if configured */
+  static CacheImpl wrap(CacheImpl remote, Properties configuration) {
+    int maxEntries = parseInt(configuration.getProperty(MAX_ENTRIES_SETTING, "0"));
+    if (maxEntries <= 0 || remote instanceof DummyCacheImpl) {
+      return remote;
+    }
+    int ttl = Time.parseDuration(configuration.getProperty(TTL_SETTING, "10s"));
+    String invalidation = configuration.getProperty(INVALIDATION_SETTING, "none");
+    InvalidationChannel channel;
+    switch (invalidation) {
+      case "none":
+        channel = null;
+        break;
+      case "multicast":
+        String address =
+            configuration.getProperty(MULTICAST_ADDRESS_SETTING, "239.255.27.1:27027");
+        try {
+          channel = new MulticastInvalidationChannel(address);
+        } catch (IOException e) {
+          throw new ConfigurationException("Cannot join multicast group " + address, e);
+        }
+        break;
+      default:
+        throw new ConfigurationException(
+            INVALIDATION_SETTING + " must be none or multicast, got " + invalidation);
+    }
+    return new NearCacheImpl(remote, maxEntries, ttl, channel);
+  }
+
+  public CacheImpl remote() {
+    return remote;
+  }
+
+  public Statistics statistics() {
+    statistics.size = entries.size();
+    return statistics;
+  }
+
+  @Override
+  @Nullable
+  public Object get(String key) {
+    Object value = getLocal(key);
+    if (value != null) {
+      return value;
+    }
+    long generation = generation(key);
+    value = remote.get(key);
+    keep(key, value, ttl, generation);
+    return value;
+  }
+
+  @Override
+  public Map<String, Object> getMulti(Collection<String> keys) {
+    Map<String, Object> values = new HashMap<>(keys.size());
+    List<String> missing = new ArrayList<>(keys.size());
+    Map<String, Long> missingGenerations = new HashMap<>(keys.size());
+    for (String key : keys) {
+      Object value = getLocal(key);
+      if (value == null) {
+        missing.add(key);
+        missingGenerations.put(key, generation(key));
+      } else {
+        values.put(key, value);
+      }
+    }
+    if (!missing.isEmpty()) {
+      Map<String, Object> remoteValues = remote.getMulti(missing);
+      remoteValues.forEach((key, value) -> keep(key, value, ttl, missingGenerations.get(key)));
+      values.putAll(remoteValues);
+    }
+    return values;
+  }
+
+  @Override
+  public CompletableFuture<@Nullable Object> getAsync(String key) {
+    Object value = getLocal(key);
+    if (value != null) {
+      return CompletableFuture.completedFuture(value);
+    }
+    long generation = generation(key);
+    return remote
+        .getAsync(key)
+        .thenApply(
+            (remoteValue) -> {
+              keep(key, remoteValue, ttl, generation);
+              return remoteValue;
+            });
+  }
+
+  @Override
+  public CompletableFuture<Map<String, Object>> getMultiAsync(Collection<String> keys) {
+    Map<String, Object> values = new HashMap<>(keys.size());
+    List<String> missing = new ArrayList<>(keys.size());
+    Map<String, Long> missingGenerations = new HashMap<>(keys.size());
+    for (String key : keys) {
+      Object value = getLocal(key);
+      if (value == null) {
+        missing.add(key);
+        missingGenerations.put(key, generation(key));
+      } else {
+        values.put(key, value);
+      }
+    }
+    if (missing.isEmpty()) {
+      return CompletableFuture.completedFuture(values);
+    }
+    return remote
+        .getMultiAsync(missing)
+        .thenApply(
+            (remoteValues) -> {
+              remoteValues.forEach(
+                  (key, value) -> keep(key, value, ttl, missingGenerations.get(key)));
+              values.putAll(remoteValues);
+              return values;
+            });
+  }
+
+  /**
+   * Other nodes are told about the change once the remote cache has stored the value: told
+   * before, they could read the previous value again and keep it.
+   */
+  @Override
+  public void set(String key, @Nullable Object value, int expiration) {
+    setAsync(key, value, expiration);
+  }
+
+  @Override
+  public void setMulti(Map<String, ?> values, int expiration) {
+    values.forEach((key, value) -> setAsync(key, value, expiration));
+  }
+
+  @Override
+  public CompletableFuture<Boolean> setAsync(String key, @Nullable Object value, int expiration) {
+    long generation = changedLocally(key);
+    CompletableFuture<Boolean> result = remote.setAsync(key, value, expiration);
+    keep(key, value, expiration, generation);
+    result.whenComplete((stored, e) -> publish(key));
+    return result;
+  }
+
+  @Override
+  public boolean add(String key, Object value, int expiration) {
+    boolean added = remote.add(key, value, expiration);
+    if (added) {
+      changed(key);
+    }
+    return added;
+  }
+
+  @Override
+  public boolean replace(String key, Object value, int expiration) {
+    boolean replaced = remote.replace(key, value, expiration);
+    if (replaced) {
+      changed(key);
+    }
+    return replaced;
+  }
+
+  @Override
+  public boolean compareAndSet(
+      String key, @Nullable Object expected, Object value, int expiration) {
+    // Compare with the remote value: the local one may be stale
+    boolean set = remote.compareAndSet(key, expected, value, expiration);
+    if (set) {
+      changed(key);
+    }
+    return set;
+  }
+
+  @Override
+  public long incr(String key, long by, long initial, int expiration) {
+    long value = remote.incr(key, by, initial, expiration);
+    changed(key);
+    return value;
+  }
+
+  @Override
+  public long decr(String key, long by, long initial, int expiration) {
+    long value = remote.decr(key, by, initial, expiration);
+    changed(key);
+    return value;
+  }
+
+  @Override
+  public void delete(String key) {
+    deleteAsync(key);
+  }
+
+  @Override
+  public CompletableFuture<Boolean> deleteAsync(String key) {
+    changedLocally(key);
+    CompletableFuture<Boolean> result = remote.deleteAsync(key);
+    result.whenComplete((deleted, e) -> publish(key));
+    return result;
+  }
+
+  @Override
+  public void clear() {
+    remote.clear();
+    clearLocal();
+    if (channel != null) {
+      channel.publish(null);
+    }
+  }
+
+  @Override
+  public void stop() {
+    if (channel != null) {
+      channel.close();
+    }
+    clearLocal();
+    remote.stop();
+  }
+
+  @Nullable
+  private Object getLocal(String key) {
+    Entry entry = entries.get(key);
+    if (entry != null) {
+      if (entry.expiresAt > clock.getAsLong()) {
+        statistics.hits.increment();
+        return entry.value;
+      }
+      entries.remove(key, entry);
+    }
+    statistics.misses.increment();
+    return null;
+  }
+
+  /**
+   * Keep a value in memory for the TTL, or less if it expires sooner in the remote cache.
+   *
+   * @param generation of the key before the value was read (or after it was written): the value is
+   *     stale if the key was changed or invalidated since
+   */
+  private void keep(String key, @Nullable Object value, int expiration, long generation) {
+    if (value == null || generation(key) != generation) {
+      return;
+    }
+    int seconds = expiration > 0 ? Math.min(ttl, expiration) : ttl;
+    Entry entry = new Entry(value, clock.getAsLong() + seconds * 1000L);
+    if (entries.put(key, entry) == null) {
+      insertionOrder.add(key);
+      insertionOrderSize.incrementAndGet();
+    }
+    if (generation(key) != generation) {
+      // Changed meanwhile: the change may have removed the previous entry before this put
+      entries.remove(key, entry);
+    }
+    evict();
+  }
+
+  private long generation(String key) {
+    return generations.get(Math.floorMod(key.hashCode(), generations.length()));
+  }
+
+  /** Must be called before removing the entry of a changed key. */
+  @CanIgnoreReturnValue
+  private long nextGeneration(String key) {
+    return generations.incrementAndGet(Math.floorMod(key.hashCode(), generations.length()));
+  }
+
+  private void evict() {
+    while (entries.size() > maxEntries) {
+      String oldest = insertionOrder.poll();
+      if (oldest == null) {
+        break;
+      }
+      insertionOrderSize.decrementAndGet();
+      if (entries.remove(oldest) != null) {
+        statistics.evictions.increment();
+      }
+    }
+    if (insertionOrderSize.get() > 2 * maxEntries) {
+      // Forget keys which were deleted, expired or invalidated meanwhile
+      insertionOrder.removeIf(
+          key -> {
+            boolean removed = !entries.containsKey(key);
+            if (removed) {
+              insertionOrderSize.decrementAndGet();
+            }
+            return removed;
+          });
+    }
+  }
+
+  /**
+   * The key was changed by this node.
+   *
+   * @return the new generation of the key
+   */
+  @CanIgnoreReturnValue
+  private long changed(String key) {
+    long generation = changedLocally(key);
+    publish(key);
+    return generation;
+  }
+
+  /**
+   * The key is being changed by this node, but other nodes must not be told before the remote cache
+   * has applied the change.
+   *
+   * @return the new generation of the key
+   */
+  @CanIgnoreReturnValue
+  private long changedLocally(String key) {
+    long generation = nextGeneration(key);
+    entries.remove(key);
+    return generation;
+  }
+
+  private void publish(String key) {
+    if (channel != null) {
+      channel.publish(key);
+    }
+  }
+
+  /** The key was changed by another node. */
+  private void invalidated(@Nullable String key) {
+    statistics.invalidations.increment();
+    if (key == null) {
+      clearLocal();
+    } else {
+      nextGeneration(key);
+      entries.remove(key);
+    }
+  }
+
+  private void clearLocal() {
+    for (int i = 0; i < generations.length(); i++) {
+      generations.incrementAndGet(i);
+    }
+    entries.clear();
+    insertionOrder.clear();
+    insertionOrderSize.set(0);
+  }
+
+  private record Entry(Object value, long expiresAt) {}
+
+  public static class Statistics {
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private volatile int size;
+
+    public long hits() {
+      return hits.sum();
+    }
+
+    public long misses() {
+      return misses.sum();
+    }
+
+    /** @return number of values removed to keep at most <code>cache.near.maxEntries</code> */
+    public long evictions() {
+      return evictions.sum();
+    }
+
+    /** @return number of invalidations received from other nodes */
+    public long invalidations() {
+      return invalidations.sum();
+    }
+
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "%d entries, %d hits, %d misses, %d evictions, %d invalidations",
+          size(), hits(), misses(), evictions(), invalidations());
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package play.cache;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Computes a missing cache value once per key, however many threads miss it at the same time: the
+ * first one computes the value, the others wait for it.
+ *
+ * <p>Computing a value must not get the same key with {@link #getOrCompute}: the thread would wait
+ * for itself, so it fails with an {@link IllegalStateException} instead.
+ *
+ * <p>With stale-while-revalidate, values are stored with the time until which they are fresh.
+ * Once they are stale (but not yet expired), one refresh is started and the stale value is
+ * returned meanwhile.
+ */
+@NullMarked
+final class SingleFlight {
+  private static final Logger logger = LoggerFactory.getLogger(SingleFlight.class);
+
+  private final Map<String, Flight> flights = new ConcurrentHashMap<>();
+  private final LongSupplier clock;
+
+  SingleFlight(LongSupplier clock) {
+    this.clock = clock;
+  }
+
+  /**
+   * @param expiration seconds during which the value is fresh
+   * @param staleWhileRevalidate seconds after the expiration during which the stale value is
+   *     returned while it is refreshed, 0 to wait for the computation
+   * @param refreshExecutor runs the refreshes of stale values; with <code>Runnable::run</code>,
+   *     the thread which finds the value stale refreshes it, and the others get the stale value
+   */
+  @Nullable
+  @SuppressWarnings("unchecked")
+  <T> T getOrCompute(
+      CacheImpl cache,
+      String key,
+      int expiration,
+      int staleWhileRevalidate,
+      Supplier<? extends @Nullable T> compute,
+      Executor refreshExecutor) {
+    Object cached = cache.get(key);
+    if (cached instanceof CachedValue wrapper) {
+      if (wrapper.freshUntil > clock.getAsLong()) {
+        return (T) wrapper.value;
+      }
+      CompletableFuture<@Nullable Object> refresh =
+          flight(cache, key, expiration, staleWhileRevalidate, compute, refreshExecutor, true)
+              .result;
+      return refresh.isDone() && !refresh.isCompletedExceptionally()
+          ? (T) refresh.join()
+          : (T) wrapper.value;
+    }
+    if (cached != null) {
+      return (T) cached;
+    }
+    Flight flight =
+        flight(cache, key, expiration, staleWhileRevalidate, compute, Runnable::run, false);
+    if (flight.owner == Thread.currentThread()) {
+      throw new IllegalStateException("Cannot get " + key + " while computing it");
+    }
+    try {
+      return (T) flight.result.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  private Flight flight(
+      CacheImpl cache,
+      String key,
+      int expiration,
+      int staleWhileRevalidate,
+      Supplier<?> compute,
+      Executor executor,
+      boolean refresh) {
+    Flight flight = new Flight();
+    Flight current = flights.putIfAbsent(key, flight);
+    if (current != null) {
+      return current;
+    }
+    executor.execute(
+        () -> {
+          flight.owner = Thread.currentThread();
+          try {
+            Object value = refresh ? null : fresh(cache.get(key));
+            if (value == null) {
+              value = compute.get();
+              store(cache, key, value, expiration, staleWhileRevalidate);
+            }
+            flight.result.complete(value);
+          } catch (RuntimeException | Error e) {
+            if (refresh) {
+              logger.warn("Failed to refresh {}, still using the stale value", key, e);
+            }
+            flight.result.completeExceptionally(e);
+          } finally {
+            flight.owner = null;
+            flights.remove(key, flight);
+          }
+        });
+    return flight;
+  }
+
+  /** @return the value if it was cached meanwhile and is fresh */
+  @Nullable
+  private Object fresh(@Nullable Object cached) {
+    if (cached instanceof CachedValue wrapper) {
+      return wrapper.freshUntil > clock.getAsLong() ? wrapper.value : null;
+    }
+    return cached;
+  }
+
+  private void store(
+      CacheImpl cache,
+      String key,
+      @Nullable Object value,
+      int expiration,
+      int staleWhileRevalidate) {
+    if (value == null) {
+      return;
+    }
+    Cache.checkSerializable(value);
+    if (staleWhileRevalidate > 0) {
+      long freshUntil = clock.getAsLong() + expiration * 1000L;
+      cache.set(key, new CachedValue(value, freshUntil), expiration + staleWhileRevalidate);
+    } else {
+      cache.set(key, value, expiration);
+    }
+  }
+
+  /** A computation in progress, and the thread running it. */
+  private static final class Flight {
+    private final CompletableFuture<@Nullable Object> result = new CompletableFuture<>();
+    @Nullable private volatile Thread owner;
+  }
+
+  /** A cached value, with the time until which it does not need to be refreshed. */
+  record CachedValue(Object value, long freshUntil) implements Serializable {}
+}
@@ -10,6 +10,7 @@ import java.util.HashMap;
 import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import play.data.binding.PropertyAccessors.Accessor;
 import play.exceptions.UnexpectedException;
 import play.mvc.Http;
 import play.mvc.Scope;
@@ -21,26 +22,47 @@ public class BeanWrapper {
   static final int notwritableField = Modifier.FINAL | Modifier.NATIVE | Modifier.STATIC;
   private static final int notaccessibleMethod = Modifier.NATIVE | Modifier.STATIC;
 
+  /** Bean wrappers created once per class, see {@link #forClass(Class)}. */
+  private static final ClassValue<BeanWrapper> wrappersByClass =
+      new ClassValue<>() {
+        @Override
+        protected BeanWrapper computeValue(Class<?> type) {
+          return new BeanWrapper(type);
+        }
+      };
+
   /** a cache for our properties and setters */
   private final Map<String, Property> wrappers = new HashMap<>();
 
+  /** Whether properties are set via generated accessors rather than reflection. */
+  private final boolean generatedAccessors;
+
   public BeanWrapper(Class<?> forClass) {
+    this(forClass, true);
+  }
+
+  BeanWrapper(Class<?> forClass, boolean generatedAccessors) {
     logger.trace("Bean wrapper for class {}", forClass.getName());
+    this.generatedAccessors = generatedAccessors;
 
     registerSetters(forClass);
     registerFields(forClass);
   }
 
+  /** The shared (thread-safe) bean wrapper for given class. */
+  public static BeanWrapper forClass(Class<?> clazz) {
+    return wrappersByClass.get(clazz);
+  }
+
   public Collection<Property> getWrappers() {
     return wrappers.values();
   }
 
   public void set(String name, Object instance, Object value) {
-    for (Property prop : wrappers.values()) {
-      if (name.equals(prop.name)) {
-        prop.setValue(instance, value);
-        return;
-      }
+    Property prop = wrappers.get(name);
+    if (prop != null) {
+      prop.setValue(instance, value);
+      return;
     }
     String message =
         String.format(
@@ -69,7 +91,7 @@ public class BeanWrapper {
       if ((field.getModifiers() & notwritableField) != 0) {
         continue;
       }
-      Property w = new Property(field);
+      Property w = new Property(field, generatedAccessors);
       wrappers.put(field.getName(), w);
     }
     registerFields(clazz.getSuperclass());
@@ -89,7 +111,7 @@ public class BeanWrapper {
       }
       String propertyName =
           method.getName().substring(3, 4).toLowerCase() + method.getName().substring(4);
-      Property wrapper = new Property(propertyName, method);
+      Property wrapper = new Property(propertyName, method, generatedAccessors);
       wrappers.put(propertyName, wrapper);
     }
   }
@@ -97,23 +119,22 @@ public class BeanWrapper {
   public static class Property {
 
     private final Annotation[] annotations;
-    private Method setter;
-    private Field field;
+    private final Accessor accessor;
     private final Class<?> type;
     private final Type genericType;
     private final String name;
 
-    Property(String propertyName, Method setterMethod) {
+    Property(String propertyName, Method setterMethod, boolean generatedAccessor) {
       name = propertyName;
-      setter = setterMethod;
-      type = setter.getParameterTypes()[0];
-      annotations = setter.getAnnotations();
-      genericType = setter.getGenericParameterTypes()[0];
+      accessor = PropertyAccessors.forSetter(setterMethod, generatedAccessor);
+      type = setterMethod.getParameterTypes()[0];
+      annotations = setterMethod.getAnnotations();
+      genericType = setterMethod.getGenericParameterTypes()[0];
     }
 
-    Property(Field field) {
-      this.field = field;
-      this.field.setAccessible(true);
+    Property(Field field, boolean generatedAccessor) {
+      field.setAccessible(true);
+      accessor = PropertyAccessors.forField(field, generatedAccessor);
       name = field.getName();
       type = field.getType();
       annotations = field.getAnnotations();
@@ -122,16 +143,11 @@ public class BeanWrapper {
 
     public void setValue(Object instance, Object value) {
       try {
-        if (setter != null) {
-          logger.trace("invoke setter {} on {} with value {}", setter, instance, value);
-          setter.invoke(instance, value);
-        } else {
-          logger.trace("field.set({}, {})", instance, value);
-
-          field.set(instance, value);
-        }
-
-      } catch (Exception ex) {
+        logger.trace("set {} on {} to {}", name, instance, value);
+        accessor.set(instance, value);
+      } catch (Error e) {
+        throw e;
+      } catch (Throwable ex) {
         logger.warn(
             "ERROR in BeanWrapper when setting property {} value is {} ({})",
             name,
@@ -31,6 +31,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 import org.apache.commons.lang3.StringUtils;
@@ -99,6 +100,7 @@ public abstract class Binder {
    */
   public static <T> void register(@NonNull Class<T> clazz, @NonNull TypeBinder<T> typeBinder) {
     supportedTypes.put(checkNotNull(clazz), checkNotNull(typeBinder));
+    binderChains = new ConcurrentHashMap<>();
   }
 
   /**
@@ -110,17 +112,36 @@ public abstract class Binder {
    */
   public static <T> void unregister(@NonNull Class<T> clazz) {
     supportedTypes.remove(checkNotNull(clazz));
+    binderChains = new ConcurrentHashMap<>();
   }
 
-  static Map<Class<?>, BeanWrapper> beanwrappers = new HashMap<>();
+  /**
+   * Binders to try for each target class, resolved on first use. Registering a binder replaces the
+   * map, so that a chain resolved concurrently with the old binders only goes into the old map.
+   */
+  private static volatile Map<Class<?>, TypeBinderChain> binderChains = new ConcurrentHashMap<>();
+
+  /** Shared instances of binders used by {@link As#binder()} or annotated with {@link Global}. */
+  private static final Map<Class<?>, TypeBinder<?>> binderInstances = new ConcurrentHashMap<>();
+
+  private static TypeBinderChain getBinderChain(Class<?> clazz) {
+    return binderChains.computeIfAbsent(
+        clazz,
+        (c) ->
+            TypeBinderChain.resolve(
+                c,
+                Play.classes.getAssignableClasses(TypeBinder.class),
+                supportedTypes,
+                Binder::getBinderInstance));
+  }
+
+  private static TypeBinder<?> getBinderInstance(Class<?> binderClass) {
+    return binderInstances.computeIfAbsent(
+        binderClass, (c) -> (TypeBinder<?>) createNewInstance(c));
+  }
 
   static BeanWrapper getBeanWrapper(@NonNull Class<?> clazz) {
-    checkNotNull(clazz);
-    if (!beanwrappers.containsKey(clazz)) {
-      BeanWrapper beanwrapper = new BeanWrapper(clazz);
-      beanwrappers.put(clazz, beanwrapper);
-    }
-    return beanwrappers.get(clazz);
+    return BeanWrapper.forClass(checkNotNull(clazz));
   }
 
   @Nullable
@@ -666,133 +687,98 @@ public abstract class Binder {
         if (annotation.annotationType().equals(As.class)) {
           Class<? extends TypeBinder<?>> toInstantiate = ((As) annotation).binder();
           if (!(toInstantiate.equals(As.DEFAULT.class))) {
-            // Instantiate the binder
-            TypeBinder<?> myInstance = createNewInstance(toInstantiate);
+            TypeBinder<?> myInstance = getBinderInstance(toInstantiate);
             return myInstance.bind(request, session, name, annotations, value, clazz, type);
           }
         }
       }
     }
 
+    TypeBinderChain chain = getBinderChain(clazz);
+
     // application custom types have higher priority. If unable to bind proceed with the next one
-    for (Class<? extends TypeBinder> c : Play.classes.getAssignableClasses(TypeBinder.class)) {
-      if (c.isAnnotationPresent(Global.class)) {
-        Class<?> forType =
-            (Class) ((ParameterizedType) c.getGenericInterfaces()[0]).getActualTypeArguments()[0];
-        if (forType.isAssignableFrom(clazz)) {
-          Object result =
-              createNewInstance(c).bind(request, session, name, annotations, value, clazz, type);
-          if (result != null) {
-            return result;
-          }
-        }
+    for (TypeBinder<?> globalBinder : chain.globalBinders) {
+      Object result = globalBinder.bind(request, session, name, annotations, value, clazz, type);
+      if (result != null) {
+        return result;
       }
     }
 
     // custom types
-    for (Class<?> c : supportedTypes.keySet()) {
-      logger.trace("directBind: value [{}] c [{}] Class [{}]", value, c, clazz);
-
-      if (c.isAssignableFrom(clazz)) {
-        logger.trace("directBind: isAssignableFrom is true");
-        return supportedTypes.get(c).bind(request, session, name, annotations, value, clazz, type);
-      }
-    }
-
-    // raw String
-    if (clazz.equals(String.class)) {
-      return value;
-    }
-
-    // Handles the case where the model property is a sole character
-    if (clazz.equals(Character.class)) {
-      return value.charAt(0);
-    }
-
-    // Enums
-    if (Enum.class.isAssignableFrom(clazz)) {
-      return nullOrEmpty ? null : Enum.valueOf((Class<Enum>) clazz, value);
-    }
-
-    // int or Integer binding
-    if ("int".equals(clazz.getName()) || clazz.equals(Integer.class)) {
-      if (nullOrEmpty) {
-        return clazz.isPrimitive() ? 0 : null;
-      }
-
-      return Integer.parseInt(value.contains(".") ? value.substring(0, value.indexOf('.')) : value);
-    }
-
-    // long or Long binding
-    if ("long".equals(clazz.getName()) || clazz.equals(Long.class)) {
-      if (nullOrEmpty) {
-        return clazz.isPrimitive() ? 0L : null;
-      }
-
-      return Long.parseLong(value.contains(".") ? value.substring(0, value.indexOf('.')) : value);
+    if (chain.supportedTypeBinder != null) {
+      return chain.supportedTypeBinder.bind(
+          request, session, name, annotations, value, clazz, type);
     }
 
-    // byte or Byte binding
-    if ("byte".equals(clazz.getName()) || clazz.equals(Byte.class)) {
-      if (nullOrEmpty) {
-        return clazz.isPrimitive() ? (byte) 0 : null;
-      }
+    switch (chain.kind) {
+      case STRING:
+        // raw String
+        return value;
 
-      return Byte.parseByte(value.contains(".") ? value.substring(0, value.indexOf('.')) : value);
-    }
+      case CHARACTER:
+        // Handles the case where the model property is a sole character
+        return value.charAt(0);
 
-    // short or Short binding
-    if ("short".equals(clazz.getName()) || clazz.equals(Short.class)) {
-      if (nullOrEmpty) {
-        return clazz.isPrimitive() ? (short) 0 : null;
-      }
+      case ENUM:
+        return nullOrEmpty ? null : Enum.valueOf((Class<Enum>) clazz, value);
 
-      return Short.parseShort(value.contains(".") ? value.substring(0, value.indexOf('.')) : value);
-    }
+      case INT:
+        if (nullOrEmpty) {
+          return clazz.isPrimitive() ? 0 : null;
+        }
+        return Integer.parseInt(
+            value.contains(".") ? value.substring(0, value.indexOf('.')) : value);
 
-    // float or Float binding
-    if ("float".equals(clazz.getName()) || clazz.equals(Float.class)) {
-      if (nullOrEmpty) {
-        return clazz.isPrimitive() ? 0.0f : null;
-      }
+      case LONG:
+        if (nullOrEmpty) {
+          return clazz.isPrimitive() ? 0L : null;
+        }
+        return Long.parseLong(
+            value.contains(".") ? value.substring(0, value.indexOf('.')) : value);
 
-      return Float.parseFloat(value);
-    }
+      case BYTE:
+        if (nullOrEmpty) {
+          return clazz.isPrimitive() ? (byte) 0 : null;
+        }
+        return Byte.parseByte(
+            value.contains(".") ? value.substring(0, value.indexOf('.')) : value);
 
-    // double or Double binding
-    if ("double".equals(clazz.getName()) || clazz.equals(Double.class)) {
-      if (nullOrEmpty) {
-        return clazz.isPrimitive() ? 0.0d : null;
-      }
+      case SHORT:
+        if (nullOrEmpty) {
+          return clazz.isPrimitive() ? (short) 0 : null;
+        }
+        return Short.parseShort(
+            value.contains(".") ? value.substring(0, value.indexOf('.')) : value);
 
-      return Double.parseDouble(value);
-    }
+      case FLOAT:
+        if (nullOrEmpty) {
+          return clazz.isPrimitive() ? 0.0f : null;
+        }
+        return Float.parseFloat(value);
 
-    // BigDecimal binding
-    if (clazz.equals(BigDecimal.class)) {
-      return nullOrEmpty ? null : new BigDecimal(value);
-    }
+      case DOUBLE:
+        if (nullOrEmpty) {
+          return clazz.isPrimitive() ? 0.0d : null;
+        }
+        return Double.parseDouble(value);
 
-    // BigInteger binding
-    if (clazz.equals(BigInteger.class)) {
-      return nullOrEmpty ? null : new BigInteger(value);
-    }
+      case BIG_DECIMAL:
+        return nullOrEmpty ? null : new BigDecimal(value);
 
-    // boolean or Boolean binding
-    if ("boolean".equals(clazz.getName()) || clazz.equals(Boolean.class)) {
-      if (nullOrEmpty) {
-        return clazz.isPrimitive() ? false : null;
-      }
+      case BIG_INTEGER:
+        return nullOrEmpty ? null : new BigInteger(value);
 
-      if ("1".equals(value)
-          || "on".equalsIgnoreCase(value)
-          || "yes".equalsIgnoreCase(value)) {
-        return true;
-      }
+      case BOOLEAN:
+        if (nullOrEmpty) {
+          return clazz.isPrimitive() ? false : null;
+        }
+        if ("1".equals(value) || "on".equalsIgnoreCase(value) || "yes".equalsIgnoreCase(value)) {
+          return true;
+        }
+        return Boolean.parseBoolean(value);
 
-      return Boolean.parseBoolean(value);
+      default:
+        return DIRECTBINDING_NO_RESULT;
     }
-
-    return DIRECTBINDING_NO_RESULT;
   }
 }
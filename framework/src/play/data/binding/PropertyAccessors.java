@@ -0,0 +1,80 @@
+package play.data.binding;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.function.BiConsumer;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates the accessors used by {@link BeanWrapper.Property} to set a property value.
+ *
+ * <p>Setters are compiled into a lambda with {@link LambdaMetafactory}, so that calling them costs
+ * the same as a direct call. Fields are set through a {@link MethodHandle}. If neither is possible
+ * (e.g. the bean class is not accessible), plain reflection is used.
+ */
+final class PropertyAccessors {
+  private static final Logger logger = LoggerFactory.getLogger(PropertyAccessors.class);
+  private static final MethodType SETTER_TYPE = methodType(void.class, Object.class, Object.class);
+
+  /** Sets a value of a property on a bean instance. */
+  @FunctionalInterface
+  interface Accessor {
+    void set(Object instance, @Nullable Object value) throws Throwable;
+  }
+
+  private PropertyAccessors() {}
+
+  static Accessor forSetter(Method setter, boolean generate) {
+    if (generate) {
+      try {
+        // Check access the same way as reflection would do it from this package
+        MethodHandles.lookup().unreflect(setter);
+        return lambdaSetter(setter);
+      } catch (Throwable e) {
+        logger.trace("Using reflection for {}: {}", setter, e.toString());
+      }
+    }
+    return (instance, value) -> setter.invoke(instance, value);
+  }
+
+  static Accessor forField(Field field, boolean generate) {
+    if (generate) {
+      try {
+        MethodHandle handle = MethodHandles.lookup().unreflectSetter(field).asType(SETTER_TYPE);
+        return (instance, value) -> {
+          handle.invokeExact(instance, value);
+        };
+      } catch (IllegalAccessException e) {
+        logger.trace("Using reflection for {}: {}", field, e.toString());
+      }
+    }
+    return field::set;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Accessor lambdaSetter(Method setter) throws Throwable {
+    Class<?> beanClass = setter.getDeclaringClass();
+    MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(beanClass, MethodHandles.lookup());
+    MethodHandle target = lookup.unreflect(setter);
+    Class<?> valueType = methodType(setter.getParameterTypes()[0]).wrap().returnType();
+    CallSite site =
+        LambdaMetafactory.metafactory(
+            lookup,
+            "accept",
+            methodType(BiConsumer.class),
+            SETTER_TYPE,
+            target,
+            methodType(void.class, beanClass, valueType));
+    BiConsumer<Object, Object> consumer = (BiConsumer<Object, Object>) site.getTarget().invoke();
+    return consumer::accept;
+  }
+}
@@ -0,0 +1,94 @@
+package play.data.binding;
+
+import java.lang.reflect.ParameterizedType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The binders to try, in order, when binding a value to a given class. Resolved once per class by
+ * {@link Binder}, so that binding a value does not need to scan the application classes or the
+ * registered binders.
+ */
+final class TypeBinderChain {
+  /** Built-in conversion used when no custom binder is found. */
+  enum Kind {
+    STRING,
+    CHARACTER,
+    ENUM,
+    INT,
+    LONG,
+    BYTE,
+    SHORT,
+    FLOAT,
+    DOUBLE,
+    BIG_DECIMAL,
+    BIG_INTEGER,
+    BOOLEAN,
+    NONE
+  }
+
+  /** Application binders annotated with {@link Global}, tried until one returns non-null. */
+  final List<TypeBinder<?>> globalBinders;
+
+  /** Binder registered in {@link Binder#supportedTypes}, if any. */
+  @Nullable final TypeBinder<?> supportedTypeBinder;
+
+  final Kind kind;
+
+  private TypeBinderChain(
+      List<TypeBinder<?>> globalBinders, @Nullable TypeBinder<?> supportedTypeBinder, Kind kind) {
+    this.globalBinders = globalBinders;
+    this.supportedTypeBinder = supportedTypeBinder;
+    this.kind = kind;
+  }
+
+  static TypeBinderChain resolve(
+      Class<?> clazz,
+      List<Class<? extends TypeBinder>> applicationBinders,
+      Map<Class<?>, TypeBinder<?>> supportedTypes,
+      Function<Class<?>, TypeBinder<?>> binderInstances) {
+    List<TypeBinder<?>> globalBinders = new ArrayList<>(0);
+    for (Class<? extends TypeBinder> c : applicationBinders) {
+      if (c.isAnnotationPresent(Global.class)) {
+        Class<?> forType =
+            (Class<?>)
+                ((ParameterizedType) c.getGenericInterfaces()[0]).getActualTypeArguments()[0];
+        if (forType.isAssignableFrom(clazz)) {
+          globalBinders.add(binderInstances.apply(c));
+        }
+      }
+    }
+
+    TypeBinder<?> supportedTypeBinder = null;
+    for (Map.Entry<Class<?>, TypeBinder<?>> supportedType : supportedTypes.entrySet()) {
+      if (supportedType.getKey().isAssignableFrom(clazz)) {
+        supportedTypeBinder = supportedType.getValue();
+        break;
+      }
+    }
+
+    return new TypeBinderChain(List.copyOf(globalBinders), supportedTypeBinder, kindOf(clazz));
+  }
+
+  private static Kind kindOf(Class<?> clazz) {
+    if (clazz.equals(String.class)) return Kind.STRING;
+    // Only the boxed type: a sole character model property
+    if (clazz.equals(Character.class)) return Kind.CHARACTER;
+    if (Enum.class.isAssignableFrom(clazz)) return Kind.ENUM;
+    if (clazz.equals(int.class) || clazz.equals(Integer.class)) return Kind.INT;
+    if (clazz.equals(long.class) || clazz.equals(Long.class)) return Kind.LONG;
+    if (clazz.equals(byte.class) || clazz.equals(Byte.class)) return Kind.BYTE;
+    if (clazz.equals(short.class) || clazz.equals(Short.class)) return Kind.SHORT;
+    if (clazz.equals(float.class) || clazz.equals(Float.class)) return Kind.FLOAT;
+    if (clazz.equals(double.class) || clazz.equals(Double.class)) return Kind.DOUBLE;
+    if (clazz.equals(BigDecimal.class)) return Kind.BIG_DECIMAL;
+    if (clazz.equals(BigInteger.class)) return Kind.BIG_INTEGER;
+    if (clazz.equals(boolean.class) || clazz.equals(Boolean.class)) return Kind.BOOLEAN;
+    return Kind.NONE;
+  }
+}
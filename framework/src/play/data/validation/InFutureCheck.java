@@ -21,8 +21,9 @@ public class InFutureCheck extends AbstractAnnotationCheck<InFuture> {
   @Override
   public void configure(InFuture future) {
     try {
+      // Without a value, compare with the time of validation
       this.reference = future.value().isEmpty()
-          ? new Date()
+          ? null
           : AlternativeDateFormat.getDefaultFormatter().parse(future.value());
     } catch (ParseException ex) {
       throw new UnexpectedException("Cannot parse date " + future.value(), ex);
@@ -37,20 +38,19 @@ public class InFutureCheck extends AbstractAnnotationCheck<InFuture> {
   @Override
   public boolean isSatisfied(
       Object validatedObject, Object value, OValContext context, Validator validator) {
-    requireMessageVariablesRecreation();
     if (value == null) {
       return true;
     }
     if (value instanceof Date) {
       try {
-        return reference.before((Date) value);
+        return reference().before((Date) value);
       } catch (Exception e) {
         return false;
       }
     }
     if (value instanceof Long) {
       try {
-        return reference.before(new Date((Long) value));
+        return reference().before(new Date((Long) value));
       } catch (Exception e) {
         return false;
       }
@@ -58,10 +58,24 @@ public class InFutureCheck extends AbstractAnnotationCheck<InFuture> {
     return false;
   }
 
+  /**
+   * The check is shared by concurrent requests, so the variables are not cached: the date is
+   * formatted in the language of the current request for every violation.
+   */
+  @Override
+  public Map<String, String> getMessageVariables() {
+    return createMessageVariables();
+  }
+
   @Override
   public Map<String, String> createMessageVariables() {
     Map<String, String> messageVariables = new HashMap<>();
-    messageVariables.put("reference", new SimpleDateFormat(I18N.getDateFormat()).format(reference));
+    messageVariables.put(
+        "reference", new SimpleDateFormat(I18N.getDateFormat()).format(reference()));
     return messageVariables;
   }
+
+  private Date reference() {
+    return reference != null ? reference : new Date();
+  }
 }
@@ -20,8 +20,9 @@ public class InPastCheck extends AbstractAnnotationCheck<InPast> {
   @Override
   public void configure(InPast past) {
     try {
+      // Without a value, compare with the time of validation
       this.reference = past.value().isEmpty()
-          ? new Date()
+          ? null
           : AlternativeDateFormat.getDefaultFormatter().parse(past.value());
     } catch (ParseException ex) {
       throw new UnexpectedException("Cannot parse date " + past.value(), ex);
@@ -36,20 +37,19 @@ public class InPastCheck extends AbstractAnnotationCheck<InPast> {
   @Override
   public boolean isSatisfied(
       Object validatedObject, Object value, OValContext context, Validator validator) {
-    requireMessageVariablesRecreation();
     if (value == null) {
       return true;
     }
     if (value instanceof Date) {
       try {
-        return reference.after((Date) value);
+        return reference().after((Date) value);
       } catch (Exception e) {
         return false;
       }
     }
     if (value instanceof Long) {
       try {
-        return reference.after(new Date((Long) value));
+        return reference().after(new Date((Long) value));
       } catch (Exception e) {
         return false;
       }
@@ -57,10 +57,24 @@ public class InPastCheck extends AbstractAnnotationCheck<InPast> {
     return false;
   }
 
+  /**
+   * The check is shared by concurrent requests, so the variables are not cached: the date is
+   * formatted in the language of the current request for every violation.
+   */
+  @Override
+  public Map<String, String> getMessageVariables() {
+    return createMessageVariables();
+  }
+
   @Override
   public Map<String, String> createMessageVariables() {
     Map<String, String> messageVariables = new HashMap<>();
-    messageVariables.put("reference", new SimpleDateFormat(I18N.getDateFormat()).format(reference));
+    messageVariables.put(
+        "reference", new SimpleDateFormat(I18N.getDateFormat()).format(reference()));
     return messageVariables;
   }
+
+  private Date reference() {
+    return reference != null ? reference : new Date();
+  }
 }
@@ -26,6 +26,8 @@ public class ValidCheck extends AbstractAnnotationCheck<Required> {
     if (value == null) {
       return true;
     }
+    // The check is shared by concurrent requests: don't store the key in it
+    String key = this.key;
     try {
       if (context != null) {
         if (context instanceof MethodParameterContext ctx) {
@@ -61,7 +63,7 @@ public class ValidCheck extends AbstractAnnotationCheck<Required> {
 
   boolean validateObject(String key, Object value) {
     ValidationPlugin.keys.get().put(value, key);
-    List<ConstraintViolation> violations = new Validator().validate(value);
+    List<ConstraintViolation> violations = ValidationPlugin.beanValidator().validate(value);
 
     if (violations.isEmpty()) {
       return true;
@@ -18,6 +18,30 @@ import play.exceptions.UnexpectedException;
 public class Validation {
 
   public static final ThreadLocal<Validation> current = new ThreadLocal<>();
+
+  /** Validation annotations of the fields declared by a class, by field name. */
+  private static final ClassValue<Map<String, FieldConstraints>> declaredConstraints =
+      new ClassValue<>() {
+        @Override
+        protected Map<String, FieldConstraints> computeValue(Class<?> type) {
+          Map<String, FieldConstraints> fields = new LinkedHashMap<>();
+          for (Field field : type.getDeclaredFields()) {
+            List<Annotation> annotations = new ArrayList<>();
+            boolean valid = false;
+            for (Annotation annotation : field.getDeclaredAnnotations()) {
+              if (annotation.annotationType().getName().startsWith("play.data.validation")) {
+                annotations.add(annotation);
+              }
+              if (annotation.annotationType().equals(Valid.class)) {
+                valid = true;
+              }
+            }
+            fields.put(field.getName(), new FieldConstraints(field, annotations, valid));
+          }
+          return fields;
+        }
+      };
+
   List<Error> errors = new ArrayList<>();
   boolean keep;
 
@@ -191,60 +215,46 @@ public class Validation {
 
   public static List<Validator> getValidators(Class<?> clazz, String property, String name) {
     try {
-      List<Validator> validators = new ArrayList<>();
       while (!clazz.equals(Object.class)) {
-        try {
-          Field field = clazz.getDeclaredField(property);
-          for (Annotation annotation : field.getDeclaredAnnotations()) {
-            if (annotation.annotationType().getName().startsWith("play.data.validation")) {
-              Validator validator = new Validator(annotation);
-              validators.add(validator);
-              if (annotation.annotationType().equals(InFuture.class)) {
-                validator.params.put("reference", ((InFuture) annotation).value());
-              }
-              if (annotation.annotationType().equals(InPast.class)) {
-                validator.params.put("reference", ((InPast) annotation).value());
-              }
-            }
-          }
-          break;
-        } catch (NoSuchFieldException e) {
-          clazz = clazz.getSuperclass();
+        FieldConstraints field = declaredConstraints.get(clazz).get(property);
+        if (field != null) {
+          return field.validators();
         }
+        clazz = clazz.getSuperclass();
       }
-      return validators;
+      return new ArrayList<>();
     } catch (Exception e) {
       return new ArrayList<>();
     }
   }
 
   static void searchValidator(Class<?> clazz, String name, Map<String, List<Validator>> result) {
-    for (Field field : clazz.getDeclaredFields()) {
-
-      List<Validator> validators = new ArrayList<>();
-      String key = name + "." + field.getName();
-      boolean containsAtValid = false;
-      for (Annotation annotation : field.getDeclaredAnnotations()) {
-        if (annotation.annotationType().getName().startsWith("play.data.validation")) {
-          Validator validator = new Validator(annotation);
-          validators.add(validator);
-          if (annotation.annotationType().equals(InFuture.class)) {
-            validator.params.put("reference", ((InFuture) annotation).value());
-          }
-          if (annotation.annotationType().equals(InPast.class)) {
-            validator.params.put("reference", ((InPast) annotation).value());
-          }
-        }
-        if (annotation.annotationType().equals(Valid.class)) {
-          containsAtValid = true;
-        }
+    for (FieldConstraints field : declaredConstraints.get(clazz).values()) {
+      String key = name + "." + field.field().getName();
+      if (!field.annotations().isEmpty()) {
+        result.put(key, field.validators());
       }
-      if (!validators.isEmpty()) {
-        result.put(key, validators);
+      if (field.valid()) {
+        searchValidator(field.field().getType(), key, result);
       }
-      if (containsAtValid) {
-        searchValidator(field.getType(), key, result);
+    }
+  }
+
+  private record FieldConstraints(Field field, List<Annotation> annotations, boolean valid) {
+    /** @return new validators, callers are free to modify them */
+    List<Validator> validators() {
+      List<Validator> validators = new ArrayList<>(annotations.size());
+      for (Annotation annotation : annotations) {
+        Validator validator = new Validator(annotation);
+        validators.add(validator);
+        if (annotation.annotationType().equals(InFuture.class)) {
+          validator.params.put("reference", ((InFuture) annotation).value());
+        }
+        if (annotation.annotationType().equals(InPast.class)) {
+          validator.params.put("reference", ((InPast) annotation).value());
+        }
       }
+      return validators;
     }
   }
 
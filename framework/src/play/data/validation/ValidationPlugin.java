@@ -15,6 +15,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import com.google.errorprone.annotations.CheckReturnValue;
 import org.jspecify.annotations.Nullable;
 import org.jspecify.annotations.NullMarked;
@@ -46,6 +47,38 @@ public class ValidationPlugin extends PlayPlugin {
   private static final Gson GSON = new Gson();
   private static final TypeToken<List<Error>> TYPE_ERRORS_LIST = new TypeToken<>() {};
 
+  /**
+   * Validators shared by all requests: OVal introspects the constraints of a class once per
+   * validator instance and keeps them, so a validator per request would do it again every time.
+   */
+  private static volatile Validator validator = new Validator();
+
+  private static volatile net.sf.oval.Validator beanValidator = new net.sf.oval.Validator();
+
+  /** Whether an action method has annotated parameters. */
+  private static final Map<Method, Boolean> validatedActions = new ConcurrentHashMap<>();
+
+  @Override
+  public void onApplicationStart() {
+    // In DEV mode, classes may have been reloaded: forget constraints of their previous versions
+    resetValidators();
+  }
+
+  static void resetValidators() {
+    validator = new Validator();
+    beanValidator = new net.sf.oval.Validator();
+    validatedActions.clear();
+  }
+
+  static Validator validator() {
+    return validator;
+  }
+
+  /** The validator of the objects annotated with {@link Valid}. */
+  static net.sf.oval.Validator beanValidator() {
+    return beanValidator;
+  }
+
   @Override
   public void beforeInvocation() {
     keys.set(new HashMap<>());
@@ -65,7 +98,7 @@ public class ValidationPlugin extends PlayPlugin {
       return;
     }
     List<ConstraintViolation> violations =
-        new Validator().validateAction(request, session, actionMethod);
+        validator.validateAction(request, session, actionMethod);
     List<Error> errors = new ArrayList<>();
     String[] paramNames = Java.parameterNames(actionMethod);
     for (ConstraintViolation violation : violations) {
@@ -78,6 +111,10 @@ public class ValidationPlugin extends PlayPlugin {
   }
 
   private boolean needsValidation(Method actionMethod) {
+    return validatedActions.computeIfAbsent(actionMethod, ValidationPlugin::hasAnnotatedParameters);
+  }
+
+  private static boolean hasAnnotatedParameters(Method actionMethod) {
     for (Annotation[] annotations : actionMethod.getParameterAnnotations()) {
       if (annotations.length > 0) {
         return true;
@@ -120,7 +157,10 @@ public class ValidationPlugin extends PlayPlugin {
     public List<ConstraintViolation> validateAction(
         Http.Request request, Session session, Method actionMethod) {
       Object[] rArgs = ActionInvoker.getActionMethodArgs(request, session, actionMethod);
+      return validateParameters(actionMethod, rArgs);
+    }
 
+    List<ConstraintViolation> validateParameters(Method actionMethod, Object[] rArgs) {
       List<ConstraintViolation> violations = new ArrayList<>();
       violations.addAll(validateMethodParameters(actionMethod, rArgs));
       violations.addAll(validateMethodPre(actionMethod, rArgs));
@@ -7,6 +7,7 @@ import jakarta.persistence.FlushModeType;
 import jakarta.persistence.PersistenceUnit;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import org.hibernate.Session;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,11 +24,48 @@ public class JPA {
       ThreadLocal.withInitial(() -> new ConcurrentHashMap<>());
   public static String DEFAULT = "default";
 
+  /**
+   * If true, {@link #withTransaction} opens the EntityManager of a persistence unit and begins its
+   * transaction only when {@link #em(String)} is first called for it (see <code>jpa.lazy</code>).
+   */
+  static volatile boolean lazy;
+
+  private static final LongAdder transactions = new LongAdder();
+  private static final Map<String, LongAdder> usages = new ConcurrentHashMap<>();
+
   public static class JPAContext {
     public String dbName = JPA.DEFAULT;
+
+    /** Null until first used if the context is {@link #lazy}. */
     public EntityManager entityManager;
+
     public boolean readonly = true;
     public boolean autoCommit;
+
+    /** Open the EntityManager on first use instead of at the start of the transaction. */
+    boolean lazy;
+
+    /** Whether {@link JPA#em(String)} was called for this persistence unit. */
+    boolean used;
+
+    /** @return true if the EntityManager has been created */
+    boolean isOpen() {
+      return entityManager != null;
+    }
+
+    EntityManager entityManager() {
+      if (entityManager == null && lazy) {
+        EntityManager em = createEntityManager(dbName);
+        if (em == null) {
+          throw new JPAException("No EntityManagerFactory for name [" + dbName + "]");
+        }
+        entityManager = em;
+        if (!readonly) {
+          em.getTransaction().begin();
+        }
+      }
+      return entityManager;
+    }
   }
 
   public static boolean isInitialized() {
@@ -74,7 +112,8 @@ public class JPA {
     if (jpaContext == null)
       throw new JPAException(
           "No active EntityManager for name [" + key + "], transaction not started?");
-    return jpaContext.entityManager;
+    jpaContext.used = true;
+    return jpaContext.entityManager();
   }
 
   /**
@@ -94,6 +133,21 @@ public class JPA {
     get().put(name, context);
   }
 
+  /**
+   * Bind a context to the current thread that opens the EntityManager and begins the transaction
+   * (unless read-only) on first call to {@link #em(String)}.
+   *
+   * @param name The DB name
+   * @param readonly indicate if it is in read only mode
+   */
+  static void bindLazilyForCurrentThread(String name, boolean readonly) {
+    JPAContext context = new JPAContext();
+    context.dbName = name;
+    context.readonly = readonly;
+    context.lazy = true;
+    get().put(name, context);
+  }
+
   public static void unbindForCurrentThread(String name) {
     // Get all our context for our current thread
     get().remove(name);
@@ -146,9 +200,33 @@ public class JPA {
 
   public static boolean isInsideTransaction(String name) {
     JPAContext jpaContext = get(name);
-    return jpaContext != null
-        && jpaContext.entityManager != null
-        && jpaContext.entityManager.getTransaction() != null;
+    if (jpaContext == null) {
+      return false;
+    }
+    if (!jpaContext.isOpen()) {
+      return jpaContext.lazy;
+    }
+    return jpaContext.entityManager.getTransaction() != null;
+  }
+
+  /** @return number of transactions started by {@link #withTransaction} */
+  public static long transactionsCount() {
+    return transactions.sum();
+  }
+
+  /**
+   * @param name the persistence unit name
+   * @return number of transactions started by {@link #withTransaction} that used the EntityManager
+   *     of given persistence unit
+   */
+  public static long usageCount(String name) {
+    LongAdder usage = usages.get(name);
+    return usage == null ? 0 : usage.sum();
+  }
+
+  static void resetCounters() {
+    transactions.reset();
+    usages.clear();
   }
 
   public static <T> T withinFilter(SupplierWithException<T> block) throws Exception {
@@ -196,11 +274,16 @@ public class JPA {
       String dbName, boolean readOnly, SupplierWithException<T> block) throws Exception {
     if (isEnabled()) {
 
+      transactions.increment();
       try {
         // We are starting a transaction for each known persistent unit.
         // This is probably not the best, but there is no way we can know where to go from
-        // at this stage.
+        // at this stage. In lazy mode, it is started only when the unit gets used.
         for (String name : emfs.keySet()) {
+          if (lazy) {
+            JPA.bindLazilyForCurrentThread(name, readOnly);
+            continue;
+          }
           EntityManager localEm = JPA.createEntityManager(name);
           JPA.bindForCurrentThread(name, localEm, readOnly);
 
@@ -215,6 +298,7 @@ public class JPA {
         // Get back our entity managers.
         // Because people might have mess up with the current entity managers.
         for (JPAContext jpaContext : get().values()) {
+          if (!jpaContext.isOpen()) continue;
           EntityManager m = jpaContext.entityManager;
           EntityTransaction localTx = m.getTransaction();
           // The resource transaction must be in progress in order to determine if it has been
@@ -225,6 +309,7 @@ public class JPA {
         }
 
         for (JPAContext jpaContext : get().values()) {
+          if (!jpaContext.isOpen()) continue;
           EntityManager m = jpaContext.entityManager;
           boolean ro = jpaContext.readonly;
           EntityTransaction localTx = m.getTransaction();
@@ -242,6 +327,7 @@ public class JPA {
       } catch (Exception t) {
         // Because people might have mess up with the current entity managers
         for (JPAContext jpaContext : get().values()) {
+          if (!jpaContext.isOpen()) continue;
           EntityManager m = jpaContext.entityManager;
           EntityTransaction localTx = m.getTransaction();
           try {
@@ -257,8 +343,11 @@ public class JPA {
         throw t;
       } finally {
         for (JPAContext jpaContext : get().values()) {
+          if (jpaContext.used) {
+            usages.computeIfAbsent(jpaContext.dbName, (name) -> new LongAdder()).increment();
+          }
           EntityManager localEm = jpaContext.entityManager;
-          if (localEm.isOpen()) {
+          if (localEm != null && localEm.isOpen()) {
             localEm.close();
           }
           JPA.clearContext(jpaContext.dbName);
@@ -287,6 +376,9 @@ public class JPA {
   }
 
   public static void closeTx(String name) {
+    if (clearUnopenedContext(name)) {
+      return;
+    }
     if (JPA.isInsideTransaction(name)) {
       EntityManager manager = em(name);
       try {
@@ -315,6 +407,9 @@ public class JPA {
   }
 
   public static void rollbackTx(String name) {
+    if (clearUnopenedContext(name)) {
+      return;
+    }
     if (JPA.isInsideTransaction()) {
       EntityManager manager = em(name);
       try {
@@ -337,4 +432,14 @@ public class JPA {
       }
     }
   }
+
+  /** A lazy context that was never used has nothing to commit or rollback. */
+  private static boolean clearUnopenedContext(String name) {
+    JPAContext jpaContext = get(name);
+    if (jpaContext != null && jpaContext.lazy && !jpaContext.isOpen()) {
+      clearContext(name);
+      return true;
+    }
+    return false;
+  }
 }
@@ -134,6 +134,7 @@ public class JPAPlugin extends PlayPlugin {
   public void onApplicationStart() {
     long start = nanoTime();
     org.apache.log4j.Logger.getLogger("org.hibernate.SQL").setLevel(Level.OFF);
+    JPA.lazy = "true".equals(Play.configuration.getProperty("jpa.lazy", "false"));
 
     Set<String> dBNames = Configuration.getDbNames();
     for (String dbName : dBNames) {
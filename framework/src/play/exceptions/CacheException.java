@@ -1,6 +1,10 @@
 package play.exceptions;
 
 public class CacheException extends PlayException {
+  public CacheException(String message) {
+    super(message);
+  }
+
   public CacheException(String message, Throwable cause) {
     super(message, cause);
   }
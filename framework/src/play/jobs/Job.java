@@ -4,6 +4,8 @@ import java.util.Date;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import play.Invocation;
@@ -32,6 +34,7 @@ public abstract class Job<V> extends Invocation implements Callable<V> {
   boolean runOnce;
 
   Date nextPlannedExecution;
+  private final Lock rescheduleLock = new ReentrantLock();
 
   @Override
   public InvocationContext getInvocationContext() {
@@ -166,14 +169,15 @@ public abstract class Job<V> extends Invocation implements Callable<V> {
     Play.pluginCollection.onJobInvocationFinally();
     InvocationContext.current.remove();
 
-    synchronized (this) {
-      try {
-        if (executor == JobsPlugin.executor && !runOnce) {
-          JobsPlugin.scheduleForCRON(this);
-        }
-      } finally {
-        runOnce = false;
+    // Not synchronized: a monitor would pin the carrier of a virtual thread
+    rescheduleLock.lock();
+    try {
+      if (executor == JobsPlugin.executor && !runOnce) {
+        JobsPlugin.scheduleForCRON(this);
       }
+    } finally {
+      runOnce = false;
+      rescheduleLock.unlock();
     }
   }
 
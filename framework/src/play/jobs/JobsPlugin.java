@@ -25,6 +25,7 @@ import play.libs.CronExpression;
 import play.libs.Expression;
 import play.libs.Time;
 import play.utils.PThreadFactory;
+import play.utils.VirtualThreadScheduledExecutor;
 
 public class JobsPlugin extends PlayPlugin {
   private static final Logger logger = LoggerFactory.getLogger(JobsPlugin.class);
@@ -98,8 +99,11 @@ public class JobsPlugin extends PlayPlugin {
           executor.getQueue().toArray(new ScheduledFuture[executor.getQueue().size()]);
 
       for (ScheduledFuture task : q) {
+        Runnable scheduled = VirtualThreadScheduledExecutor.undecorated((Runnable) task);
         out.println(
-            extractUnderlyingCallable((FutureTask<?>) task)
+            (scheduled instanceof FutureTask<?> futureTask
+                    ? extractUnderlyingCallable(futureTask)
+                    : scheduled)
                 + " will run in "
                 + task.getDelay(TimeUnit.SECONDS)
                 + " seconds");
@@ -176,12 +180,20 @@ public class JobsPlugin extends PlayPlugin {
 
   @Override
   public void onApplicationStart() {
-    int core = Integer.parseInt(Play.configuration.getProperty("play.jobs.pool", "10"));
-    executor =
-        new ScheduledThreadPoolExecutor(
-            core, new PThreadFactory("jobs"), new ThreadPoolExecutor.AbortPolicy());
+    String pool = Play.configuration.getProperty("play.jobs.pool", "10");
+    if ("virtual".equals(pool)) {
+      int concurrency =
+          Integer.parseInt(Play.configuration.getProperty("play.jobs.pool.concurrency", "10"));
+      executor = new VirtualThreadScheduledExecutor("jobs", concurrency);
+      logger.info("Init jobs on virtual threads with concurrency {}", concurrency);
+    } else {
+      int core = Integer.parseInt(pool);
+      executor =
+          new ScheduledThreadPoolExecutor(
+              core, new PThreadFactory("jobs"), new ThreadPoolExecutor.AbortPolicy());
+      logger.info("Init jobs pool of size {}", core);
+    }
     scheduledJobs.clear();
-    logger.info("Init jobs pool of size {}", core);
   }
 
   public static <V> void scheduleForCRON(Job<V> job) {
@@ -2,17 +2,28 @@ package play.libs;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import javax.crypto.AEADBadTagException;
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
-import javax.crypto.IllegalBlockSizeException;
-import javax.crypto.NoSuchPaddingException;
-import javax.crypto.spec.SecretKeySpec;
-import play.Play;
+import javax.crypto.spec.GCMParameterSpec;
 import play.exceptions.UnexpectedException;
 
+/**
+ * Encrypts values with the application secret, see {@link SecretKeys} about key rotation.
+ *
+ * <p>{@link #encryptAES(String)} is kept for values encrypted by older versions. Prefer {@link
+ * #encryptAESGCM(String)} for new values: it uses a random nonce for each value and detects
+ * tampering.
+ */
 public class Crypter {
+  private static final int GCM_NONCE_LENGTH = 12;
+  private static final int GCM_TAG_BITS = 128;
+  private static final SecureRandom random = new SecureRandom();
+
   private final String salt;
 
   public Crypter(String salt) {
@@ -20,43 +31,117 @@ public class Crypter {
   }
 
   public String encryptAES(String value) {
-    return encryptAES(value, Play.secretKey.substring(0, 16));
-  }
-
-  private String encryptAES(String value, String privateKey) {
     try {
-      byte[] raw = privateKey.getBytes(UTF_8);
-      SecretKeySpec keySpec = new SecretKeySpec(raw, "AES");
-      Cipher cipher = Cipher.getInstance("AES");
-      cipher.init(Cipher.ENCRYPT_MODE, keySpec);
-      return Codec.byteToHexString(cipher.doFinal((salt + value).getBytes(UTF_8)));
-    } catch (NoSuchAlgorithmException
-        | NoSuchPaddingException
-        | InvalidKeyException
-        | IllegalBlockSizeException
-        | BadPaddingException ex) {
+      return Codec.byteToHexString(
+          doFinal(SecretKeys.get().current(), Cipher.ENCRYPT_MODE, (salt + value).getBytes(UTF_8)));
+    } catch (GeneralSecurityException ex) {
       throw new UnexpectedException(ex);
     }
   }
 
   public String decryptAES(String value) {
-    return decryptAES(value, Play.secretKey.substring(0, 16));
+    byte[] encrypted = Codec.hexStringToByte(value);
+    GeneralSecurityException error = null;
+    for (SecretKeys.Key key : SecretKeys.get().all()) {
+      try {
+        String plain = new String(doFinal(key, Cipher.DECRYPT_MODE, encrypted), UTF_8);
+        if (plain.startsWith(salt)) {
+          return plain.substring(salt.length());
+        }
+        // Encrypted with another key, but the padding happened to be valid
+        if (error == null) {
+          error = new BadPaddingException("Decrypted value does not start with the salt");
+        }
+      } catch (BadPaddingException ex) {
+        // Encrypted with another key
+        if (error == null) {
+          error = ex;
+        }
+      } catch (GeneralSecurityException ex) {
+        throw new UnexpectedException(ex);
+      }
+    }
+    throw new UnexpectedException(error);
   }
 
-  private String decryptAES(String value, String privateKey) {
+  private static byte[] doFinal(SecretKeys.Key key, int mode, byte[] input)
+      throws GeneralSecurityException {
+    SecretKeys.Pool<Cipher> ciphers = key.aes(mode);
+    Cipher cipher = ciphers.borrow();
+    byte[] result = cipher.doFinal(input);
+    ciphers.release(cipher);
+    return result;
+  }
+
+  /**
+   * Encrypt with AES in GCM mode, authenticating the salt along with the value.
+   *
+   * @return URL-safe Base64 of the nonce followed by the encrypted value and its tag
+   */
+  public String encryptAESGCM(String value) {
     try {
-      byte[] raw = privateKey.getBytes(UTF_8);
-      SecretKeySpec keySpec = new SecretKeySpec(raw, "AES");
-      Cipher cipher = Cipher.getInstance("AES");
-      cipher.init(Cipher.DECRYPT_MODE, keySpec);
-      return new String(cipher.doFinal(Codec.hexStringToByte(value)), UTF_8)
-          .substring(salt.length());
-    } catch (NoSuchAlgorithmException
-        | NoSuchPaddingException
-        | InvalidKeyException
-        | IllegalBlockSizeException
-        | BadPaddingException ex) {
+      SecretKeys.Key key = SecretKeys.get().current();
+      byte[] nonce = new byte[GCM_NONCE_LENGTH];
+      random.nextBytes(nonce);
+
+      SecretKeys.Pool<Cipher> ciphers = key.aesGcm();
+      Cipher cipher = ciphers.borrow();
+      cipher.init(Cipher.ENCRYPT_MODE, key.aesGcmKey(), new GCMParameterSpec(GCM_TAG_BITS, nonce));
+      cipher.updateAAD(salt.getBytes(UTF_8));
+      byte[] plain = value.getBytes(UTF_8);
+      ByteBuffer result = ByteBuffer.allocate(nonce.length + cipher.getOutputSize(plain.length));
+      result.put(nonce);
+      cipher.doFinal(ByteBuffer.wrap(plain), result);
+      ciphers.release(cipher);
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(result.array());
+    } catch (GeneralSecurityException ex) {
       throw new UnexpectedException(ex);
     }
   }
+
+  /**
+   * Decrypt a value encrypted by {@link #encryptAESGCM(String)} with the current secret or a
+   * previous one.
+   *
+   * @throws UnexpectedException if the value was not encrypted with any of the secrets, with this
+   *     salt, or was modified
+   */
+  public String decryptAESGCM(String value) {
+    byte[] encrypted;
+    try {
+      encrypted = Base64.getUrlDecoder().decode(value);
+    } catch (IllegalArgumentException ex) {
+      throw new UnexpectedException("Invalid encrypted value", ex);
+    }
+    if (encrypted.length < GCM_NONCE_LENGTH + GCM_TAG_BITS / 8) {
+      throw new UnexpectedException("Invalid encrypted value");
+    }
+    GCMParameterSpec nonce = new GCMParameterSpec(GCM_TAG_BITS, encrypted, 0, GCM_NONCE_LENGTH);
+    AEADBadTagException error = null;
+    for (SecretKeys.Key key : SecretKeys.get().all()) {
+      try {
+        SecretKeys.Pool<Cipher> ciphers = key.aesGcm();
+        Cipher cipher = ciphers.borrow();
+        cipher.init(Cipher.DECRYPT_MODE, key.aesGcmKey(), nonce);
+        cipher.updateAAD(salt.getBytes(UTF_8));
+        byte[] plain;
+        try {
+          plain =
+              cipher.doFinal(encrypted, GCM_NONCE_LENGTH, encrypted.length - GCM_NONCE_LENGTH);
+        } finally {
+          // A failed decryption leaves the cipher reusable after init()
+          ciphers.release(cipher);
+        }
+        return new String(plain, UTF_8);
+      } catch (AEADBadTagException ex) {
+        // Encrypted with another key
+        if (error == null) {
+          error = ex;
+        }
+      } catch (GeneralSecurityException ex) {
+        throw new UnexpectedException(ex);
+      }
+    }
+    throw new UnexpectedException(error);
+  }
 }
@@ -0,0 +1,196 @@
+package play.libs;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import play.Play;
+import play.exceptions.ConfigurationException;
+
+/**
+ * Keys derived from <code>application.secret</code> and <code>application.secret.previous</code>,
+ * used by {@link Signer} and {@link Crypter}.
+ *
+ * <p>Keys are derived once per secret, and initialized {@link Mac} and {@link Cipher} instances are
+ * kept in small pools: creating and initializing them costs more than signing a cookie. Pools are
+ * not thread-local, so they also work for virtual threads.
+ *
+ * <p>To rotate the secret, set the new one to <code>application.secret</code> and move the old one
+ * to <code>application.secret.previous</code> (comma-separated if several): values are signed and
+ * encrypted with the new secret, and verified and decrypted with any of them.
+ */
+@NullMarked
+final class SecretKeys {
+  private static final int MAX_IDLE = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+  @Nullable private static volatile SecretKeys cached;
+
+  private final String secret;
+  private final String previousSecrets;
+  private final List<Key> keys;
+
+  private SecretKeys(String secret, String previousSecrets) {
+    this.secret = secret;
+    this.previousSecrets = previousSecrets;
+    List<Key> keys = new ArrayList<>();
+    keys.add(new Key(secret));
+    for (String previous : previousSecrets.split(",")) {
+      if (!previous.isBlank()) {
+        keys.add(new Key(checkPreviousSecret(previous.trim())));
+      }
+    }
+    this.keys = List.copyOf(keys);
+  }
+
+  /**
+   * Previous secrets are tried when decrypting an AES value fails with the current one: a secret
+   * too short for the AES key must be reported when the keys are built, and not only when a value
+   * happens to need it.
+   */
+  private static String checkPreviousSecret(String previous) {
+    if (previous.length() < 16) {
+      throw new ConfigurationException(
+          "application.secret.previous: each secret must have at least 16 characters, got one of "
+              + previous.length());
+    }
+    return previous;
+  }
+
+  /** The keys of the current configuration, derived again only if the secret changes. */
+  static SecretKeys get() {
+    String secret = Play.secretKey;
+    if (secret == null) {
+      throw new IllegalStateException("application.secret is not configured");
+    }
+    String previousSecrets = Play.configuration.getProperty("application.secret.previous", "");
+    SecretKeys keys = cached;
+    if (keys == null
+        || !keys.secret.equals(secret)
+        || !keys.previousSecrets.equals(previousSecrets)) {
+      keys = new SecretKeys(secret, previousSecrets);
+      cached = keys;
+    }
+    return keys;
+  }
+
+  /** The key to sign and encrypt with. */
+  Key current() {
+    return keys.get(0);
+  }
+
+  /** All keys to verify and decrypt with, the current one first. */
+  List<Key> all() {
+    return keys;
+  }
+
+  static final class Key {
+    private final String secret;
+    private final Map<String, Pool<Mac>> macs = new ConcurrentHashMap<>();
+    private final Pool<Cipher> aesEncrypt;
+    private final Pool<Cipher> aesDecrypt;
+    private final Pool<Cipher> aesGcm;
+    @Nullable private volatile SecretKeySpec aesGcmKey;
+
+    private Key(String secret) {
+      this.secret = secret;
+      aesEncrypt = new Pool<>(() -> aesCipher(Cipher.ENCRYPT_MODE));
+      aesDecrypt = new Pool<>(() -> aesCipher(Cipher.DECRYPT_MODE));
+      aesGcm = new Pool<>(() -> Cipher.getInstance("AES/GCM/NoPadding"));
+    }
+
+    boolean isEmpty() {
+      return secret.isEmpty();
+    }
+
+    /** Initialized {@link Mac} instances for given algorithm, e.g. "HmacSHA256". */
+    Pool<Mac> mac(String algorithm) {
+      return macs.computeIfAbsent(
+          algorithm,
+          (name) ->
+              new Pool<>(
+                  () -> {
+                    Mac mac = Mac.getInstance(name);
+                    mac.init(new SecretKeySpec(secret.getBytes(UTF_8), name));
+                    return mac;
+                  }));
+    }
+
+    /** "AES" ciphers keyed by the first 16 characters of the secret, as always done by Play. */
+    Pool<Cipher> aes(int mode) {
+      return mode == Cipher.ENCRYPT_MODE ? aesEncrypt : aesDecrypt;
+    }
+
+    private Cipher aesCipher(int mode) throws GeneralSecurityException {
+      Cipher cipher = Cipher.getInstance("AES");
+      cipher.init(mode, new SecretKeySpec(secret.substring(0, 16).getBytes(UTF_8), "AES"));
+      return cipher;
+    }
+
+    /** "AES/GCM/NoPadding" ciphers, to be initialized with {@link #aesGcmKey()} and a nonce. */
+    Pool<Cipher> aesGcm() {
+      return aesGcm;
+    }
+
+    /** 256-bit AES key derived from the secret with HMAC-SHA256. */
+    SecretKeySpec aesGcmKey() throws GeneralSecurityException {
+      SecretKeySpec key = aesGcmKey;
+      if (key == null) {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(UTF_8), "HmacSHA256"));
+        key = new SecretKeySpec(mac.doFinal("play-aes-gcm".getBytes(UTF_8)), "AES");
+        aesGcmKey = key;
+      }
+      return key;
+    }
+  }
+
+  @FunctionalInterface
+  interface Factory<T> {
+    T create() throws GeneralSecurityException;
+  }
+
+  /**
+   * Idle instances ready to be reused. An instance is borrowed by one thread at a time and returned
+   * only if it was used without errors.
+   */
+  static final class Pool<T> {
+    private final Factory<T> factory;
+    private final ConcurrentLinkedQueue<T> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    Pool(Factory<T> factory) {
+      this.factory = factory;
+    }
+
+    T borrow() throws GeneralSecurityException {
+      T instance = idle.poll();
+      if (instance == null) {
+        return factory.create();
+      }
+      idleCount.decrementAndGet();
+      return instance;
+    }
+
+    void release(T instance) {
+      if (idleCount.incrementAndGet() <= MAX_IDLE) {
+        idle.offer(instance);
+      } else {
+        idleCount.decrementAndGet();
+      }
+    }
+
+    int idle() {
+      return idleCount.get();
+    }
+  }
+}
@@ -3,39 +3,56 @@ package play.libs;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 import com.google.errorprone.annotations.CheckReturnValue;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
 import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import play.Play;
 import play.exceptions.UnexpectedException;
 
+/**
+ * Signs messages with HMAC and the application secret, see {@link SecretKeys} about key rotation.
+ */
 @NullMarked
 @CheckReturnValue
 public class Signer {
+  public static final String HMAC_SHA1 = "HmacSHA1";
+  public static final String HMAC_SHA256 = "HmacSHA256";
+
   private static final char[] HEX_CHARS = "0123456789abcdef".toCharArray();
 
   private final String salt;
+  private final String algorithm;
 
   public Signer(String salt) {
+    this(salt, HMAC_SHA1);
+  }
+
+  /**
+   * @param algorithm {@link #HMAC_SHA1} or {@link #HMAC_SHA256}
+   */
+  public Signer(String salt, String algorithm) {
+    if (!HMAC_SHA1.equals(algorithm) && !HMAC_SHA256.equals(algorithm)) {
+      throw new IllegalArgumentException("Unsupported signature algorithm: " + algorithm);
+    }
     this.salt = salt;
+    this.algorithm = algorithm;
   }
 
   public String sign(String message) {
-    return sign(message, Play.secretKey.getBytes(UTF_8));
+    return sign(message, SecretKeys.get().current());
   }
 
-  private String sign(String message, byte[] key) {
-    if (key.length == 0) {
+  private String sign(String message, SecretKeys.Key key) {
+    if (key.isEmpty()) {
       throw new IllegalStateException("application.secret is not configured");
     }
 
     try {
-      Mac mac = Mac.getInstance("HmacSHA1");
-      SecretKeySpec signingKey = new SecretKeySpec(key, "HmacSHA1");
-      mac.init(signingKey);
-      byte[] messageBytes = (salt + message).getBytes(UTF_8);
-      byte[] result = mac.doFinal(messageBytes);
+      SecretKeys.Pool<Mac> macs = key.mac(algorithm);
+      Mac mac = macs.borrow();
+      byte[] result = mac.doFinal((salt + message).getBytes(UTF_8));
+      macs.release(mac);
       int len = result.length;
       char[] hexChars = new char[len * 2];
 
@@ -45,12 +62,22 @@ public class Signer {
         hexChars[charIndex++] = HEX_CHARS[bite & 0xf];
       }
       return new String(hexChars);
-    } catch (Exception ex) {
+    } catch (GeneralSecurityException | RuntimeException ex) {
       throw new UnexpectedException(ex);
     }
   }
 
+  /** @return true if the message was signed with the current secret or a previous one */
   public boolean isValid(@Nullable String signature, String message) {
-    return signature != null && signature.equals(sign(message));
+    if (signature == null) {
+      return false;
+    }
+    byte[] signatureBytes = signature.getBytes(UTF_8);
+    for (SecretKeys.Key key : SecretKeys.get().all()) {
+      if (MessageDigest.isEqual(signatureBytes, sign(message, key).getBytes(UTF_8))) {
+        return true;
+      }
+    }
+    return false;
   }
 }
@@ -7,13 +7,13 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import play.Play;
 import play.cache.Cache;
-import play.cache.CacheFor;
 import play.data.binding.Binder;
 import play.data.binding.CachedBoundActionMethodArgs;
 import play.data.binding.ParamNode;
@@ -26,6 +26,7 @@ import play.inject.Injector;
 import play.mvc.Scope.Flash;
 import play.mvc.Scope.RenderArgs;
 import play.mvc.Scope.Session;
+import play.mvc.results.CachedResponse;
 import play.mvc.results.NoResult;
 import play.mvc.results.NotFound;
 import play.mvc.results.RenderBinary;
@@ -92,8 +93,8 @@ public class ActionInvoker {
   }
 
   public void invoke(Http.Request request, Http.Response response) {
-    Session session =
-        actionNeedsSession(request) ? sessionStore.restore(request) : new ReadonlySession();
+    ActionPlan plan = ActionPlan.of(request);
+    Session session = plan.needsSession ? sessionStore.restore(request) : new ReadonlySession();
     Flash flash = flashStore.restore(request);
     RenderArgs renderArgs = new RenderArgs();
     ActionContext context =
@@ -110,42 +111,32 @@ public class ActionInvoker {
       Play.pluginCollection.beforeActionInvocation(
           request, response, session, renderArgs, flash, actionMethod);
 
-      String cacheKey = null;
       Result actionResult = null;
 
       // 3. Invoke the action
       try {
         // @Before
-        handleBefores(request, session);
+        handleBefores(request, session, plan);
 
         // Action
 
         // Check the cache (only for GET or HEAD)
-        if ((request.method.equals("GET") || request.method.equals("HEAD"))
-            && actionMethod.isAnnotationPresent(CacheFor.class)) {
-          cacheKey = actionMethod.getAnnotation(CacheFor.class).id();
-          if (cacheKey != null && cacheKey.isEmpty()) {
-            cacheKey = "urlcache:" + request.path + '?' + request.querystring;
-          }
-          actionResult = Cache.get(cacheKey);
-        }
-
-        if (actionResult == null) {
-          inferResult(invokeControllerMethod(request, session, actionMethod));
+        String cacheKey = plan.cacheKey(request, response);
+        if (cacheKey != null) {
+          actionResult =
+              invokeCachedAction(request, response, session, renderArgs, flash, plan, cacheKey);
+        } else {
+          inferResult(invokeControllerMethod(request, session, plan.action, null));
         }
       } catch (Result result) {
         actionResult = result;
-        // Cache it if needed
-        if (cacheKey != null) {
-          Cache.set(cacheKey, actionResult, actionMethod.getAnnotation(CacheFor.class).value());
-        }
       } catch (Exception e) {
-        invokeControllerCatchMethods(request, session, e);
+        invokeControllerCatchMethods(request, session, plan, e);
         throw e;
       }
 
       // @After
-      handleAfters(request, session);
+      handleAfters(request, session, plan);
 
       // OK, re-throw the original action result
       if (actionResult != null) {
@@ -155,18 +146,99 @@ public class ActionInvoker {
       throw new NoResult();
 
     } catch (Result result) {
-      applyResult(request, response, session, flash, renderArgs, result);
+      // A streamed result sends the headers, and so the session and flash cookies, with its first
+      // chunk
+      response.beforeFirstChunk(() -> saveScopes(request, response, session, flash, plan));
+      applyResult(request, response, session, flash, renderArgs, plan, result);
     } catch (RuntimeException e) {
-      handleFinallies(request, session, e);
+      handleFinallies(request, session, plan, e);
       throw e;
     } catch (Throwable e) {
-      handleFinallies(request, session, e);
+      handleFinallies(request, session, plan, e);
       throw new UnexpectedException(e);
     }
   }
 
+  /**
+   * Get the result of a <code>@CacheFor</code> action from the cache, or invoke the action once for
+   * all the concurrent requests missing it. With <code>@CacheFor(response = true)</code>, the
+   * result is rendered once and the whole response is cached. A response which cannot be cached
+   * is not shared: the requests which waited for it invoke the action themselves.
+   */
+  private static Result invokeCachedAction(
+      Http.Request request,
+      Http.Response response,
+      Session session,
+      RenderArgs renderArgs,
+      Flash flash,
+      ActionPlan plan,
+      String cacheKey)
+      throws Exception {
+    AtomicBoolean invoked = new AtomicBoolean();
+    AtomicReference<Result> notCacheable = new AtomicReference<>();
+    Result cachedResult;
+    try {
+      cachedResult =
+          Cache.getOrCompute(
+              cacheKey,
+              plan.cacheFor.value(),
+              plan.cacheFor.staleWhileRevalidate(),
+              () -> {
+                invoked.set(true);
+                try {
+                  inferResult(invokeControllerMethod(request, session, plan.action, null));
+                  return null;
+                } catch (Result result) {
+                  if (!plan.cacheFor.response()) {
+                    return result;
+                  }
+                  CachedResponse cached =
+                      CachedResponse.render(
+                          result,
+                          plan.cacheFor.vary(),
+                          request,
+                          response,
+                          session,
+                          renderArgs,
+                          flash);
+                  if (cached == null) {
+                    // Not cacheable (cookies, files or streams): nothing is cached, and this
+                    // request renders its result again
+                    notCacheable.set(result);
+                    return null;
+                  }
+                  return cached;
+                } catch (RuntimeException e) {
+                  throw e;
+                } catch (Exception e) {
+                  throw new CheckedActionException(e);
+                }
+              },
+              Runnable::run);
+    } catch (CheckedActionException e) {
+      throw (Exception) e.getCause();
+    }
+    if (cachedResult != null) {
+      return cachedResult;
+    }
+    if (invoked.get()) {
+      return notCacheable.get();
+    }
+    // The concurrent request which invoked the action got no cacheable result: its result (e.g. a
+    // stream) cannot be shared, so invoke the action for this request too
+    inferResult(invokeControllerMethod(request, session, plan.action, null));
+    return null;
+  }
+
+  /** Carries a checked exception of an action through {@link Cache#getOrCompute}. */
+  private static class CheckedActionException extends RuntimeException {
+    private CheckedActionException(Exception cause) {
+      super(cause);
+    }
+  }
+
   boolean actionNeedsSession(Http.Request request) {
-    return !request.invokedMethod.isAnnotationPresent(NoSession.class);
+    return ActionPlan.of(request).needsSession;
   }
 
   private PlayController createController(ActionContext context) {
@@ -183,6 +255,7 @@ public class ActionInvoker {
       Session session,
       Flash flash,
       RenderArgs renderArgs,
+      ActionPlan plan,
       Result result) {
     Play.pluginCollection.onActionInvocationResult(
         request, response, session, flash, renderArgs, result);
@@ -196,7 +269,7 @@ public class ActionInvoker {
       } else {
         // There is a weird ExcelPlugin that throws RenderExcel from inside ViewResult.apply().
         // In this case, we need to call RenderExcel.apply()
-        applyResult(request, response, session, flash, renderArgs, anotherResult);
+        applyResult(request, response, session, flash, renderArgs, plan, anotherResult);
       }
     }
 
@@ -205,30 +278,34 @@ public class ActionInvoker {
     // It's important to send "flash" and "session" cookies to browser AFTER html is applied.
     // Because sometimes html does change flash.
     // For example, some html might execute %{flash.discard('info')}%`
-    if (actionNeedsSession(request)) {
+    // A chunked response has saved them before its first chunk: its headers are already sent.
+    if (!response.chunked) {
+      saveScopes(request, response, session, flash, plan);
+    }
+
+    handleFinallies(request, session, plan, null);
+  }
+
+  private void saveScopes(
+      Http.Request request,
+      Http.Response response,
+      Session session,
+      Flash flash,
+      ActionPlan plan) {
+    if (plan.needsSession) {
       sessionStore.save(session, request, response);
     }
     flashStore.save(flash, request, response);
-
-    handleFinallies(request, session, null);
   }
 
   private static void invokeControllerCatchMethods(
-      Http.Request request, Session session, Throwable throwable) throws Exception {
+      Http.Request request, Session session, ActionPlan plan, Throwable throwable)
+      throws Exception {
     // @Catch
     Object[] args = new Object[] {throwable};
-    List<Method> catches = Java.findAllAnnotatedMethods(request.controllerClass, Catch.class);
-    for (Method mCatch : catches) {
-      Class[] exceptions = mCatch.getAnnotation(Catch.class).value();
-      if (exceptions.length == 0) {
-        exceptions = new Class[] {Exception.class};
-      }
-      for (Class exception : exceptions) {
-        if (exception.isInstance(args[0])) {
-          mCatch.setAccessible(true);
-          inferResult(invokeControllerMethod(request, session, mCatch, args));
-          break;
-        }
+    for (ActionPlan.ControllerMethod mCatch : plan.catches) {
+      if (mCatch.catches(throwable)) {
+        inferResult(invokeControllerMethod(request, session, mCatch, args));
       }
     }
   }
@@ -263,69 +340,17 @@ public class ActionInvoker {
     return null;
   }
 
-  private static void handleBefores(Http.Request request, Session session) throws Exception {
-    List<Method> befores = Java.findAllAnnotatedMethods(request.controllerClass, Before.class);
-    for (Method before : befores) {
-      String[] unless = before.getAnnotation(Before.class).unless();
-      String[] only = before.getAnnotation(Before.class).only();
-      boolean skip = false;
-      for (String un : only) {
-        if (!un.contains(".")) {
-          un = before.getDeclaringClass().getName().substring(12).replace("$", "") + "." + un;
-        }
-        if (un.equals(request.action)) {
-          skip = false;
-          break;
-        } else {
-          skip = true;
-        }
-      }
-      for (String un : unless) {
-        if (!un.contains(".")) {
-          un = before.getDeclaringClass().getName().substring(12).replace("$", "") + "." + un;
-        }
-        if (un.equals(request.action)) {
-          skip = true;
-          break;
-        }
-      }
-      if (!skip) {
-        before.setAccessible(true);
-        inferResult(invokeControllerMethod(request, session, before));
-      }
+  private static void handleBefores(Http.Request request, Session session, ActionPlan plan)
+      throws Exception {
+    for (ActionPlan.ControllerMethod before : plan.befores) {
+      inferResult(invokeControllerMethod(request, session, before, null));
     }
   }
 
-  private static void handleAfters(Http.Request request, Session session) throws Exception {
-    List<Method> afters = Java.findAllAnnotatedMethods(request.controllerClass, After.class);
-    for (Method after : afters) {
-      String[] unless = after.getAnnotation(After.class).unless();
-      String[] only = after.getAnnotation(After.class).only();
-      boolean skip = false;
-      for (String un : only) {
-        if (!un.contains(".")) {
-          un = after.getDeclaringClass().getName().substring(12) + "." + un;
-        }
-        if (un.equals(request.action)) {
-          skip = false;
-          break;
-        } else {
-          skip = true;
-        }
-      }
-      for (String un : unless) {
-        if (!un.contains(".")) {
-          un = after.getDeclaringClass().getName().substring(12) + "." + un;
-        }
-        if (un.equals(request.action)) {
-          skip = true;
-          break;
-        }
-      }
-      if (!skip) {
-        after.setAccessible(true);
-        inferResult(invokeControllerMethod(request, session, after));
-      }
+  private static void handleAfters(Http.Request request, Session session, ActionPlan plan)
+      throws Exception {
+    for (ActionPlan.ControllerMethod after : plan.afters) {
+      inferResult(invokeControllerMethod(request, session, after, null));
     }
   }
 
@@ -336,7 +361,8 @@ public class ActionInvoker {
    * @param caughtException If @Finally-methods are called after an error, this variable holds the
    *     caught error
    */
-  static void handleFinallies(Http.Request request, Session session, Throwable caughtException)
+  static void handleFinallies(
+      Http.Request request, Session session, ActionPlan plan, Throwable caughtException)
       throws PlayException {
 
     if (request.controllerClass == null) {
@@ -345,47 +371,10 @@ public class ActionInvoker {
     }
 
     try {
-      List<Method> allFinally =
-          Java.findAllAnnotatedMethods(request.controllerClass, Finally.class);
-      for (Method aFinally : allFinally) {
-        String[] unless = aFinally.getAnnotation(Finally.class).unless();
-        String[] only = aFinally.getAnnotation(Finally.class).only();
-        boolean skip = false;
-        for (String un : only) {
-          if (!un.contains(".")) {
-            un = aFinally.getDeclaringClass().getName().substring(12) + "." + un;
-          }
-          if (un.equals(request.action)) {
-            skip = false;
-            break;
-          } else {
-            skip = true;
-          }
-        }
-        for (String un : unless) {
-          if (!un.contains(".")) {
-            un = aFinally.getDeclaringClass().getName().substring(12) + "." + un;
-          }
-          if (un.equals(request.action)) {
-            skip = true;
-            break;
-          }
-        }
-        if (!skip) {
-          aFinally.setAccessible(true);
-
-          // check if method accepts Throwable as only parameter
-          Class[] parameterTypes = aFinally.getParameterTypes();
-          if (parameterTypes.length == 1 && parameterTypes[0] == Throwable.class) {
-            // invoking @Finally method with caughtException as
-            // parameter
-            invokeControllerMethod(request, session, aFinally, new Object[] {caughtException});
-          } else {
-            // invoke @Finally-method the regular way without
-            // caughtException
-            invokeControllerMethod(request, session, aFinally, null);
-          }
-        }
+      for (ActionPlan.ControllerMethod aFinally : plan.finallies) {
+        // The caught exception is passed if the method accepts a Throwable as only parameter
+        Object[] args = aFinally.takesThrowable ? new Object[] {caughtException} : null;
+        invokeControllerMethod(request, session, aFinally, args);
       }
     } catch (PlayException e) {
       throw e;
@@ -439,6 +428,25 @@ public class ActionInvoker {
     return invoke(method, methodClassInstance, args);
   }
 
+  private static Object invokeControllerMethod(
+      Http.Request request,
+      Session session,
+      ActionPlan.ControllerMethod method,
+      Object[] forceArgs)
+      throws Exception {
+    Object[] args =
+        forceArgs != null ? forceArgs : getActionMethodArgs(request, session, method.method);
+
+    Object methodClassInstance =
+        method.isStatic()
+            ? null
+            : method.ownedByController
+                ? request.controllerInstance
+                : Injector.getBeanOfType(method.method.getDeclaringClass());
+
+    return method.invoke(methodClassInstance, args);
+  }
+
   static Object invoke(Method method, Object instance, Object... realArgs) throws Exception {
     try {
       return method.invoke(instance, realArgs);
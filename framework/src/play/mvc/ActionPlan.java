@@ -0,0 +1,254 @@
+package play.mvc;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import play.cache.CacheFor;
+import play.i18n.Lang;
+import play.utils.Java;
+
+/**
+ * What {@link ActionInvoker} does for an action of a controller: the interceptors that apply to it
+ * (in the order they are called), its {@link CacheFor} settings and whether it uses the session.
+ *
+ * <p>A plan is computed on the first invocation of the action and then reused, so that a request
+ * does not look up annotations nor match <code>only</code>/<code>unless</code> action names.
+ */
+@NullMarked
+final class ActionPlan {
+  private static final ClassValue<Map<Method, ActionPlan>> plansByController =
+      new ClassValue<>() {
+        @Override
+        protected Map<Method, ActionPlan> computeValue(Class<?> type) {
+          return new ConcurrentHashMap<>();
+        }
+      };
+
+  private static final ControllerMethod[] NONE = new ControllerMethod[0];
+
+  final boolean needsSession;
+  @Nullable final CacheFor cacheFor;
+  @Nullable final ControllerMethod action;
+  final ControllerMethod[] befores;
+  final ControllerMethod[] afters;
+  final ControllerMethod[] finallies;
+  final ControllerMethod[] catches;
+
+  private ActionPlan(
+      @Nullable Class<?> controllerClass, @Nullable Method actionMethod, @Nullable String action) {
+    needsSession = actionMethod == null || !actionMethod.isAnnotationPresent(NoSession.class);
+    cacheFor = actionMethod == null ? null : actionMethod.getAnnotation(CacheFor.class);
+    this.action =
+        controllerClass == null || actionMethod == null
+            ? null
+            : new ControllerMethod(actionMethod, controllerClass);
+
+    if (controllerClass == null) {
+      befores = afters = finallies = catches = NONE;
+      return;
+    }
+    List<ControllerMethod> list = new ArrayList<>();
+    for (Method before : Java.findAllAnnotatedMethods(controllerClass, Before.class)) {
+      Before annotation = before.getAnnotation(Before.class);
+      if (intercepts(before, annotation.only(), annotation.unless(), true, action)) {
+        list.add(new ControllerMethod(before, controllerClass));
+      }
+    }
+    befores = list.toArray(NONE);
+
+    list.clear();
+    for (Method after : Java.findAllAnnotatedMethods(controllerClass, After.class)) {
+      After annotation = after.getAnnotation(After.class);
+      if (intercepts(after, annotation.only(), annotation.unless(), false, action)) {
+        list.add(new ControllerMethod(after, controllerClass));
+      }
+    }
+    afters = list.toArray(NONE);
+
+    list.clear();
+    for (Method aFinally : Java.findAllAnnotatedMethods(controllerClass, Finally.class)) {
+      Finally annotation = aFinally.getAnnotation(Finally.class);
+      if (intercepts(aFinally, annotation.only(), annotation.unless(), false, action)) {
+        list.add(new ControllerMethod(aFinally, controllerClass));
+      }
+    }
+    finallies = list.toArray(NONE);
+
+    list.clear();
+    for (Method aCatch : Java.findAllAnnotatedMethods(controllerClass, Catch.class)) {
+      list.add(new ControllerMethod(aCatch, controllerClass));
+    }
+    catches = list.toArray(NONE);
+  }
+
+  /**
+   * The plan of the action resolved for the request. Requests that are not fully resolved get a
+   * plan that is not cached.
+   */
+  static ActionPlan of(Http.Request request) {
+    Class<?> controllerClass = request.controllerClass;
+    Method actionMethod = request.invokedMethod;
+    if (controllerClass == null || actionMethod == null || request.action == null) {
+      return new ActionPlan(controllerClass, actionMethod, request.action);
+    }
+    return plansByController
+        .get(controllerClass)
+        .computeIfAbsent(
+            actionMethod, (method) -> new ActionPlan(controllerClass, method, request.action));
+  }
+
+  /**
+   * @return the cache key of the action's result for this request, or null if the result is not
+   *     cached
+   */
+  @Nullable
+  String cacheKey(Http.Request request) {
+    return cacheKey(request, null);
+  }
+
+  /** @param response to resolve the language of cached responses, if any */
+  @Nullable
+  String cacheKey(Http.Request request, Http.@Nullable Response response) {
+    if (cacheFor == null || !(request.method.equals("GET") || request.method.equals("HEAD"))) {
+      return null;
+    }
+    String id = cacheFor.id();
+    String key = id.isEmpty() ? "urlcache:" + request.path + '?' + request.querystring : id;
+    if (!cacheFor.response() && cacheFor.vary().length == 0) {
+      return key;
+    }
+    CacheKeyBuilder builder;
+    if (cacheFor.response()) {
+      builder =
+          new CacheKeyBuilder("response:" + key)
+              .format(request.format)
+              .lang(response == null ? null : Lang.get(request, response));
+    } else {
+      builder = new CacheKeyBuilder(key);
+    }
+    for (String header : cacheFor.vary()) {
+      builder.header(request, header);
+    }
+    return builder.build();
+  }
+
+  private static boolean intercepts(
+      Method interceptor,
+      String[] only,
+      String[] unless,
+      boolean stripDollar,
+      @Nullable String action) {
+    boolean skip = false;
+    for (String name : only) {
+      if (qualifiedName(interceptor, name, stripDollar).equals(action)) {
+        skip = false;
+        break;
+      } else {
+        skip = true;
+      }
+    }
+    for (String name : unless) {
+      if (qualifiedName(interceptor, name, stripDollar).equals(action)) {
+        skip = true;
+        break;
+      }
+    }
+    return !skip;
+  }
+
+  private static String qualifiedName(Method interceptor, String name, boolean stripDollar) {
+    if (name.contains(".")) {
+      return name;
+    }
+    String controller = interceptor.getDeclaringClass().getName().substring(12);
+    return (stripDollar ? controller.replace("$", "") : controller) + "." + name;
+  }
+
+  /** A controller method with everything needed to call it. */
+  static final class ControllerMethod {
+    private static final MethodType INVOKER_TYPE =
+        methodType(Object.class, Object.class, Object[].class);
+
+    final Method method;
+
+    /** Called on the controller instance, otherwise on an instance from the injector. */
+    final boolean ownedByController;
+
+    /** For @Finally: the only parameter is the caught exception. */
+    final boolean takesThrowable;
+
+    /** For @Catch: the exceptions it handles. */
+    final Class<?>[] exceptions;
+
+    @Nullable private final MethodHandle handle;
+
+    private ControllerMethod(Method method, Class<?> controllerClass) {
+      this.method = method;
+      ownedByController = method.getDeclaringClass().isAssignableFrom(controllerClass);
+      Class<?>[] parameterTypes = method.getParameterTypes();
+      takesThrowable = parameterTypes.length == 1 && parameterTypes[0] == Throwable.class;
+      Catch aCatch = method.getAnnotation(Catch.class);
+      exceptions =
+          aCatch == null || aCatch.value().length == 0
+              ? new Class<?>[] {Exception.class}
+              : aCatch.value();
+      handle = handle(method);
+    }
+
+    boolean isStatic() {
+      return Modifier.isStatic(method.getModifiers());
+    }
+
+    boolean catches(Throwable e) {
+      for (Class<?> exception : exceptions) {
+        if (exception.isInstance(e)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /** Invoke the method and rethrow what it throws, as {@link ActionInvoker#invoke} does. */
+    @Nullable
+    Object invoke(@Nullable Object instance, Object @Nullable [] args) throws Exception {
+      if (handle == null) {
+        return ActionInvoker.invoke(method, instance, args);
+      }
+      try {
+        return (Object) handle.invokeExact(instance, args);
+      } catch (Exception | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    /**
+     * @return a handle of type <code>(Object instance, Object[] args)Object</code>, or null if the
+     *     method cannot be made accessible
+     */
+    @Nullable
+    private static MethodHandle handle(Method method) {
+      try {
+        method.setAccessible(true);
+        MethodHandle handle = MethodHandles.lookup().unreflect(method).asFixedArity();
+        if (Modifier.isStatic(method.getModifiers())) {
+          handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+        return handle.asSpreader(Object[].class, method.getParameterCount()).asType(INVOKER_TYPE);
+      } catch (IllegalAccessException | RuntimeException e) {
+        return null;
+      }
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package play.mvc;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.net.URLEncoder;
+import java.util.Locale;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Builds the cache key of a response which varies with the request, e.g.
+ *
+ * <pre>{@code
+ * String key =
+ *     new CacheKeyBuilder("products:" + category)
+ *         .format(request.format)
+ *         .lang(Lang.get(request, response))
+ *         .header(request, "Accept")
+ *         .build();
+ * }</pre>
+ *
+ * <p>Values are URL-encoded, so that keys contain no spaces (which memcached does not accept).
+ */
+@NullMarked
+public class CacheKeyBuilder {
+  private final StringBuilder key;
+
+  public CacheKeyBuilder(String base) {
+    key = new StringBuilder(base.length() + 64).append(base);
+  }
+
+  public CacheKeyBuilder format(@Nullable String format) {
+    return append("format", format);
+  }
+
+  public CacheKeyBuilder lang(@Nullable String lang) {
+    return append("lang", lang);
+  }
+
+  /** Vary with the value of a request header, or its absence. */
+  public CacheKeyBuilder header(Http.Request request, String name) {
+    String lowerCaseName = name.toLowerCase(Locale.ROOT);
+    Http.Header header = request.headers.get(lowerCaseName);
+    return append(lowerCaseName, header == null ? null : String.join(",", header.values));
+  }
+
+  private CacheKeyBuilder append(String name, @Nullable String value) {
+    key.append('|').append(name);
+    if (value != null) {
+      key.append('=').append(URLEncoder.encode(value, UTF_8));
+    }
+    return this;
+  }
+
+  public String build() {
+    return key.toString();
+  }
+}
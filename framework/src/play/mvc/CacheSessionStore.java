@@ -0,0 +1,348 @@
+package play.mvc;
+
+import static play.mvc.Scope.COOKIE_PREFIX;
+import static play.mvc.Scope.COOKIE_SECURE;
+import static play.mvc.Scope.SESSION_HTTPONLY;
+import static play.mvc.Scope.Session;
+import static play.mvc.Scope.Session.TS_KEY;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import play.Play;
+import play.cache.Cache;
+import play.cache.CacheImpl;
+import play.libs.Codec;
+import play.libs.Signer;
+import play.libs.Time;
+
+/**
+ * Session store that keeps session data in the {@link Cache} (memcached or ehcache), and only a
+ * signed session id in the cookie. Use it for sessions too big for a cookie:
+ *
+ * <pre>{@code
+ * new Play(new PropertiesConfLoader(), beanSource, new CacheSessionStore())
+ * }</pre>
+ *
+ * <ul>
+ *   <li>The session is written to the cache only if its data changed during the request.
+ *   <li>Extending the expiration of an unchanged session (see {@link SessionLifetime}) is written
+ *       in the background, within a second.
+ *   <li>Sessions read from the cache can be kept in memory for <code>
+ *       application.session.cache.localTtl</code> (0s by default, at most <code>
+ *       application.session.cache.localSize</code> sessions). Only set it if all requests of a
+ *       session go to the same node: another node would not see changes during that time.
+ * </ul>
+ */
+@NullMarked
+public class CacheSessionStore implements SessionStore {
+  private static final Logger logger = LoggerFactory.getLogger(CacheSessionStore.class);
+
+  static final String KEY_PREFIX = "session:";
+  static final String LOCAL_TTL_SETTING = "application.session.cache.localTtl";
+  static final String LOCAL_SIZE_SETTING = "application.session.cache.localSize";
+
+  private final Signer signer = new Signer("session-id-");
+  private final Supplier<CacheImpl> cache;
+  private final Map<String, Local> local = new ConcurrentHashMap<>();
+  private final Map<String, Map<String, String>> pendingWrites = new ConcurrentHashMap<>();
+  private final Lock[] writeLocks = new Lock[64];
+  @Nullable private volatile ScheduledExecutorService writer;
+  @Nullable private volatile LocalSettings localSettings;
+
+  public CacheSessionStore() {
+    this(Cache::cacheImpl);
+  }
+
+  CacheSessionStore(Supplier<CacheImpl> cache) {
+    this.cache = cache;
+    for (int i = 0; i < writeLocks.length; i++) {
+      writeLocks[i] = new ReentrantLock();
+    }
+  }
+
+  @Override
+  public Session restore(Http.Request request) {
+    SessionLifetime lifetime = SessionLifetime.current();
+    long now = System.currentTimeMillis();
+    String id = sessionId(request);
+    Map<String, String> stored = id == null ? null : load(id, now);
+
+    CachedSession session;
+    if (id == null || stored == null || isExpired(stored, now)) {
+      session = new CachedSession(Codec.UUID(), Map.of(), false);
+    } else {
+      session = new CachedSession(id, stored, true);
+      session.data.putAll(stored);
+    }
+
+    String timestamp = session.data.get(TS_KEY);
+    long expiresAt = timestamp == null ? 0 : Long.parseLong(timestamp);
+    if (lifetime.needsRefresh(expiresAt, now)) {
+      session.put(TS_KEY, now + lifetime.millis());
+    }
+    return session;
+  }
+
+  @Nullable
+  private String sessionId(Http.Request request) {
+    Http.Cookie cookie = request.cookies.get(COOKIE_PREFIX + "_SESSION");
+    if (cookie == null || !Play.started || cookie.value == null) {
+      return null;
+    }
+    int firstDashIndex = cookie.value.indexOf('-');
+    if (firstDashIndex == -1) {
+      return null;
+    }
+    String sign = cookie.value.substring(0, firstDashIndex);
+    String id = cookie.value.substring(firstDashIndex + 1);
+    return CookieDataCodec.safeEquals(sign, signer.sign(id)) ? id : null;
+  }
+
+  @Nullable
+  @SuppressWarnings("unchecked")
+  private Map<String, String> load(String id, long now) {
+    Local cached = local.get(id);
+    if (cached != null && cached.expiresAt() > now) {
+      return cached.data();
+    }
+    Map<String, String> data = (Map<String, String>) cache.get().get(KEY_PREFIX + id);
+    if (data != null) {
+      keepLocally(id, data, now);
+    }
+    return data;
+  }
+
+  private static boolean isExpired(Map<String, String> data, long now) {
+    String timestamp = data.get(TS_KEY);
+    return timestamp == null || Long.parseLong(timestamp) < now;
+  }
+
+  @Override
+  public void save(Session session, Http.Request request, Http.@Nullable Response response) {
+    if (response == null) {
+      // Some request like WebSocket don't have any response
+      return;
+    }
+    CachedSession cachedSession =
+        session instanceof CachedSession cached
+            ? cached
+            : new CachedSession(session.getId(), Map.of(), false);
+    String id = cachedSession.getId();
+    String cookieName = COOKIE_PREFIX + "_SESSION";
+
+    if (session.isEmpty()) {
+      // The session is empty: delete it and the cookie
+      if (cachedSession.stored) {
+        local.remove(id);
+        Lock lock = writeLock(id);
+        lock.lock();
+        try {
+          pendingWrites.remove(id);
+          cache.get().delete(KEY_PREFIX + id);
+        } finally {
+          lock.unlock();
+        }
+      }
+      if (request.cookies.containsKey(cookieName)) {
+        response.setCookie(cookieName, "", null, "/", 0, COOKIE_SECURE, SESSION_HTTPONLY);
+      }
+      return;
+    }
+    if (!session.isChanged()) {
+      return;
+    }
+
+    SessionLifetime lifetime = SessionLifetime.current();
+    Map<String, String> data = new HashMap<>(session.data);
+    long now = System.currentTimeMillis();
+    keepLocally(id, data, now);
+    if (cachedSession.stored && onlyTimestampChanged(cachedSession.loaded, data)) {
+      writeLater(id, data);
+    } else {
+      write(id, data, lifetime.seconds());
+    }
+
+    boolean expirationExtended =
+        !String.valueOf(cachedSession.loaded.get(TS_KEY)).equals(data.get(TS_KEY));
+    if (!cachedSession.stored || expirationExtended) {
+      response.setCookie(
+          cookieName,
+          signer.sign(id) + "-" + id,
+          null,
+          "/",
+          lifetime.seconds(),
+          COOKIE_SECURE,
+          SESSION_HTTPONLY);
+    }
+  }
+
+  /**
+   * Write the session now, replacing a pending write. Writes of a session are done while holding
+   * its write lock, so that a pending write never overwrites a newer one.
+   */
+  private void write(String id, Map<String, String> data, int seconds) {
+    Lock lock = writeLock(id);
+    lock.lock();
+    try {
+      pendingWrites.remove(id);
+      cache.get().set(KEY_PREFIX + id, data, seconds);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Locks are shared by sessions with the same hash. A cache write is not done while holding an
+   * entry of a concurrent map: it would also block other sessions of the same hash bin.
+   */
+  private Lock writeLock(String id) {
+    return writeLocks[Math.floorMod(id.hashCode(), writeLocks.length)];
+  }
+
+  private static boolean onlyTimestampChanged(
+      Map<String, String> loaded, Map<String, String> data) {
+    if (loaded.size() != data.size()) {
+      return false;
+    }
+    for (Map.Entry<String, String> entry : data.entrySet()) {
+      if (!TS_KEY.equals(entry.getKey())
+          && !entry.getValue().equals(loaded.get(entry.getKey()))) {
+        return false;
+      }
+    }
+    return loaded.containsKey(TS_KEY);
+  }
+
+  private void keepLocally(String id, Map<String, String> data, long now) {
+    LocalSettings settings = localSettings();
+    if (settings.ttlMillis() <= 0) {
+      return;
+    }
+    if (local.size() >= settings.maxSize()) {
+      evict(now, settings.maxSize());
+    }
+    String timestamp = data.get(TS_KEY);
+    long expiresAt = now + settings.ttlMillis();
+    if (timestamp != null) {
+      expiresAt = Math.min(expiresAt, Long.parseLong(timestamp));
+    }
+    local.put(id, new Local(Map.copyOf(data), expiresAt));
+  }
+
+  private LocalSettings localSettings() {
+    String ttl = Play.configuration.getProperty(LOCAL_TTL_SETTING, "0s");
+    String size = Play.configuration.getProperty(LOCAL_SIZE_SETTING, "10000");
+    LocalSettings settings = localSettings;
+    if (settings == null || !settings.ttl().equals(ttl) || !settings.size().equals(size)) {
+      settings =
+          new LocalSettings(
+              ttl, size, Time.parseDuration(ttl) * 1000L, Integer.parseInt(size.trim()));
+      localSettings = settings;
+    }
+    return settings;
+  }
+
+  /** Remove expired sessions, and also other ones if there are still too many. */
+  private void evict(long now, int maxSize) {
+    local.values().removeIf(entry -> entry.expiresAt() <= now);
+    Iterator<Local> iterator = local.values().iterator();
+    int toRemove = local.size() - maxSize * 9 / 10;
+    while (toRemove-- > 0 && iterator.hasNext()) {
+      iterator.next();
+      iterator.remove();
+    }
+  }
+
+  /** Write the session in the background, the last version wins if it changes meanwhile. */
+  private void writeLater(String id, Map<String, String> data) {
+    pendingWrites.put(id, data);
+    if (writer == null) {
+      synchronized (this) {
+        if (writer == null) {
+          ScheduledExecutorService executor =
+              Executors.newSingleThreadScheduledExecutor(
+                  (task) -> {
+                    Thread thread = new Thread(task, "session-writer");
+                    thread.setDaemon(true);
+                    return thread;
+                  });
+          executor.scheduleWithFixedDelay(this::flush, 1, 1, TimeUnit.SECONDS);
+          writer = executor;
+        }
+      }
+    }
+  }
+
+  /** Write the sessions which only had their expiration extended. */
+  void flush() {
+    if (pendingWrites.isEmpty()) {
+      return;
+    }
+    try {
+      int seconds = SessionLifetime.current().seconds();
+      for (String id : pendingWrites.keySet()) {
+        Lock lock = writeLock(id);
+        lock.lock();
+        try {
+          Map<String, String> data = pendingWrites.remove(id);
+          if (data != null) {
+            cache.get().set(KEY_PREFIX + id, data, seconds);
+          }
+        } finally {
+          lock.unlock();
+        }
+      }
+    } catch (RuntimeException e) {
+      logger.error("Failed to extend expiration of sessions", e);
+    }
+  }
+
+  /** Stop the background writer, and write the pending sessions before the cache is stopped. */
+  @Override
+  public void stop() {
+    ScheduledExecutorService executor;
+    synchronized (this) {
+      executor = writer;
+      writer = null;
+    }
+    if (executor != null) {
+      executor.shutdown();
+      try {
+        if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+          logger.warn("Session writer did not stop in 5 seconds");
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    flush();
+  }
+
+  private record Local(Map<String, String> data, long expiresAt) {}
+
+  private record LocalSettings(String ttl, String size, long ttlMillis, int maxSize) {}
+
+  /** A session which remembers what was read from the cache. */
+  private static class CachedSession extends Session {
+    private final Map<String, String> loaded;
+    private final boolean stored;
+
+    private CachedSession(String id, Map<String, String> loaded, boolean stored) {
+      super(id);
+      this.loaded = loaded;
+      this.stored = stored;
+    }
+  }
+}
@@ -11,9 +11,14 @@ import org.jspecify.annotations.Nullable;
 import play.Play;
 import play.exceptions.UnexpectedException;
 import play.libs.Signer;
-import play.libs.Time;
 
-/** Default session store implementation that stores signed data in a cookie */
+/**
+ * Default session store implementation that stores signed data in a cookie.
+ *
+ * <p>The cookie is sent again only if the session changed or its expiration was extended (see
+ * {@link SessionLifetime}), so a lower <code>application.session.refreshThreshold</code>, e.g. 50,
+ * saves signing the session and the <code>Set-Cookie</code> header for most requests.
+ */
 @NullMarked
 public class CookieSessionStore implements SessionStore {
 
@@ -21,10 +26,11 @@ public class CookieSessionStore implements SessionStore {
 
   @Override
   public Session restore(Http.Request request) {
+    SessionLifetime lifetime = SessionLifetime.current();
     try {
       Session session = new Session();
       Http.Cookie cookie = request.cookies.get(COOKIE_PREFIX + "_SESSION");
-      long expiration = cookieLifetimeInSeconds() * 1000L;
+      long now = System.currentTimeMillis();
 
       if (cookie != null
           && Play.started
@@ -45,17 +51,17 @@ public class CookieSessionStore implements SessionStore {
         if (!session.contains(TS_KEY)) {
           session = new Session();
         } else {
-          if ((Long.parseLong(session.get(TS_KEY))) < System.currentTimeMillis()) {
+          if ((Long.parseLong(session.get(TS_KEY))) < now) {
             // Session expired
             session = new Session();
           }
         }
-        session.put(TS_KEY, System.currentTimeMillis() + expiration);
+      }
 
-      } else {
-        // no previous cookie to restore; but we may have to set the
-        // timestamp in the new cookie
-        session.put(TS_KEY, (System.currentTimeMillis() + expiration));
+      // A new session gets its timestamp here, and a restored one only if it's time to extend it
+      long expiresAt = session.contains(TS_KEY) ? Long.parseLong(session.get(TS_KEY)) : 0;
+      if (lifetime.needsRefresh(expiresAt, now)) {
+        session.put(TS_KEY, now + lifetime.millis());
       }
 
       return session;
@@ -78,6 +84,10 @@ public class CookieSessionStore implements SessionStore {
       }
       return;
     }
+    if (!session.isChanged()) {
+      // The browser already has this cookie
+      return;
+    }
     try {
       String sessionData = CookieDataCodec.encode(session.data);
       String sign = signer.sign(sessionData);
@@ -95,6 +105,6 @@ public class CookieSessionStore implements SessionStore {
   }
 
   private int cookieLifetimeInSeconds() {
-    return Time.parseDuration(Play.configuration.getProperty(Scope.COOKIE_EXPIRATION_SETTING));
+    return SessionLifetime.current().seconds();
   }
 }
@@ -541,6 +541,27 @@ public class Http {
       return true;
     }
 
+    /**
+     * @param eTag entity tag of the current version of the resource, with its quotes
+     * @return false if the If-None-Match header shows that the client already has this version
+     */
+    public boolean isModified(String eTag) {
+      Header ifNoneMatch = headers.get("if-none-match");
+      if (ifNoneMatch == null) {
+        return true;
+      }
+      for (String value : ifNoneMatch.values) {
+        for (String tag : value.split(",")) {
+          // If-None-Match uses the weak comparison
+          String opaqueTag = tag.trim().startsWith("W/") ? tag.trim().substring(2) : tag.trim();
+          if (opaqueTag.equals("*") || opaqueTag.equals(eTag)) {
+            return false;
+          }
+        }
+      }
+      return true;
+    }
+
     public void setCookie(String key, String value) {
       cookies.put(key, new Cookie(key, value));
     }
@@ -753,9 +774,17 @@ public class Http {
     }
 
     public boolean chunked;
+    private boolean chunkedAborted;
     private final List<Consumer<Object>> writeChunkHandlers = new ArrayList<>();
+    private final List<Runnable> beforeFirstChunkHandlers = new ArrayList<>();
 
     public void writeChunk(Object o) {
+      if (!chunked) {
+        // the headers are sent with the first chunk
+        for (Runnable handler : beforeFirstChunkHandlers) {
+          handler.run();
+        }
+      }
       this.chunked = true;
       if (writeChunkHandlers.isEmpty()) {
         throw new UnsupportedOperationException(
@@ -769,5 +798,29 @@ public class Http {
     public void onWriteChunk(Consumer<Object> handler) {
       writeChunkHandlers.add(handler);
     }
+
+    /** @return true if the HTTP server supports {@link #writeChunk(Object)} */
+    public boolean canWriteChunks() {
+      return !writeChunkHandlers.isEmpty();
+    }
+
+    /** Run a handler before the first chunk and the headers are sent, e.g. to set cookies. */
+    public void beforeFirstChunk(Runnable handler) {
+      beforeFirstChunkHandlers.add(handler);
+    }
+
+    /**
+     * The chunked response failed after its first chunk: the netty servers close the connection
+     * without the terminating chunk, so that the client does not take the cut output for a whole
+     * page. The javanet server cannot, and ends the response normally.
+     */
+    public void abortChunked() {
+      chunkedAborted = true;
+    }
+
+    /** @return true if {@link #abortChunked()} was called */
+    public boolean isChunkedAborted() {
+      return chunkedAborted;
+    }
   }
 }
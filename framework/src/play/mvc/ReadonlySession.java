@@ -1,5 +1,7 @@
 package play.mvc;
 
+import java.util.Collections;
+import java.util.Map;
 import play.libs.Codec;
 
 class ReadonlySession extends Scope.Session {
@@ -8,6 +10,11 @@ class ReadonlySession extends Scope.Session {
     throw new IllegalStateException("This is read-only session");
   }
 
+  @Override
+  public Map<String, String> all() {
+    return Collections.unmodifiableMap(data);
+  }
+
   ReadonlySession() {
     super(Codec.ulid());
   }
@@ -0,0 +1,179 @@
+package play.mvc;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.jspecify.annotations.NullMarked;
+import play.mvc.Router.Route;
+import play.mvc.Router.Route.Arg;
+import play.utils.Utils;
+
+/**
+ * A route path precompiled for reverse routing: the literal chunks of the path with slots for the
+ * route arguments in between.
+ */
+@NullMarked
+final class ReverseRoute {
+  private static final Pattern PARAM =
+      Pattern.compile("\\{(?:<[^>]+>([a-zA-Z_0-9]+)|([a-zA-Z_][a-zA-Z_0-9]*))}");
+  private static final String DEFAULT_CONSTRAINT = "[^/]+";
+  private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+  final Route route;
+  final String method;
+  final boolean star;
+
+  /** Literal parts of the path; there is always one more literal than slots. */
+  private final String[] literals;
+
+  /** Names of the arguments to insert between the literals. */
+  private final String[] slots;
+
+  private final Set<String> pathArgs;
+  private final int estimatedLength;
+
+  ReverseRoute(Route route) {
+    this.route = route;
+    this.method =
+        route.method == null || "*".equals(route.method) ? "GET" : route.method.toUpperCase();
+    this.star = "*".equals(route.method);
+
+    String path = route.path;
+    if (path.endsWith("/?")) {
+      path = path.substring(0, path.length() - 2);
+    }
+
+    pathArgs = new HashSet<>(route.args.size() * 2);
+    for (Arg arg : route.args) {
+      pathArgs.add(arg.name());
+    }
+
+    List<String> literals = new ArrayList<>(route.args.size() + 1);
+    List<String> slots = new ArrayList<>(route.args.size());
+    Matcher matcher = PARAM.matcher(path);
+    int start = 0;
+    while (matcher.find()) {
+      String name = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+      if (pathArgs.contains(name)) {
+        literals.add(path.substring(start, matcher.start()));
+        slots.add(name);
+        start = matcher.end();
+      }
+    }
+    literals.add(path.substring(start));
+
+    this.literals = literals.toArray(new String[0]);
+    this.slots = slots.toArray(new String[0]);
+    this.estimatedLength = path.length() + 16 * this.slots.length;
+  }
+
+  int estimatedLength() {
+    return estimatedLength;
+  }
+
+  boolean isPathArg(String name) {
+    return pathArgs.contains(name);
+  }
+
+  /** Whether all route arguments are given and satisfy their constraints. */
+  boolean accepts(Map<String, ?> args) {
+    for (Arg arg : route.args) {
+      Object value = args.get(arg.name());
+      if (value == null) {
+        return false;
+      }
+      if (value instanceof List<?> values) {
+        value = values.get(0);
+      }
+      String stringValue = value.toString();
+      if (!stringValue.startsWith(":") && !satisfies(arg.constraint(), stringValue)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean satisfies(Pattern constraint, String value) {
+    if (DEFAULT_CONSTRAINT.equals(constraint.pattern())) {
+      // An URL-encoded value never contains "/"
+      return !value.isEmpty();
+    }
+    return constraint.matcher(Utils.urlEncodePath(value)).matches();
+  }
+
+  /** Append the path with all the slots filled from given arguments, which must be accepted. */
+  void appendPath(StringBuilder url, Map<String, ?> args, Charset encoding) {
+    url.append(literals[0]);
+    for (int i = 0; i < slots.length; i++) {
+      Object value = args.get(slots[i]);
+      if (value instanceof List<?> values) {
+        url.append(values.get(0));
+      } else {
+        appendEncoded(url, String.valueOf(value), encoding, true);
+      }
+      url.append(literals[i + 1]);
+    }
+  }
+
+  /**
+   * Append a value encoded like {@link java.net.URLEncoder#encode(String, Charset)} does, without
+   * creating intermediate strings for the characters that need no encoding.
+   *
+   * @param pathSegment if true, encode space as "%20" and leave ":" and "@" unencoded, as they are
+   *     allowed in a path segment
+   */
+  static void appendEncoded(StringBuilder out, String value, Charset charset, boolean pathSegment) {
+    boolean asciiCompatible =
+        UTF_8.equals(charset) || ISO_8859_1.equals(charset) || US_ASCII.equals(charset);
+    int length = value.length();
+    int i = 0;
+    while (i < length) {
+      char c = value.charAt(i);
+      if (isUnreserved(c)) {
+        out.append(c);
+        i++;
+      } else if (c == ' ') {
+        out.append(pathSegment ? "%20" : "+");
+        i++;
+      } else if (asciiCompatible && c < 0x80) {
+        appendByte(out, (byte) c, pathSegment);
+        i++;
+      } else {
+        int start = i;
+        do {
+          i++;
+        } while (i < length && !isUnreserved(value.charAt(i)) && value.charAt(i) != ' ');
+        for (byte b : value.substring(start, i).getBytes(charset)) {
+          appendByte(out, b, pathSegment);
+        }
+      }
+    }
+  }
+
+  private static void appendByte(StringBuilder out, byte b, boolean pathSegment) {
+    if (pathSegment && (b == ':' || b == '@')) {
+      out.append((char) b);
+    } else {
+      out.append('%').append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+    }
+  }
+
+  private static boolean isUnreserved(char c) {
+    return (c >= 'a' && c <= 'z')
+        || (c >= 'A' && c <= 'Z')
+        || (c >= '0' && c <= '9')
+        || c == '-'
+        || c == '_'
+        || c == '.'
+        || c == '*';
+  }
+}
@@ -0,0 +1,305 @@
+package play.mvc;
+
+import static java.util.Collections.emptyMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import play.mvc.Router.MatchingRoute;
+import play.mvc.Router.Route;
+import play.utils.Utils;
+
+/**
+ * Routes compiled into a per-method segment tree.
+ *
+ * <p>Literal path segments and plain <code>{param}</code> captures are matched segment by segment
+ * without any regular expression. Routes that cannot be expressed this way (custom <code>
+ * {&lt;regex&gt;name}</code> constraints, regex syntax in the path, <code>staticDir:</code> routes)
+ * are attached to the deepest node reachable by their literal prefix and are checked with {@link
+ * Route#matches(String, String)}.
+ *
+ * <p>All routes that can match a path are collected and tried in the order of the routes file, so
+ * the first matching route still wins.
+ */
+@NullMarked
+final class RouteTree {
+  private static final String ANY_METHOD = "*";
+  private static final String REGEX_CHARS = "\\.[]{}()*+?^$|";
+  private static final Pattern PARAM =
+      Pattern.compile("\\{(?:<[^>]+>[a-zA-Z_0-9]+|[a-zA-Z_][a-zA-Z_0-9]*)}");
+  private static final Pattern DEFAULT_PARAM = Pattern.compile("\\{[a-zA-Z_][a-zA-Z_0-9]*}");
+
+  private final CompiledRoute[] routes;
+  private final Map<String, Node> trees = new HashMap<>();
+
+  private RouteTree(List<Route> routes) {
+    this.routes = new CompiledRoute[routes.size()];
+    for (int i = 0; i < routes.size(); i++) {
+      Route route = routes.get(i);
+      Node root = trees.computeIfAbsent(methodKey(route.method), (method) -> new Node());
+      this.routes[i] = compile(route, i, root);
+    }
+    trees.values().forEach(Node::freeze);
+  }
+
+  static RouteTree compile(List<Route> routes) {
+    return new RouteTree(routes);
+  }
+
+  int size() {
+    return routes.length;
+  }
+
+  /**
+   * Find the first route matching given request method and path.
+   *
+   * @return the matching route with its arguments, or null if no route matches
+   * @throws play.mvc.results.RenderStatic if the first matching route is a static route
+   * @throws play.mvc.results.NotFound if the first matching route is a "404" route
+   */
+  @Nullable
+  MatchingRoute match(String method, String path) {
+    String[] segments = (path.isEmpty() ? "/" : path).split("/", -1);
+    String methodKey = methodKey(method);
+
+    Candidates candidates = new Candidates();
+    collect(trees.get(methodKey), segments, candidates);
+    collect(trees.get(ANY_METHOD), segments, candidates);
+    if ("HEAD".equals(methodKey)) {
+      collect(trees.get("GET"), segments, candidates);
+    }
+
+    int[] indexes = candidates.sorted();
+    for (int index : indexes) {
+      CompiledRoute candidate = routes[index];
+      if (candidate.direct) {
+        return new MatchingRoute(candidate.route, candidate.args(segments));
+      }
+      Map<String, String> args = candidate.route.matches(method, path);
+      if (args != null) {
+        return new MatchingRoute(candidate.route, args);
+      }
+    }
+    return null;
+  }
+
+  private static void collect(@Nullable Node root, String[] segments, Candidates candidates) {
+    if (root != null) {
+      root.collect(segments, 0, candidates);
+    }
+  }
+
+  private static String methodKey(String method) {
+    return method.toUpperCase(Locale.ROOT);
+  }
+
+  private static CompiledRoute compile(Route route, int index, Node root) {
+    List<String> segments = splitTemplate(route.path);
+
+    if (route.pattern == null) {
+      // Compared by String.equals() in Route.matches, so every segment is a plain literal
+      Node node = root;
+      for (String segment : segments) {
+        node = node.literal(segment);
+      }
+      node.leaves.add(index);
+      return new CompiledRoute(route, isDirect(route), new String[0], new int[0]);
+    }
+
+    List<String> paramNames = new ArrayList<>(route.args.size());
+    List<Integer> paramPositions = new ArrayList<>(route.args.size());
+    boolean plain = route.staticDir == null;
+    for (int i = 0; i < segments.size() && plain; i++) {
+      String segment = segments.get(i);
+      if (DEFAULT_PARAM.matcher(segment).matches()) {
+        paramNames.add(segment.substring(1, segment.length() - 1));
+        paramPositions.add(i);
+      } else if (!isLiteral(segment)) {
+        plain = false;
+      }
+    }
+
+    if (plain) {
+      Node node = root;
+      for (String segment : segments) {
+        node = isLiteral(segment) ? node.literal(segment) : node.param();
+      }
+      node.leaves.add(index);
+      return new CompiledRoute(
+          route,
+          isDirect(route),
+          paramNames.toArray(new String[0]),
+          paramPositions.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    prefixNode(root, route.path, segments).prefixed.add(index);
+    return new CompiledRoute(route, false, new String[0], new int[0]);
+  }
+
+  /**
+   * The deepest node that every path matched by the route's regular expression must pass through.
+   * A segment can only be followed if the "/" after it is mandatory in the regular expression.
+   */
+  private static Node prefixNode(Node root, String path, List<String> segments) {
+    if (PARAM.matcher(path).replaceAll("").indexOf('|') >= 0) {
+      return root;
+    }
+    Node node = root;
+    for (int i = 0; i < segments.size() - 1; i++) {
+      String segment = segments.get(i);
+      if (startsWithQuantifier(segments.get(i + 1))) {
+        break;
+      }
+      if (isLiteral(segment)) {
+        node = node.literal(segment);
+      } else if (DEFAULT_PARAM.matcher(segment).matches()) {
+        node = node.param();
+      } else {
+        break;
+      }
+    }
+    return node;
+  }
+
+  private static boolean isDirect(Route route) {
+    return route.staticDir == null && !"404".equals(route.action);
+  }
+
+  private static boolean isLiteral(String segment) {
+    for (int i = 0; i < segment.length(); i++) {
+      if (REGEX_CHARS.indexOf(segment.charAt(i)) >= 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean startsWithQuantifier(String segment) {
+    if (segment.isEmpty()) {
+      return false;
+    }
+    char first = segment.charAt(0);
+    return first == '?'
+        || first == '*'
+        || first == '+'
+        || (first == '{' && !PARAM.matcher(segment).lookingAt());
+  }
+
+  /** Split a route path by "/", keeping <code>{&lt;regex&gt;name}</code> arguments intact. */
+  static List<String> splitTemplate(String path) {
+    List<String> segments = new ArrayList<>();
+    var param = PARAM.matcher(path);
+    int start = 0;
+    for (int i = 0; i < path.length(); i++) {
+      char c = path.charAt(i);
+      if (c == '{' && param.region(i, path.length()).lookingAt()) {
+        i = param.end() - 1;
+      } else if (c == '/') {
+        segments.add(path.substring(start, i));
+        start = i + 1;
+      }
+    }
+    segments.add(path.substring(start));
+    return segments;
+  }
+
+  private static final class Node {
+    private final Map<String, Node> literals = new HashMap<>();
+    @Nullable private Node param;
+
+    /** Routes ending exactly at this node. */
+    private final IntList leaves = new IntList();
+
+    /** Routes that need to be verified by regex once the path continues past this node. */
+    private final IntList prefixed = new IntList();
+
+    Node literal(String segment) {
+      return literals.computeIfAbsent(segment, (s) -> new Node());
+    }
+
+    Node param() {
+      if (param == null) {
+        param = new Node();
+      }
+      return param;
+    }
+
+    void collect(String[] segments, int depth, Candidates candidates) {
+      if (depth == segments.length) {
+        candidates.addAll(leaves);
+        return;
+      }
+      candidates.addAll(prefixed);
+
+      String segment = segments[depth];
+      Node literal = literals.get(segment);
+      if (literal != null) {
+        literal.collect(segments, depth + 1, candidates);
+      }
+      if (param != null && !segment.isEmpty()) {
+        param.collect(segments, depth + 1, candidates);
+      }
+    }
+
+    void freeze() {
+      leaves.trim();
+      prefixed.trim();
+      literals.values().forEach(Node::freeze);
+      if (param != null) {
+        param.freeze();
+      }
+    }
+  }
+
+  private record CompiledRoute(
+      Route route, boolean direct, String[] paramNames, int[] paramPositions) {
+
+    Map<String, String> args(String[] segments) {
+      if (paramNames.length == 0 && route.staticArgs.isEmpty()) {
+        return emptyMap();
+      }
+      Map<String, String> args = new HashMap<>(paramNames.length + route.staticArgs.size());
+      for (int i = 0; i < paramNames.length; i++) {
+        args.put(paramNames[i], Utils.urlDecodePath(segments[paramPositions[i]]));
+      }
+      args.putAll(route.staticArgs);
+      return args;
+    }
+  }
+
+  private static class IntList {
+    int[] values = new int[4];
+    int size;
+
+    void add(int value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, Math.max(4, size * 2));
+      }
+      values[size++] = value;
+    }
+
+    void trim() {
+      values = Arrays.copyOf(values, size);
+    }
+  }
+
+  private static final class Candidates extends IntList {
+    void addAll(IntList other) {
+      for (int i = 0; i < other.size; i++) {
+        add(other.values[i]);
+      }
+    }
+
+    int[] sorted() {
+      int[] result = Arrays.copyOf(values, size);
+      Arrays.sort(result);
+      return result;
+    }
+  }
+}
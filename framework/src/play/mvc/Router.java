@@ -7,7 +7,6 @@ import static play.server.ServerHelper.SERVER_HELPER_FIND_FILE_TMP_PATH_PREFIX;
 
 import java.io.File;
 import java.io.IOException;
-import java.net.URLEncoder;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -31,7 +30,6 @@ import play.Play.Mode;
 import play.exceptions.NoRouteFoundException;
 import play.mvc.Http.Request;
 import play.mvc.Http.Response;
-import play.mvc.Router.Route.Arg;
 import play.mvc.results.NotFound;
 import play.mvc.results.RenderStatic;
 import play.mvc.routing.RoutesParser;
@@ -53,6 +51,13 @@ public class Router {
 
   private final Map<String, Map<String, Route>> parameterlessRoutes = new HashMap<>();
 
+  /** Routes compiled for fast matching, built lazily from {@link #routes}. */
+  @Nullable
+  private volatile RouteTree routeTree;
+
+  /** Whether to match requests by trying each route's regular expression in turn. */
+  private boolean linearMatching;
+
   /** Timestamp the routes file was last loaded at. */
   public static long lastLoading = -1;
 
@@ -70,6 +75,8 @@ public class Router {
    * <p>This is called at normal startup.
    */
   private static void loadRoutesFromFile() {
+    instance.setLinearMatching(
+        "linear".equals(Play.configuration.getProperty("play.router.matcher", "tree")));
     instance.setRoutes(new RoutesParser().parse(Play.routes));
     // This automatically added route is needed to serve the static files extracted from classpath.
     // The "public" postfix (!) on the end is to prevent unwanted leakage of classpath resource files!
@@ -81,13 +88,24 @@ public class Router {
   /** Replace routes with provided route definitions. */
   public void setRoutes(List<Route> routes) {
     actionRoutesCache.clear();
+    reverseRoutesCache.clear();
     this.routes.clear();
     parameterlessRoutes.clear();
+    routeTree = null;
     routes.forEach(this::addRoute);
   }
 
+  /**
+   * Switch between the compiled route tree (default) and the legacy matcher that tries the regular
+   * expression of every route in turn. Configured by <code>play.router.matcher=tree|linear</code>.
+   */
+  public void setLinearMatching(boolean linearMatching) {
+    this.linearMatching = linearMatching;
+  }
+
   private void addRoute(Route route) {
     routes.add(route);
+    routeTree = null;
 
     if (route.pattern == null) {
       parameterlessRoutes
@@ -145,10 +163,8 @@ public class Router {
       }
     }
 
-    for (Route route : routes) {
-      if (route.matches(request.method, request.path) != null) {
-        return;
-      }
+    if (findRoute(request.method, request.path) != null) {
+      return;
     }
   }
 
@@ -173,14 +189,36 @@ public class Router {
     Route parameterlessRoute = findParameterlessRoute(method, path);
     if (parameterlessRoute != null) return new MatchingRoute(parameterlessRoute, emptyMap());
 
+    return findRoute(method, path);
+  }
+
+  @Nullable
+  private MatchingRoute findRoute(@Nullable String method, String path) {
+    if (linearMatching || method == null) {
+      return findRouteLinear(method, path);
+    }
+    return routeTree().match(method, path);
+  }
+
+  @Nullable
+  private MatchingRoute findRouteLinear(@Nullable String method, String path) {
     for (Route route : routes) {
       Map<String, String> args = route.matches(method, path);
       if (args != null) return new MatchingRoute(route, args);
     }
-
     return null;
   }
 
+  private RouteTree routeTree() {
+    RouteTree tree = routeTree;
+    // routes() exposes the mutable list, so also recompile when it was changed from outside
+    if (tree == null || tree.size() != routes.size()) {
+      tree = RouteTree.compile(new ArrayList<>(routes));
+      routeTree = tree;
+    }
+    return tree;
+  }
+
   private Route processRoute(Request request, MatchingRoute match) {
     request.routeArgs = match.args;
     request.action = match.route.action;
@@ -345,174 +383,139 @@ public class Router {
       @Nullable Map<String, Object> actionArgs,
       String requestFormat,
       @Nullable Charset encoding) {
-    Map<String, Object> args = new LinkedHashMap<>(actionArgs);
+    Map<String, Object> givenArgs = actionArgs == null ? emptyMap() : actionArgs;
+    Map<String, Object> args = givenArgs;
     Charset actualEncoding = encoding == null ? Play.defaultWebEncoding : encoding;
 
     if (action.startsWith("controllers.")) {
       action = action.substring(12);
     }
-    Map<String, Object> argsBackup = new HashMap<>(args);
-
-    List<MatchingRoute> matchingRoutes = getActionRoutes(action);
-    for (MatchingRoute actionRoute : matchingRoutes) {
-      Route route = actionRoute.route;
-      args.putAll(actionRoute.args);
-
-      List<String> inPathArgs = new ArrayList<>(16);
-      boolean allRequiredArgsAreHere = true;
-      // do the parameter names match?
-      for (Arg arg : route.args) {
-        inPathArgs.add(arg.name);
-        Object value = args.get(arg.name);
-        if (value == null) {
-          allRequiredArgsAreHere = false;
-        } else {
-          if (value instanceof List<?>) {
-            value = ((List<Object>) value).get(0);
-          }
-          if (!value.toString().startsWith(":")
-              && !arg.constraint.matcher(Utils.urlEncodePath(value.toString())).matches()) {
-            allRequiredArgsAreHere = false;
-            break;
-          }
+
+    for (ActionRoute actionRoute : getActionRoutes(action)) {
+      if (!actionRoute.args.isEmpty()) {
+        if (args == givenArgs) {
+          args = new LinkedHashMap<>(givenArgs);
         }
+        args.putAll(actionRoute.args);
       }
-      // do the hardcoded parameters in the route match?
-      for (Entry<String, String> entry : route.staticArgs.entrySet()) {
-        String staticKey = entry.getKey();
-        if (staticKey.equals("format")) {
-          if (!requestFormat.equals(route.staticArgs.get("format"))) {
-            allRequiredArgsAreHere = false;
-            break;
-          }
-          continue; // format is a special key
-        }
-        if (!args.containsKey(staticKey)
-            || (args.get(staticKey) == null)
-            || !args.get(staticKey).toString().equals(entry.getValue())) {
-          allRequiredArgsAreHere = false;
-          break;
-        }
+      ReverseRoute reverseRoute = actionRoute.reverseRoute;
+      if (reverseRoute.accepts(args)
+          && matchesStaticArgs(reverseRoute.route, args, requestFormat)) {
+        return toActionDefinition(action, reverseRoute, args, givenArgs, actualEncoding);
       }
-      if (allRequiredArgsAreHere) {
-        StringBuilder queryString = new StringBuilder();
-        String path = route.path;
-        String host = "";
-        if (path.endsWith("/?")) {
-          path = path.substring(0, path.length() - 2);
-        }
-        for (Entry<String, Object> entry : args.entrySet()) {
-          String key = entry.getKey();
-          Object value = entry.getValue();
-          if (inPathArgs.contains(key) && value != null) {
-            if (List.class.isAssignableFrom(value.getClass())) {
-              @SuppressWarnings("unchecked")
-              List<Object> values = (List<Object>) value;
-              path =
-                  path.replaceAll("\\{(<[^>]+>)?" + key + "}", values.get(0).toString())
-                      .replace("$", "\\$");
-            } else {
-              path =
-                  path.replaceAll(
-                      "\\{(<[^>]+>)?" + key + "}",
-                      URLEncoder.encode(value.toString(), actualEncoding)
-                          .replace("$", "\\$")
-                          .replace("%3A", ":")
-                          .replace("%40", "@")
-                          .replace("+", "%20"));
-              host =
-                  host.replaceAll(
-                      "\\{(<[^>]+>)?" + key + "}",
-                      URLEncoder.encode(value.toString(), actualEncoding)
-                          .replace("$", "\\$")
-                          .replace("%3A", ":")
-                          .replace("%40", "@")
-                          .replace("+", "%20"));
-            }
-          } else if (route.staticArgs.containsKey(key)) {
-            // Do nothing -> The key is static.
-          } else if (!argsBackup.containsKey(key)) {
-            // Do nothing -> The key is provided in RouteArgs and not used (see #447).
-          } else if (value != null) {
-            if (List.class.isAssignableFrom(value.getClass())) {
-              @SuppressWarnings("unchecked")
-              List<Object> values = (List<Object>) value;
-              for (Object object : values) {
-                queryString.append(URLEncoder.encode(key, actualEncoding));
-                queryString.append("=");
-                String objStr = object.toString();
-                // Special case to handle `jsAction` tag
-                if (objStr.startsWith(":") && objStr.length() > 1) {
-                  queryString.append(':');
-                  objStr = objStr.substring(1);
-                }
-                queryString.append(URLEncoder.encode(objStr, actualEncoding));
-                queryString.append("&");
-              }
-            } else if (value.getClass().equals(Default.class)) {
-              // Skip defaults in queryString
-            } else {
-              queryString.append(URLEncoder.encode(key, actualEncoding));
-              queryString.append("=");
-              String objStr = value.toString();
-              // Special case to handle jsAction tag
-              if (objStr.startsWith(":") && objStr.length() > 1) {
-                queryString.append(':');
-                objStr = objStr.substring(1);
-              }
-              queryString.append(URLEncoder.encode(objStr, actualEncoding));
-              queryString.append("&");
-            }
-          }
+    }
+
+    throw new NoRouteFoundException(action, args);
+  }
+
+  /** Do the hardcoded parameters in the route match? */
+  private static boolean matchesStaticArgs(
+      Route route, Map<String, Object> args, String requestFormat) {
+    for (Entry<String, String> entry : route.staticArgs.entrySet()) {
+      String staticKey = entry.getKey();
+      if (staticKey.equals("format")) {
+        if (!requestFormat.equals(entry.getValue())) {
+          return false;
         }
-        String qs = queryString.toString();
-        if (qs.endsWith("&")) {
-          qs = qs.substring(0, qs.length() - 1);
+        continue; // format is a special key
+      }
+      Object value = args.get(staticKey);
+      if (value == null || !value.toString().equals(entry.getValue())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static ActionDefinition toActionDefinition(
+      String action,
+      ReverseRoute reverseRoute,
+      Map<String, Object> args,
+      Map<String, Object> givenArgs,
+      Charset encoding) {
+    StringBuilder url = new StringBuilder(reverseRoute.estimatedLength());
+    reverseRoute.appendPath(url, args, encoding);
+
+    char separator = '?';
+    for (Entry<String, Object> entry : args.entrySet()) {
+      String key = entry.getKey();
+      Object value = entry.getValue();
+      if (value == null
+          || reverseRoute.isPathArg(key)
+          || reverseRoute.route.staticArgs.containsKey(key)
+          || !givenArgs.containsKey(key)) {
+        // Path arguments and static keys are not repeated in the query string,
+        // and keys provided in RouteArgs are not used (see #447).
+        continue;
+      }
+      if (value instanceof List<?> values) {
+        for (Object object : values) {
+          appendQueryParameter(url, separator, key, object.toString(), encoding);
+          separator = '&';
         }
-        ActionDefinition actionDefinition = new ActionDefinition();
-        actionDefinition.url = qs.isEmpty() ? path : path + "?" + qs;
-        actionDefinition.method =
-            route.method == null || "*".equals(route.method) ? "GET" : route.method.toUpperCase();
-        actionDefinition.star = "*".equals(route.method);
-        actionDefinition.action = action;
-        actionDefinition.args = argsBackup;
-        actionDefinition.host = host;
-        return actionDefinition;
+      } else if (!value.getClass().equals(Default.class)) {
+        // Defaults are skipped in queryString
+        appendQueryParameter(url, separator, key, value.toString(), encoding);
+        separator = '&';
       }
     }
 
-    throw new NoRouteFoundException(action, args);
+    ActionDefinition actionDefinition = new ActionDefinition();
+    actionDefinition.url = url.toString();
+    actionDefinition.method = reverseRoute.method;
+    actionDefinition.star = reverseRoute.star;
+    actionDefinition.action = action;
+    actionDefinition.args = new HashMap<>(givenArgs);
+    actionDefinition.host = "";
+    return actionDefinition;
+  }
+
+  private static void appendQueryParameter(
+      StringBuilder url, char separator, String key, String value, Charset encoding) {
+    url.append(separator);
+    ReverseRoute.appendEncoded(url, key, encoding, false);
+    url.append('=');
+    // Special case to handle `jsAction` tag
+    if (value.startsWith(":") && value.length() > 1) {
+      url.append(':');
+      value = value.substring(1);
+    }
+    ReverseRoute.appendEncoded(url, value, encoding, false);
   }
 
-  private final Map<String, List<MatchingRoute>> actionRoutesCache = new ConcurrentHashMap<>();
+  private final Map<String, List<ActionRoute>> actionRoutesCache = new ConcurrentHashMap<>();
 
-  private List<MatchingRoute> getActionRoutes(String action) {
+  /** Routes precompiled for reverse routing, shared by all actions routed to the same route. */
+  private final Map<Route, ReverseRoute> reverseRoutesCache = new ConcurrentHashMap<>();
+
+  private List<ActionRoute> getActionRoutes(String action) {
     return actionRoutesCache.computeIfAbsent(action, this::findActionRoutes);
   }
 
-  private List<MatchingRoute> findActionRoutes(String action) {
-    List<MatchingRoute> matchingRoutes = new ArrayList<>();
+  private List<ActionRoute> findActionRoutes(String action) {
+    List<ActionRoute> actionRoutes = new ArrayList<>();
     for (Route route : routes) {
       if (route.actionPattern != null) {
         Matcher matcher = route.actionPattern.matcher(action);
         if (matcher.matches()) {
-          MatchingRoute matchingRoute =
-              new MatchingRoute(route, new HashMap<>(route.actionArgs.size()));
-
+          Map<String, String> args = new HashMap<>(route.actionArgs.size());
           for (String group : route.actionArgs) {
             String v = matcher.group(group);
             if (v == null) {
               continue;
             }
-            matchingRoute.args.put(group, v.toLowerCase());
+            args.put(group, v.toLowerCase());
           }
-          matchingRoutes.add(matchingRoute);
+          ReverseRoute reverseRoute = reverseRoutesCache.computeIfAbsent(route, ReverseRoute::new);
+          actionRoutes.add(new ActionRoute(args, reverseRoute));
         }
       }
     }
-    return matchingRoutes;
+    return actionRoutes;
   }
 
+  private record ActionRoute(Map<String, String> args, ReverseRoute reverseRoute) {}
+
   public static class ActionDefinition {
 
     private static final Pattern HOST_REGEX =
@@ -196,16 +196,30 @@ public class Scope {
         id = data.get(ID_KEY);
         if (id == null) {
           id = Codec.ulid();
+          change();
           data.put(ID_KEY, id);
         }
       }
       return id;
     }
 
+    /**
+     * The session data, which may be modified: the session is then considered changed and will be
+     * saved.
+     */
     public Map<String, String> all() {
+      change();
       return data;
     }
 
+    /**
+     * @return true if the session was modified (or its expiration extended) during the request, so
+     *     that it has to be saved
+     */
+    public boolean isChanged() {
+      return changed;
+    }
+
     public String getAuthenticityToken() {
       if (!data.containsKey(AT_KEY)) {
         this.put(AT_KEY, signer.sign(Codec.UUID()));
@@ -0,0 +1,50 @@
+package play.mvc;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import play.Play;
+import play.libs.Time;
+
+/**
+ * Expiration of sessions: a session expires after <code>application.session.maxAge</code> without
+ * requests, and its expiration is extended when less than <code>
+ * application.session.refreshThreshold</code> percent of <code>maxAge</code> remains (100 by
+ * default: on every request).
+ */
+@NullMarked
+record SessionLifetime(String maxAge, String threshold, int seconds, int refreshPercent) {
+  static final String REFRESH_THRESHOLD_SETTING = "application.session.refreshThreshold";
+
+  @Nullable private static volatile SessionLifetime cached;
+
+  private SessionLifetime(String maxAge, String threshold) {
+    this(maxAge, threshold, Time.parseDuration(maxAge), Integer.parseInt(threshold.trim()));
+    if (refreshPercent < 0 || refreshPercent > 100) {
+      throw new IllegalArgumentException(
+          REFRESH_THRESHOLD_SETTING + " must be 0..100, got " + threshold);
+    }
+  }
+
+  /** The settings of the current configuration, parsed again only if it changes. */
+  static SessionLifetime current() {
+    String maxAge = Play.configuration.getProperty(Scope.COOKIE_EXPIRATION_SETTING);
+    String threshold = Play.configuration.getProperty(REFRESH_THRESHOLD_SETTING, "100");
+    SessionLifetime lifetime = cached;
+    if (lifetime == null
+        || !lifetime.maxAge().equals(maxAge)
+        || !lifetime.threshold().equals(threshold)) {
+      lifetime = new SessionLifetime(maxAge, threshold);
+      cached = lifetime;
+    }
+    return lifetime;
+  }
+
+  long millis() {
+    return seconds * 1000L;
+  }
+
+  /** @return true if less than the threshold of the lifetime remains before expiration */
+  boolean needsRefresh(long expiresAt, long now) {
+    return (expiresAt - now) * 100 < millis() * refreshPercent;
+  }
+}
@@ -17,4 +17,7 @@ public interface SessionStore {
       Http.@Nullable Response response);
 
   Scope.Session restore(Http.Request request);
+
+  /** Called when the application stops, before the cache is stopped. */
+  default void stop() {}
 }
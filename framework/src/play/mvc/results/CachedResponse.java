@@ -0,0 +1,181 @@
+package play.mvc.results;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import play.exceptions.UnexpectedException;
+import play.mvc.Http;
+import play.mvc.Http.Header;
+import play.mvc.Http.Request;
+import play.mvc.Http.Response;
+import play.mvc.Scope.Flash;
+import play.mvc.Scope.RenderArgs;
+import play.mvc.Scope.Session;
+import play.server.ResponseCompression;
+
+/**
+ * A response rendered once and cached by <code>@CacheFor(response = true)</code>: status, headers
+ * and body, with a strong ETag and a gzipped body if the response is compressible. The gzipped
+ * body has its own ETag, with a <code>-gzip</code> suffix: a strong ETag identifies the bytes sent.
+ */
+@NullMarked
+public class CachedResponse extends Result {
+  private final int status;
+  @Nullable private final String contentType;
+  private final Map<String, List<String>> headers;
+  private final byte[] body;
+  private final byte @Nullable [] gzippedBody;
+  private final List<String> vary;
+  @Nullable private final String eTag;
+  @Nullable private final String gzippedETag;
+
+  CachedResponse(
+      int status,
+      @Nullable String contentType,
+      Map<String, List<String>> headers,
+      byte[] body,
+      byte @Nullable [] gzippedBody,
+      List<String> vary) {
+    this.status = status;
+    this.contentType = contentType;
+    this.headers = headers;
+    this.body = body;
+    this.gzippedBody = gzippedBody;
+    this.vary = vary;
+    this.eTag =
+        status == Http.StatusCode.OK && !containsHeader(headers, "etag") ? eTag(body) : null;
+    this.gzippedETag =
+        eTag == null ? null : eTag.substring(0, eTag.length() - 1) + "-gzip\"";
+  }
+
+  /**
+   * Render a result once to cache the response.
+   *
+   * @param vary request headers the response depends on, sent in the <code>Vary</code> header
+   * @return the rendered response, or null if it cannot be cached: it sets cookies or sends a
+   *     file or stream
+   */
+  @Nullable
+  @SuppressWarnings("deprecation")
+  public static CachedResponse render(
+      Result result,
+      String[] vary,
+      Request request,
+      Response response,
+      Session session,
+      RenderArgs renderArgs,
+      Flash flash) {
+    Response rendered = new Response();
+    rendered.out = new ByteArrayOutputStream();
+    rendered.encoding = response.encoding;
+    Response.setCurrent(rendered);
+    try {
+      result.apply(request, rendered, session, renderArgs, flash);
+    } finally {
+      Response.setCurrent(response);
+    }
+    if (rendered.direct != null || !rendered.cookies.isEmpty()) {
+      return null;
+    }
+
+    Map<String, List<String>> headers = new LinkedHashMap<>();
+    rendered.headers.forEach(
+        (name, header) -> headers.put(name, new ArrayList<>(header.values)));
+    byte[] body = rendered.out.toByteArray();
+    ResponseCompression compression = ResponseCompression.current();
+    byte[] gzippedBody =
+        compression.isCompressible(rendered.contentType)
+                && body.length >= compression.minSize()
+                && !containsHeader(headers, "content-encoding")
+            ? gzip(body, compression.level())
+            : null;
+    List<String> varyHeaders = new ArrayList<>(List.of(vary));
+    if (gzippedBody != null) {
+      varyHeaders.add("Accept-Encoding");
+    }
+    return new CachedResponse(
+        rendered.status, rendered.contentType, headers, body, gzippedBody, varyHeaders);
+  }
+
+  @Override
+  public void apply(
+      Request request, Response response, Session session, RenderArgs renderArgs, Flash flash) {
+    response.status = status;
+    if (contentType != null) {
+      response.contentType = contentType;
+    }
+    headers.forEach((name, values) -> response.headers.put(name, new Header(name, values)));
+    if (!vary.isEmpty()) {
+      response.setHeader("Vary", String.join(", ", vary));
+    }
+    Header acceptEncoding = request.headers.get("accept-encoding");
+    boolean gzipped =
+        gzippedBody != null
+            && acceptEncoding != null
+            && "gzip".equals(ResponseCompression.negotiate(acceptEncoding.value()));
+    String variantETag = gzipped ? gzippedETag : eTag;
+    if (variantETag != null) {
+      response.setHeader("ETag", variantETag);
+      if (!request.isModified(variantETag)) {
+        response.status = Http.StatusCode.NOT_MODIFIED;
+        return;
+      }
+    }
+    try {
+      if (gzipped) {
+        response.setHeader("Content-Encoding", "gzip");
+        response.out.write(gzippedBody);
+      } else {
+        response.out.write(body);
+      }
+    } catch (IOException e) {
+      throw new UnexpectedException(e);
+    }
+  }
+
+  public int getStatus() {
+    return status;
+  }
+
+  @Nullable
+  public String getETag() {
+    return eTag;
+  }
+
+  private static boolean containsHeader(Map<String, List<String>> headers, String name) {
+    return headers.keySet().stream().anyMatch(name::equalsIgnoreCase);
+  }
+
+  private static String eTag(byte[] body) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+      return '"' + HexFormat.of().formatHex(digest, 0, 16) + '"';
+    } catch (NoSuchAlgorithmException e) {
+      throw new UnexpectedException(e);
+    }
+  }
+
+  private static byte[] gzip(byte[] body, int level) {
+    ByteArrayOutputStream gzipped = new ByteArrayOutputStream(body.length / 4 + 32);
+    try (GZIPOutputStream out =
+        new GZIPOutputStream(gzipped) {
+          {
+            def.setLevel(level);
+          }
+        }) {
+      out.write(body);
+    } catch (IOException e) {
+      throw new UnexpectedException(e);
+    }
+    return gzipped.toByteArray();
+  }
+}
@@ -4,6 +4,7 @@ import static java.lang.System.nanoTime;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 import java.util.Map;
+import play.Play;
 import play.exceptions.UnexpectedException;
 import play.libs.MimeTypes;
 import play.mvc.Http.Request;
@@ -12,12 +13,14 @@ import play.mvc.Scope.Flash;
 import play.mvc.Scope.RenderArgs;
 import play.mvc.Scope.Session;
 import play.templates.Template;
+import play.templates.TemplateOutput;
 
 /** 200 OK with a template rendering */
 public class RenderTemplate extends Result {
 
   private final String name;
-  private final String content;
+  private final TemplateOutput output;
+  private transient String content;
   private final Map<String, Object> arguments;
   private final long renderTime;
 
@@ -28,7 +31,7 @@ public class RenderTemplate extends Result {
     this.name = template.name;
     this.arguments = arguments;
     long start = nanoTime();
-    this.content = template.render(arguments);
+    this.output = template.render(arguments, Play.defaultWebEncoding);
     this.renderTime = NANOSECONDS.toMillis(nanoTime() - start);
   }
 
@@ -37,7 +40,11 @@ public class RenderTemplate extends Result {
       Request request, Response response, Session session, RenderArgs renderArgs, Flash flash) {
     try {
       String contentType = MimeTypes.getContentType(name, "text/plain");
-      response.out.write(content.getBytes(response.encoding));
+      if (output.encoding().equals(response.encoding)) {
+        output.writeTo(response.out);
+      } else {
+        response.out.write(getContent().getBytes(response.encoding));
+      }
       setContentTypeIfNotSet(response, contentType);
     } catch (Exception e) {
       throw new UnexpectedException(e);
@@ -48,7 +55,11 @@ public class RenderTemplate extends Result {
     return name;
   }
 
+  /** @return the rendered page, decoded on first use (it is written to the response as bytes) */
   public String getContent() {
+    if (content == null) {
+      content = output.toString();
+    }
     return content;
   }
 
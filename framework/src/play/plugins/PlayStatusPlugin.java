@@ -6,17 +6,21 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.Map;
 import org.jspecify.annotations.NullMarked;
 import org.apache.commons.lang3.StringUtils;
 import play.Invoker;
 import play.Play;
 import play.PlayPlugin;
+import play.cache.Cache;
+import play.cache.NearCacheImpl;
 import play.mvc.Http.Header;
 import play.mvc.Http.Request;
 import play.mvc.Http.Response;
 import play.mvc.Scope.Flash;
 import play.mvc.Scope.RenderArgs;
 import play.mvc.Scope.Session;
+import play.server.ResponseCompression;
 
 @NullMarked
 public class PlayStatusPlugin extends PlayPlugin {
@@ -163,6 +167,19 @@ public class PlayStatusPlugin extends PlayPlugin {
     out.println("Scheduled task count: " + Invoker.executor.getTaskCount());
     out.println("Queue size: " + Invoker.executor.getQueue().size());
     out.println();
+    Map<String, ResponseCompression.Statistics> compression = ResponseCompression.statistics();
+    if (!compression.isEmpty()) {
+      out.println("Response compression:");
+      out.println("~~~~~~~~~~~~~~~~~~~~~");
+      compression.forEach((contentType, stats) -> out.println(contentType + ": " + stats));
+      out.println();
+    }
+    if (Play.started && Cache.cacheImpl() instanceof NearCacheImpl nearCache) {
+      out.println("Near cache:");
+      out.println("~~~~~~~~~~~");
+      out.println(nearCache.statistics());
+      out.println();
+    }
     return sw.toString();
   }
 
@@ -22,4 +22,9 @@ public class RenderView extends View {
   public RenderView with(String name, @Nullable Object value) {
     return (RenderView) super.with(name, value);
   }
+
+  @Override
+  public RenderView streamed() {
+    return (RenderView) super.streamed();
+  }
 }
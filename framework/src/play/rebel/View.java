@@ -9,6 +9,9 @@ import java.util.Map;
 import com.google.errorprone.annotations.CheckReturnValue;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import play.Play;
 import play.data.validation.Validation;
 import play.exceptions.UnexpectedException;
 import play.libs.MimeTypes;
@@ -21,19 +24,24 @@ import play.mvc.TemplateNameResolver;
 import play.mvc.results.Result;
 import play.templates.Template;
 import play.templates.TemplateLoader;
+import play.templates.TemplateOutput;
 
 /** 200 OK with a template rendering */
 @NullMarked
 @CheckReturnValue
 public class View extends Result {
+  private static final Logger logger = LoggerFactory.getLogger(View.class);
   private static final TemplateNameResolver templateNameResolver = new TemplateNameResolver();
 
   private final String templateName;
   private final Map<String, @Nullable Object> arguments;
 
   @Nullable
-  private String content;
+  private TemplateOutput output;
+  @Nullable
+  private transient String content;
   private long renderTime;
+  private boolean streamed;
 
   public View() {
     this(templateNameResolver.resolveTemplateName());
@@ -73,13 +81,52 @@ public class View extends Result {
     templateBinding.put("params", request.params);
     templateBinding.put("errors", Validation.errors());
 
-    this.content = template.render(templateBinding);
-    this.renderTime = NANOSECONDS.toMillis(nanoTime() - start);
     String contentType = MimeTypes.getContentType(template.name, "text/plain");
-    response.out.write(content.getBytes(response.encoding));
+    if (streamed && response.canWriteChunks() && !Play.mode.isDev()) {
+      setContentTypeIfNotSet(response, contentType);
+      stream(template, templateBinding, response);
+      this.renderTime = NANOSECONDS.toMillis(nanoTime() - start);
+      return;
+    }
+
+    TemplateOutput output = template.render(templateBinding, response.encoding);
+    this.output = output;
+    this.renderTime = NANOSECONDS.toMillis(nanoTime() - start);
+    output.writeTo(response.out);
     setContentTypeIfNotSet(response, contentType);
   }
 
+  private void stream(Template template, Map<String, Object> templateBinding, Response response)
+      throws IOException {
+    TemplateOutput rest;
+    try {
+      rest =
+          template.render(
+              templateBinding, response.encoding, flushed -> writeChunk(response, flushed));
+    } catch (RuntimeException e) {
+      if (!response.chunked) {
+        // nothing is sent yet: the error page replaces the output
+        throw e;
+      }
+      logger.error("Failed to render {}, its beginning is already sent", templateName, e);
+      response.abortChunked();
+      return;
+    }
+    if (response.chunked) {
+      writeChunk(response, rest);
+    } else {
+      // the template did not flush: send the page as a whole
+      this.output = rest;
+      rest.writeTo(response.out);
+    }
+  }
+
+  private static void writeChunk(Response response, TemplateOutput output) {
+    if (output.size() > 0) {
+      response.writeChunk(output.toByteArray());
+    }
+  }
+
   private Template resolveTemplate() {
     return TemplateLoader.load(templateNameResolver.resolveTemplateName(templateName));
   }
@@ -88,7 +135,11 @@ public class View extends Result {
     return templateName;
   }
 
+  @Nullable
   public String getContent() {
+    if (content == null && output != null) {
+      content = output.toString();
+    }
     return content;
   }
 
@@ -109,6 +160,22 @@ public class View extends Result {
     return this;
   }
 
+  /**
+   * Send the page in chunks: each <code>#{flush/}</code> in the template (or its layout) sends the
+   * output rendered so far, e.g. the <code>&lt;head&gt;</code> so that the browser loads styles and
+   * scripts while the rest of the page is rendered.
+   *
+   * <p>The session and flash cookies are sent with the first chunk, so changes to them after it
+   * are not sent. If the template fails before the first chunk, the error page replaces the
+   * output; after it, the connection is closed without ending the response (except with the
+   * javanet server, which cannot close it: prefer netty to stream pages). In DEV mode, pages are
+   * not streamed, to show the template errors.
+   */
+  public View streamed() {
+    this.streamed = true;
+    return this;
+  }
+
   @Override
   public boolean isRenderingTemplate() {
     return true;
@@ -0,0 +1,279 @@
+package play.server;
+
+import static java.lang.Integer.parseInt;
+
+import com.google.errorprone.annotations.CheckReturnValue;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import play.Play;
+
+/**
+ * Settings of the response compression done by the HTTP servers, and statistics about it.
+ *
+ * <ul>
+ *   <li><code>play.compression.enabled</code> - false by default
+ *   <li><code>play.compression.mimeTypes</code> - comma-separated content types to compress
+ *   <li><code>play.compression.minSize</code> - smaller responses are sent as is (default 1024)
+ *   <li><code>play.compression.level</code> - from 1 (fastest) to 9 (smallest), 6 by default
+ *   <li><code>play.compression.precompressed</code> - serve <code>file.gz</code> instead of
+ *       <code>file</code> from <code>staticDir:</code> routes if it exists (false by default)
+ * </ul>
+ */
+@NullMarked
+@CheckReturnValue
+public class ResponseCompression {
+  static final String DEFAULT_MIME_TYPES =
+      "text/html,text/plain,text/css,text/xml,text/csv,text/javascript,application/javascript,"
+          + "application/json,application/xml,image/svg+xml";
+
+  /**
+   * Supported encodings, in order of preference when the client accepts several of them. Brotli
+   * is first, and skipped when the server cannot encode it.
+   */
+  static final String[] ENCODINGS = {"br", "gzip", "deflate"};
+
+  private static final Map<String, Statistics> statistics = new ConcurrentHashMap<>();
+
+  @Nullable private static volatile Configured current;
+
+  private final boolean enabled;
+  private final Set<String> mimeTypes;
+  private final int minSize;
+  private final int level;
+  private final boolean precompressed;
+
+  public ResponseCompression(Properties configuration) {
+    this(
+        "true".equals(configuration.getProperty("play.compression.enabled", "false")),
+        configuration.getProperty("play.compression.mimeTypes", DEFAULT_MIME_TYPES),
+        parseInt(configuration.getProperty("play.compression.minSize", "1024")),
+        parseInt(configuration.getProperty("play.compression.level", "6")),
+        "true".equals(configuration.getProperty("play.compression.precompressed", "false")));
+  }
+
+  /** The settings of {@link Play#configuration}, parsed again only if it is replaced. */
+  public static ResponseCompression current() {
+    Configured configured = current;
+    if (configured == null || configured.configuration() != Play.configuration) {
+      configured =
+          new Configured(Play.configuration, new ResponseCompression(Play.configuration));
+      current = configured;
+    }
+    return configured.compression();
+  }
+
+  ResponseCompression(
+      boolean enabled, String mimeTypes, int minSize, int level, boolean precompressed) {
+    if (level < 1 || level > 9) {
+      throw new IllegalArgumentException("play.compression.level must be 1..9, got " + level);
+    }
+    this.enabled = enabled;
+    this.mimeTypes =
+        Stream.of(mimeTypes.split(","))
+            .map(String::trim)
+            .filter(type -> !type.isEmpty())
+            .map(type -> type.toLowerCase(Locale.ROOT))
+            .collect(Collectors.toUnmodifiableSet());
+    this.minSize = minSize;
+    this.level = level;
+    this.precompressed = precompressed;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public int minSize() {
+    return minSize;
+  }
+
+  public int level() {
+    return level;
+  }
+
+  public boolean servePrecompressed() {
+    return enabled && precompressed;
+  }
+
+  /**
+   * @param contentType value of the Content-Type header, possibly with parameters
+   * @return true if responses of this type are worth compressing
+   */
+  public boolean isCompressible(@Nullable String contentType) {
+    return enabled && contentType != null && mimeTypes.contains(mimeType(contentType));
+  }
+
+  /**
+   * Choose the encoding to use for a request, among gzip and deflate.
+   *
+   * @param acceptEncoding value of the Accept-Encoding request header
+   * @return "gzip", "deflate" or null if the client accepts neither
+   */
+  @Nullable
+  public static String negotiate(@Nullable String acceptEncoding) {
+    return negotiate(acceptEncoding, false);
+  }
+
+  /**
+   * Choose the encoding to use for a request.
+   *
+   * @param acceptEncoding value of the Accept-Encoding request header
+   * @param brotli true if the server can encode with brotli
+   * @return "br" (only if <code>brotli</code>), "gzip", "deflate" or null if the client accepts
+   *     none of them
+   */
+  @Nullable
+  public static String negotiate(@Nullable String acceptEncoding, boolean brotli) {
+    if (acceptEncoding == null) {
+      return null;
+    }
+    float[] quality = qualities(acceptEncoding);
+    String best = null;
+    float bestQuality = 0;
+    for (int i = brotli ? 0 : 1; i < ENCODINGS.length; i++) {
+      if (quality[i] > bestQuality) {
+        best = ENCODINGS[i];
+        bestQuality = quality[i];
+      }
+    }
+    return best;
+  }
+
+  /**
+   * @param acceptEncoding value of the Accept-Encoding request header
+   * @param encoding "br", "gzip" or "deflate"
+   * @return true if the client accepts the encoding, even if it prefers another one
+   */
+  public static boolean accepts(@Nullable String acceptEncoding, String encoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    int index = Arrays.asList(ENCODINGS).indexOf(encoding);
+    if (index == -1) {
+      throw new IllegalArgumentException("Unsupported encoding " + encoding);
+    }
+    return qualities(acceptEncoding)[index] > 0;
+  }
+
+  /** @return quality of each of {@link #ENCODINGS} */
+  private static float[] qualities(String acceptEncoding) {
+    // NaN: not mentioned, so "*" applies
+    float[] quality = new float[ENCODINGS.length];
+    Arrays.fill(quality, Float.NaN);
+    float anyQuality = 0;
+    for (String part : acceptEncoding.split(",")) {
+      String[] tokens = part.split(";");
+      String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+      float q = tokens.length > 1 ? quality(tokens[1]) : 1;
+      if ("*".equals(coding)) {
+        anyQuality = q;
+      }
+      for (int i = 0; i < ENCODINGS.length; i++) {
+        if (ENCODINGS[i].equals(coding) || ("x-" + ENCODINGS[i]).equals(coding)) {
+          quality[i] = Float.isNaN(quality[i]) ? q : Math.max(quality[i], q);
+        }
+      }
+    }
+    for (int i = 0; i < ENCODINGS.length; i++) {
+      if (Float.isNaN(quality[i])) {
+        quality[i] = anyQuality;
+      }
+    }
+    return quality;
+  }
+
+  /**
+   * Add a request header to the value of a Vary response header, unless it is already there.
+   *
+   * @param vary current value of the Vary header, or null
+   * @return the new value of the Vary header
+   */
+  public static String mergeVary(@Nullable String vary, String header) {
+    if (vary == null || vary.isBlank()) {
+      return header;
+    }
+    for (String part : vary.split(",")) {
+      if (part.trim().equalsIgnoreCase(header) || "*".equals(part.trim())) {
+        return vary;
+      }
+    }
+    return vary + ", " + header;
+  }
+
+  private static float quality(String parameter) {
+    String[] nameAndValue = parameter.split("=", 2);
+    if (nameAndValue.length == 2 && "q".equals(nameAndValue[0].trim())) {
+      try {
+        return Float.parseFloat(nameAndValue[1].trim());
+      } catch (NumberFormatException e) {
+        return 0;
+      }
+    }
+    return 1;
+  }
+
+  static String mimeType(String contentType) {
+    int semicolon = contentType.indexOf(';');
+    String type = semicolon == -1 ? contentType : contentType.substring(0, semicolon);
+    return type.trim().toLowerCase(Locale.ROOT);
+  }
+
+  /** Count a compressed response (or a part of it) of given content type. */
+  public static void record(String contentType, long bytesIn, long bytesOut, boolean newResponse) {
+    Statistics stats =
+        statistics.computeIfAbsent(mimeType(contentType), (type) -> new Statistics());
+    if (newResponse) {
+      stats.responses.increment();
+    }
+    stats.bytesIn.add(bytesIn);
+    stats.bytesOut.add(bytesOut);
+  }
+
+  /** @return compression statistics by content type, sorted by content type */
+  public static Map<String, Statistics> statistics() {
+    return Collections.unmodifiableMap(new TreeMap<>(statistics));
+  }
+
+  static void resetStatistics() {
+    statistics.clear();
+  }
+
+  private record Configured(Properties configuration, ResponseCompression compression) {}
+
+  public static class Statistics {
+    private final LongAdder responses = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+
+    public long responses() {
+      return responses.sum();
+    }
+
+    /** @return number of bytes before compression */
+    public long bytesIn() {
+      return bytesIn.sum();
+    }
+
+    /** @return number of bytes after compression */
+    public long bytesOut() {
+      return bytesOut.sum();
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "%d responses, %d bytes in, %d bytes out", responses(), bytesIn(), bytesOut());
+    }
+  }
+}
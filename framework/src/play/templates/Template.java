@@ -1,7 +1,9 @@
 package play.templates;
 
+import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public abstract class Template {
 
@@ -29,6 +31,35 @@ public abstract class Template {
     return internalRender(new HashMap<>(args));
   }
 
+  /**
+   * Starts the rendering process without modifying the args-map, encoding the output as it is
+   * produced. Template engines producing their output in parts override it, so that a page is not
+   * built as a String before being encoded.
+   *
+   * @param args map containing data binding info
+   * @param encoding encoding of the response
+   * @return the result of the complete rendering
+   */
+  public TemplateOutput render(Map<String, Object> args, Charset encoding) {
+    return new TemplateOutput(encoding).append(render(args)).finish();
+  }
+
+  /**
+   * Render the template, passing the output rendered so far to <code>flush</code> each time the
+   * template flushes it (with <code>#{flush/}</code> in fastergt), e.g. to send the head of a page
+   * while its body is being rendered. Templates engines which cannot flush render the whole output
+   * at once.
+   *
+   * @param args map containing data binding info
+   * @param encoding encoding of the response
+   * @param flush receives the flushed parts of the output
+   * @return the rest of the output, rendered after the last flush
+   */
+  public TemplateOutput render(
+      Map<String, Object> args, Charset encoding, Consumer<TemplateOutput> flush) {
+    return render(args, encoding);
+  }
+
   /**
    * The internal rendering method - When one template calls another template, this method is used.
    * The input args-map is constantly being modified, as different templates "communicate" with each
@@ -0,0 +1,206 @@
+package play.templates;
+
+import static java.nio.charset.CodingErrorAction.REPLACE;
+
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Output of a template, encoded into chunks of bytes as it is appended. A page can then be written
+ * to the response without being copied into a String and encoded again.
+ *
+ * <p>Call {@link #finish()} once everything is appended.
+ */
+@NullMarked
+public final class TemplateOutput implements Appendable, Serializable {
+  static final int CHUNK_SIZE = 8192;
+
+  private final String encoding;
+  private final List<Chunk> chunks = new ArrayList<>();
+  private long size;
+
+  @Nullable private transient CharsetEncoder encoder;
+  @Nullable private transient CharBuffer pending;
+  @Nullable private transient ByteBuffer chunk;
+
+  public TemplateOutput(Charset encoding) {
+    this.encoding = encoding.name();
+    this.encoder = encoding.newEncoder().onMalformedInput(REPLACE).onUnmappableCharacter(REPLACE);
+    this.pending = CharBuffer.allocate(CHUNK_SIZE);
+  }
+
+  @Override
+  @CanIgnoreReturnValue
+  public TemplateOutput append(@Nullable CharSequence chars) {
+    CharSequence csq = chars == null ? "null" : chars;
+    return append(csq, 0, csq.length());
+  }
+
+  @Override
+  @CanIgnoreReturnValue
+  public TemplateOutput append(@Nullable CharSequence chars, int start, int end) {
+    CharBuffer pending = pending();
+    CharSequence csq = chars == null ? "null" : chars;
+    int position = start;
+    while (position < end) {
+      int length = Math.min(end - position, pending.remaining());
+      getChars(csq, position, position + length, pending.array(), pending.position());
+      pending.position(pending.position() + length);
+      position += length;
+      pending.flip();
+      encode(pending, false);
+      pending.compact();
+    }
+    return this;
+  }
+
+  @Override
+  @CanIgnoreReturnValue
+  public TemplateOutput append(char c) {
+    CharBuffer pending = pending();
+    pending.put(c);
+    if (!pending.hasRemaining()) {
+      pending.flip();
+      encode(pending, false);
+      pending.compact();
+    }
+    return this;
+  }
+
+  /** Encode the remaining characters. Nothing can be appended afterwards. */
+  @CanIgnoreReturnValue
+  public TemplateOutput finish() {
+    CharBuffer pending = pending();
+    pending.flip();
+    encode(pending, true);
+    CharsetEncoder encoder = encoder();
+    while (encoder.flush(chunk()).isOverflow()) {
+      newChunk();
+    }
+    completeChunk(true);
+    this.encoder = null;
+    this.pending = null;
+    return this;
+  }
+
+  /** @return the encoding of the bytes */
+  public Charset encoding() {
+    return Charset.forName(encoding);
+  }
+
+  /** @return number of bytes, once finished */
+  public long size() {
+    return size;
+  }
+
+  /** Write the bytes, once finished. */
+  public void writeTo(OutputStream out) throws IOException {
+    for (Chunk chunk : chunks) {
+      out.write(chunk.bytes, 0, chunk.length);
+    }
+  }
+
+  /** @return the bytes in one array, once finished */
+  public byte[] toByteArray() {
+    byte[] bytes = new byte[Math.toIntExact(size)];
+    int position = 0;
+    for (Chunk chunk : chunks) {
+      System.arraycopy(chunk.bytes, 0, bytes, position, chunk.length);
+      position += chunk.length;
+    }
+    return bytes;
+  }
+
+  /** @return the output decoded into a String, e.g. for tests */
+  @Override
+  public String toString() {
+    return new String(toByteArray(), encoding());
+  }
+
+  private void encode(CharBuffer chars, boolean endOfInput) {
+    CharsetEncoder encoder = encoder();
+    CoderResult result;
+    while ((result = encoder.encode(chars, chunk(), endOfInput)).isOverflow()) {
+      newChunk();
+    }
+    if (result.isError()) {
+      // unreachable with CodingErrorAction.REPLACE
+      throw new IllegalStateException("Failed to encode template output: " + result);
+    }
+  }
+
+  private ByteBuffer chunk() {
+    return chunk == null ? newChunk() : chunk;
+  }
+
+  /** The encoder may leave a few bytes of the current chunk unused, if a character does not fit. */
+  @CanIgnoreReturnValue
+  private ByteBuffer newChunk() {
+    completeChunk(false);
+    chunk = ByteBuffer.allocate(CHUNK_SIZE);
+    return chunk;
+  }
+
+  /** @param last trim the chunk: the output may be cached, small pages would keep 8KB each */
+  private void completeChunk(boolean last) {
+    if (chunk != null && chunk.position() > 0) {
+      byte[] bytes = chunk.array();
+      if (last && chunk.position() < bytes.length) {
+        bytes = Arrays.copyOf(bytes, chunk.position());
+      }
+      chunks.add(new Chunk(bytes, chunk.position()));
+      size += chunk.position();
+    }
+    chunk = null;
+  }
+
+  private CharsetEncoder encoder() {
+    if (encoder == null) {
+      throw new IllegalStateException("Template output is already finished");
+    }
+    return encoder;
+  }
+
+  private CharBuffer pending() {
+    if (pending == null) {
+      throw new IllegalStateException("Template output is already finished");
+    }
+    return pending;
+  }
+
+  private static void getChars(CharSequence csq, int start, int end, char[] dst, int offset) {
+    if (csq instanceof String s) {
+      s.getChars(start, end, dst, offset);
+    } else if (csq instanceof StringBuilder s) {
+      s.getChars(start, end, dst, offset);
+    } else if (csq instanceof StringBuffer s) {
+      s.getChars(start, end, dst, offset);
+    } else {
+      for (int i = start; i < end; i++) {
+        dst[offset + i - start] = csq.charAt(i);
+      }
+    }
+  }
+
+  private static final class Chunk implements Serializable {
+    private final byte[] bytes;
+    private final int length;
+
+    private Chunk(byte[] bytes, int length) {
+      this.bytes = bytes;
+      this.length = length;
+    }
+  }
+}
@@ -5,6 +5,7 @@ import static org.apache.commons.lang3.StringUtils.isEmpty;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Map;
@@ -54,25 +55,59 @@ public class HTML {
    * http://www.w3.org/TR/html4/sgml/entities.html </a>
    *
    * @param input the (unescaped) input string
-   * @return the escaped string
+   * @return the escaped string, or the input itself if it has nothing to escape
    */
   public static String htmlEscape(String input) {
     if (isEmpty(input)) {
       return input;
     }
-    StringBuilder escaped = new StringBuilder(input.length() * 2);
-    for (int i = 0; i < input.length(); i++) {
-      char character = input.charAt(i);
-      String reference = characterEntityReferences.convertToReference(character);
-      if (reference != null) {
-        escaped.append(reference);
-      } else {
-        escaped.append(character);
-      }
+    int first = indexOfEscaped(input, 0);
+    if (first < 0) {
+      return input;
+    }
+    StringBuilder escaped = new StringBuilder(input.length() + 16);
+    try {
+      appendEscaped(input, first, escaped);
+    } catch (IOException e) {
+      // StringBuilder does not throw it
+      throw new UncheckedIOException(e);
     }
     return escaped.toString();
   }
 
+  /**
+   * Escape the input like {@link #htmlEscape(String)}, appending it directly to the output (e.g. a
+   * template output buffer) instead of building a String.
+   *
+   * @param input the (unescaped) input
+   * @param out where to append the escaped input
+   */
+  public static void htmlEscape(CharSequence input, Appendable out) throws IOException {
+    appendEscaped(input, indexOfEscaped(input, 0), out);
+  }
+
+  /** Append the input, escaping from <code>first</code>: the index of the first escaped char. */
+  private static void appendEscaped(CharSequence input, int first, Appendable out)
+      throws IOException {
+    int clean = 0;
+    for (int i = first; i >= 0; i = indexOfEscaped(input, i + 1)) {
+      out.append(input, clean, i);
+      out.append(characterEntityReferences.convertToReference(input.charAt(i)));
+      clean = i + 1;
+    }
+    out.append(input, clean, input.length());
+  }
+
+  /** @return index of the first char to escape, from the given index, or -1 */
+  private static int indexOfEscaped(CharSequence input, int from) {
+    for (int i = from; i < input.length(); i++) {
+      if (characterEntityReferences.isMappedToReference(input.charAt(i))) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
   public static class HtmlCharacterEntityReferences {
 
     static final char REFERENCE_START = '&';
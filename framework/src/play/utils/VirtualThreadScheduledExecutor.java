@@ -0,0 +1,216 @@
+package play.utils;
+
+import com.google.errorprone.annotations.CheckReturnValue;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor.AbortPolicy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.jspecify.annotations.NullMarked;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link ScheduledThreadPoolExecutor} that runs every task in its own virtual thread.
+ *
+ * <p>A single platform thread waits for scheduled tasks to become due and hands them over to new
+ * virtual threads. At most <code>maxConcurrency</code> tasks run at the same time: the others wait
+ * in the queue, as they would with a fixed thread pool of that size.
+ *
+ * <p>Virtual threads require Java 21. On older JVMs, a new platform thread is started per task.
+ */
+@NullMarked
+@CheckReturnValue
+public class VirtualThreadScheduledExecutor extends ScheduledThreadPoolExecutor {
+  private static final Logger logger = LoggerFactory.getLogger(VirtualThreadScheduledExecutor.class);
+
+  private final int maxConcurrency;
+  private final Semaphore permits;
+  private final ThreadFactory threadFactory;
+  private final Set<Thread> runningThreads = ConcurrentHashMap.newKeySet();
+
+  public VirtualThreadScheduledExecutor(String poolName, int maxConcurrency) {
+    super(1, new PThreadFactory(poolName + "-scheduler"), new AbortPolicy());
+    this.maxConcurrency = maxConcurrency;
+    this.permits = new Semaphore(maxConcurrency);
+    this.threadFactory = virtualThreadFactory(poolName);
+  }
+
+  static ThreadFactory virtualThreadFactory(String poolName) {
+    try {
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      builder =
+          builderClass
+              .getMethod("name", String.class, long.class)
+              .invoke(builder, poolName + "-virtual-", 1L);
+      return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+    } catch (ReflectiveOperationException e) {
+      logger.warn(
+          "Virtual threads are not supported by Java {}, {} pool uses platform threads",
+          System.getProperty("java.version"),
+          poolName);
+      return new PThreadFactory(poolName);
+    }
+  }
+
+  public int getMaxConcurrency() {
+    return maxConcurrency;
+  }
+
+  /** @return the number of tasks being executed right now */
+  @Override
+  public int getActiveCount() {
+    return maxConcurrency - permits.availablePermits();
+  }
+
+  /** Also interrupts the tasks being executed in their own threads. */
+  @Override
+  public List<Runnable> shutdownNow() {
+    List<Runnable> pending = super.shutdownNow();
+    runningThreads.forEach(Thread::interrupt);
+    return pending;
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return super.isTerminated() && runningThreads.isEmpty();
+  }
+
+  /** Also waits for the tasks being executed in their own threads. */
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    if (!super.awaitTermination(timeout, unit)) {
+      return false;
+    }
+    // no thread is started once the scheduler is terminated
+    for (Thread thread : runningThreads) {
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        break;
+      }
+      TimeUnit.NANOSECONDS.timedJoin(thread, remaining);
+    }
+    return runningThreads.isEmpty();
+  }
+
+  /**
+   * @param queued a task of the {@link #getQueue() queue}
+   * @return the task as a regular {@link ScheduledThreadPoolExecutor} would queue it, e.g. to find
+   *     the job it runs
+   */
+  public static Runnable undecorated(Runnable queued) {
+    return queued instanceof VirtualThreadTask<?> task ? task.task : queued;
+  }
+
+  @Override
+  protected <V> RunnableScheduledFuture<V> decorateTask(
+      Runnable runnable, RunnableScheduledFuture<V> task) {
+    return new VirtualThreadTask<>(task);
+  }
+
+  @Override
+  protected <V> RunnableScheduledFuture<V> decorateTask(
+      Callable<V> callable, RunnableScheduledFuture<V> task) {
+    return new VirtualThreadTask<>(task);
+  }
+
+  /**
+   * Runs the scheduled task in a new thread. A periodic task reschedules itself when the run is
+   * complete, so a fixed delay is still counted from the end of the previous run.
+   */
+  private final class VirtualThreadTask<V> implements RunnableScheduledFuture<V> {
+    private final RunnableScheduledFuture<V> task;
+
+    private VirtualThreadTask(RunnableScheduledFuture<V> task) {
+      this.task = task;
+    }
+
+    @Override
+    public void run() {
+      try {
+        permits.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        task.cancel(false);
+        return;
+      }
+      Thread thread = null;
+      try {
+        thread =
+            threadFactory.newThread(
+                () -> {
+                  try {
+                    task.run();
+                  } finally {
+                    runningThreads.remove(Thread.currentThread());
+                    permits.release();
+                  }
+                });
+        runningThreads.add(thread);
+        thread.start();
+      } catch (RuntimeException | Error e) {
+        if (thread != null) {
+          runningThreads.remove(thread);
+        }
+        permits.release();
+        throw e;
+      }
+    }
+
+    @Override
+    public boolean isPeriodic() {
+      return task.isPeriodic();
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return task.getDelay(unit);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+      return task.compareTo(other);
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      return task.cancel(mayInterruptIfRunning);
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return task.isCancelled();
+    }
+
+    @Override
+    public boolean isDone() {
+      return task.isDone();
+    }
+
+    @Override
+    public V get() throws InterruptedException, ExecutionException {
+      return task.get();
+    }
+
+    @Override
+    public V get(long timeout, TimeUnit unit)
+        throws InterruptedException, ExecutionException, TimeoutException {
+      return task.get(timeout, unit);
+    }
+
+    @Override
+    public String toString() {
+      return task.toString();
+    }
+  }
+}
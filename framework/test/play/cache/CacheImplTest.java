@@ -0,0 +1,108 @@
+package play.cache;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import play.exceptions.CacheException;
+
+public class CacheImplTest {
+  private final SimpleCache cache = new SimpleCache();
+
+  @Test
+  public void getMulti_returnsFoundValues() {
+    cache.set("a", 1, 10);
+    cache.set("c", 3, 10);
+
+    assertThat(cache.getMulti(asList("a", "b", "c"))).isEqualTo(Map.of("a", 1, "c", 3));
+  }
+
+  @Test
+  public void setMulti_setsEachValue() {
+    cache.setMulti(Map.of("a", 1, "b", 2), 10);
+
+    assertThat(cache.data).isEqualTo(Map.of("a", 1, "b", 2));
+  }
+
+  @Test
+  public void asyncMethods_areCompletedImmediately() {
+    cache.setAsync("a", 1, 10);
+
+    assertThat(cache.getAsync("a")).isCompletedWithValue(1);
+    assertThat(cache.getMultiAsync(asList("a", "b"))).isCompletedWithValue(Map.of("a", 1));
+  }
+
+  @Test
+  public void atomicMethods_haveNonAtomicDefaults() {
+    assertThat(cache.replace("a", 1, 10)).isFalse();
+    assertThat(cache.add("a", 1, 10)).isTrue();
+    assertThat(cache.add("a", 2, 10)).isFalse();
+    assertThat(cache.replace("a", 3, 10)).isTrue();
+    assertThat(cache.data).isEqualTo(Map.of("a", 3));
+
+    assertThat(cache.compareAndSet("a", 1, 4, 10)).isFalse();
+    assertThat(cache.compareAndSet("a", 3, 4, 10)).isTrue();
+    assertThat(cache.compareAndSet("b", null, 5, 10)).isTrue();
+    assertThat(cache.data).isEqualTo(Map.of("a", 4, "b", 5));
+  }
+
+  @Test
+  public void counters_haveNonAtomicDefaults() {
+    assertThat(cache.incr("n", 5, 1, 10)).isEqualTo(1);
+    assertThat(cache.incr("n", 5, 1, 10)).isEqualTo(6);
+    assertThat(cache.decr("n", 10, 1, 10)).isZero();
+
+    cache.set("s", "41", 10);
+    assertThat(cache.incr("s", 1, 0, 10)).isEqualTo(42);
+
+    cache.set("x", "not a number", 10);
+    assertThatThrownBy(() -> cache.incr("x", 1, 0, 10))
+        .isInstanceOf(CacheException.class)
+        .hasMessage("Cannot increment non-numeric value of x");
+  }
+
+  @Test
+  public void dummyCache() {
+    CacheImpl dummy = DummyCacheImpl.instance();
+
+    assertThat(dummy.getMulti(asList("a", "b"))).isEmpty();
+    assertThat(dummy.add("a", 1, 10)).isTrue();
+    assertThat(dummy.replace("a", 1, 10)).isFalse();
+    assertThat(dummy.compareAndSet("a", null, 1, 10)).isTrue();
+    assertThat(dummy.compareAndSet("a", 1, 2, 10)).isFalse();
+    assertThat(dummy.incr("a", 5, 1, 10)).isEqualTo(1);
+  }
+
+  /** Implements only the required methods. */
+  private static class SimpleCache implements CacheImpl {
+    private final Map<String, Object> data = new HashMap<>();
+
+    @Override
+    public void set(String key, @Nullable Object value, int expiration) {
+      data.put(key, value);
+    }
+
+    @Nullable
+    @Override
+    public Object get(String key) {
+      return data.get(key);
+    }
+
+    @Override
+    public void clear() {
+      data.clear();
+    }
+
+    @Override
+    public void delete(String key) {
+      data.remove(key);
+    }
+
+    @Override
+    public void stop() {}
+  }
+}
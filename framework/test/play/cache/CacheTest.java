@@ -1,9 +1,16 @@
 package play.cache;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
+import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.Test;
+import play.exceptions.CacheException;
 
 public class CacheTest {
   @Test
@@ -18,4 +25,30 @@ public class CacheTest {
     Cache.cacheImpl = null;
     Cache.clear();
   }
+
+  @Test
+  public void getMultiCallsImpl() {
+    Cache.cacheImpl = mock(CacheImpl.class);
+    when(Cache.cacheImpl.getMulti(List.of("a", "b"))).thenReturn(Map.of("a", 1));
+
+    assertThat(Cache.getMulti("a", "b")).isEqualTo(Map.of("a", 1));
+  }
+
+  @Test
+  public void setMultiConvertsExpirationToSeconds() {
+    Cache.cacheImpl = mock(CacheImpl.class);
+
+    Cache.setMulti(Map.of("a", 1), "2mn");
+
+    verify(Cache.cacheImpl).setMulti(Map.of("a", 1), 120);
+  }
+
+  @Test
+  public void setMultiRejectsNonSerializableValues() {
+    Cache.cacheImpl = mock(CacheImpl.class);
+
+    assertThatThrownBy(() -> Cache.setMulti(Map.of("a", new Object()), "1h"))
+        .isInstanceOf(CacheException.class);
+    verifyNoInteractions(Cache.cacheImpl);
+  }
 }
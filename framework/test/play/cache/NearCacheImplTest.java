@@ -0,0 +1,311 @@
+package play.cache;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+public class NearCacheImplTest {
+  private final InMemoryCache remote = new InMemoryCache();
+  private long now = 1_000_000;
+
+  @Test
+  public void valueIsReadFromRemoteCacheOnlyOnce() {
+    remote.data.put("key", "value");
+    NearCacheImpl cache = new NearCacheImpl(remote, 10, 10, null, () -> now);
+
+    assertThat(cache.get("key")).isEqualTo("value");
+    assertThat(cache.get("key")).isEqualTo("value");
+
+    assertThat(remote.reads).isEqualTo(1);
+    assertThat(cache.statistics().hits()).isEqualTo(1);
+    assertThat(cache.statistics().misses()).isEqualTo(1);
+  }
+
+  @Test
+  public void valueIsReadAgainAfterTtl() {
+    remote.data.put("key", "value");
+    NearCacheImpl cache = new NearCacheImpl(remote, 10, 10, null, () -> now);
+
+    cache.get("key");
+    now += 9_999;
+    cache.get("key");
+    assertThat(remote.reads).isEqualTo(1);
+
+    now += 1;
+    cache.get("key");
+    assertThat(remote.reads).isEqualTo(2);
+  }
+
+  @Test
+  public void valueIsNotKeptLongerThanItsExpiration() {
+    NearCacheImpl cache = new NearCacheImpl(remote, 10, 10, null, () -> now);
+
+    cache.set("key", "value", 2);
+    now += 1_999;
+    assertThat(cache.get("key")).isEqualTo("value");
+    assertThat(remote.reads).isZero();
+
+    now += 1;
+    cache.get("key");
+    assertThat(remote.reads).isEqualTo(1);
+  }
+
+  @Test
+  public void missingValueIsNotKept() {
+    NearCacheImpl cache = new NearCacheImpl(remote, 10, 10, null, () -> now);
+
+    assertThat(cache.get("key")).isNull();
+    assertThat(cache.get("key")).isNull();
+
+    assertThat(remote.reads).isEqualTo(2);
+  }
+
+  @Test
+  public void oldestValuesAreEvicted() {
+    NearCacheImpl cache = new NearCacheImpl(remote, 2, 10, null, () -> now);
+
+    cache.set("a", "1", 0);
+    cache.set("b", "2", 0);
+    cache.set("c", "3", 0);
+
+    assertThat(cache.statistics().size()).isEqualTo(2);
+    assertThat(cache.statistics().evictions()).isEqualTo(1);
+    assertThat(cache.get("a")).isEqualTo("1");
+    assertThat(remote.reads).isEqualTo(1);
+  }
+
+  @Test
+  public void changeOnOneNodeInvalidatesOtherNodes() {
+    LocalInvalidationChannel channel1 = new LocalInvalidationChannel();
+    NearCacheImpl node1 = new NearCacheImpl(remote, 10, 10, channel1, () -> now);
+    NearCacheImpl node2 = new NearCacheImpl(remote, 10, 10, channel1.join(), () -> now);
+    node1.set("key", "old", 0);
+    assertThat(node2.get("key")).isEqualTo("old");
+
+    node1.set("key", "new", 0);
+
+    assertThat(node2.get("key")).isEqualTo("new");
+    assertThat(node2.statistics().invalidations()).isEqualTo(2);
+    assertThat(node1.statistics().invalidations()).isZero();
+  }
+
+  @Test
+  public void deleteOnOneNodeInvalidatesOtherNodes() {
+    LocalInvalidationChannel channel1 = new LocalInvalidationChannel();
+    NearCacheImpl node1 = new NearCacheImpl(remote, 10, 10, channel1, () -> now);
+    NearCacheImpl node2 = new NearCacheImpl(remote, 10, 10, channel1.join(), () -> now);
+    node1.set("key", "value", 0);
+    node2.get("key");
+
+    node1.delete("key");
+
+    assertThat(node2.get("key")).isNull();
+  }
+
+  @Test
+  public void otherNodesAreInvalidatedOnlyOnceTheRemoteCacheIsWritten() {
+    LocalInvalidationChannel channel1 = new LocalInvalidationChannel();
+    NearCacheImpl node1 = new NearCacheImpl(remote, 10, 10, channel1, () -> now);
+    NearCacheImpl node2 = new NearCacheImpl(remote, 10, 10, channel1.join(), () -> now);
+    remote.data.put("key", "old");
+    assertThat(node2.get("key")).isEqualTo("old");
+    remote.delayWrites = true;
+
+    node1.set("key", "new", 0);
+    node1.delete("other");
+
+    assertThat(node1.get("key")).isEqualTo("new");
+    assertThat(node2.statistics().invalidations()).isZero();
+    assertThat(node2.get("key")).isEqualTo("old");
+
+    remote.completeWrites();
+
+    assertThat(node2.statistics().invalidations()).isEqualTo(2);
+    assertThat(node2.get("key")).isEqualTo("new");
+    assertThat(node2.get("key")).isEqualTo("new");
+    assertThat(remote.reads).isEqualTo(2);
+  }
+
+  @Test
+  public void clearOnOneNodeClearsOtherNodes() {
+    LocalInvalidationChannel channel1 = new LocalInvalidationChannel();
+    NearCacheImpl node1 = new NearCacheImpl(remote, 10, 10, channel1, () -> now);
+    NearCacheImpl node2 = new NearCacheImpl(remote, 10, 10, channel1.join(), () -> now);
+    node2.set("a", "1", 0);
+    node2.set("b", "2", 0);
+
+    node1.clear();
+
+    assertThat(node2.statistics().size()).isZero();
+    assertThat(node2.get("a")).isNull();
+  }
+
+  @Test
+  public void valueReadBeforeInvalidationIsNotKept() {
+    LocalInvalidationChannel channel1 = new LocalInvalidationChannel();
+    NearCacheImpl node1 = new NearCacheImpl(remote, 10, 10, channel1, () -> now);
+    NearCacheImpl node2 = new NearCacheImpl(remote, 10, 10, channel1.join(), () -> now);
+    remote.data.put("key", "old");
+    remote.afterRead = () -> node1.set("key", "new", 0);
+
+    assertThat(node2.get("key")).isEqualTo("old");
+
+    assertThat(node2.get("key")).isEqualTo("new");
+    assertThat(remote.reads).isEqualTo(2);
+  }
+
+  @Test
+  public void valueReadBeforeLocalWriteIsNotKept() {
+    NearCacheImpl cache = new NearCacheImpl(remote, 10, 10, null, () -> now);
+    remote.data.put("a", "old");
+    remote.afterRead = () -> cache.set("a", "new", 0);
+
+    assertThat(cache.getMulti(asList("a"))).containsOnly(entry("a", "old"));
+
+    assertThat(cache.get("a")).isEqualTo("new");
+    assertThat(remote.reads).isEqualTo(1);
+  }
+
+  @Test
+  public void getMultiReadsOnlyMissingKeysFromRemoteCache() {
+    remote.data.put("b", "2");
+    NearCacheImpl cache = new NearCacheImpl(remote, 10, 10, null, () -> now);
+    cache.set("a", "1", 0);
+
+    assertThat(cache.getMulti(asList("a", "b", "c")))
+        .containsOnly(entry("a", "1"), entry("b", "2"));
+    assertThat(remote.reads).isEqualTo(2);
+
+    assertThat(cache.getMulti(asList("a", "b"))).containsOnly(entry("a", "1"), entry("b", "2"));
+    assertThat(remote.reads).isEqualTo(2);
+  }
+
+  @Test
+  public void getMultiAsyncReadsOnlyMissingKeysFromRemoteCache() {
+    remote.data.put("b", "2");
+    NearCacheImpl cache = new NearCacheImpl(remote, 10, 10, null, () -> now);
+    cache.set("a", "1", 0);
+
+    assertThat(cache.getMultiAsync(asList("a", "b")).join())
+        .containsOnly(entry("a", "1"), entry("b", "2"));
+    assertThat(cache.getMultiAsync(asList("a", "b")).join())
+        .containsOnly(entry("a", "1"), entry("b", "2"));
+
+    assertThat(remote.reads).isEqualTo(1);
+  }
+
+  @Test
+  public void counterIsNotKeptLocally() {
+    NearCacheImpl cache = new NearCacheImpl(remote, 10, 10, null, () -> now);
+    cache.set("counter", 1L, 0);
+
+    cache.incr("counter", 1, 0, 0);
+
+    assertThat(cache.get("counter")).isEqualTo(2L);
+  }
+
+  @Test
+  public void disabledByDefault() {
+    assertThat(NearCacheImpl.wrap(remote, new Properties())).isSameAs(remote);
+  }
+
+  @Test
+  public void enabledWithMaxEntries() {
+    Properties configuration = new Properties();
+    configuration.setProperty(NearCacheImpl.MAX_ENTRIES_SETTING, "1000");
+
+    CacheImpl cache = NearCacheImpl.wrap(remote, configuration);
+
+    assertThat(cache).isInstanceOf(NearCacheImpl.class);
+    assertThat(((NearCacheImpl) cache).remote()).isSameAs(remote);
+  }
+
+  private static class InMemoryCache implements CacheImpl {
+    private final Map<String, Object> data = new HashMap<>();
+    private int reads;
+    /** Simulates a change while the value read is on its way. */
+    @Nullable private Runnable afterRead;
+    /** Simulates a remote cache applying writes after a while. */
+    private boolean delayWrites;
+
+    private final List<Runnable> delayedWrites = new ArrayList<>();
+
+    private void completeWrites() {
+      delayedWrites.forEach(Runnable::run);
+      delayedWrites.clear();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> setAsync(
+        String key, @Nullable Object value, int expiration) {
+      return write(() -> data.put(key, value));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteAsync(String key) {
+      return write(() -> data.remove(key));
+    }
+
+    private CompletableFuture<Boolean> write(Runnable change) {
+      CompletableFuture<Boolean> result = new CompletableFuture<>();
+      Runnable write =
+          () -> {
+            change.run();
+            result.complete(true);
+          };
+      if (delayWrites) {
+        delayedWrites.add(write);
+      } else {
+        write.run();
+      }
+      return result;
+    }
+
+    @Override
+    public void set(String key, @Nullable Object value, int expiration) {
+      data.put(key, value);
+    }
+
+    @Nullable
+    @Override
+    public Object get(String key) {
+      reads++;
+      Object value = data.get(key);
+      Runnable change = afterRead;
+      afterRead = null;
+      if (change != null) {
+        change.run();
+      }
+      return value;
+    }
+
+    @Override
+    public long incr(String key, long by, long initial, int expiration) {
+      long value = data.containsKey(key) ? (Long) data.get(key) + by : initial;
+      data.put(key, value);
+      return value;
+    }
+
+    @Override
+    public void clear() {
+      data.clear();
+    }
+
+    @Override
+    public void delete(String key) {
+      data.remove(key);
+    }
+
+    @Override
+    public void stop() {}
+  }
+}
@@ -0,0 +1,209 @@
+package play.cache;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+public class SingleFlightTest {
+  private final InMemoryCache cache = new InMemoryCache();
+  private long now = 1_000_000;
+  private final SingleFlight singleFlight = new SingleFlight(() -> now);
+  private final List<Runnable> refreshes = new ArrayList<>();
+
+  @Test
+  public void missingValueIsComputedAndCached() {
+    assertThat(get("key", 60, 0, () -> "value")).isEqualTo("value");
+
+    assertThat(cache.data).containsEntry("key", "value");
+    assertThat(cache.expirations).containsEntry("key", 60);
+  }
+
+  @Test
+  public void cachedValueIsNotComputed() {
+    cache.data.put("key", "cached");
+
+    assertThat(get("key", 60, 0, () -> "computed")).isEqualTo("cached");
+  }
+
+  @Test
+  public void concurrentMissesComputeTheValueOnce() throws Exception {
+    AtomicInteger computations = new AtomicInteger();
+    CountDownLatch computing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService threads = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Object>> results = new ArrayList<>();
+      results.add(
+          threads.submit(
+              () ->
+                  get(
+                      "key",
+                      60,
+                      0,
+                      () -> {
+                        computations.incrementAndGet();
+                        computing.countDown();
+                        await(release);
+                        return "value";
+                      })));
+      computing.await(5, SECONDS);
+      // Each waiter misses the key once, then waits for the computation in progress
+      cache.misses = new CountDownLatch(7);
+      for (int i = 0; i < 7; i++) {
+        results.add(threads.submit(() -> get("key", 60, 0, computations::incrementAndGet)));
+      }
+      assertThat(cache.misses.await(5, SECONDS)).isTrue();
+      release.countDown();
+
+      for (Future<Object> result : results) {
+        assertThat(result.get(5, SECONDS)).isEqualTo("value");
+      }
+      assertThat(computations).hasValue(1);
+    } finally {
+      threads.shutdownNow();
+    }
+  }
+
+  @Test
+  public void reentrantComputationOfSameKeyFails() {
+    assertThatThrownBy(() -> get("key", 60, 0, () -> get("key", 60, 0, () -> "inner")))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessage("Cannot get key while computing it");
+
+    assertThat(cache.data).isEmpty();
+    assertThat(get("key", 60, 0, () -> "value")).isEqualTo("value");
+  }
+
+  @Test
+  public void failureIsNotCached() {
+    assertThatThrownBy(
+            () ->
+                get(
+                    "key",
+                    60,
+                    0,
+                    () -> {
+                      throw new IllegalStateException("database is down");
+                    }))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessage("database is down");
+
+    assertThat(get("key", 60, 0, () -> "value")).isEqualTo("value");
+  }
+
+  @Test
+  public void nullIsNotCached() {
+    assertThat(get("key", 60, 0, () -> null)).isNull();
+
+    assertThat(cache.data).isEmpty();
+  }
+
+  @Test
+  public void staleValueIsReturnedWhileRefreshed() {
+    get("key", 60, 30, () -> "v1");
+    assertThat(cache.expirations).containsEntry("key", 90);
+
+    now += 59_999;
+    assertThat(get("key", 60, 30, () -> "v2")).isEqualTo("v1");
+    assertThat(refreshes).isEmpty();
+
+    now += 1;
+    assertThat(get("key", 60, 30, () -> "v2")).isEqualTo("v1");
+    assertThat(get("key", 60, 30, () -> "v3")).isEqualTo("v1");
+    assertThat(refreshes).hasSize(1);
+
+    refreshes.get(0).run();
+    assertThat(get("key", 60, 30, () -> "v4")).isEqualTo("v2");
+  }
+
+  @Test
+  public void staleValueIsRefreshedByCallingThread() {
+    get("key", 60, 30, () -> "v1");
+    now += 60_000;
+
+    Object value = singleFlight.getOrCompute(cache, "key", 60, 30, () -> "v2", Runnable::run);
+
+    assertThat(value).isEqualTo("v2");
+  }
+
+  @Test
+  public void staleValueIsKeptIfRefreshFails() {
+    get("key", 60, 30, () -> "v1");
+    now += 60_000;
+
+    Object value =
+        singleFlight.getOrCompute(
+            cache,
+            "key",
+            60,
+            30,
+            () -> {
+              throw new IllegalStateException("database is down");
+            },
+            Runnable::run);
+
+    assertThat(value).isEqualTo("v1");
+  }
+
+  @Nullable
+  private Object get(String key, int expiration, int stale, Supplier<?> compute) {
+    return singleFlight.getOrCompute(cache, key, expiration, stale, compute, refreshes::add);
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, SECONDS);
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static class InMemoryCache implements CacheImpl {
+    private final Map<String, Object> data = new ConcurrentHashMap<>();
+    private final Map<String, Integer> expirations = new ConcurrentHashMap<>();
+    @Nullable private volatile CountDownLatch misses;
+
+    @Override
+    public void set(String key, @Nullable Object value, int expiration) {
+      data.put(key, value);
+      expirations.put(key, expiration);
+    }
+
+    @Nullable
+    @Override
+    public Object get(String key) {
+      Object value = data.get(key);
+      CountDownLatch latch = misses;
+      if (value == null && latch != null) {
+        latch.countDown();
+      }
+      return value;
+    }
+
+    @Override
+    public void clear() {
+      data.clear();
+    }
+
+    @Override
+    public void delete(String key) {
+      data.remove(key);
+    }
+
+    @Override
+    public void stop() {}
+  }
+}
@@ -1,12 +1,14 @@
 package play.data.binding;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static play.mvc.Http.Request.createRequest;
 
 import java.util.HashMap;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
 import play.data.validation.ValidationBuilder;
+import play.exceptions.UnexpectedException;
 import play.mvc.Http.Request;
 import play.mvc.Scope.Session;
 
@@ -66,4 +68,37 @@ public class BeanWrapperTest {
     assertThat(b.b).isEqualTo("b1");
     assertThat(b.i).isEqualTo(2);
   }
+
+  @Test
+  public void setsPropertiesByName() {
+    for (BeanWrapper wrapper : new BeanWrapper[] {BeanWrapper.forClass(Bean.class), reflective()}) {
+      Bean bean = new Bean();
+      wrapper.set("a", bean, "a2");
+      wrapper.set("i", bean, 42);
+      assertThat(bean.a).isEqualTo("a2");
+      assertThat(bean.i).isEqualTo(42);
+    }
+  }
+
+  @Test
+  public void unknownProperty() {
+    assertThatThrownBy(() -> BeanWrapper.forClass(Bean.class).set("x", new Bean(), "x"))
+        .isInstanceOf(UnexpectedException.class)
+        .hasMessageStartingWith("Can't find property with name 'x' on class");
+  }
+
+  @Test
+  public void wrapsExceptionsThrownBySetters() {
+    assertThatThrownBy(() -> BeanWrapper.forClass(Bean.class).set("i", new Bean(), null))
+        .isInstanceOf(UnexpectedException.class);
+  }
+
+  @Test
+  public void wrapperIsCreatedOncePerClass() {
+    assertThat(BeanWrapper.forClass(Bean.class)).isSameAs(BeanWrapper.forClass(Bean.class));
+  }
+
+  private static BeanWrapper reflective() {
+    return new BeanWrapper(Bean.class, false);
+  }
 }
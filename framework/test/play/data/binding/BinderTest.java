@@ -325,6 +325,37 @@ public class BinderTest {
     assertThat(Binder.supportedTypes.get(BigDecimal.class)).isNull();
   }
 
+  @Test
+  public void registeredBinderIsUsedEvenAfterTypeWasAlreadyBound() throws Exception {
+    assertThat(directBind("1.5", BigDecimal.class)).isEqualTo(new BigDecimal("1.5"));
+
+    Binder.register(BigDecimal.class, new MyBigDecimalBinder());
+    try {
+      assertThat(directBind("1.5", BigDecimal.class)).isEqualTo(new BigDecimal("11.5"));
+    } finally {
+      Binder.unregister(BigDecimal.class);
+    }
+    assertThat(directBind("1.5", BigDecimal.class)).isEqualTo(new BigDecimal("1.5"));
+  }
+
+  @Test
+  public void directBindOfPrimitivesAndBoxedTypes() throws Exception {
+    assertThat(directBind("42.7", int.class)).isEqualTo(42);
+    assertThat(directBind("", int.class)).isEqualTo(0);
+    assertThat(directBind("", Integer.class)).isNull();
+    assertThat(directBind("7", long.class)).isEqualTo(7L);
+    assertThat(directBind("", short.class)).isEqualTo((short) 0);
+    assertThat(directBind("1.5", double.class)).isEqualTo(1.5d);
+    assertThat(directBind("on", boolean.class)).isEqualTo(true);
+    assertThat(directBind("", Boolean.class)).isNull();
+    assertThat(directBind("x", Character.class)).isEqualTo('x');
+    assertThat(directBind("x", Object.class)).isNull();
+  }
+
+  private Object directBind(String value, Class<?> clazz) throws Exception {
+    return Binder.directBind("name", request, session, noAnnotations, value, clazz, clazz);
+  }
+
   private static class MyBigDecimalBinder implements TypeBinder<BigDecimal> {
     @Override
     public Object bind(
@@ -57,4 +57,16 @@ public class ValidationPluginTest {
         .usingRecursiveFieldByFieldElementComparator()
         .containsExactly(error2, error1);
   }
+
+  @Test
+  public void validatorsAreSharedUntilApplicationRestarts() {
+    ValidationPlugin.Validator validator = ValidationPlugin.validator();
+    net.sf.oval.Validator beanValidator = ValidationPlugin.beanValidator();
+    assertThat(ValidationPlugin.validator()).isSameAs(validator);
+
+    plugin.onApplicationStart();
+
+    assertThat(ValidationPlugin.validator()).isNotSameAs(validator);
+    assertThat(ValidationPlugin.beanValidator()).isNotSameAs(beanValidator);
+  }
 }
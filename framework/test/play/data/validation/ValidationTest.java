@@ -2,6 +2,11 @@ package play.data.validation;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -210,4 +215,68 @@ public class ValidationTest {
     Validation restored = validationPlugin.restore(request);
     assertThat(restored.errors).hasSize(0);
   }
+
+  @Test
+  public void getValidatorsOfNestedBeans() {
+    Map<String, List<Validation.Validator>> validators =
+        Validation.getValidators(Form.class, "form");
+
+    assertThat(validators).containsOnlyKeys("form.name", "form.address", "form.address.city");
+    assertThat(validators.get("form.address.city"))
+        .extracting(validator -> validator.annotation.annotationType())
+        .containsExactly(Required.class, MaxSize.class);
+
+    validators.get("form.name").clear();
+    assertThat(Validation.getValidators(Form.class, "form").get("form.name")).hasSize(1);
+    assertThat(Validation.getValidators(Form.class, "city", "form.address")).isEmpty();
+    assertThat(Validation.getValidators(Address.class, "city", "address")).hasSize(2);
+  }
+
+  @Test
+  public void validatesNestedBeansWithSharedValidator() {
+    ValidationPlugin.keys.set(new HashMap<>());
+    try {
+      Form invalid = new Form();
+      invalid.name = "John";
+      invalid.address = new Address();
+      assertThat(Validation.valid("form", invalid).ok).isFalse();
+      assertThat(Validation.hasError("form.address.city")).isTrue();
+
+      Validation.clear();
+      Form valid = new Form();
+      valid.name = "Mary";
+      valid.address = new Address();
+      valid.address.city = "Tallinn";
+      assertThat(Validation.valid("form", valid).ok).isTrue();
+      assertThat(Validation.errors()).isEmpty();
+    } finally {
+      ValidationPlugin.keys.remove();
+    }
+  }
+
+  @Test
+  public void messageVariablesOfSharedDateChecksAreCreatedForEachViolation() {
+    Date reference = new GregorianCalendar(2020, Calendar.JANUARY, 31).getTime();
+    InPastCheck inPast = new InPastCheck();
+    inPast.reference = reference;
+    InFutureCheck inFuture = new InFutureCheck();
+    inFuture.reference = reference;
+
+    Play.configuration.setProperty("date.format", "dd.MM.yyyy");
+    assertThat(inPast.getMessageVariables()).containsEntry("reference", "31.01.2020");
+    assertThat(inFuture.getMessageVariables()).containsEntry("reference", "31.01.2020");
+
+    Play.configuration.setProperty("date.format", "yyyy-MM-dd");
+    assertThat(inPast.getMessageVariables()).containsEntry("reference", "2020-01-31");
+    assertThat(inFuture.getMessageVariables()).containsEntry("reference", "2020-01-31");
+  }
+
+  public static class Form {
+    @Required public String name;
+    @Valid public Address address;
+  }
+
+  public static class Address {
+    @Required @MaxSize(10) public String city;
+  }
 }
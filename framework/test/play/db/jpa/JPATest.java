@@ -0,0 +1,112 @@
+package play.db.jpa;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class JPATest {
+  private final EntityManagerFactory mainEmf = mock(EntityManagerFactory.class);
+  private final EntityManagerFactory auditEmf = mock(EntityManagerFactory.class);
+  private final EntityManager mainEm = mock(EntityManager.class);
+  private final EntityManager auditEm = mock(EntityManager.class);
+  private final EntityTransaction mainTx = mock(EntityTransaction.class);
+  private final EntityTransaction auditTx = mock(EntityTransaction.class);
+
+  @BeforeEach
+  public void setUp() {
+    when(mainEmf.createEntityManager()).thenReturn(mainEm);
+    when(auditEmf.createEntityManager()).thenReturn(auditEm);
+    when(mainEm.getTransaction()).thenReturn(mainTx);
+    when(auditEm.getTransaction()).thenReturn(auditTx);
+    when(mainEm.isOpen()).thenReturn(true);
+    when(auditEm.isOpen()).thenReturn(true);
+    JPA.emfs.put(JPA.DEFAULT, mainEmf);
+    JPA.emfs.put("audit", auditEmf);
+    JPA.lazy = true;
+    JPA.resetCounters();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    JPA.emfs.clear();
+    JPA.lazy = false;
+    JPA.resetCounters();
+  }
+
+  @Test
+  public void lazyTransactionOpensOnlyUsedUnits() throws Exception {
+    when(mainTx.isActive()).thenReturn(true);
+
+    String result = JPA.withTransaction(JPA.DEFAULT, false, () -> "" + JPA.em());
+
+    assertThat(result).isEqualTo(mainEm.toString());
+    verify(mainTx).begin();
+    verify(mainTx).commit();
+    verify(mainEm).close();
+    verify(auditEmf, never()).createEntityManager();
+    assertThat(JPA.get()).isEmpty();
+  }
+
+  @Test
+  public void lazyTransactionRollsBackOnlyUsedUnits() {
+    when(auditTx.isActive()).thenReturn(true);
+
+    assertThatThrownBy(
+            () ->
+                JPA.withTransaction(
+                    JPA.DEFAULT,
+                    false,
+                    () -> {
+                      JPA.em("audit");
+                      throw new IllegalStateException("boom");
+                    }))
+        .isInstanceOf(IllegalStateException.class);
+
+    verify(auditTx).rollback();
+    verify(auditEm).close();
+    verify(mainEmf, never()).createEntityManager();
+  }
+
+  @Test
+  public void readOnlyLazyTransactionDoesNotBegin() throws Exception {
+    JPA.withTransaction(JPA.DEFAULT, true, () -> JPA.em());
+
+    verify(mainTx, never()).begin();
+    verify(mainEm).close();
+  }
+
+  @Test
+  public void countsUsagePerPersistenceUnit() throws Exception {
+    JPA.withTransaction(JPA.DEFAULT, true, () -> JPA.em());
+    JPA.withTransaction(JPA.DEFAULT, true, () -> JPA.em("audit"));
+    JPA.withTransaction(JPA.DEFAULT, true, () -> JPA.em("audit"));
+    JPA.withTransaction(JPA.DEFAULT, true, () -> "nothing");
+
+    assertThat(JPA.transactionsCount()).isEqualTo(4);
+    assertThat(JPA.usageCount(JPA.DEFAULT)).isEqualTo(1);
+    assertThat(JPA.usageCount("audit")).isEqualTo(2);
+    assertThat(JPA.usageCount("reporting")).isEqualTo(0);
+  }
+
+  @Test
+  public void eagerTransactionOpensAllUnits() throws Exception {
+    JPA.lazy = false;
+
+    JPA.withTransaction(JPA.DEFAULT, false, () -> JPA.em());
+
+    verify(mainTx).begin();
+    verify(auditTx).begin();
+    assertThat(JPA.usageCount(JPA.DEFAULT)).isEqualTo(1);
+    assertThat(JPA.usageCount("audit")).isEqualTo(0);
+  }
+}
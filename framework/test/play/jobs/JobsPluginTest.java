@@ -1,13 +1,16 @@
 package play.jobs;
 
+import static java.util.concurrent.TimeUnit.HOURS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import org.junit.jupiter.api.Test;
+import play.utils.VirtualThreadScheduledExecutor;
 
 public class JobsPluginTest {
   private final JobsPlugin plugin = new JobsPlugin();
@@ -23,6 +26,20 @@ public class JobsPluginTest {
     verify(JobsPlugin.executor).submit((Callable<?>) job);
   }
 
+  @Test
+  public void statusShowsWaitingJobsOfVirtualThreadPool() {
+    VirtualThreadScheduledExecutor executor = new VirtualThreadScheduledExecutor("jobs", 1);
+    JobsPlugin.executor = executor;
+    try {
+      ScheduledFuture<?> unused = executor.schedule((Callable<?>) new DummyJob(), 1, HOURS);
+
+      assertThat(plugin.getStatus()).contains("play.jobs.DummyJob will run in ");
+    } finally {
+      executor.shutdownNow();
+      JobsPlugin.executor = null;
+    }
+  }
+
   @Test
   public void requireNotNull() {
     try {
@@ -1,10 +1,16 @@
 package play.libs;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.util.Base64;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import play.ConfProperties;
 import play.Play;
+import play.exceptions.ConfigurationException;
+import play.exceptions.UnexpectedException;
 
 public class CrypterTest {
   private final Crypter crypter = new Crypter("my-salt");
@@ -12,6 +18,12 @@ public class CrypterTest {
   @BeforeEach
   public void setUp() {
     Play.secretKey = "secret-secret-secret-secret";
+    Play.configuration = new ConfProperties();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    Play.configuration = new ConfProperties();
   }
 
   @Test
@@ -28,4 +40,77 @@ public class CrypterTest {
             crypter.decryptAES("2763d737e2c4f896eb28017daf4a06f9a792a7bd77e57f70dbaccb4d2f3b4fe7"))
         .isEqualTo("пароль");
   }
+
+  @Test
+  public void decryptWithPreviousSecret() {
+    Play.secretKey = "new-secret-new-secret-new-secret";
+    Play.configuration.setProperty("application.secret.previous", "secret-secret-secret-secret");
+
+    assertThat(crypter.encryptAES("blah")).isNotEqualTo("cb2d035cc33a930bf00c621bdb035a80");
+    assertThat(crypter.decryptAES("cb2d035cc33a930bf00c621bdb035a80")).isEqualTo("blah");
+  }
+
+  @Test
+  public void decryptWithPreviousSecret_evenIfCurrentSecretGivesValidPadding() {
+    // Decrypting this value with the new secret gives garbage which ends with a valid padding
+    String encrypted = "677d90bb2a2599b4af2ad2bd9d10ffe9";
+    assertThat(crypter.decryptAES(encrypted)).isEqualTo("value25");
+
+    Play.secretKey = "new-secret-new-secret-new-secret";
+    assertThatThrownBy(() -> crypter.decryptAES(encrypted))
+        .isInstanceOf(UnexpectedException.class);
+
+    Play.configuration.setProperty("application.secret.previous", "secret-secret-secret-secret");
+    assertThat(crypter.decryptAES(encrypted)).isEqualTo("value25");
+  }
+
+  @Test
+  public void previousSecretShorterThanAesKeyIsRejected() {
+    Play.configuration.setProperty("application.secret.previous", "secret-secret-secret, short");
+
+    assertThatThrownBy(() -> crypter.encryptAES("blah"))
+        .isInstanceOf(ConfigurationException.class)
+        .hasMessageContaining("application.secret.previous");
+  }
+
+  @Test
+  public void encryptAESGCM() {
+    String encrypted = crypter.encryptAESGCM("пароль");
+
+    assertThat(encrypted).isNotEqualTo(crypter.encryptAESGCM("пароль"));
+    assertThat(crypter.decryptAESGCM(encrypted)).isEqualTo("пароль");
+    assertThat(crypter.decryptAESGCM(crypter.encryptAESGCM(""))).isEmpty();
+  }
+
+  @Test
+  public void decryptAESGCM_rejectsModifiedValue() {
+    byte[] encrypted = Base64.getUrlDecoder().decode(crypter.encryptAESGCM("blah"));
+    encrypted[encrypted.length - 1] ^= 1;
+    String modified = Base64.getUrlEncoder().withoutPadding().encodeToString(encrypted);
+
+    assertThatThrownBy(() -> crypter.decryptAESGCM(modified))
+        .isInstanceOf(UnexpectedException.class);
+    assertThatThrownBy(() -> crypter.decryptAESGCM("blah"))
+        .isInstanceOf(UnexpectedException.class);
+  }
+
+  @Test
+  public void decryptAESGCM_rejectsOtherSalt() {
+    String encrypted = crypter.encryptAESGCM("blah");
+
+    assertThatThrownBy(() -> new Crypter("other-salt").decryptAESGCM(encrypted))
+        .isInstanceOf(UnexpectedException.class);
+  }
+
+  @Test
+  public void decryptAESGCM_withPreviousSecret() {
+    String encrypted = crypter.encryptAESGCM("blah");
+
+    Play.secretKey = "new-secret-new-secret-new-secret";
+    assertThatThrownBy(() -> crypter.decryptAESGCM(encrypted))
+        .isInstanceOf(UnexpectedException.class);
+
+    Play.configuration.setProperty("application.secret.previous", "secret-secret-secret-secret");
+    assertThat(crypter.decryptAESGCM(encrypted)).isEqualTo("blah");
+  }
 }
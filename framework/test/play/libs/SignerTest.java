@@ -1,9 +1,12 @@
 package play.libs;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import play.ConfProperties;
 import play.Play;
 
 public class SignerTest {
@@ -12,6 +15,12 @@ public class SignerTest {
   @BeforeEach
   public void setUp() {
     Play.secretKey = "secret-secret-secret-secret";
+    Play.configuration = new ConfProperties();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    Play.configuration = new ConfProperties();
   }
 
   @Test
@@ -26,4 +35,51 @@ public class SignerTest {
     assertThat(signer.isValid("537bd701688169490c14316044e2819051722300", "пароль")).isTrue();
     assertThat(signer.isValid("incorrectSignature", "пароль")).isFalse();
   }
+
+  @Test
+  public void signWithHmacSha256() {
+    Signer sha256 = new Signer("my-salt", Signer.HMAC_SHA256);
+
+    String signature = sha256.sign("blah");
+
+    assertThat(signature).hasSize(64).isNotEqualTo(signer.sign("blah"));
+    assertThat(sha256.isValid(signature, "blah")).isTrue();
+    assertThat(sha256.isValid(signature, "blah!")).isFalse();
+    assertThat(signer.isValid(signature, "blah")).isFalse();
+  }
+
+  @Test
+  public void unsupportedAlgorithm() {
+    assertThatThrownBy(() -> new Signer("my-salt", "HmacMD5"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Unsupported signature algorithm: HmacMD5");
+  }
+
+  @Test
+  public void signsWithNewSecretAndAcceptsPreviousSecrets() {
+    Play.secretKey = "new-secret-new-secret-new-secret";
+    Play.configuration.setProperty(
+        "application.secret.previous", "older-secret-older-secret, secret-secret-secret-secret");
+
+    assertThat(signer.sign("blah")).isNotEqualTo("45a433ae8c152c697d03b3bb43e44a030a91b19f");
+    assertThat(signer.isValid(signer.sign("blah"), "blah")).isTrue();
+    assertThat(signer.isValid("45a433ae8c152c697d03b3bb43e44a030a91b19f", "blah")).isTrue();
+    assertThat(signer.isValid("45a433ae8c152c697d03b3bb43e44a030a91b19f", "blah!")).isFalse();
+  }
+
+  @Test
+  public void rejectsSignaturesOfRemovedSecrets() {
+    Play.secretKey = "new-secret-new-secret-new-secret";
+
+    assertThat(signer.isValid("45a433ae8c152c697d03b3bb43e44a030a91b19f", "blah")).isFalse();
+  }
+
+  @Test
+  public void emptySecret() {
+    Play.secretKey = "";
+
+    assertThatThrownBy(() -> signer.sign("blah"))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessage("application.secret is not configured");
+  }
 }
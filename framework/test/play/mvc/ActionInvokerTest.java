@@ -1,21 +1,31 @@
 package play.mvc;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.mock;
 import static play.mvc.ActionInvokerTest.TestInterceptor.aftersCounter;
 import static play.mvc.ActionInvokerTest.TestInterceptor.beforesCounter;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import play.PlayBuilder;
+import play.cache.Cache;
+import play.cache.CacheFor;
 import play.data.binding.CachedBoundActionMethodArgs;
 import play.exceptions.PlayException;
 import play.exceptions.UnexpectedException;
 import play.mvc.Scope.Session;
 import play.mvc.results.Forbidden;
+import play.mvc.results.RenderBinary;
 import play.mvc.results.Result;
 
 public class ActionInvokerTest {
@@ -89,9 +99,10 @@ public class ActionInvokerTest {
   private void executeMethod(String methodName, Http.Request request, Session session)
       throws NoSuchMethodException, IllegalAccessException, InvocationTargetException {
     Method method =
-        ActionInvoker.class.getDeclaredMethod(methodName, Http.Request.class, Session.class);
+        ActionInvoker.class.getDeclaredMethod(
+            methodName, Http.Request.class, Session.class, ActionPlan.class);
     method.setAccessible(true);
-    method.invoke(null, request, session);
+    method.invoke(null, request, session, ActionPlan.of(request));
   }
 
   @Test
@@ -185,6 +196,51 @@ public class ActionInvokerTest {
     assertThat(invoker.actionNeedsSession(request)).isFalse();
   }
 
+  @Test
+  public void concurrentRequestsForUncacheableResponseInvokeTheActionEach() throws Exception {
+    Cache.init();
+    try {
+      Http.Response first = new Http.Response();
+      FutureTask<Void> firstRequest = streamRequest(first);
+      new Thread(firstRequest).start();
+      assertThat(StreamController.streaming.await(5, SECONDS)).isTrue();
+
+      Http.Response second = new Http.Response();
+      FutureTask<Void> secondRequest = streamRequest(second);
+      Thread secondThread = new Thread(secondRequest);
+      secondThread.start();
+      // wait for the second request to wait for the result of the first one
+      long deadline = System.nanoTime() + SECONDS.toNanos(5);
+      while (secondThread.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+        Thread.onSpinWait();
+      }
+      StreamController.release.countDown();
+      firstRequest.get(5, SECONDS);
+      secondRequest.get(5, SECONDS);
+
+      assertThat(StreamController.invocations).hasValue(2);
+      assertThat(first.direct).isNotNull();
+      assertThat(second.direct).isNotNull().isNotSameAs(first.direct);
+    } finally {
+      Cache.stop();
+    }
+  }
+
+  private FutureTask<Void> streamRequest(Http.Response response) throws NoSuchMethodException {
+    Http.Request streamRequest =
+        Http.Request.createRequest(
+            null, "GET", "/stream", "", null, null, null, null, false, 80, "localhost", null, null);
+    streamRequest.controllerClass = StreamController.class;
+    streamRequest.invokedMethod = StreamController.class.getMethod("stream");
+    streamRequest.action = "StreamController.stream";
+    response.out = new ByteArrayOutputStream();
+    return new FutureTask<>(
+        () -> {
+          invoker.invoke(streamRequest, response);
+          return null;
+        });
+  }
+
   private void ensureNotActionMethod(String name) throws NoSuchMethodException {
     assertThat(
             ActionInvoker.findActionMethod(
@@ -268,6 +324,22 @@ public class ActionInvokerTest {
 
   private static class ActionClassChild extends ActionClass {}
 
+  public static class StreamController extends Controller {
+    static final AtomicInteger invocations = new AtomicInteger();
+    static final CountDownLatch streaming = new CountDownLatch(1);
+    static final CountDownLatch release = new CountDownLatch(1);
+
+    @NoSession
+    @CacheFor(response = true)
+    public static void stream() throws InterruptedException {
+      invocations.incrementAndGet();
+      streaming.countDown();
+      release.await(5, SECONDS);
+      byte[] data = "data".getBytes(UTF_8);
+      throw new RenderBinary(new ByteArrayInputStream(data), "data.txt", data.length);
+    }
+  }
+
   @With(TestInterceptor.class)
   public static class TestControllerWithWith extends Controller {
     public String nonStaticJavaMethod() {
@@ -0,0 +1,138 @@
+package play.mvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Method;
+import org.junit.jupiter.api.Test;
+import play.cache.CacheFor;
+
+public class ActionPlanTest {
+  private final Http.Request request = new Http.Request();
+
+  @Test
+  public void interceptorsAreFilteredByOnlyAndUnless() throws Exception {
+    ActionPlan plan = plan("index");
+
+    assertThat(plan.befores).extracting(m -> m.method.getName()).containsExactly("always");
+    assertThat(plan.afters).extracting(m -> m.method.getName()).containsExactly("afterIndex");
+    assertThat(plan.finallies).extracting(m -> m.method.getName()).containsExactly("cleanUp");
+    assertThat(plan.catches).extracting(m -> m.method.getName()).containsExactly("onError");
+
+    ActionPlan listPlan = plan("list");
+    assertThat(listPlan.befores)
+        .extracting(m -> m.method.getName())
+        .containsExactlyInAnyOrder("always", "beforeList");
+    assertThat(listPlan.afters).isEmpty();
+  }
+
+  @Test
+  public void planIsComputedOncePerAction() throws Exception {
+    assertThat(plan("index")).isSameAs(plan("index"));
+    assertThat(plan("index")).isNotSameAs(plan("list"));
+  }
+
+  @Test
+  public void unresolvedRequestGetsPlanWithoutInterceptors() {
+    ActionPlan plan = ActionPlan.of(request);
+
+    assertThat(plan.needsSession).isTrue();
+    assertThat(plan.action).isNull();
+    assertThat(plan.befores).isEmpty();
+  }
+
+  @Test
+  public void sessionAndCacheSettings() throws Exception {
+    ActionPlan index = plan("index");
+    assertThat(index.needsSession).isFalse();
+    request.method = "GET";
+    request.path = "/index";
+    request.querystring = "page=2";
+    assertThat(index.cacheKey(request)).isEqualTo("urlcache:/index?page=2");
+    request.method = "POST";
+    assertThat(index.cacheKey(request)).isNull();
+
+    ActionPlan list = plan("list");
+    assertThat(list.needsSession).isTrue();
+    request.method = "HEAD";
+    assertThat(list.cacheKey(request)).isEqualTo("all-items");
+
+    assertThat(plan("show").cacheKey(request)).isNull();
+  }
+
+  @Test
+  public void responseCacheKeyVariesWithFormatLangAndHeaders() throws Exception {
+    ActionPlan catalog = plan("catalog");
+    request.method = "GET";
+    request.path = "/catalog";
+    request.querystring = "page=2";
+    request.format = "html";
+    request.headers.put("accept", new Http.Header("accept", "text/html"));
+
+    assertThat(catalog.cacheKey(request))
+        .isEqualTo("response:urlcache:/catalog?page=2|format=html|lang|accept=text%2Fhtml");
+    request.headers.remove("accept");
+    assertThat(catalog.cacheKey(request))
+        .isEqualTo("response:urlcache:/catalog?page=2|format=html|lang|accept");
+  }
+
+  @Test
+  public void catchMethodsMatchDeclaredExceptions() throws Exception {
+    ActionPlan.ControllerMethod onError = plan("index").catches[0];
+
+    assertThat(onError.catches(new IllegalStateException())).isTrue();
+    assertThat(onError.catches(new IllegalArgumentException())).isFalse();
+    assertThat(onError.takesThrowable).isTrue();
+  }
+
+  @Test
+  public void invokesStaticAndInstanceMethods() throws Exception {
+    assertThat(plan("list").action.invoke(null, new Object[0])).isEqualTo("list");
+    assertThat(plan("show").action.invoke(new TestController(), new Object[] {42})).isEqualTo(42);
+  }
+
+  private ActionPlan plan(String action) throws NoSuchMethodException {
+    Method actionMethod = null;
+    for (Method method : TestController.class.getMethods()) {
+      if (method.getName().equals(action)) {
+        actionMethod = method;
+      }
+    }
+    request.controllerClass = TestController.class;
+    request.invokedMethod = actionMethod;
+    request.action = "TestController." + action;
+    return ActionPlan.of(request);
+  }
+
+  public static class TestController extends Controller {
+    @NoSession
+    @CacheFor(id = "")
+    public static void index() {}
+
+    @CacheFor(id = "all-items")
+    public static String list() {
+      return "list";
+    }
+
+    @CacheFor(response = true, vary = "Accept")
+    public static void catalog() {}
+
+    public Integer show(Integer id) {
+      return id;
+    }
+
+    @Before
+    static void always() {}
+
+    @Before(only = "TestController.list")
+    static void beforeList() {}
+
+    @After(unless = "TestController.list")
+    static void afterIndex() {}
+
+    @Finally(only = {"TestController.index", "TestController.show"})
+    static void cleanUp() {}
+
+    @Catch(IllegalStateException.class)
+    static void onError(Throwable e) {}
+  }
+}
@@ -0,0 +1,226 @@
+package play.mvc;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.assertj.core.api.Assertions.assertThat;
+import static play.mvc.Scope.Session.TS_KEY;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import play.Play;
+import play.cache.CacheImpl;
+
+public class CacheSessionStoreTest {
+  private static final String COOKIE_NAME = Scope.COOKIE_PREFIX + "_SESSION";
+
+  private final InMemoryCache cache = new InMemoryCache();
+  private final CacheSessionStore store = new CacheSessionStore(() -> cache);
+  private final Http.Request request = new Http.Request();
+
+  @BeforeEach
+  public void setUp() {
+    Play.secretKey = "0112358";
+    Play.started = true;
+    Play.configuration.setProperty(Scope.COOKIE_EXPIRATION_SETTING, "15mn");
+    Play.configuration.setProperty(SessionLifetime.REFRESH_THRESHOLD_SETTING, "50");
+  }
+
+  @AfterEach
+  public void tearDown() {
+    Play.configuration.remove(SessionLifetime.REFRESH_THRESHOLD_SETTING);
+    Play.configuration.remove(CacheSessionStore.LOCAL_TTL_SETTING);
+  }
+
+  @Test
+  public void cookieContainsOnlySignedSessionId() {
+    Http.Response response = new Http.Response();
+    Scope.Session session = store.restore(request);
+    session.put("username", "Bob");
+
+    store.save(session, request, response);
+
+    Http.Cookie cookie = response.cookies.get(COOKIE_NAME);
+    assertThat(cookie.value).endsWith("-" + session.getId()).doesNotContain("Bob");
+    assertThat(cookie.maxAge).isEqualTo(15 * 60);
+    assertThat(cache.data.get(CacheSessionStore.KEY_PREFIX + session.getId()))
+        .isEqualTo(session.data);
+    assertThat(cache.writes).isEqualTo(1);
+  }
+
+  @Test
+  public void newEmptySessionIsNotStored() {
+    Http.Response response = new Http.Response();
+
+    store.save(store.restore(request), request, response);
+
+    assertThat(response.cookies).isEmpty();
+    assertThat(cache.writes).isZero();
+  }
+
+  @Test
+  public void unchangedSessionIsNotWritten() {
+    Http.Cookie cookie = storedSession(System.currentTimeMillis() + MINUTES.toMillis(14));
+    request.cookies.put(COOKIE_NAME, cookie);
+    Http.Response response = new Http.Response();
+
+    Scope.Session session = store.restore(request);
+    assertThat(session.get("username")).isEqualTo("Bob");
+    store.save(session, request, response);
+    store.flush();
+
+    assertThat(cache.writes).isZero();
+    assertThat(response.cookies).isEmpty();
+  }
+
+  @Test
+  public void changedSessionIsWrittenImmediately() {
+    Http.Cookie cookie = storedSession(System.currentTimeMillis() + MINUTES.toMillis(14));
+    request.cookies.put(COOKIE_NAME, cookie);
+    Http.Response response = new Http.Response();
+
+    Scope.Session session = store.restore(request);
+    session.put("username", "Alice");
+    store.save(session, request, response);
+
+    assertThat(cache.writes).isEqualTo(1);
+    assertThat(cache.data.get(CacheSessionStore.KEY_PREFIX + session.getId()))
+        .containsEntry("username", "Alice");
+    assertThat(response.cookies).isEmpty();
+  }
+
+  @Test
+  public void extendedExpirationIsWrittenInBackground() {
+    long expiresAt = System.currentTimeMillis() + MINUTES.toMillis(5);
+    Http.Cookie cookie = storedSession(expiresAt);
+    request.cookies.put(COOKIE_NAME, cookie);
+    Http.Response response = new Http.Response();
+
+    Scope.Session session = store.restore(request);
+    store.save(session, request, response);
+
+    assertThat(cache.writes).isZero();
+    assertThat(response.cookies.get(COOKIE_NAME).value).isEqualTo(cookie.value);
+
+    store.flush();
+    assertThat(cache.writes).isEqualTo(1);
+    String timestamp = cache.data.get(CacheSessionStore.KEY_PREFIX + session.getId()).get(TS_KEY);
+    assertThat(Long.parseLong(timestamp)).isGreaterThan(expiresAt);
+  }
+
+  @Test
+  public void pendingWritesAreDoneOnStop() {
+    Http.Cookie cookie = storedSession(System.currentTimeMillis() + MINUTES.toMillis(5));
+    request.cookies.put(COOKIE_NAME, cookie);
+
+    store.save(store.restore(request), request, new Http.Response());
+    assertThat(cache.writes).isZero();
+
+    store.stop();
+    assertThat(cache.writes).isEqualTo(1);
+  }
+
+  @Test
+  public void sessionIsReadLocallyWithinLocalTtl() {
+    Play.configuration.setProperty(CacheSessionStore.LOCAL_TTL_SETTING, "5s");
+    Http.Cookie cookie = storedSession(System.currentTimeMillis() + MINUTES.toMillis(14));
+    request.cookies.put(COOKIE_NAME, cookie);
+
+    assertThat(store.restore(request).get("username")).isEqualTo("Bob");
+    assertThat(store.restore(request).get("username")).isEqualTo("Bob");
+
+    assertThat(cache.reads).isEqualTo(1);
+  }
+
+  @Test
+  public void sessionIsReadFromCacheByDefault() {
+    Http.Cookie cookie = storedSession(System.currentTimeMillis() + MINUTES.toMillis(14));
+    request.cookies.put(COOKIE_NAME, cookie);
+
+    assertThat(store.restore(request).get("username")).isEqualTo("Bob");
+    assertThat(store.restore(request).get("username")).isEqualTo("Bob");
+
+    assertThat(cache.reads).isEqualTo(2);
+  }
+
+  @Test
+  public void clearedSessionIsDeleted() {
+    Http.Cookie cookie = storedSession(System.currentTimeMillis() + MINUTES.toMillis(14));
+    request.cookies.put(COOKIE_NAME, cookie);
+    Http.Response response = new Http.Response();
+
+    Scope.Session session = store.restore(request);
+    session.clear();
+    store.save(session, request, response);
+
+    assertThat(cache.data).isEmpty();
+    assertThat(response.cookies.get(COOKIE_NAME).value).isEmpty();
+    assertThat(store.restore(request).get("username")).isNull();
+  }
+
+  @Test
+  public void forgedSessionIdIsIgnored() {
+    Http.Cookie cookie = storedSession(System.currentTimeMillis() + MINUTES.toMillis(14));
+    String id = cookie.value.substring(cookie.value.indexOf('-') + 1);
+    request.cookies.put(COOKIE_NAME, new Http.Cookie(COOKIE_NAME, "0000-" + id));
+
+    Scope.Session session = store.restore(request);
+
+    assertThat(session.get("username")).isNull();
+    assertThat(session.getId()).isNotEqualTo(id);
+  }
+
+  @Test
+  public void expiredSessionIsIgnored() {
+    Http.Cookie cookie = storedSession(System.currentTimeMillis() - 1000);
+    request.cookies.put(COOKIE_NAME, cookie);
+
+    assertThat(store.restore(request).get("username")).isNull();
+  }
+
+  private Http.Cookie storedSession(long expiresAt) {
+    Scope.Session session = store.restore(new Http.Request());
+    session.put("username", "Bob");
+    session.put(TS_KEY, expiresAt);
+    Http.Response response = new Http.Response();
+    new CacheSessionStore(() -> cache).save(session, new Http.Request(), response);
+    cache.reads = 0;
+    cache.writes = 0;
+    return response.cookies.get(COOKIE_NAME);
+  }
+
+  private static class InMemoryCache implements CacheImpl {
+    private final Map<String, Map<String, String>> data = new HashMap<>();
+    private int reads;
+    private int writes;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void set(String key, @Nullable Object value, int expiration) {
+      writes++;
+      data.put(key, new HashMap<>((Map<String, String>) value));
+    }
+
+    @Nullable
+    @Override
+    public Object get(String key) {
+      reads++;
+      return data.get(key);
+    }
+
+    @Override
+    public void clear() {
+      data.clear();
+    }
+
+    @Override
+    public void delete(String key) {
+      data.remove(key);
+    }
+
+    @Override
+    public void stop() {}
+  }
+}
@@ -1,6 +1,8 @@
 package play.mvc;
 
+import static java.util.concurrent.TimeUnit.MINUTES;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static play.mvc.Scope.Session.TS_KEY;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -10,10 +12,12 @@ import play.Play;
 public class CookieSessionStoreTest {
   private final Http.Request request = new Http.Request();
   private final Http.Response response = new Http.Response();
+  private final CookieSessionStore cookieSessionStore = new CookieSessionStore();
 
   @BeforeEach
   public void setUp() {
     Play.configuration.setProperty(Scope.COOKIE_EXPIRATION_SETTING, "15mn");
+    Play.configuration.remove(SessionLifetime.REFRESH_THRESHOLD_SETTING);
   }
 
   @Test
@@ -57,4 +61,79 @@ public class CookieSessionStoreTest {
     assertThat(sessionFromSecondRequest.data.get("param")).isEqualTo("value");
     assertThat(sessionFromSecondRequest.data.containsKey(TS_KEY)).isTrue();
   }
+
+  @Test
+  public void unchangedSessionIsNotSentAgain() {
+    Play.configuration.setProperty(SessionLifetime.REFRESH_THRESHOLD_SETTING, "50");
+    Http.Cookie cookie = sessionCookie(System.currentTimeMillis() + MINUTES.toMillis(14));
+    request.cookies.put(cookie.name, cookie);
+
+    Scope.Session session = cookieSessionStore.restore(request);
+    assertThat(session.get("username")).isEqualTo("Bob");
+    cookieSessionStore.save(session, request, response);
+
+    assertThat(session.isChanged()).isFalse();
+    assertThat(response.cookies).doesNotContainKey(cookie.name);
+  }
+
+  @Test
+  public void expirationIsExtendedWhenLessThanThresholdRemains() {
+    Play.configuration.setProperty(SessionLifetime.REFRESH_THRESHOLD_SETTING, "50");
+    long expiresAt = System.currentTimeMillis() + MINUTES.toMillis(7);
+    Http.Cookie cookie = sessionCookie(expiresAt);
+    request.cookies.put(cookie.name, cookie);
+
+    Scope.Session session = cookieSessionStore.restore(request);
+    cookieSessionStore.save(session, request, response);
+
+    assertThat(session.isChanged()).isTrue();
+    assertThat(Long.parseLong(session.get(TS_KEY))).isGreaterThan(expiresAt);
+    assertThat(response.cookies.get(cookie.name).value).isNotEqualTo(cookie.value);
+    assertThat(response.cookies.get(cookie.name).maxAge).isEqualTo(15 * 60);
+  }
+
+  @Test
+  public void expirationIsExtendedOnEveryRequestByDefault() {
+    long expiresAt = System.currentTimeMillis() + MINUTES.toMillis(15) - 1000;
+    Http.Cookie cookie = sessionCookie(expiresAt);
+    request.cookies.put(cookie.name, cookie);
+
+    Scope.Session session = cookieSessionStore.restore(request);
+
+    assertThat(session.isChanged()).isTrue();
+    assertThat(Long.parseLong(session.get(TS_KEY))).isGreaterThan(expiresAt);
+  }
+
+  @Test
+  public void changedSessionIsSent() {
+    Play.configuration.setProperty(SessionLifetime.REFRESH_THRESHOLD_SETTING, "50");
+    Http.Cookie cookie = sessionCookie(System.currentTimeMillis() + MINUTES.toMillis(14));
+    request.cookies.put(cookie.name, cookie);
+
+    Scope.Session session = cookieSessionStore.restore(request);
+    session.put("username", "Alice");
+    cookieSessionStore.save(session, request, response);
+
+    assertThat(response.cookies.get(cookie.name).value).contains("Alice");
+  }
+
+  @Test
+  public void invalidRefreshThreshold() {
+    Play.configuration.setProperty(SessionLifetime.REFRESH_THRESHOLD_SETTING, "150");
+
+    assertThatThrownBy(() -> cookieSessionStore.restore(request))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("application.session.refreshThreshold must be 0..100, got 150");
+  }
+
+  private Http.Cookie sessionCookie(long expiresAt) {
+    Play.secretKey = "0112358";
+    Play.started = true;
+    Scope.Session session = new Scope.Session();
+    session.put("username", "Bob");
+    session.put(TS_KEY, expiresAt);
+    Http.Response response = new Http.Response();
+    cookieSessionStore.save(session, new Http.Request(), response);
+    return response.cookies.get(Scope.COOKIE_PREFIX + "_SESSION");
+  }
 }
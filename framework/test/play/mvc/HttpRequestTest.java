@@ -38,6 +38,19 @@ public class HttpRequestTest {
     assertThat(request(emptyMap()).getUserAgent()).isEqualTo("n/a");
   }
 
+  @Test
+  public void isModified_comparesIfNoneMatchWithETag() {
+    assertThat(request(emptyMap()).isModified("\"v1\"")).isTrue();
+    assertThat(ifNoneMatch("\"v1\"").isModified("\"v1\"")).isFalse();
+    assertThat(ifNoneMatch("\"v0\", W/\"v1\"").isModified("\"v1\"")).isFalse();
+    assertThat(ifNoneMatch("*").isModified("\"v1\"")).isFalse();
+    assertThat(ifNoneMatch("\"v0\"").isModified("\"v1\"")).isTrue();
+  }
+
+  private Http.Request ifNoneMatch(String value) {
+    return request(Map.of("if-none-match", new Http.Header("if-none-match", value)));
+  }
+
   private Http.Request request(Map<String, Http.Header> headers) {
     return Http.Request.createRequest(
         null, "GET", "/", "", null, null, null, null, false, 80, "localhost", headers, null);
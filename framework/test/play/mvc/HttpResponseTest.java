@@ -2,6 +2,8 @@ package play.mvc;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 
 public class HttpResponseTest {
@@ -25,4 +27,19 @@ public class HttpResponseTest {
     response.setCookie("testCookie", "testValue");
     assertThat(response.cookies.get("testCookie").domain).isNull();
   }
+
+  @Test
+  public void beforeFirstChunk_runsOnceBeforeTheFirstChunkIsWritten() {
+    Http.Response response = new Http.Response();
+    List<Object> events = new ArrayList<>();
+    response.onWriteChunk(events::add);
+    response.beforeFirstChunk(() -> events.add("headers"));
+
+    assertThat(response.canWriteChunks()).isTrue();
+    response.writeChunk("<head/>");
+    response.writeChunk("<body/>");
+
+    assertThat(events).containsExactly("headers", "<head/>", "<body/>");
+    assertThat(response.chunked).isTrue();
+  }
 }
@@ -0,0 +1,118 @@
+package play.mvc;
+
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import play.mvc.Router.MatchingRoute;
+import play.mvc.Router.Route;
+import play.mvc.results.NotFound;
+import play.mvc.results.RenderStatic;
+
+public class RouteTreeTest {
+  private final List<Route> routes =
+      List.of(
+          new Route("GET", "/", "Application.index", null, 0),
+          new Route("GET", "/news/{id}", "News.show", null, 0),
+          new Route("POST", "/news/{id}", "News.save", null, 0),
+          new Route("*", "/news/{id}/edit", "News.edit", null, 0),
+          new Route("GET", "/items/{<[0-9]+>id}", "Items.show", null, 0),
+          new Route("GET", "/items/{name}", "Items.byName", null, 0),
+          new Route("GET", "/files/{<.*>path}", "Files.get", null, 0),
+          new Route("GET", "/api/{version}/users/{id}.json", "Api.user", null, 0),
+          new Route("GET", "/public/", "staticDir:public", null, 0),
+          new Route("GET", "/robots.txt", "staticFile:public/robots.txt", null, 0),
+          new Route("GET", "/gone/{id}", "404", null, 0),
+          new Route("GET", "/{controller}/{action}", "{controller}.{action}", null, 0));
+
+  private final RouteTree tree = RouteTree.compile(routes);
+
+  @Test
+  public void matchesLiteralAndParameterSegments() {
+    assertMatch("GET", "/", "Application.index", emptyMap());
+    assertMatch("GET", "", "Application.index", emptyMap());
+    assertMatch("GET", "/news/12", "News.show", Map.of("id", "12"));
+    assertMatch("POST", "/news/12", "News.save", Map.of("id", "12"));
+    assertMatch("PUT", "/news/12/edit", "News.edit", Map.of("id", "12"));
+    assertMatch("GET", "/news/a%20b/edit", "News.edit", Map.of("id", "a b"));
+  }
+
+  @Test
+  public void doesNotMatchEmptyOrMissingSegments() {
+    assertThat(tree.match("GET", "/news/")).isNull();
+    assertThat(tree.match("GET", "/news/12/")).isNull();
+    assertThat(tree.match("PUT", "/news/12")).isNull();
+    assertThat(tree.match("GET", "/a//b")).isNull();
+  }
+
+  @Test
+  public void headRequestFallsBackToGetRoutes() {
+    assertMatch("HEAD", "/news/12", "News.show", Map.of("id", "12"));
+  }
+
+  @Test
+  public void customConstraintsAreCheckedByRegex() {
+    assertMatch("GET", "/items/12", "Items.show", Map.of("id", "12"));
+    assertMatch("GET", "/items/abc", "Items.byName", Map.of("name", "abc"));
+    assertMatch("GET", "/files/a/b/c", "Files.get", Map.of("path", "a/b/c"));
+    assertMatch("GET", "/api/v1/users/5.json", "Api.user", Map.of("version", "v1", "id", "5"));
+  }
+
+  @Test
+  public void firstMatchingRouteWins() {
+    assertMatch(
+        "GET", "/foo/bar", "{controller}.{action}", Map.of("controller", "foo", "action", "bar"));
+    assertMatch("GET", "/news/bar", "News.show", Map.of("id", "bar"));
+  }
+
+  @Test
+  public void staticRoutes() {
+    assertThatThrownBy(() -> tree.match("GET", "/public/images/logo.png"))
+        .isInstanceOf(RenderStatic.class);
+    assertThatThrownBy(() -> tree.match("GET", "/robots.txt")).isInstanceOf(RenderStatic.class);
+    assertThatThrownBy(() -> tree.match("GET", "/gone/1")).isInstanceOf(NotFound.class);
+  }
+
+  @Test
+  public void sameResultsAsLinearMatcher() {
+    Router linear = new Router(routes);
+    linear.setLinearMatching(true);
+    Router compiled = new Router(routes);
+
+    for (String method : List.of("GET", "POST", "HEAD", "DELETE")) {
+      for (String path :
+          List.of(
+              "/",
+              "/news/1",
+              "/news/1/edit",
+              "/items/1",
+              "/items/x",
+              "/files/",
+              "/api/v2/users/7.json",
+              "/api/v2/users/7",
+              "/a/b",
+              "/a/b/c")) {
+        assertThat(compiled.matchRoute(method, path))
+            .as(() -> method + " " + path)
+            .isEqualTo(linear.matchRoute(method, path));
+      }
+    }
+  }
+
+  @Test
+  public void splitTemplateKeepsRegexArgumentsIntact() {
+    assertThat(RouteTree.splitTemplate("/files/{<[^/]+/[^/]+>path}/raw"))
+        .containsExactly("", "files", "{<[^/]+/[^/]+>path}", "raw");
+    assertThat(RouteTree.splitTemplate("/")).containsExactly("", "");
+  }
+
+  private void assertMatch(String method, String path, String action, Map<String, String> args) {
+    MatchingRoute match = tree.match(method, path);
+    assertThat(match).as(() -> method + " " + path).isNotNull();
+    assertThat(match.route().action).isEqualTo(action);
+    assertThat(match.args()).isEqualTo(args);
+  }
+}
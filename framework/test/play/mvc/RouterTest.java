@@ -5,6 +5,7 @@ import static java.util.Collections.emptyMap;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.AfterEach;
@@ -163,6 +164,38 @@ public class RouterTest {
         .isEqualTo("/cards/%2Ffoo%26bar%27baz/requisites");
   }
 
+  @Test
+  public void actionToUrl_keepsColonAndAtSignInPath() {
+    assertThat(actionToUrl("cards.Requisites.showPopup", Map.of("cardId", "a b:c@d")))
+        .isEqualTo("/cards/a%20b:c@d/requisites");
+  }
+
+  @Test
+  public void actionToUrl_addsOtherArgumentsToQueryString() {
+    Map<String, Object> args = new LinkedHashMap<>();
+    args.put("cardId", "123");
+    args.put("q", "a b:c");
+    args.put("tags", List.of("x", "y&z"));
+    args.put("skipped", null);
+
+    assertThat(actionToUrl("cards.Requisites.showPopup", args))
+        .isEqualTo("/cards/123/requisites?q=a+b%3Ac&tags=x&tags=y%26z");
+  }
+
+  @Test
+  public void actionToUrl_checksArgumentConstraints() {
+    Router router =
+        new Router(
+            List.of(
+                new Route("GET", "/items/{<[0-9]+>id}", "Items.show", null, 0),
+                new Route("GET", "/items", "Items.show", null, 0)));
+
+    assertThat(router.actionToUrl("Items.show", Map.of("id", "42"), (String) null, null).url)
+        .isEqualTo("/items/42");
+    assertThat(router.actionToUrl("Items.show", Map.of("id", "abc"), (String) null, null).url)
+        .isEqualTo("/items?id=abc");
+  }
+
   @Test
   public void actionToUrl_withArgumentsInAction() {
     assertThat(actionToUrl("News.list", emptyMap())).isEqualTo("/news/list");
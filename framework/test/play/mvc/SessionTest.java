@@ -45,4 +45,34 @@ public class SessionTest {
     assertThat(session.data.size()).isEqualTo(1);
     assertThat(session.data.get(TS_KEY)).isEqualTo("12/01/2017");
   }
+
+  @Test
+  public void readingDoesNotChangeSession() {
+    Session session = new Session();
+    session.data.put("username", "Alice");
+
+    assertThat(session.get("username")).isEqualTo("Alice");
+    assertThat(session.contains("username")).isTrue();
+    assertThat(session.isEmpty()).isFalse();
+    assertThat(session.isChanged()).isFalse();
+  }
+
+  @Test
+  public void generatingIdChangesSession() {
+    Session session = new Session();
+
+    String id = session.getId();
+
+    assertThat(session.isChanged()).isTrue();
+    assertThat(session.data.get("___ID")).isEqualTo(id);
+  }
+
+  @Test
+  public void allMayBeModified() {
+    Session session = new Session();
+
+    session.all().put("username", "Alice");
+
+    assertThat(session.isChanged()).isTrue();
+  }
 }
@@ -0,0 +1,156 @@
+package play.mvc.results;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import play.ConfProperties;
+import play.Play;
+import play.mvc.Http;
+import play.mvc.Scope.Flash;
+import play.mvc.Scope.RenderArgs;
+import play.mvc.Scope.Session;
+
+public class CachedResponseTest {
+  private final Http.Request request = new Http.Request();
+  private final Session session = new Session();
+  private final RenderArgs renderArgs = new RenderArgs();
+  private final Flash flash = new Flash();
+
+  @BeforeEach
+  public void setUp() {
+    Play.configuration = new ConfProperties();
+    Play.configuration.setProperty("play.compression.enabled", "true");
+    Play.configuration.setProperty("play.compression.minSize", "10");
+  }
+
+  @AfterEach
+  public void tearDown() {
+    Play.configuration = new ConfProperties();
+  }
+
+  @Test
+  public void replaysStatusHeadersAndBodyWithETag() {
+    CachedResponse cached = render(new RenderHtml("<h1>Catalog</h1>"), "Accept");
+    Http.Response response = response();
+
+    cached.apply(request, response, session, renderArgs, flash);
+
+    assertThat(response.status).isEqualTo(200);
+    assertThat(response.contentType).isEqualTo("text/html");
+    assertThat(response.getHeader("X-Total")).isEqualTo("42");
+    assertThat(response.getHeader("ETag")).isEqualTo(cached.getETag()).matches("\"[0-9a-f]{32}\"");
+    assertThat(response.getHeader("Vary")).isEqualTo("Accept, Accept-Encoding");
+    assertThat(response.getHeader("Content-Encoding")).isNull();
+    assertThat(response.out.toString(UTF_8)).isEqualTo("<h1>Catalog</h1>");
+  }
+
+  @Test
+  public void notModifiedIfClientHasTheSameETag() {
+    CachedResponse cached = render(new RenderHtml("<h1>Catalog</h1>"));
+    request.headers.put("if-none-match", new Http.Header("if-none-match", cached.getETag()));
+    Http.Response response = response();
+
+    cached.apply(request, response, session, renderArgs, flash);
+
+    assertThat(response.status).isEqualTo(Http.StatusCode.NOT_MODIFIED);
+    assertThat(response.getHeader("ETag")).isEqualTo(cached.getETag());
+    assertThat(response.out.size()).isZero();
+  }
+
+  @Test
+  public void sendsPrecompressedBodyIfClientAcceptsGzip() throws Exception {
+    CachedResponse cached = render(new RenderHtml("<h1>Catalog</h1>"));
+    request.headers.put("accept-encoding", new Http.Header("accept-encoding", "gzip, br"));
+    Http.Response response = response();
+
+    cached.apply(request, response, session, renderArgs, flash);
+
+    assertThat(response.getHeader("Content-Encoding")).isEqualTo("gzip");
+    assertThat(response.getHeader("Vary")).isEqualTo("Accept-Encoding");
+    assertThat(response.getHeader("ETag")).isEqualTo(gzippedETag(cached));
+    byte[] body =
+        new GZIPInputStream(new ByteArrayInputStream(response.out.toByteArray())).readAllBytes();
+    assertThat(new String(body, UTF_8)).isEqualTo("<h1>Catalog</h1>");
+  }
+
+  @Test
+  public void gzippedBodyIsNotModifiedOnlyForItsOwnETag() {
+    CachedResponse cached = render(new RenderHtml("<h1>Catalog</h1>"));
+    request.headers.put("accept-encoding", new Http.Header("accept-encoding", "gzip"));
+
+    request.headers.put("if-none-match", new Http.Header("if-none-match", cached.getETag()));
+    Http.Response response = response();
+    cached.apply(request, response, session, renderArgs, flash);
+    assertThat(response.status).isEqualTo(200);
+    assertThat(response.getHeader("Content-Encoding")).isEqualTo("gzip");
+
+    request.headers.put("if-none-match", new Http.Header("if-none-match", gzippedETag(cached)));
+    response = response();
+    cached.apply(request, response, session, renderArgs, flash);
+    assertThat(response.status).isEqualTo(Http.StatusCode.NOT_MODIFIED);
+    assertThat(response.out.size()).isZero();
+  }
+
+  @Test
+  public void errorsHaveNoETag() {
+    CachedResponse cached = render(new Status(404));
+
+    assertThat(cached.getStatus()).isEqualTo(404);
+    assertThat(cached.getETag()).isNull();
+  }
+
+  @Test
+  public void responsesSettingCookiesAreNotCached() {
+    Result result =
+        new Result() {
+          @Override
+          public void apply(
+              Http.Request request,
+              Http.Response response,
+              Session session,
+              RenderArgs renderArgs,
+              Flash flash) {
+            response.setCookie("visited", "true");
+          }
+        };
+
+    assertThat(
+            CachedResponse.render(
+                result, new String[0], request, response(), session, renderArgs, flash))
+        .isNull();
+  }
+
+  private static String gzippedETag(CachedResponse cached) {
+    return cached.getETag().replaceFirst("\"$", "-gzip\"");
+  }
+
+  private CachedResponse render(Result result, String... vary) {
+    Result withHeader =
+        new Result() {
+          @Override
+          public void apply(
+              Http.Request request,
+              Http.Response response,
+              Session session,
+              RenderArgs renderArgs,
+              Flash flash) {
+            response.setHeader("X-Total", "42");
+            result.apply(request, response, session, renderArgs, flash);
+          }
+        };
+    return CachedResponse.render(
+        withHeader, vary, request, response(), session, renderArgs, flash);
+  }
+
+  private static Http.Response response() {
+    Http.Response response = new Http.Response();
+    response.out = new ByteArrayOutputStream();
+    return response;
+  }
+}
@@ -0,0 +1,108 @@
+package play.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Properties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class ResponseCompressionTest {
+  @AfterEach
+  public void tearDown() {
+    ResponseCompression.resetStatistics();
+  }
+
+  @Test
+  public void disabledByDefault() {
+    ResponseCompression compression = new ResponseCompression(new Properties());
+    assertThat(compression.isEnabled()).isFalse();
+    assertThat(compression.isCompressible("text/html")).isFalse();
+    assertThat(compression.servePrecompressed()).isFalse();
+  }
+
+  @Test
+  public void compressesWhitelistedMimeTypes() {
+    Properties configuration = new Properties();
+    configuration.setProperty("play.compression.enabled", "true");
+    ResponseCompression compression = new ResponseCompression(configuration);
+
+    assertThat(compression.isCompressible("text/html; charset=utf-8")).isTrue();
+    assertThat(compression.isCompressible("Application/JSON")).isTrue();
+    assertThat(compression.isCompressible("image/png")).isFalse();
+    assertThat(compression.isCompressible("application/zip")).isFalse();
+    assertThat(compression.isCompressible(null)).isFalse();
+    assertThat(compression.minSize()).isEqualTo(1024);
+    assertThat(compression.level()).isEqualTo(6);
+  }
+
+  @Test
+  public void customMimeTypes() {
+    ResponseCompression compression =
+        new ResponseCompression(true, "text/html, application/pdf", 0, 1, false);
+    assertThat(compression.isCompressible("application/pdf")).isTrue();
+    assertThat(compression.isCompressible("application/json")).isFalse();
+  }
+
+  @Test
+  public void invalidLevel() {
+    assertThatThrownBy(() -> new ResponseCompression(true, "text/html", 0, 10, false))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void negotiatesEncoding() {
+    assertThat(ResponseCompression.negotiate(null)).isNull();
+    assertThat(ResponseCompression.negotiate("")).isNull();
+    assertThat(ResponseCompression.negotiate("identity")).isNull();
+    assertThat(ResponseCompression.negotiate("gzip, deflate, br")).isEqualTo("gzip");
+    assertThat(ResponseCompression.negotiate("deflate")).isEqualTo("deflate");
+    assertThat(ResponseCompression.negotiate("gzip;q=0.5, deflate")).isEqualTo("deflate");
+    assertThat(ResponseCompression.negotiate("gzip;q=0, deflate;q=0")).isNull();
+    assertThat(ResponseCompression.negotiate("*")).isEqualTo("gzip");
+    assertThat(ResponseCompression.negotiate("gzip;q=0, *")).isEqualTo("deflate");
+    assertThat(ResponseCompression.negotiate("x-gzip")).isEqualTo("gzip");
+    assertThat(ResponseCompression.negotiate("br")).isNull();
+  }
+
+  @Test
+  public void negotiatesBrotliIfAvailable() {
+    assertThat(ResponseCompression.negotiate("gzip, deflate, br", true)).isEqualTo("br");
+    assertThat(ResponseCompression.negotiate("gzip, deflate, br;q=0.5", true)).isEqualTo("gzip");
+    assertThat(ResponseCompression.negotiate("*", true)).isEqualTo("br");
+    assertThat(ResponseCompression.negotiate("br;q=0, *", true)).isEqualTo("gzip");
+    assertThat(ResponseCompression.negotiate("gzip, deflate", true)).isEqualTo("gzip");
+  }
+
+  @Test
+  public void acceptsEncodingEvenIfNotPreferred() {
+    assertThat(ResponseCompression.accepts(null, "gzip")).isFalse();
+    assertThat(ResponseCompression.accepts("deflate;q=1, gzip;q=0.5", "gzip")).isTrue();
+    assertThat(ResponseCompression.accepts("deflate", "gzip")).isFalse();
+    assertThat(ResponseCompression.accepts("gzip;q=0, *", "gzip")).isFalse();
+    assertThat(ResponseCompression.accepts("*", "gzip")).isTrue();
+  }
+
+  @Test
+  public void mergesVary() {
+    assertThat(ResponseCompression.mergeVary(null, "Accept-Encoding")).isEqualTo("Accept-Encoding");
+    assertThat(ResponseCompression.mergeVary("Accept", "Accept-Encoding"))
+        .isEqualTo("Accept, Accept-Encoding");
+    assertThat(ResponseCompression.mergeVary("Accept, accept-encoding", "Accept-Encoding"))
+        .isEqualTo("Accept, accept-encoding");
+    assertThat(ResponseCompression.mergeVary("*", "Accept-Encoding")).isEqualTo("*");
+  }
+
+  @Test
+  public void countsBytesByContentType() {
+    ResponseCompression.record("text/html; charset=utf-8", 1000, 200, true);
+    ResponseCompression.record("text/html", 500, 100, false);
+    ResponseCompression.record("application/json", 300, 50, true);
+
+    ResponseCompression.Statistics html = ResponseCompression.statistics().get("text/html");
+    assertThat(html.responses()).isEqualTo(1);
+    assertThat(html.bytesIn()).isEqualTo(1500);
+    assertThat(html.bytesOut()).isEqualTo(300);
+    assertThat(ResponseCompression.statistics()).containsOnlyKeys("application/json", "text/html");
+  }
+}
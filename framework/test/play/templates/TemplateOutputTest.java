@@ -0,0 +1,80 @@
+package play.templates;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.Charset;
+import org.junit.jupiter.api.Test;
+
+public class TemplateOutputTest {
+  @Test
+  public void encodesPartsIntoChunks() throws Exception {
+    StringBuilder page = new StringBuilder();
+    for (int i = 0; i < 3000; i++) {
+      page.append("<li>Привет 😀 ").append(i).append("</li>\n");
+    }
+    String expected = page.toString();
+
+    for (Charset encoding : new Charset[] {UTF_8, ISO_8859_1}) {
+      TemplateOutput output = new TemplateOutput(encoding);
+      // parts of different sizes, some ending in the middle of a surrogate pair
+      int[] lengths = {1, 7, 8191, 8192, 8193, 3, 20000};
+      for (int start = 0, i = 0; start < expected.length(); i++) {
+        int end = Math.min(expected.length(), start + lengths[i % lengths.length]);
+        output.append(new StringBuffer(expected.substring(start, end)));
+        start = end;
+      }
+      output.finish();
+
+      assertThat(bytes(output)).isEqualTo(expected.getBytes(encoding));
+      assertThat(output.size()).isEqualTo(expected.getBytes(encoding).length);
+      assertThat(output.toString()).isEqualTo(new String(expected.getBytes(encoding), encoding));
+    }
+  }
+
+  @Test
+  public void emptyOutput() throws Exception {
+    TemplateOutput output = new TemplateOutput(UTF_8).finish();
+
+    assertThat(output.size()).isZero();
+    assertThat(bytes(output)).isEmpty();
+    assertThat(output.toString()).isEmpty();
+  }
+
+  @Test
+  public void nothingCanBeAppendedOnceFinished() {
+    TemplateOutput output = new TemplateOutput(UTF_8).append("page").finish();
+
+    assertThatThrownBy(() -> output.append("more")).isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  public void isSerializable() throws Exception {
+    TemplateOutput output = new TemplateOutput(UTF_8).append("<h1>Привет</h1>").finish();
+
+    ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+      out.writeObject(output);
+    }
+    try (ObjectInputStream in =
+        new ObjectInputStream(new ByteArrayInputStream(serialized.toByteArray()))) {
+      TemplateOutput copy = (TemplateOutput) in.readObject();
+      assertThat(copy.toString()).isEqualTo("<h1>Привет</h1>");
+      assertThat(copy.encoding()).isEqualTo(UTF_8);
+    }
+    // The last chunk is trimmed, instead of keeping a whole chunk for a small page
+    assertThat(serialized.size()).isLessThan(TemplateOutput.CHUNK_SIZE / 8);
+  }
+
+  private static byte[] bytes(TemplateOutput output) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    output.writeTo(out);
+    return out.toByteArray();
+  }
+}
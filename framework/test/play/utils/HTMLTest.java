@@ -0,0 +1,33 @@
+package play.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class HTMLTest {
+  @Test
+  public void htmlEscape() {
+    assertThat(HTML.htmlEscape("<a href=\"/tom&jerry\">Café</a>"))
+        .isEqualTo("&lt;a href=&quot;/tom&amp;jerry&quot;&gt;Caf&eacute;&lt;/a&gt;");
+    assertThat(HTML.htmlEscape("a ≤ b — c")).isEqualTo("a &le; b &mdash; c");
+    assertThat(HTML.htmlEscape("")).isEmpty();
+    assertThat(HTML.htmlEscape(null)).isNull();
+  }
+
+  @Test
+  public void stringWithNothingToEscapeIsReturnedAsIs() {
+    String clean = "Привет, it's 42";
+
+    assertThat(HTML.htmlEscape(clean)).isSameAs(clean);
+  }
+
+  @Test
+  public void htmlEscapeIntoAppendable() throws Exception {
+    StringBuilder out = new StringBuilder("<p>");
+
+    HTML.htmlEscape("Tom & Jerry", out);
+    HTML.htmlEscape("!", out);
+
+    assertThat(out).hasToString("<p>Tom &amp; Jerry!");
+  }
+}
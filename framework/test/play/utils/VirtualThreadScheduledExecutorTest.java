@@ -0,0 +1,130 @@
+package play.utils;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class VirtualThreadScheduledExecutorTest {
+  private final VirtualThreadScheduledExecutor executor =
+      new VirtualThreadScheduledExecutor("test", 2);
+
+  @AfterEach
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void runsTasksInNewThreads() throws Exception {
+    ThreadLocal<String> threadLocal = new ThreadLocal<>();
+
+    Future<String> first = executor.submit(() -> set(threadLocal, "first"));
+    Future<String> second = executor.submit(() -> set(threadLocal, "second"));
+
+    assertThat(first.get(1, SECONDS)).isEqualTo("first:null");
+    assertThat(second.get(1, SECONDS)).isEqualTo("second:null");
+  }
+
+  @Test
+  public void limitsNumberOfConcurrentTasks() throws Exception {
+    CountDownLatch started = new CountDownLatch(2);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      futures.add(
+          executor.submit(
+              () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                started.countDown();
+                release.await();
+                running.decrementAndGet();
+                return null;
+              }));
+    }
+
+    assertThat(started.await(1, SECONDS)).isTrue();
+    assertThat(executor.getActiveCount()).isEqualTo(2);
+    release.countDown();
+    for (Future<?> future : futures) {
+      future.get(1, SECONDS);
+    }
+    executor.shutdown();
+    assertThat(executor.awaitTermination(1, SECONDS)).isTrue();
+    assertThat(maxRunning.get()).isEqualTo(2);
+    assertThat(executor.getActiveCount()).isZero();
+  }
+
+  @Test
+  public void shutdownNowInterruptsRunningTasks() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    Future<?> future =
+        executor.submit(
+            () -> {
+              started.countDown();
+              try {
+                new CountDownLatch(1).await();
+              } catch (InterruptedException e) {
+                interrupted.countDown();
+              }
+            });
+    assertThat(started.await(1, SECONDS)).isTrue();
+
+    executor.shutdownNow();
+
+    assertThat(interrupted.await(1, SECONDS)).isTrue();
+    assertThat(executor.awaitTermination(1, SECONDS)).isTrue();
+    assertThat(executor.isTerminated()).isTrue();
+    assertThat(future.isDone()).isTrue();
+  }
+
+  @Test
+  public void awaitTerminationWaitsForRunningTasks() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Future<?> future =
+        executor.submit(
+            () -> {
+              started.countDown();
+              release.await();
+              return null;
+            });
+    assertThat(started.await(1, SECONDS)).isTrue();
+    executor.shutdown();
+
+    assertThat(executor.awaitTermination(50, MILLISECONDS)).isFalse();
+    assertThat(executor.isTerminated()).isFalse();
+
+    release.countDown();
+    assertThat(executor.awaitTermination(1, SECONDS)).isTrue();
+    assertThat(future.isDone()).isTrue();
+  }
+
+  @Test
+  public void reschedulesPeriodicTasks() throws Exception {
+    CountDownLatch runs = new CountDownLatch(3);
+
+    ScheduledFuture<?> future =
+        executor.scheduleWithFixedDelay(runs::countDown, 0, 10, MILLISECONDS);
+
+    assertThat(runs.await(1, SECONDS)).isTrue();
+    future.cancel(false);
+    assertThat(future.isCancelled()).isTrue();
+  }
+
+  private static String set(ThreadLocal<String> threadLocal, String value) {
+    String previous = threadLocal.get();
+    threadLocal.set(value);
+    return value + ":" + previous;
+  }
+}
@@ -587,6 +587,17 @@ public class PlayHandler implements HttpHandler {
   private void serve500(
       Exception e, HttpExchange exchange, Http.Request request, Http.Response response) {
     logger.trace("serve500: begin :{}:{}", request.method, request.url);
+    if (response.chunked) {
+      // The headers are sent: HttpExchange cannot close the connection without ending the
+      // response, so the client gets the chunks sent so far as a whole response
+      logger.error(
+          "Internal Server Error (500) after the first chunk ({}) :{}:{}",
+          e.getClass().getSimpleName(),
+          request.method, request.url,
+          e);
+      exchange.close();
+      return;
+    }
 
     try {
       flushCookies(request, exchange, response);
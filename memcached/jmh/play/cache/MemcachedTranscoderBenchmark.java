@@ -0,0 +1,103 @@
+package play.cache;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.spy.memcached.CachedData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Writing and reading a cached list of DTOs with Java serialization and with {@link CompactCodec}.
+ *
+ * <p>Run with e.g. <code>./gradlew :memcached:jmh -PjmhArgs="MemcachedTranscoderBenchmark"</code>.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MemcachedTranscoderBenchmark {
+  @Param({"java", "compact"})
+  public String codec;
+
+  @Param({"1", "100"})
+  public int size;
+
+  private MemcachedTranscoder transcoder;
+  private List<Order> orders;
+  private CachedData data;
+
+  @Setup
+  public void setUp() {
+    transcoder =
+        new MemcachedTranscoder(
+            "java".equals(codec) ? new JavaSerializationCodec() : new CompactCodec(4096));
+    orders = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      orders.add(
+          new Order(
+              1000L + i,
+              "customer-" + (i % 10) + "@example.com",
+              new BigDecimal("19.90").multiply(BigDecimal.valueOf(i + 1)),
+              LocalDate.of(2024, 1, 1).plusDays(i),
+              i % 3 == 0 ? Status.SHIPPED : Status.PAID,
+              List.of("SKU-" + i, "SKU-" + (i + 1))));
+    }
+    data = transcoder.encode(orders);
+  }
+
+  @Benchmark
+  public CachedData encode() {
+    return transcoder.encode(orders);
+  }
+
+  @Benchmark
+  public Object decode() {
+    return transcoder.decode(data);
+  }
+
+  public enum Status {
+    PAID,
+    SHIPPED
+  }
+
+  public static class Order implements Serializable {
+    private long id;
+    private String customerEmail;
+    private BigDecimal total;
+    private LocalDate date;
+    private Status status;
+    private List<String> skus;
+
+    public Order() {}
+
+    Order(
+        long id,
+        String customerEmail,
+        BigDecimal total,
+        LocalDate date,
+        Status status,
+        List<String> skus) {
+      this.id = id;
+      this.customerEmail = customerEmail;
+      this.total = total;
+      this.date = date;
+      this.status = status;
+      this.skus = skus;
+    }
+  }
+}
@@ -0,0 +1,909 @@
+package play.cache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.EOFException;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteOrder;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A compact binary format for cached values, several times faster to read than Java
+ * serialization.
+ *
+ * <p>Common JDK types (strings, numbers, dates, UUIDs, enums, lists, sets, maps and arrays) are
+ * written with a one-byte tag. Other {@link Serializable} classes are written field by field, with
+ * their class name and field names only once per value. Fields are matched by name when reading:
+ * added fields keep the value set by the no-arg constructor, removed fields are skipped. Classes
+ * with custom serialization (<code>writeObject</code>, <code>readResolve</code>, ...) or without a
+ * no-arg constructor are written with Java serialization, nested in the compact value.
+ *
+ * <p>Unlike Java serialization, an object referenced twice is read as two copies. Values with
+ * cycles are written with Java serialization.
+ *
+ * <p>The first byte is the version of the format: {@link #VERSION} followed by the value, or
+ * {@link #VERSION_DEFLATED} followed by the length of the value and the value compressed with
+ * deflate.
+ */
+@NullMarked
+final class CompactCodec implements ValueCodec {
+  static final byte VERSION = 1;
+  static final byte VERSION_DEFLATED = 2;
+
+  private static final int MAX_DEPTH = 256;
+  private static final int MAX_INFLATED_SIZE = 1 << 28;
+
+  private static final byte NULL = 0;
+  private static final byte TRUE = 1;
+  private static final byte FALSE = 2;
+  private static final byte INT = 3;
+  private static final byte LONG = 4;
+  private static final byte DOUBLE = 5;
+  private static final byte FLOAT = 6;
+  private static final byte SHORT = 7;
+  private static final byte BYTE = 8;
+  private static final byte CHAR = 9;
+  private static final byte STRING = 10;
+  private static final byte BYTES = 11;
+  private static final byte BIG_DECIMAL = 12;
+  private static final byte BIG_INTEGER = 13;
+  private static final byte DATE = 14;
+  private static final byte INSTANT = 15;
+  private static final byte LOCAL_DATE = 16;
+  private static final byte LOCAL_DATE_TIME = 17;
+  private static final byte UUID_TAG = 18;
+  private static final byte ENUM = 19;
+  private static final byte ARRAY_LIST = 20;
+  private static final byte LINKED_LIST = 21;
+  private static final byte LIST_OF = 22;
+  private static final byte HASH_SET = 23;
+  private static final byte LINKED_HASH_SET = 24;
+  private static final byte TREE_SET = 25;
+  private static final byte SET_OF = 26;
+  private static final byte HASH_MAP = 27;
+  private static final byte LINKED_HASH_MAP = 28;
+  private static final byte TREE_MAP = 29;
+  private static final byte MAP_OF = 30;
+  private static final byte INT_ARRAY = 31;
+  private static final byte LONG_ARRAY = 32;
+  private static final byte OBJECT_ARRAY = 33;
+  private static final byte OBJECT = 34;
+  private static final byte JAVA = 35;
+  private static final byte UNMODIFIABLE_LIST = 36;
+
+  private static final VarHandle LONG_BYTES =
+      MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+  private static final VarHandle INT_BYTES =
+      MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+  private static final ClassValue<Layout> layouts =
+      new ClassValue<>() {
+        @Override
+        protected Layout computeValue(Class<?> type) {
+          return Layout.of(type);
+        }
+      };
+
+  private final int compressionThreshold;
+  private final JavaSerializationCodec java = new JavaSerializationCodec();
+
+  /** @param compressionThreshold values longer than this (in bytes) are compressed */
+  CompactCodec(int compressionThreshold) {
+    this.compressionThreshold = compressionThreshold;
+  }
+
+  static boolean accepts(byte[] data) {
+    return data.length > 0 && (data[0] == VERSION || data[0] == VERSION_DEFLATED);
+  }
+
+  static boolean isCompressed(byte[] data) {
+    return data.length > 0 && data[0] == VERSION_DEFLATED;
+  }
+
+  @Override
+  public byte[] encode(Object value) throws IOException {
+    Output out = new Output(256);
+    out.writeByte(VERSION);
+    try {
+      new Encoder(out).writeValue(value, 0);
+    } catch (TooDeepException e) {
+      return java.encode(value);
+    }
+    return out.size > compressionThreshold ? deflate(out) : out.toByteArray();
+  }
+
+  @Nullable
+  @Override
+  public Object decode(byte[] data) throws IOException, ClassNotFoundException {
+    if (data.length == 0) {
+      throw new EOFException("Empty value");
+    }
+    switch (data[0]) {
+      case VERSION:
+        return new Decoder(new Input(data, 1, data.length)).readValue();
+      case VERSION_DEFLATED:
+        Input header = new Input(data, 1, data.length);
+        long size = header.readVarLong();
+        if (size > MAX_INFLATED_SIZE) {
+          throw new StreamCorruptedException("Invalid length of compressed value: " + size);
+        }
+        byte[] inflated = inflate(data, header.position, (int) size);
+        return new Decoder(new Input(inflated, 0, inflated.length)).readValue();
+      default:
+        throw new StreamCorruptedException("Unknown version of compact value: " + data[0]);
+    }
+  }
+
+  private static byte[] deflate(Output value) {
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(value.buffer, 1, value.size - 1);
+      deflater.finish();
+      Output out = new Output(value.size / 2 + 16);
+      out.writeByte(VERSION_DEFLATED);
+      out.writeVarLong(value.size - 1);
+      while (!deflater.finished()) {
+        out.ensure(1024);
+        out.size += deflater.deflate(out.buffer, out.size, out.buffer.length - out.size);
+      }
+      return out.size < value.size ? out.toByteArray() : value.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static byte[] inflate(byte[] data, int offset, int size) throws IOException {
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(data, offset, data.length - offset);
+      byte[] result = new byte[size];
+      int length = 0;
+      while (length < size && !inflater.finished()) {
+        int inflated = inflater.inflate(result, length, size - length);
+        if (inflated == 0 && inflater.needsInput()) {
+          throw new EOFException("Truncated compressed value");
+        }
+        length += inflated;
+      }
+      if (length != size) {
+        throw new StreamCorruptedException("Expected " + size + " bytes, got " + length);
+      }
+      return result;
+    } catch (DataFormatException e) {
+      throw new StreamCorruptedException("Invalid compressed value: " + e.getMessage());
+    } finally {
+      inflater.end();
+    }
+  }
+
+  private final class Encoder {
+    private final Output out;
+    private final Map<Class<?>, Integer> classes = new IdentityHashMap<>();
+    /** Enums and component types of arrays, apart from {@link #classes} written with fields */
+    private final Map<Class<?>, Integer> types = new IdentityHashMap<>();
+
+    private Encoder(Output out) {
+      this.out = out;
+    }
+
+    private void writeValue(@Nullable Object value, int depth) throws IOException {
+      if (depth > MAX_DEPTH) {
+        throw new TooDeepException();
+      }
+      if (value == null) {
+        out.writeByte(NULL);
+        return;
+      }
+      Class<?> type = value.getClass();
+      if (type == String.class) {
+        out.writeByte(STRING);
+        out.writeString((String) value);
+      } else if (type == Integer.class) {
+        out.writeByte(INT);
+        out.writeZigZag((Integer) value);
+      } else if (type == Long.class) {
+        out.writeByte(LONG);
+        out.writeZigZag((Long) value);
+      } else if (type == Boolean.class) {
+        out.writeByte((Boolean) value ? TRUE : FALSE);
+      } else if (type == Double.class) {
+        out.writeByte(DOUBLE);
+        out.writeLong(Double.doubleToRawLongBits((Double) value));
+      } else if (type == Float.class) {
+        out.writeByte(FLOAT);
+        out.writeInt(Float.floatToRawIntBits((Float) value));
+      } else if (type == Short.class) {
+        out.writeByte(SHORT);
+        out.writeZigZag((Short) value);
+      } else if (type == Byte.class) {
+        out.writeByte(BYTE);
+        out.writeByte((Byte) value);
+      } else if (type == Character.class) {
+        out.writeByte(CHAR);
+        out.writeVarLong((Character) value);
+      } else if (type == byte[].class) {
+        out.writeByte(BYTES);
+        out.writeBytes((byte[]) value);
+      } else if (type == BigDecimal.class) {
+        out.writeByte(BIG_DECIMAL);
+        out.writeZigZag(((BigDecimal) value).scale());
+        out.writeBytes(((BigDecimal) value).unscaledValue().toByteArray());
+      } else if (type == BigInteger.class) {
+        out.writeByte(BIG_INTEGER);
+        out.writeBytes(((BigInteger) value).toByteArray());
+      } else if (type == Date.class) {
+        out.writeByte(DATE);
+        out.writeZigZag(((Date) value).getTime());
+      } else if (type == Instant.class) {
+        out.writeByte(INSTANT);
+        out.writeZigZag(((Instant) value).getEpochSecond());
+        out.writeVarLong(((Instant) value).getNano());
+      } else if (type == LocalDate.class) {
+        out.writeByte(LOCAL_DATE);
+        out.writeZigZag(((LocalDate) value).toEpochDay());
+      } else if (type == LocalDateTime.class) {
+        out.writeByte(LOCAL_DATE_TIME);
+        out.writeZigZag(((LocalDateTime) value).toLocalDate().toEpochDay());
+        out.writeVarLong(((LocalDateTime) value).toLocalTime().toNanoOfDay());
+      } else if (type == UUID.class) {
+        out.writeByte(UUID_TAG);
+        out.writeLong(((UUID) value).getMostSignificantBits());
+        out.writeLong(((UUID) value).getLeastSignificantBits());
+      } else if (value instanceof Enum<?> constant) {
+        out.writeByte(ENUM);
+        writeClass(types, constant.getDeclaringClass());
+        out.writeString(constant.name());
+      } else if (type == ArrayList.class) {
+        writeCollection(ARRAY_LIST, (Collection<?>) value, depth);
+      } else if (type == LinkedList.class) {
+        writeCollection(LINKED_LIST, (Collection<?>) value, depth);
+      } else if (type == HashSet.class) {
+        writeCollection(HASH_SET, (Collection<?>) value, depth);
+      } else if (type == LinkedHashSet.class) {
+        writeCollection(LINKED_HASH_SET, (Collection<?>) value, depth);
+      } else if (type == TreeSet.class && ((TreeSet<?>) value).comparator() == null) {
+        writeCollection(TREE_SET, (Collection<?>) value, depth);
+      } else if (type == HashMap.class) {
+        writeMap(HASH_MAP, (Map<?, ?>) value, depth);
+      } else if (type == LinkedHashMap.class) {
+        writeMap(LINKED_HASH_MAP, (Map<?, ?>) value, depth);
+      } else if (type == TreeMap.class && ((TreeMap<?, ?>) value).comparator() == null) {
+        writeMap(TREE_MAP, (Map<?, ?>) value, depth);
+      } else if (isImmutableCollection(type) && value instanceof List<?> list) {
+        // Stream.toList() returns an immutable list which may contain nulls, unlike List.of()
+        writeCollection(hasNull(list) ? UNMODIFIABLE_LIST : LIST_OF, list, depth);
+      } else if (isImmutableCollection(type) && value instanceof Set<?> set) {
+        writeCollection(SET_OF, set, depth);
+      } else if (isImmutableCollection(type) && value instanceof Map<?, ?> map) {
+        writeMap(MAP_OF, map, depth);
+      } else if (type == int[].class) {
+        out.writeByte(INT_ARRAY);
+        int[] array = (int[]) value;
+        out.writeVarLong(array.length);
+        for (int element : array) {
+          out.writeZigZag(element);
+        }
+      } else if (type == long[].class) {
+        out.writeByte(LONG_ARRAY);
+        long[] array = (long[]) value;
+        out.writeVarLong(array.length);
+        for (long element : array) {
+          out.writeZigZag(element);
+        }
+      } else if (type.isArray() && !type.getComponentType().isPrimitive()) {
+        out.writeByte(OBJECT_ARRAY);
+        writeClass(types, type.getComponentType());
+        Object[] array = (Object[]) value;
+        out.writeVarLong(array.length);
+        for (Object element : array) {
+          writeValue(element, depth + 1);
+        }
+      } else {
+        Layout layout = layouts.get(type);
+        if (layout.constructor != null) {
+          writeObject(value, layout, depth);
+        } else {
+          writeJava(value);
+        }
+      }
+    }
+
+    private void writeCollection(byte tag, Collection<?> collection, int depth)
+        throws IOException {
+      out.writeByte(tag);
+      out.writeVarLong(collection.size());
+      for (Object element : collection) {
+        writeValue(element, depth + 1);
+      }
+    }
+
+    private void writeMap(byte tag, Map<?, ?> map, int depth) throws IOException {
+      out.writeByte(tag);
+      out.writeVarLong(map.size());
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        writeValue(entry.getKey(), depth + 1);
+        writeValue(entry.getValue(), depth + 1);
+      }
+    }
+
+    private void writeObject(Object value, Layout layout, int depth) throws IOException {
+      out.writeByte(OBJECT);
+      if (writeClass(classes, value.getClass())) {
+        out.writeVarLong(layout.fields.length);
+        for (Field field : layout.fields) {
+          out.writeString(field.getName());
+        }
+      }
+      try {
+        for (Field field : layout.fields) {
+          writeValue(field.get(value), depth + 1);
+        }
+      } catch (IllegalAccessException e) {
+        throw new IllegalStateException("Cannot read fields of " + value.getClass(), e);
+      }
+    }
+
+    private void writeJava(Object value) throws IOException {
+      if (!(value instanceof Serializable)) {
+        throw new NotSerializableException(value.getClass().getName());
+      }
+      out.writeByte(JAVA);
+      out.writeBytes(java.encode(value));
+    }
+
+    /**
+     * Write the class name the first time, then its index in the table.
+     *
+     * @return true if the class name was written
+     */
+    private boolean writeClass(Map<Class<?>, Integer> table, Class<?> type) {
+      Integer index = table.get(type);
+      if (index != null) {
+        out.writeVarLong(index + 1);
+        return false;
+      }
+      table.put(type, table.size());
+      out.writeVarLong(0);
+      out.writeString(type.getName());
+      return true;
+    }
+  }
+
+  private static final class Decoder {
+    private final Input in;
+    private final List<ClassRef> classes = new ArrayList<>();
+    private final List<Class<?>> types = new ArrayList<>();
+    private final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+
+    private Decoder(Input in) {
+      this.in = in;
+    }
+
+    @Nullable
+    private Object readValue() throws IOException, ClassNotFoundException {
+      byte tag = in.readByte();
+      switch (tag) {
+        case NULL:
+          return null;
+        case TRUE:
+          return Boolean.TRUE;
+        case FALSE:
+          return Boolean.FALSE;
+        case INT:
+          return (int) in.readZigZag();
+        case LONG:
+          return in.readZigZag();
+        case DOUBLE:
+          return Double.longBitsToDouble(in.readLong());
+        case FLOAT:
+          return Float.intBitsToFloat(in.readInt());
+        case SHORT:
+          return (short) in.readZigZag();
+        case BYTE:
+          return in.readByte();
+        case CHAR:
+          return (char) in.readVarLong();
+        case STRING:
+          return in.readString();
+        case BYTES:
+          return in.readBytes();
+        case BIG_DECIMAL:
+          int scale = (int) in.readZigZag();
+          return new BigDecimal(new BigInteger(in.readBytes()), scale);
+        case BIG_INTEGER:
+          return new BigInteger(in.readBytes());
+        case DATE:
+          return new Date(in.readZigZag());
+        case INSTANT:
+          long seconds = in.readZigZag();
+          return Instant.ofEpochSecond(seconds, in.readVarLong());
+        case LOCAL_DATE:
+          return LocalDate.ofEpochDay(in.readZigZag());
+        case LOCAL_DATE_TIME:
+          LocalDate date = LocalDate.ofEpochDay(in.readZigZag());
+          return LocalDateTime.of(date, LocalTime.ofNanoOfDay(in.readVarLong()));
+        case UUID_TAG:
+          long mostSignificantBits = in.readLong();
+          return new UUID(mostSignificantBits, in.readLong());
+        case ENUM:
+          return readEnum();
+        case ARRAY_LIST:
+          int arrayListSize = in.readLength();
+          return readElements(new ArrayList<>(arrayListSize), arrayListSize);
+        case LINKED_LIST:
+          return readElements(new LinkedList<>(), in.readLength());
+        case LIST_OF:
+          return List.of(readArray());
+        case UNMODIFIABLE_LIST:
+          return Collections.unmodifiableList(Arrays.asList(readArray()));
+        case HASH_SET:
+          int hashSetSize = in.readLength();
+          return readElements(new HashSet<>(capacity(hashSetSize)), hashSetSize);
+        case LINKED_HASH_SET:
+          int linkedHashSetSize = in.readLength();
+          return readElements(new LinkedHashSet<>(capacity(linkedHashSetSize)), linkedHashSetSize);
+        case TREE_SET:
+          return readElements(new TreeSet<>(), in.readLength());
+        case SET_OF:
+          return Set.of(readArray());
+        case HASH_MAP:
+          int hashMapSize = in.readLength();
+          return readEntries(new HashMap<>(capacity(hashMapSize)), hashMapSize);
+        case LINKED_HASH_MAP:
+          int linkedHashMapSize = in.readLength();
+          return readEntries(new LinkedHashMap<>(capacity(linkedHashMapSize)), linkedHashMapSize);
+        case TREE_MAP:
+          return readEntries(new TreeMap<>(), in.readLength());
+        case MAP_OF:
+          return Map.copyOf(readEntries(new HashMap<>(), in.readLength()));
+        case INT_ARRAY:
+          int[] ints = new int[in.readLength()];
+          for (int i = 0; i < ints.length; i++) {
+            ints[i] = (int) in.readZigZag();
+          }
+          return ints;
+        case LONG_ARRAY:
+          long[] longs = new long[in.readLength()];
+          for (int i = 0; i < longs.length; i++) {
+            longs[i] = in.readZigZag();
+          }
+          return longs;
+        case OBJECT_ARRAY:
+          Class<?> componentType = readType();
+          Object[] array = (Object[]) Array.newInstance(componentType, in.readLength());
+          for (int i = 0; i < array.length; i++) {
+            array[i] = readValue();
+          }
+          return array;
+        case OBJECT:
+          return readObject();
+        case JAVA:
+          byte[] serialized = in.readBytes();
+          try (ObjectInputStream ois = new PlayObjectInputStream(serialized)) {
+            return ois.readObject();
+          }
+        default:
+          throw new StreamCorruptedException("Unknown tag " + tag);
+      }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Object readEnum() throws IOException, ClassNotFoundException {
+      Class type = readType();
+      String name = in.readString();
+      try {
+        return Enum.valueOf(type, name);
+      } catch (IllegalArgumentException e) {
+        throw invalidClass(type, "no enum constant " + name, e);
+      }
+    }
+
+    private <C extends Collection<@Nullable Object>> C readElements(C collection, int size)
+        throws IOException, ClassNotFoundException {
+      for (int i = 0; i < size; i++) {
+        collection.add(readValue());
+      }
+      return collection;
+    }
+
+    private Object[] readArray() throws IOException, ClassNotFoundException {
+      Object[] array = new Object[in.readLength()];
+      for (int i = 0; i < array.length; i++) {
+        array[i] = readValue();
+      }
+      return array;
+    }
+
+    private <M extends Map<@Nullable Object, @Nullable Object>> M readEntries(M map, int size)
+        throws IOException, ClassNotFoundException {
+      for (int i = 0; i < size; i++) {
+        Object key = readValue();
+        map.put(key, readValue());
+      }
+      return map;
+    }
+
+    private Object readObject() throws IOException, ClassNotFoundException {
+      ClassRef ref = readClass();
+      Layout layout = ref.layout;
+      Constructor<?> constructor = layout.constructor;
+      if (constructor == null) {
+        throw invalidClass(ref.type, "cannot be read from a compact value", null);
+      }
+      try {
+        if (layout.record) {
+          Object[] arguments = layout.defaults.clone();
+          for (int index : ref.fieldIndexes) {
+            Object value = readValue();
+            if (index >= 0) {
+              arguments[index] = value;
+            }
+          }
+          return constructor.newInstance(arguments);
+        }
+        Object object = constructor.newInstance();
+        for (int index : ref.fieldIndexes) {
+          Object value = readValue();
+          if (index >= 0) {
+            layout.fields[index].set(object, value);
+          }
+        }
+        return object;
+      } catch (ReflectiveOperationException | IllegalArgumentException e) {
+        throw invalidClass(ref.type, "incompatible field values", e);
+      }
+    }
+
+    private ClassRef readClass() throws IOException, ClassNotFoundException {
+      long index = in.readVarLong();
+      if (index > 0) {
+        if (index > classes.size()) {
+          throw new StreamCorruptedException("Unknown class reference " + index);
+        }
+        return classes.get((int) index - 1);
+      }
+      Class<?> type = Class.forName(in.readString(), false, classLoader);
+      Layout layout = layouts.get(type);
+      int[] fieldIndexes = new int[in.readLength()];
+      for (int i = 0; i < fieldIndexes.length; i++) {
+        fieldIndexes[i] = layout.indexOf(in.readString());
+      }
+      ClassRef ref = new ClassRef(type, layout, fieldIndexes);
+      classes.add(ref);
+      return ref;
+    }
+
+    private Class<?> readType() throws IOException, ClassNotFoundException {
+      long index = in.readVarLong();
+      if (index > 0) {
+        if (index > types.size()) {
+          throw new StreamCorruptedException("Unknown type reference " + index);
+        }
+        return types.get((int) index - 1);
+      }
+      Class<?> type = Class.forName(in.readString(), false, classLoader);
+      types.add(type);
+      return type;
+    }
+
+    private static int capacity(int size) {
+      return (int) (size / 0.75f) + 1;
+    }
+
+    private static InvalidClassException invalidClass(
+        Class<?> type, String reason, @Nullable Exception cause) {
+      InvalidClassException e = new InvalidClassException(type.getName(), reason);
+      e.initCause(cause);
+      return e;
+    }
+  }
+
+  private record ClassRef(Class<?> type, Layout layout, int[] fieldIndexes) {}
+
+  /** How instances of a class are written: their serializable fields, in a fixed order. */
+  private static final class Layout {
+    private static final Layout UNSUPPORTED = new Layout(null, false, new Field[0]);
+
+    /** No-arg constructor, canonical constructor of records, or null if not supported */
+    @Nullable private final Constructor<?> constructor;
+
+    private final boolean record;
+    private final Field[] fields;
+    private final @Nullable Object[] defaults;
+
+    private Layout(@Nullable Constructor<?> constructor, boolean record, Field[] fields) {
+      this.constructor = constructor;
+      this.record = record;
+      this.fields = fields;
+      this.defaults = new Object[fields.length];
+      for (int i = 0; i < fields.length; i++) {
+        Class<?> type = fields[i].getType();
+        defaults[i] = type.isPrimitive() ? Array.get(Array.newInstance(type, 1), 0) : null;
+      }
+    }
+
+    private int indexOf(String fieldName) {
+      for (int i = 0; i < fields.length; i++) {
+        if (fields[i].getName().equals(fieldName)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    private static Layout of(Class<?> type) {
+      if (!Serializable.class.isAssignableFrom(type)
+          || Externalizable.class.isAssignableFrom(type)
+          || type.isArray()
+          || type.getName().startsWith("java.")
+          || type.isAnonymousClass()
+          || type.isLocalClass()
+          || type.isHidden()) {
+        return UNSUPPORTED;
+      }
+      try {
+        if (type.isRecord()) {
+          return ofRecord(type);
+        }
+        List<Field> fields = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (Class<?> c = type; Serializable.class.isAssignableFrom(c); c = c.getSuperclass()) {
+          if (hasCustomSerialization(c)) {
+            return UNSUPPORTED;
+          }
+          for (Field field : c.getDeclaredFields()) {
+            if ((field.getModifiers() & (Modifier.STATIC | Modifier.TRANSIENT)) != 0) {
+              continue;
+            }
+            if (!names.add(field.getName())) {
+              // Hidden field of a superclass
+              return UNSUPPORTED;
+            }
+            field.setAccessible(true);
+            fields.add(field);
+          }
+        }
+        Constructor<?> constructor = type.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        return new Layout(constructor, false, fields.toArray(new Field[0]));
+      } catch (NoSuchMethodException | NoSuchFieldException | RuntimeException e) {
+        // No no-arg constructor, or not accessible
+        return UNSUPPORTED;
+      }
+    }
+
+    private static Layout ofRecord(Class<?> type)
+        throws NoSuchMethodException, NoSuchFieldException {
+      if (hasCustomSerialization(type)) {
+        return UNSUPPORTED;
+      }
+      RecordComponent[] components = type.getRecordComponents();
+      Field[] fields = new Field[components.length];
+      Class<?>[] parameterTypes = new Class<?>[components.length];
+      for (int i = 0; i < components.length; i++) {
+        fields[i] = type.getDeclaredField(components[i].getName());
+        fields[i].setAccessible(true);
+        parameterTypes[i] = components[i].getType();
+      }
+      Constructor<?> constructor = type.getDeclaredConstructor(parameterTypes);
+      constructor.setAccessible(true);
+      return new Layout(constructor, true, fields);
+    }
+
+    private static boolean hasCustomSerialization(Class<?> type) {
+      return hasMethod(type, "writeObject", ObjectOutputStream.class)
+          || hasMethod(type, "readObject", ObjectInputStream.class)
+          || hasMethod(type, "readObjectNoData")
+          || hasMethod(type, "writeReplace")
+          || hasMethod(type, "readResolve");
+    }
+
+    private static boolean hasMethod(Class<?> type, String name, Class<?>... parameterTypes) {
+      try {
+        type.getDeclaredMethod(name, parameterTypes);
+        return true;
+      } catch (NoSuchMethodException e) {
+        return false;
+      }
+    }
+  }
+
+  private static boolean isImmutableCollection(Class<?> type) {
+    return type.getName().startsWith("java.util.ImmutableCollections$");
+  }
+
+  /** Not <code>list.contains(null)</code>, which throws for lists created by List.of(). */
+  private static boolean hasNull(List<?> list) {
+    for (Object element : list) {
+      if (element == null) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Thrown on values too deep to be written recursively, most likely because of a cycle. */
+  private static final class TooDeepException extends RuntimeException {
+    private TooDeepException() {
+      super(null, null, false, false);
+    }
+  }
+
+  private static final class Output {
+    private byte[] buffer;
+    private int size;
+
+    private Output(int capacity) {
+      buffer = new byte[capacity];
+    }
+
+    private void ensure(int length) {
+      if (size + length > buffer.length) {
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + length));
+      }
+    }
+
+    private void writeByte(int b) {
+      ensure(1);
+      buffer[size++] = (byte) b;
+    }
+
+    private void writeVarLong(long value) {
+      ensure(10);
+      while ((value & ~0x7FL) != 0) {
+        buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      buffer[size++] = (byte) value;
+    }
+
+    private void writeZigZag(long value) {
+      writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    private void writeLong(long value) {
+      ensure(8);
+      LONG_BYTES.set(buffer, size, value);
+      size += 8;
+    }
+
+    private void writeInt(int value) {
+      ensure(4);
+      INT_BYTES.set(buffer, size, value);
+      size += 4;
+    }
+
+    private void writeBytes(byte[] bytes) {
+      writeVarLong(bytes.length);
+      ensure(bytes.length);
+      System.arraycopy(bytes, 0, buffer, size, bytes.length);
+      size += bytes.length;
+    }
+
+    private void writeString(String value) {
+      writeBytes(value.getBytes(UTF_8));
+    }
+
+    private byte[] toByteArray() {
+      return Arrays.copyOf(buffer, size);
+    }
+  }
+
+  private static final class Input {
+    private final byte[] data;
+    private final int limit;
+    private int position;
+
+    private Input(byte[] data, int position, int limit) {
+      this.data = data;
+      this.position = position;
+      this.limit = limit;
+    }
+
+    private void require(int length) throws EOFException {
+      if (length > limit - position) {
+        throw new EOFException("Truncated compact value");
+      }
+    }
+
+    private byte readByte() throws EOFException {
+      require(1);
+      return data[position++];
+    }
+
+    private long readVarLong() throws IOException {
+      long value = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        byte b = readByte();
+        value |= (long) (b & 0x7F) << shift;
+        if (b >= 0) {
+          return value;
+        }
+      }
+      throw new StreamCorruptedException("Malformed variable-length number");
+    }
+
+    private long readZigZag() throws IOException {
+      long value = readVarLong();
+      return (value >>> 1) ^ -(value & 1);
+    }
+
+    /** Read a length, which cannot exceed the number of remaining bytes. */
+    private int readLength() throws IOException {
+      long length = readVarLong();
+      if (length < 0 || length > limit - position) {
+        throw new StreamCorruptedException("Invalid length " + length);
+      }
+      return (int) length;
+    }
+
+    private long readLong() throws EOFException {
+      require(8);
+      long value = (long) LONG_BYTES.get(data, position);
+      position += 8;
+      return value;
+    }
+
+    private int readInt() throws EOFException {
+      require(4);
+      int value = (int) INT_BYTES.get(data, position);
+      position += 4;
+      return value;
+    }
+
+    private byte[] readBytes() throws IOException {
+      int length = readLength();
+      byte[] bytes = Arrays.copyOfRange(data, position, position + length);
+      position += length;
+      return bytes;
+    }
+
+    private String readString() throws IOException {
+      int length = readLength();
+      String value = new String(data, position, length, UTF_8);
+      position += length;
+      return value;
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package play.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+@NullMarked
+final class JavaSerializationCodec implements ValueCodec {
+  /** Java serialization streams start with <code>0xACED</code>. */
+  static boolean accepts(byte[] data) {
+    return data.length >= 2 && data[0] == (byte) 0xAC && data[1] == (byte) 0xED;
+  }
+
+  @Override
+  public byte[] encode(Object value) throws IOException {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+      oos.writeObject(value);
+    }
+    return bos.toByteArray();
+  }
+
+  @Nullable
+  @Override
+  public Object decode(byte[] data) throws IOException, ClassNotFoundException {
+    try (ObjectInputStream in = new PlayObjectInputStream(data)) {
+      return in.readObject();
+    }
+  }
+}
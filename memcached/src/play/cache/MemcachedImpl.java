@@ -3,7 +3,10 @@ package play.cache;
 import static org.apache.commons.lang3.StringUtils.isEmpty;
 import static play.libs.Lazy.lazyEvaluated;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -11,12 +14,18 @@ import java.util.concurrent.TimeoutException;
 import com.google.errorprone.annotations.CheckReturnValue;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
+import net.spy.memcached.CASResponse;
+import net.spy.memcached.CASValue;
 import net.spy.memcached.MemcachedClient;
+import net.spy.memcached.internal.BulkFuture;
+import net.spy.memcached.internal.GetFuture;
+import net.spy.memcached.internal.OperationFuture;
 import net.spy.memcached.transcoders.SerializingTranscoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import play.Play;
+import play.exceptions.CacheException;
 import play.libs.Lazy;
 
 /**
@@ -35,12 +44,13 @@ public class MemcachedImpl implements CacheImpl {
   private static final Lazy<MemcachedImpl> uniqueInstance = lazyEvaluated(() -> new MemcachedImpl(Play.configuration));
   private final MemcachedClient client;
   private final String mdcParameterName;
-  private final MemcachedTranscoder tc = new MemcachedTranscoder();
+  private final MemcachedTranscoder tc;
 
   private MemcachedImpl(Properties configuration) {
     System.setProperty("net.spy.log.LoggerImpl", "net.spy.memcached.compat.log.SLF4JLogger");
     client = new MemcachedClientBuilder().build(configuration);
     mdcParameterName = configuration.getProperty("memcached.mdc.parameter", "");
+    tc = new MemcachedTranscoder(ValueCodec.fromConfiguration(configuration));
   }
 
   @SuppressWarnings("unused") // May be used by implementations
@@ -120,4 +130,186 @@ public class MemcachedImpl implements CacheImpl {
   public void stop() {
     client.shutdown();
   }
+
+  @Override
+  public Map<String, Object> getMulti(Collection<String> keys) {
+    BulkFuture<Map<String, Object>> future = client.asyncGetBulk(keys, transcoder());
+    try {
+      // Returns the values received so far on timeout
+      Map<String, Object> values = future.getSome(1, TimeUnit.SECONDS);
+      if (future.isTimeout()) {
+        logger.warn(
+            "Cache miss of {} keys due to timeout. connection={}, connectionStatus={}",
+            keys.size() - values.size(),
+            getConnectionDescription(),
+            getConnectionStatus());
+      }
+      return values;
+    } catch (InterruptedException | ExecutionException e) {
+      logger.error(
+          "Cache miss of {} keys due to error. connection={}, connectionStatus={}",
+          keys.size(),
+          getConnectionDescription(),
+          getConnectionStatus(),
+          e);
+      future.cancel(true);
+      return Map.of();
+    }
+  }
+
+  /** Memcached has no multi-set command, but operations are pipelined without waiting anyway. */
+  @Override
+  public void setMulti(Map<String, ?> values, int expiration) {
+    values.forEach((key, value) -> client.set(key, expiration, value, tc));
+  }
+
+  /**
+   * The returned futures are completed in the common fork-join pool, not in the memcached I/O
+   * thread: their callbacks and the deserialization of values must not delay other operations.
+   */
+  @Override
+  public CompletableFuture<@Nullable Object> getAsync(String key) {
+    GetFuture<Object> future = client.asyncGet(key, transcoder());
+    CompletableFuture<@Nullable Object> result = new CompletableFuture<>();
+    future.addListener((completed) -> result.completeAsync(() -> valueOrNull(future, key)));
+    return withTimeout(result, future, null, key);
+  }
+
+  @Override
+  public CompletableFuture<Map<String, Object>> getMultiAsync(Collection<String> keys) {
+    BulkFuture<Map<String, Object>> future = client.asyncGetBulk(keys, transcoder());
+    CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
+    future.addListener(
+        (completed) ->
+            result.completeAsync(
+                () -> {
+                  Map<String, Object> values = valueOrNull(future, keys.size() + " keys");
+                  return values == null ? Map.of() : values;
+                }));
+    return withTimeout(result, future, Map.of(), keys.size() + " keys");
+  }
+
+  @Override
+  public CompletableFuture<Boolean> setAsync(String key, @Nullable Object value, int expiration) {
+    OperationFuture<Boolean> future = client.set(key, expiration, value, tc);
+    CompletableFuture<Boolean> result = new CompletableFuture<>();
+    future.addListener(
+        (completed) -> result.completeAsync(() -> completed.getStatus().isSuccess()));
+    return withTimeout(result, future, false, key);
+  }
+
+  @Override
+  public CompletableFuture<Boolean> deleteAsync(String key) {
+    OperationFuture<Boolean> future = client.delete(key);
+    CompletableFuture<Boolean> result = new CompletableFuture<>();
+    future.addListener(
+        (completed) -> result.completeAsync(() -> completed.getStatus().isSuccess()));
+    return withTimeout(result, future, false, key);
+  }
+
+  /**
+   * Complete the result with a default value after 1 second, and then cancel the memcached
+   * operation: {@link CompletableFuture#completeOnTimeout} alone would leave it queued.
+   */
+  private <T> CompletableFuture<T> withTimeout(
+      CompletableFuture<T> result, Future<?> operation, T valueOnTimeout, String key) {
+    result
+        .completeOnTimeout(valueOnTimeout, 1, TimeUnit.SECONDS)
+        .whenComplete(
+            (value, error) -> {
+              if (!operation.isDone()) {
+                logger.warn(
+                    "Cache operation timed out. key={}, connection={}, connectionStatus={}",
+                    key,
+                    getConnectionDescription(),
+                    getConnectionStatus());
+                operation.cancel(true);
+              }
+            });
+    return result;
+  }
+
+  @Nullable
+  private <T> T valueOrNull(Future<T> future, String key) {
+    try {
+      return future.get();
+    } catch (InterruptedException | ExecutionException | RuntimeException e) {
+      logger.error(
+          "Cache miss due to error. key={}, connection={}, connectionStatus={}",
+          key,
+          getConnectionDescription(),
+          getConnectionStatus(),
+          e);
+      return null;
+    }
+  }
+
+  @Override
+  public boolean add(String key, Object value, int expiration) {
+    return await(client.add(key, expiration, value, tc), "add", key) == Boolean.TRUE;
+  }
+
+  @Override
+  public boolean replace(String key, Object value, int expiration) {
+    return await(client.replace(key, expiration, value, tc), "replace", key) == Boolean.TRUE;
+  }
+
+  @Override
+  public boolean compareAndSet(
+      String key, @Nullable Object expected, Object value, int expiration) {
+    if (expected == null) {
+      return add(key, value, expiration);
+    }
+    CASValue<Object> current = await(client.asyncGets(key, transcoder()), "gets", key);
+    if (current == null || !expected.equals(current.getValue())) {
+      return false;
+    }
+    OperationFuture<CASResponse> cas =
+        client.asyncCAS(key, current.getCas(), expiration, value, tc);
+    return await(cas, "cas", key) == CASResponse.OK;
+  }
+
+  @Override
+  public long incr(String key, long by, long initial, int expiration) {
+    return counter(client.incr(key, by, initial, expiration), "incr", key);
+  }
+
+  @Override
+  public long decr(String key, long by, long initial, int expiration) {
+    return counter(client.decr(key, by, initial, expiration), "decr", key);
+  }
+
+  private static long counter(long value, String operation, String key) {
+    if (value == -1) {
+      throw new CacheException("Failed to " + operation + " " + key);
+    }
+    return value;
+  }
+
+  /** @return the result of the operation, or null if it failed or timed out */
+  @Nullable
+  private <T> T await(Future<T> future, String operation, String key) {
+    try {
+      return future.get(1, TimeUnit.SECONDS);
+    } catch (TimeoutException | InterruptedException e) {
+      logger.warn(
+          "Cache {} failed due to timeout. key={}, cause={}, connection={}, connectionStatus={}",
+          operation,
+          key,
+          e,
+          getConnectionDescription(),
+          getConnectionStatus());
+      future.cancel(true);
+    } catch (ExecutionException e) {
+      logger.error(
+          "Cache {} failed due to error. key={}, connection={}, connectionStatus={}",
+          operation,
+          key,
+          getConnectionDescription(),
+          getConnectionStatus(),
+          e);
+      future.cancel(true);
+    }
+    return null;
+  }
 }
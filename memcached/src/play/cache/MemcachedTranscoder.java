@@ -1,9 +1,7 @@
 package play.cache;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
 import com.google.errorprone.annotations.CheckReturnValue;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
@@ -11,16 +9,35 @@ import net.spy.memcached.transcoders.SerializingTranscoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Writes objects with the configured {@link ValueCodec}, and reads them with the codec they were
+ * written with: Java serialization or {@link CompactCodec}, so that switching codecs (e.g. during
+ * a rolling deploy) does not lose the cached values.
+ */
 @NullMarked
 @CheckReturnValue
 class MemcachedTranscoder extends SerializingTranscoder {
   private static final Logger logger = LoggerFactory.getLogger(MemcachedTranscoder.class);
 
+  private final ValueCodec codec;
+  private final JavaSerializationCodec java = new JavaSerializationCodec();
+  private final CompactCodec compact;
+
+  MemcachedTranscoder(ValueCodec codec) {
+    this.codec = codec;
+    this.compact = codec instanceof CompactCodec c ? c : new CompactCodec(Integer.MAX_VALUE);
+  }
+
   @Nullable
   @Override
   protected Object deserialize(byte[] data) {
-    try (ObjectInputStream in = new PlayObjectInputStream(data)) {
-      return in.readObject();
+    try {
+      if (JavaSerializationCodec.accepts(data)) {
+        return java.decode(data);
+      } else if (CompactCodec.accepts(data)) {
+        return compact.decode(data);
+      }
+      throw new StreamCorruptedException("Unknown format of cached value");
     } catch (Exception e) {
       logger.error("Could not deserialize", e);
       return null;
@@ -29,14 +46,17 @@ class MemcachedTranscoder extends SerializingTranscoder {
 
   @Override
   protected byte @Nullable [] serialize(Object object) {
-    try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
-      try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
-        oos.writeObject(object);
-        return bos.toByteArray();
-      }
+    try {
+      return codec.encode(object);
     } catch (IOException e) {
       logger.error("Could not serialize", e);
     }
     return null;
   }
+
+  @Override
+  protected byte[] compress(byte[] in) {
+    // Not smaller, so not flagged as compressed by SerializingTranscoder
+    return CompactCodec.isCompressed(in) ? in : super.compress(in);
+  }
 }
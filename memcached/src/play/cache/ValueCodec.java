@@ -0,0 +1,42 @@
+package play.cache;
+
+import java.io.IOException;
+import java.util.Properties;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import play.exceptions.ConfigurationException;
+
+/**
+ * Converts cached objects to bytes stored in memcached, and back.
+ *
+ * <p>Each format is recognized by its first bytes, so that values written with another codec
+ * (e.g. before changing <code>memcached.codec</code>) can still be read.
+ */
+@NullMarked
+interface ValueCodec {
+  byte[] encode(Object value) throws IOException;
+
+  @Nullable
+  Object decode(byte[] data) throws IOException, ClassNotFoundException;
+
+  /**
+   * <ul>
+   *   <li><code>memcached.codec=java</code> (the default) - Java serialization
+   *   <li><code>memcached.codec=compact</code> - see {@link CompactCodec}, compressed above <code>
+   *       memcached.codec.compressionThreshold</code> bytes (4096 by default)
+   * </ul>
+   */
+  static ValueCodec fromConfiguration(Properties configuration) {
+    String codec = configuration.getProperty("memcached.codec", "java");
+    switch (codec) {
+      case "java":
+        return new JavaSerializationCodec();
+      case "compact":
+        return new CompactCodec(
+            Integer.parseInt(
+                configuration.getProperty("memcached.codec.compressionThreshold", "4096")));
+      default:
+        throw new ConfigurationException("memcached.codec must be java or compact, got " + codec);
+    }
+  }
+}
@@ -0,0 +1,257 @@
+package play.cache;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+public class CompactCodecTest {
+  private final CompactCodec codec = new CompactCodec(4096);
+
+  @Test
+  public void jdkTypes() throws Exception {
+    List<Object> values =
+        asList(
+            "Привет",
+            42,
+            -42L,
+            Long.MIN_VALUE,
+            true,
+            3.14,
+            2.5f,
+            (short) -7,
+            (byte) 8,
+            'ж',
+            new BigDecimal("-12.345"),
+            new BigInteger("123456789012345678901234567890"),
+            new Date(1700000000000L),
+            Instant.ofEpochSecond(1700000000L, 123),
+            LocalDate.of(2024, 2, 29),
+            LocalDateTime.of(2024, 2, 29, 23, 59, 59, 999),
+            UUID.randomUUID(),
+            Status.ACTIVE,
+            Status.DELETED);
+
+    for (Object value : values) {
+      assertThat(roundTrip(value)).as("%s", value).isEqualTo(value);
+    }
+  }
+
+  @Test
+  public void collections() throws Exception {
+    Map<String, Object> linkedMap = new LinkedHashMap<>();
+    linkedMap.put("z", 1);
+    linkedMap.put("a", null);
+    List<Object> values =
+        asList(
+            new ArrayList<>(asList(1, "two", null)),
+            List.of("a", "b"),
+            Set.of(1, 2, 3),
+            new LinkedHashSet<>(asList("c", "b", "a")),
+            new HashMap<>(Map.of("k", "v")),
+            linkedMap,
+            new TreeMap<>(Map.of("b", 2, "a", 1)),
+            Map.of("k", List.of(1L)));
+
+    for (Object value : values) {
+      Object copy = roundTrip(value);
+      assertThat(copy).as("%s", value).isEqualTo(value);
+      assertThat(copy.getClass().getName()).isEqualTo(value.getClass().getName());
+    }
+    assertThat(((Map<?, ?>) roundTrip(linkedMap)).keySet()).containsExactly("z", "a");
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void immutableListWithNulls() throws Exception {
+    List<String> list = Stream.of("a", null).toList();
+
+    Object copy = roundTrip(list);
+
+    assertThat(copy).isEqualTo(asList("a", null));
+    assertThatThrownBy(() -> ((List<Object>) copy).add("b"))
+        .isInstanceOf(UnsupportedOperationException.class);
+    assertThat(roundTrip(Stream.of("a", "b").toList())).isEqualTo(List.of("a", "b"));
+  }
+
+  @Test
+  public void arrays() throws Exception {
+    assertThat((byte[]) roundTrip(new byte[] {1, -2, 3})).containsExactly(1, -2, 3);
+    assertThat((int[]) roundTrip(new int[] {1, -2, 3})).containsExactly(1, -2, 3);
+    assertThat((long[]) roundTrip(new long[] {Long.MAX_VALUE})).containsExactly(Long.MAX_VALUE);
+    assertThat((String[]) roundTrip(new String[] {"a", null})).containsExactly("a", null);
+    assertThat((double[]) roundTrip(new double[] {1.5})).containsExactly(1.5);
+  }
+
+  @Test
+  public void objectsAreWrittenFieldByField() throws Exception {
+    Product product = new Product("Phone", new BigDecimal("199.90"), Status.ACTIVE, 3);
+    product.tags.add("new");
+
+    byte[] data = codec.encode(List.of(product, product));
+    List<?> copy = (List<?>) codec.decode(data);
+
+    assertThat(copy).hasSize(2);
+    Product first = (Product) copy.get(0);
+    assertThat(first.name).isEqualTo("Phone");
+    assertThat(first.price).isEqualTo(new BigDecimal("199.90"));
+    assertThat(first.status).isEqualTo(Status.ACTIVE);
+    assertThat(first.stock).isEqualTo(3);
+    assertThat(first.tags).containsExactly("new");
+    assertThat(first.cachedLabel).isNull();
+    assertThat(data.length).isLessThan(new JavaSerializationCodec().encode(product).length);
+  }
+
+  @Test
+  public void records() throws Exception {
+    Money money = new Money(new BigDecimal("9.99"), "EUR", 2);
+
+    assertThat(roundTrip(List.of(money, money))).isEqualTo(List.of(money, money));
+  }
+
+  @Test
+  public void arraysOfObjects() throws Exception {
+    Product product = new Product("Phone", new BigDecimal("199.90"), Status.ACTIVE, 3);
+
+    Product[] copy = (Product[]) roundTrip(new Product[] {product, product});
+
+    assertThat(copy).hasSize(2);
+    assertThat(copy[1].name).isEqualTo("Phone");
+    assertThat(copy[1].stock).isEqualTo(3);
+  }
+
+  @Test
+  public void arraysOfRecords() throws Exception {
+    Money money = new Money(new BigDecimal("9.99"), "EUR", 2);
+
+    assertThat((Money[]) roundTrip(new Money[] {money, null, money}))
+        .containsExactly(money, null, money);
+    List<?> list = (List<?>) roundTrip(List.of(new Money[] {money}, money));
+    assertThat((Money[]) list.get(0)).containsExactly(money);
+    assertThat(list.get(1)).isEqualTo(money);
+  }
+
+  @Test
+  public void classesWithCustomSerializationAreWrittenWithJavaSerialization() throws Exception {
+    Custom custom = new Custom("value");
+
+    Custom copy = (Custom) roundTrip(custom);
+
+    assertThat(copy.value).isEqualTo("value");
+    assertThat(copy.written).isTrue();
+  }
+
+  @Test
+  public void cyclesAreWrittenWithJavaSerialization() throws Exception {
+    Node node = new Node();
+    node.next = node;
+
+    byte[] data = codec.encode(node);
+
+    assertThat(JavaSerializationCodec.accepts(data)).isTrue();
+  }
+
+  @Test
+  public void largeValuesAreCompressed() throws Exception {
+    List<String> value = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      value.add("item number " + i);
+    }
+
+    byte[] data = codec.encode(value);
+
+    assertThat(CompactCodec.isCompressed(data)).isTrue();
+    assertThat(codec.decode(data)).isEqualTo(value);
+  }
+
+  @Test
+  public void nonSerializableValue() {
+    assertThatThrownBy(() -> codec.encode(List.of(new Object())))
+        .isInstanceOf(NotSerializableException.class);
+  }
+
+  @Test
+  public void corruptedValue() {
+    assertThatThrownBy(() -> codec.decode(new byte[] {CompactCodec.VERSION, 127}))
+        .isInstanceOf(StreamCorruptedException.class);
+    assertThatThrownBy(() -> codec.decode(new byte[] {CompactCodec.VERSION, 20, 100}))
+        .isInstanceOf(StreamCorruptedException.class);
+  }
+
+  private Object roundTrip(Object value) throws Exception {
+    byte[] data = codec.encode(value);
+    assertThat(CompactCodec.accepts(data)).isTrue();
+    return codec.decode(data);
+  }
+
+  enum Status {
+    ACTIVE,
+    DELETED {
+      @Override
+      public String toString() {
+        return "deleted";
+      }
+    }
+  }
+
+  static class Product implements Serializable {
+    private String name;
+    private BigDecimal price;
+    private Status status;
+    private int stock;
+    private final List<String> tags = new ArrayList<>();
+    private transient String cachedLabel;
+
+    Product() {}
+
+    Product(String name, BigDecimal price, Status status, int stock) {
+      this.name = name;
+      this.price = price;
+      this.status = status;
+      this.stock = stock;
+      this.cachedLabel = name + " " + price;
+    }
+  }
+
+  record Money(BigDecimal amount, String currency, int scale) implements Serializable {}
+
+  static class Custom implements Serializable {
+    private final String value;
+    private boolean written;
+
+    Custom(String value) {
+      this.value = value;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+      written = true;
+      out.defaultWriteObject();
+    }
+  }
+
+  static class Node implements Serializable {
+    private Node next;
+  }
+}
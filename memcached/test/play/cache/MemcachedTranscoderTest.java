@@ -0,0 +1,60 @@
+package play.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import net.spy.memcached.CachedData;
+import org.junit.jupiter.api.Test;
+
+public class MemcachedTranscoderTest {
+  private final MemcachedTranscoder java = new MemcachedTranscoder(new JavaSerializationCodec());
+  private final MemcachedTranscoder compact = new MemcachedTranscoder(new CompactCodec(4096));
+
+  @Test
+  public void compactCodecReadsValuesWrittenWithJavaSerialization() {
+    CachedData data = java.encode(List.of(Map.of("id", 1L)));
+
+    assertThat(compact.decode(data)).isEqualTo(List.of(Map.of("id", 1L)));
+  }
+
+  @Test
+  public void javaSerializationReadsValuesWrittenWithCompactCodec() {
+    CachedData data = compact.encode(List.of(Map.of("id", 1L)));
+
+    assertThat(java.decode(data)).isEqualTo(List.of(Map.of("id", 1L)));
+  }
+
+  @Test
+  public void valuesCompressedByCompactCodecAreNotCompressedAgain() {
+    CompactCodec codec = new CompactCodec(100);
+    MemcachedTranscoder transcoder = new MemcachedTranscoder(codec);
+    transcoder.setCompressionThreshold(100);
+    List<String> value = List.of("a".repeat(1000), "b".repeat(1000));
+
+    CachedData data = transcoder.encode(value);
+
+    assertThat(CompactCodec.isCompressed(data.getData())).isTrue();
+    assertThat(transcoder.decode(data)).isEqualTo(value);
+  }
+
+  @Test
+  public void unknownFormatIsAMiss() {
+    assertThat(compact.deserialize(new byte[] {42, 1, 2})).isNull();
+  }
+
+  @Test
+  public void javaSerializationByDefault() {
+    assertThat(ValueCodec.fromConfiguration(new Properties()))
+        .isInstanceOf(JavaSerializationCodec.class);
+  }
+
+  @Test
+  public void compactCodec() {
+    Properties configuration = new Properties();
+    configuration.setProperty("memcached.codec", "compact");
+
+    assertThat(ValueCodec.fromConfiguration(configuration)).isInstanceOf(CompactCodec.class);
+  }
+}
@@ -10,8 +10,11 @@ import org.jboss.netty.handler.codec.http.HttpResponseEncoder;
 import org.jboss.netty.handler.stream.ChunkedWriteHandler;
 import play.Invoker;
 import play.mvc.ActionInvoker;
+import play.server.ResponseCompression;
 
 public class HttpServerPipelineFactory implements ChannelPipelineFactory {
+  static final ResponseCompression compression = ResponseCompression.current();
+
   private final Invoker invoker;
   private final ActionInvoker actionInvoker;
 
@@ -34,6 +37,9 @@ public class HttpServerPipelineFactory implements ChannelPipelineFactory {
       addChannelHandler(new HttpRequestDecoder());
       addChannelHandler(new StreamChunkAggregator());
       addChannelHandler(new HttpResponseEncoder());
+      if (compression.isEnabled()) {
+        addChannelHandler(new PlayContentCompressor(compression));
+      }
       addChannelHandler(new ChunkedWriteHandler());
 
       addLast("handler", playHandler);
@@ -0,0 +1,97 @@
+package play.server.netty3;
+
+import static org.jboss.netty.handler.codec.http.HttpHeaders.Names.ACCEPT_ENCODING;
+import static org.jboss.netty.handler.codec.http.HttpHeaders.Names.CONTENT_LENGTH;
+import static org.jboss.netty.handler.codec.http.HttpHeaders.Names.CONTENT_RANGE;
+import static org.jboss.netty.handler.codec.http.HttpHeaders.Names.CONTENT_TYPE;
+import static org.jboss.netty.handler.codec.http.HttpHeaders.Names.VARY;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.MessageEvent;
+import org.jboss.netty.channel.SimpleChannelDownstreamHandler;
+import org.jboss.netty.handler.codec.compression.ZlibEncoder;
+import org.jboss.netty.handler.codec.compression.ZlibWrapper;
+import org.jboss.netty.handler.codec.embedder.EncoderEmbedder;
+import org.jboss.netty.handler.codec.http.HttpContentEncoder;
+import org.jboss.netty.handler.codec.http.HttpMessage;
+import org.jboss.netty.handler.codec.http.HttpResponse;
+import org.jboss.netty.handler.codec.http.HttpResponseStatus;
+import play.server.ResponseCompression;
+
+/**
+ * Compresses the responses allowed by {@link ResponseCompression} with gzip or deflate.
+ *
+ * <p>Files, streams and chunked responses are written as raw buffers after the response head, so
+ * only responses with their whole body in the message are compressed.
+ */
+class PlayContentCompressor extends HttpContentEncoder {
+  private final ResponseCompression compression;
+
+  PlayContentCompressor(ResponseCompression compression) {
+    this.compression = compression;
+  }
+
+  @Override
+  protected EncoderEmbedder<ChannelBuffer> newContentEncoder(
+      HttpMessage msg, String acceptEncoding) {
+    String contentType = msg.headers().get(CONTENT_TYPE);
+    if (!compression.isCompressible(contentType) || !hasEncodableBody(msg)) {
+      return null;
+    }
+    String vary = msg.headers().get(VARY);
+    msg.headers().set(VARY, ResponseCompression.mergeVary(vary, ACCEPT_ENCODING));
+    if (msg.getContent().readableBytes() < compression.minSize()) {
+      return null;
+    }
+    String encoding = ResponseCompression.negotiate(acceptEncoding);
+    if (encoding == null) {
+      return null;
+    }
+
+    ResponseCompression.record(contentType, 0, 0, true);
+    ZlibWrapper wrapper = "gzip".equals(encoding) ? ZlibWrapper.GZIP : ZlibWrapper.ZLIB;
+    return new EncoderEmbedder<>(
+        new ByteCounter(contentType, false),
+        new ZlibEncoder(wrapper, compression.level()),
+        new ByteCounter(contentType, true));
+  }
+
+  private static boolean hasEncodableBody(HttpMessage msg) {
+    if (msg.isChunked() || msg.headers().contains(CONTENT_RANGE)) {
+      return false;
+    }
+    if (msg instanceof HttpResponse response
+        && response.getStatus().equals(HttpResponseStatus.PARTIAL_CONTENT)) {
+      return false;
+    }
+    String contentLength = msg.headers().get(CONTENT_LENGTH);
+    return contentLength != null
+        && contentLength.equals(String.valueOf(msg.getContent().readableBytes()));
+  }
+
+  @Override
+  protected String getTargetContentEncoding(String acceptEncoding) {
+    return ResponseCompression.negotiate(acceptEncoding);
+  }
+
+  /** Counts the bytes going into (or coming out of) the zlib encoder. */
+  private static class ByteCounter extends SimpleChannelDownstreamHandler {
+    private final String contentType;
+    private final boolean input;
+
+    private ByteCounter(String contentType, boolean input) {
+      this.contentType = contentType;
+      this.input = input;
+    }
+
+    @Override
+    public void writeRequested(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
+      if (e.getMessage() instanceof ChannelBuffer buffer) {
+        int bytes = buffer.readableBytes();
+        ResponseCompression.record(contentType, input ? bytes : 0, input ? 0 : bytes, false);
+      }
+      super.writeRequested(ctx, e);
+    }
+  }
+}
@@ -3,7 +3,9 @@ package play.server.netty3;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Collections.unmodifiableList;
 import static java.util.Objects.requireNonNullElse;
+import static org.jboss.netty.handler.codec.http.HttpHeaders.Names.ACCEPT_ENCODING;
 import static org.jboss.netty.handler.codec.http.HttpHeaders.Names.CACHE_CONTROL;
+import static org.jboss.netty.handler.codec.http.HttpHeaders.Names.CONTENT_ENCODING;
 import static org.jboss.netty.handler.codec.http.HttpHeaders.Names.CONTENT_TYPE;
 import static org.jboss.netty.handler.codec.http.HttpHeaders.Names.COOKIE;
 import static org.jboss.netty.handler.codec.http.HttpHeaders.Names.DATE;
@@ -13,7 +15,9 @@ import static org.jboss.netty.handler.codec.http.HttpHeaders.Names.HOST;
 import static org.jboss.netty.handler.codec.http.HttpHeaders.Names.IF_MODIFIED_SINCE;
 import static org.jboss.netty.handler.codec.http.HttpHeaders.Names.IF_NONE_MATCH;
 import static org.jboss.netty.handler.codec.http.HttpHeaders.Names.LAST_MODIFIED;
+import static org.jboss.netty.handler.codec.http.HttpHeaders.Names.RANGE;
 import static org.jboss.netty.handler.codec.http.HttpHeaders.Names.SET_COOKIE;
+import static org.jboss.netty.handler.codec.http.HttpHeaders.Names.VARY;
 import static play.server.ServerHelper.findFile;
 import static play.server.ServerHelper.maxContentLength;
 import static play.utils.Utils.formatMemorySize;
@@ -38,6 +42,7 @@ import java.util.Objects;
 import java.util.Set;
 import com.google.errorprone.annotations.CheckReturnValue;
 import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
 import org.apache.commons.io.IOUtils;
 import org.jboss.netty.buffer.ChannelBuffer;
 import org.jboss.netty.buffer.ChannelBufferInputStream;
@@ -87,6 +92,7 @@ import play.mvc.Scope.RenderArgs;
 import play.mvc.results.NotFound;
 import play.mvc.results.RenderStatic;
 import play.server.IpParser;
+import play.server.ResponseCompression;
 import play.server.ServerAddress;
 import play.server.ServerHelper;
 import play.utils.ErrorsCookieCrypter;
@@ -295,7 +301,7 @@ public class PlayHandler extends SimpleChannelUpstreamHandler {
     public void onSuccess() throws Exception {
       super.onSuccess();
       if (response.chunked) {
-        closeChunked(response);
+        closeChunked(response, ctx);
       } else {
         copyResponse(ctx, request, response, nettyRequest);
       }
@@ -636,6 +642,15 @@ public class PlayHandler extends SimpleChannelUpstreamHandler {
   private void serve500(
       Exception e, ChannelHandlerContext ctx, Request request, Response response) {
     logger.trace("serve500: begin :{}:{}", request.method, request.path);
+    if (response.chunked) {
+      logger.error(
+          "Internal Server Error (500) after the first chunk ({}) :{}:{}",
+          e.getClass().getSimpleName(),
+          request.method, request.url,
+          e);
+      ctx.getChannel().close();
+      return;
+    }
     HttpResponse nettyResponse = createHttpResponse(HttpResponseStatus.INTERNAL_SERVER_ERROR);
     Charset encoding = response.encoding;
 
@@ -749,7 +764,19 @@ public class PlayHandler extends SimpleChannelUpstreamHandler {
       HttpResponse nettyResponse)
       throws FileNotFoundException {
     boolean keepAlive = isKeepAlive(nettyRequest);
-    addETag(nettyRequest, nettyResponse, localFile);
+    File file = localFile;
+    File gzipped =
+        precompressedFile(localFile, nettyRequest, HttpServerPipelineFactory.compression);
+    if (gzipped != null) {
+      file = gzipped;
+      if (response.contentType == null) {
+        response.contentType = MimeTypes.getContentType(localFile.getName(), "text/plain");
+      }
+      nettyResponse.headers().set(CONTENT_ENCODING, "gzip");
+      String vary = nettyResponse.headers().get(VARY);
+      nettyResponse.headers().set(VARY, ResponseCompression.mergeVary(vary, ACCEPT_ENCODING));
+    }
+    addETag(nettyRequest, nettyResponse, file);
 
     if (nettyResponse.getStatus().equals(HttpResponseStatus.NOT_MODIFIED)) {
       Channel ch = e.getChannel();
@@ -758,11 +785,24 @@ public class PlayHandler extends SimpleChannelUpstreamHandler {
         writeFuture.addListener(ChannelFutureListener.CLOSE);
       }
     } else {
-      fileService.serve(
-          localFile, nettyRequest, nettyResponse, ctx, request, response, e.getChannel());
+      fileService.serve(file, nettyRequest, nettyResponse, ctx, request, response, e.getChannel());
     }
   }
 
+  /** @return the gzipped version of a static file, if there is one and the client accepts gzip */
+  @Nullable
+  static File precompressedFile(
+      File localFile, HttpRequest nettyRequest, ResponseCompression compression) {
+    String acceptEncoding = nettyRequest.headers().get(ACCEPT_ENCODING);
+    if (!compression.servePrecompressed()
+        || nettyRequest.headers().contains(RANGE)
+        || !ResponseCompression.accepts(acceptEncoding, "gzip")) {
+      return null;
+    }
+    File gzipped = new File(localFile.getPath() + ".gz");
+    return gzipped.isFile() ? gzipped : null;
+  }
+
   private boolean isModified(String eTag, long last, HttpRequest nettyRequest) {
     String ifNoneMatch = nettyRequest.headers().get(IF_NONE_MATCH);
     String ifModifiedSince = nettyRequest.headers().get(IF_MODIFIED_SINCE);
@@ -834,7 +874,12 @@ public class PlayHandler extends SimpleChannelUpstreamHandler {
     }
   }
 
-  private void closeChunked(Response playResponse) {
+  private void closeChunked(Response playResponse, ChannelHandlerContext ctx) {
+    if (playResponse.isChunkedAborted()) {
+      // without the last chunk, the client sees that the response is incomplete
+      ctx.getChannel().close();
+      return;
+    }
     ((LazyChunkedInput) playResponse.direct).close();
     if (this.pipelines.get("ChunkedWriteHandler") != null) {
       ((ChunkedWriteHandler) this.pipelines.get("ChunkedWriteHandler")).resumeTransfer();
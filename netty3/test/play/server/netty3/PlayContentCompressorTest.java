@@ -0,0 +1,108 @@
+package play.server.netty3;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jboss.netty.handler.codec.http.HttpHeaders.Names.ACCEPT_ENCODING;
+import static org.jboss.netty.handler.codec.http.HttpHeaders.Names.CONTENT_LENGTH;
+import static org.jboss.netty.handler.codec.http.HttpHeaders.Names.CONTENT_TYPE;
+import static org.jboss.netty.handler.codec.http.HttpHeaders.Names.RANGE;
+import static org.jboss.netty.handler.codec.http.HttpHeaders.Names.VARY;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Properties;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.handler.codec.http.DefaultHttpRequest;
+import org.jboss.netty.handler.codec.http.DefaultHttpResponse;
+import org.jboss.netty.handler.codec.http.HttpMethod;
+import org.jboss.netty.handler.codec.http.HttpRequest;
+import org.jboss.netty.handler.codec.http.HttpResponse;
+import org.jboss.netty.handler.codec.http.HttpResponseStatus;
+import org.jboss.netty.handler.codec.http.HttpVersion;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import play.server.ResponseCompression;
+
+/** Netty 3 has no embedded channel, so the encoder selection is tested directly. */
+public class PlayContentCompressorTest {
+  private static final String PAGE = "<p>Hello, world</p>\n".repeat(100);
+
+  private final ResponseCompression compression = compression();
+  private final PlayContentCompressor compressor = new PlayContentCompressor(compression);
+
+  @TempDir File folder;
+
+  @Test
+  public void compressesResponse() {
+    HttpResponse response = response(PAGE);
+    response.headers().set(VARY, "Accept-Language");
+
+    assertThat(compressor.newContentEncoder(response, "gzip, deflate")).isNotNull();
+    assertThat(response.headers().get(VARY)).isEqualTo("Accept-Language, Accept-Encoding");
+  }
+
+  @Test
+  public void smallResponseIsNotCompressed() {
+    HttpResponse response = response("small");
+    response.headers().set(VARY, "Accept-Encoding");
+
+    assertThat(compressor.newContentEncoder(response, "gzip")).isNull();
+    assertThat(response.headers().getAll(VARY)).containsExactly("Accept-Encoding");
+  }
+
+  @Test
+  public void responseIsNotCompressedIfClientAcceptsNoSupportedEncoding() {
+    assertThat(compressor.newContentEncoder(response(PAGE), "br")).isNull();
+  }
+
+  @Test
+  public void servesPrecompressedFileIfClientAcceptsGzip() throws Exception {
+    File file = new File(folder, "app.js");
+    Files.writeString(file.toPath(), "alert(1)");
+    File gzipped = new File(folder, "app.js.gz");
+    Files.writeString(gzipped.toPath(), "gzipped");
+
+    assertThat(precompressedFile(file, "gzip")).isEqualTo(gzipped);
+    assertThat(precompressedFile(file, "deflate, gzip;q=0.5")).isEqualTo(gzipped);
+    assertThat(precompressedFile(file, "deflate")).isNull();
+    assertThat(precompressedFile(file, null)).isNull();
+
+    HttpRequest range = request("gzip");
+    range.headers().set(RANGE, "bytes=0-1");
+    assertThat(PlayHandler.precompressedFile(file, range, compression)).isNull();
+
+    File withoutGz = new File(folder, "other.js");
+    Files.writeString(withoutGz.toPath(), "alert(2)");
+    assertThat(precompressedFile(withoutGz, "gzip")).isNull();
+  }
+
+  private File precompressedFile(File file, String acceptEncoding) {
+    return PlayHandler.precompressedFile(file, request(acceptEncoding), compression);
+  }
+
+  private static HttpRequest request(String acceptEncoding) {
+    HttpRequest request =
+        new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/public/app.js");
+    if (acceptEncoding != null) {
+      request.headers().set(ACCEPT_ENCODING, acceptEncoding);
+    }
+    return request;
+  }
+
+  private static HttpResponse response(String content) {
+    HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+    byte[] bytes = content.getBytes(UTF_8);
+    response.setContent(ChannelBuffers.wrappedBuffer(bytes));
+    response.headers().set(CONTENT_TYPE, "text/html; charset=utf-8");
+    response.headers().set(CONTENT_LENGTH, bytes.length);
+    return response;
+  }
+
+  private static ResponseCompression compression() {
+    Properties configuration = new Properties();
+    configuration.setProperty("play.compression.enabled", "true");
+    configuration.setProperty("play.compression.minSize", "100");
+    configuration.setProperty("play.compression.precompressed", "true");
+    return new ResponseCompression(configuration);
+  }
+}
@@ -0,0 +1,112 @@
+package play.server.netty4;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Objects;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * {@link play.mvc.Http.Response#out} backed by a {@link ByteBuf} from the channel's allocator, so
+ * that the rendered body can be handed to Netty without copying it.
+ *
+ * <p>It extends {@link ByteArrayOutputStream} only to fit the type of <code>Response.out</code>:
+ * the inherited array is never used.
+ */
+@NullMarked
+class ByteBufResponseOutputStream extends ByteArrayOutputStream {
+  private final ByteBufAllocator allocator;
+  @Nullable private ByteBuf buffer;
+
+  ByteBufResponseOutputStream(ByteBufAllocator allocator) {
+    super(0);
+    this.allocator = allocator;
+  }
+
+  private ByteBuf buffer() {
+    if (buffer == null) {
+      buffer = allocator.buffer();
+    }
+    return buffer;
+  }
+
+  @Override
+  public void write(int b) {
+    buffer().writeByte(b);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) {
+    Objects.checkFromIndexSize(off, len, b.length);
+    buffer().writeBytes(b, off, len);
+  }
+
+  @Override
+  public void writeBytes(byte[] b) {
+    write(b, 0, b.length);
+  }
+
+  @Override
+  public void writeTo(OutputStream out) throws IOException {
+    if (buffer != null) {
+      buffer.getBytes(buffer.readerIndex(), out, buffer.readableBytes());
+    }
+  }
+
+  @Override
+  public void reset() {
+    if (buffer != null) {
+      buffer.clear();
+    }
+  }
+
+  @Override
+  public byte[] toByteArray() {
+    return buffer == null ? new byte[0] : ByteBufUtil.getBytes(buffer);
+  }
+
+  @Override
+  public int size() {
+    return buffer == null ? 0 : buffer.readableBytes();
+  }
+
+  @Override
+  public String toString() {
+    return toString(Charset.defaultCharset());
+  }
+
+  @Override
+  public String toString(String charsetName) {
+    return toString(Charset.forName(charsetName));
+  }
+
+  @Override
+  public String toString(Charset charset) {
+    return buffer == null ? "" : buffer.toString(charset);
+  }
+
+  /**
+   * Hand the written content over to the caller, who becomes responsible for releasing it.
+   *
+   * @return the written content, possibly empty
+   */
+  ByteBuf detach() {
+    ByteBuf content = buffer == null ? Unpooled.EMPTY_BUFFER : buffer;
+    buffer = null;
+    return content;
+  }
+
+  /** Release the content if it has not been detached. */
+  void release() {
+    if (buffer != null) {
+      buffer.release();
+      buffer = null;
+    }
+  }
+}
@@ -0,0 +1,135 @@
+package play.server.netty4;
+
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpVersion;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A request whose body has been written to a temporary file by {@link RequestBodyAggregator}. The
+ * file is deleted when the request is released.
+ */
+@NullMarked
+class FileBodyHttpRequest extends DefaultFullHttpRequest {
+  private static final Logger logger = LoggerFactory.getLogger(FileBodyHttpRequest.class);
+
+  private final File file;
+  @Nullable private FileBodyInputStream body;
+
+  FileBodyHttpRequest(
+      HttpVersion version,
+      HttpMethod method,
+      String uri,
+      HttpHeaders headers,
+      HttpHeaders trailingHeaders,
+      File file) {
+    // An empty (but reference counted) content, so that we know when the request is released
+    super(version, method, uri, Unpooled.buffer(0), headers, trailingHeaders);
+    this.file = file;
+  }
+
+  File file() {
+    return file;
+  }
+
+  InputStream body() throws FileNotFoundException {
+    if (body == null) {
+      body = new FileBodyInputStream(new RandomAccessFile(file, "r"));
+    }
+    return body;
+  }
+
+  @Override
+  public boolean release() {
+    return deleteIfDeallocated(super.release());
+  }
+
+  @Override
+  public boolean release(int decrement) {
+    return deleteIfDeallocated(super.release(decrement));
+  }
+
+  private boolean deleteIfDeallocated(boolean deallocated) {
+    if (deallocated) {
+      if (body != null) {
+        try {
+          body.close();
+        } catch (IOException e) {
+          logger.warn("Failed to close request body {}", file, e);
+        }
+      }
+      if (!file.delete() && file.exists()) {
+        logger.warn("Failed to delete request body {}", file);
+      }
+    }
+    return deallocated;
+  }
+
+  /** Reads the file from the beginning, supports mark and reset (as request body is re-read). */
+  private static final class FileBodyInputStream extends InputStream {
+    private final RandomAccessFile file;
+    private long mark;
+
+    private FileBodyInputStream(RandomAccessFile file) {
+      this.file = file;
+    }
+
+    @Override
+    public int read() throws IOException {
+      return file.read();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      return file.read(b, off, len);
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long position = file.getFilePointer();
+      long skipped = Math.max(0, Math.min(n, file.length() - position));
+      file.seek(position + skipped);
+      return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+      return (int) Math.min(Integer.MAX_VALUE, file.length() - file.getFilePointer());
+    }
+
+    @Override
+    public boolean markSupported() {
+      return true;
+    }
+
+    @Override
+    public void mark(int readLimit) {
+      try {
+        mark = file.getFilePointer();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public void reset() throws IOException {
+      file.seek(mark);
+    }
+
+    @Override
+    public void close() throws IOException {
+      file.close();
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package play.server.netty4;
 
+import static java.lang.Integer.parseInt;
 import static play.server.ServerHelper.maxContentLength;
 
 import io.netty.channel.ChannelHandler;
@@ -9,14 +10,35 @@ import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpServerCodec;
 import io.netty.handler.stream.ChunkedWriteHandler;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import jakarta.inject.Inject;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 import play.Invoker;
+import play.Play;
 import play.mvc.ActionInvoker;
+import play.server.ResponseCompression;
 
 public class HttpServerInitializer extends ChannelInitializer<SocketChannel> {
   private final Invoker invoker;
   private final ActionInvoker actionInvoker;
   private static final int maxContentLength = maxContentLength(1048576);
+  private static final boolean streamRequestBody =
+      "true".equals(Play.configuration.getProperty("play.netty.streamRequestBody", "false"));
+  private static final int maxInMemoryContentLength =
+      parseInt(Play.configuration.getProperty("play.netty.maxInMemoryContentLength", "65536"));
+
+  /**
+   * Threads writing big request bodies to disk, instead of the event loop. They share one queue,
+   * so that a slow write does not hold up the bodies of other connections.
+   */
+  private static final Executor requestBodyExecutor =
+      streamRequestBody
+          ? Executors.newFixedThreadPool(
+              parseInt(Play.configuration.getProperty("play.netty.requestBodyThreads", "16")),
+              new DefaultThreadFactory("request-body", true))
+          : null;
+  static final ResponseCompression compression = ResponseCompression.current();
 
   @Inject
   HttpServerInitializer(Invoker invoker, ActionInvoker actionInvoker) {
@@ -31,7 +53,18 @@ public class HttpServerInitializer extends ChannelInitializer<SocketChannel> {
 
     addChannelHandler(new FlashPolicyHandler(), p, pH);
     addChannelHandler(new HttpServerCodec(), p, pH);
-    addChannelHandler(new HttpObjectAggregator(maxContentLength), p, pH);
+    if (streamRequestBody) {
+      addChannelHandler(
+          new RequestBodyAggregator(
+              maxContentLength, maxInMemoryContentLength, requestBodyExecutor),
+          p,
+          pH);
+    } else {
+      addChannelHandler(new HttpObjectAggregator(maxContentLength), p, pH);
+    }
+    if (compression.isEnabled()) {
+      addChannelHandler(new PlayContentCompressor(compression), p, pH);
+    }
     addChannelHandler(new ChunkedWriteHandler(), p, pH);
 
     p.addLast("handler", pH);
@@ -0,0 +1,110 @@
+package play.server.netty4;
+
+import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_LENGTH;
+import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_RANGE;
+import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_TYPE;
+import static io.netty.handler.codec.http.HttpHeaderNames.VARY;
+import static io.netty.handler.codec.http.HttpResponseStatus.PARTIAL_CONTENT;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.compression.Brotli;
+import io.netty.handler.codec.compression.CompressionOptions;
+import io.netty.handler.codec.compression.StandardCompressionOptions;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpContentCompressor;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.LastHttpContent;
+import java.util.ArrayList;
+import java.util.List;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import play.server.ResponseCompression;
+
+/**
+ * Compresses the responses allowed by {@link ResponseCompression}: gzip and deflate, and also
+ * brotli if <code>com.aayushatharva.brotli4j</code> is on the classpath. The encoding is chosen by
+ * {@link ResponseCompression#negotiate(String, boolean)}, as in the Netty 3 server.
+ *
+ * <p>Files and streams are written as a response head followed by raw buffers, which {@link
+ * HttpContentCompressor} cannot encode, so only full responses and chunked responses are
+ * compressed. Range responses are never compressed.
+ */
+@NullMarked
+class PlayContentCompressor extends HttpContentCompressor {
+  private final ResponseCompression compression;
+  @Nullable private String contentType;
+
+  PlayContentCompressor(ResponseCompression compression) {
+    super(compression.minSize(), compressionOptions(compression.level()));
+    this.compression = compression;
+  }
+
+  private static CompressionOptions[] compressionOptions(int level) {
+    List<CompressionOptions> options = new ArrayList<>(3);
+    if (Brotli.isAvailable()) {
+      options.add(StandardCompressionOptions.brotli());
+    }
+    options.add(StandardCompressionOptions.gzip(level, 15, 8));
+    options.add(StandardCompressionOptions.deflate(level, 15, 8));
+    return options.toArray(new CompressionOptions[0]);
+  }
+
+  @Override
+  protected @Nullable String determineEncoding(String acceptEncoding) {
+    return ResponseCompression.negotiate(acceptEncoding, Brotli.isAvailable());
+  }
+
+  @Override
+  protected @Nullable Result beginEncode(HttpResponse response, String acceptEncoding)
+      throws Exception {
+    String type = response.headers().get(CONTENT_TYPE);
+    if (!compression.isCompressible(type) || !hasEncodableBody(response)) {
+      return null;
+    }
+    response
+        .headers()
+        .set(VARY, ResponseCompression.mergeVary(response.headers().get(VARY), "Accept-Encoding"));
+    Result result = super.beginEncode(response, acceptEncoding);
+    if (result != null) {
+      contentType = type;
+    }
+    return result;
+  }
+
+  private static boolean hasEncodableBody(HttpResponse response) {
+    if (response.status().equals(PARTIAL_CONTENT) || response.headers().contains(CONTENT_RANGE)) {
+      return false;
+    }
+    if (response instanceof FullHttpResponse full) {
+      String contentLength = response.headers().get(CONTENT_LENGTH);
+      return contentLength != null
+          && full.content().readableBytes() > 0
+          && contentLength.equals(String.valueOf(full.content().readableBytes()));
+    }
+    return HttpUtil.isTransferEncodingChunked(response);
+  }
+
+  @Override
+  protected void encode(ChannelHandlerContext ctx, HttpObject msg, List<Object> out)
+      throws Exception {
+    long bytesIn = msg instanceof HttpContent content ? content.content().readableBytes() : 0;
+    int first = out.size();
+    super.encode(ctx, msg, out);
+
+    if (contentType != null) {
+      long bytesOut = 0;
+      for (int i = first; i < out.size(); i++) {
+        if (out.get(i) instanceof HttpContent content) {
+          bytesOut += content.content().readableBytes();
+        }
+      }
+      ResponseCompression.record(contentType, bytesIn, bytesOut, msg instanceof HttpResponse);
+      if (msg instanceof LastHttpContent) {
+        contentType = null;
+      }
+    }
+  }
+}
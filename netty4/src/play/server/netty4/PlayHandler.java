@@ -1,5 +1,9 @@
 package play.server.netty4;
 
+import static io.netty.handler.codec.http.HttpHeaderNames.ACCEPT_ENCODING;
+import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_ENCODING;
+import static io.netty.handler.codec.http.HttpHeaderNames.RANGE;
+import static io.netty.handler.codec.http.HttpHeaderNames.VARY;
 import static io.netty.handler.codec.http.HttpHeaders.Names.CACHE_CONTROL;
 import static io.netty.handler.codec.http.HttpHeaders.Names.CONTENT_LENGTH;
 import static io.netty.handler.codec.http.HttpHeaders.Names.CONTENT_TYPE;
@@ -40,6 +44,7 @@ import io.netty.handler.codec.http.DefaultHttpResponse;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.FullHttpResponse;
 import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
 import io.netty.handler.codec.http.HttpMessage;
 import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpRequest;
@@ -56,7 +61,6 @@ import io.netty.handler.codec.http.LastHttpContent;
 import io.netty.handler.stream.ChunkedInput;
 import io.netty.handler.stream.ChunkedStream;
 import io.netty.handler.stream.ChunkedWriteHandler;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -73,6 +77,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import play.Invocation;
@@ -95,6 +100,7 @@ import play.mvc.Scope.RenderArgs;
 import play.mvc.results.NotFound;
 import play.mvc.results.RenderStatic;
 import play.server.IpParser;
+import play.server.ResponseCompression;
 import play.server.ServerAddress;
 import play.server.ServerHelper;
 import play.utils.Utils;
@@ -125,6 +131,8 @@ public class PlayHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
 
     Request request = new Request();
     Response response = new Response();
+    ByteBufResponseOutputStream out = new ByteBufResponseOutputStream(ctx.alloc());
+    boolean invoked = false;
 
     // Plain old HttpRequest
     try {
@@ -134,8 +142,8 @@ public class PlayHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
       request = parseRequest(ctx, nettyRequest);
       Request.setCurrent(request);
 
-      // Buffered in memory output
-      response.out = new ByteArrayOutputStream();
+      // Buffered in memory output, in a buffer from the channel's allocator
+      response.out = out;
 
       // Direct output (will be set later)
       response.direct = null;
@@ -151,7 +159,8 @@ public class PlayHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
         copyResponse(ctx, request, response, nettyRequest);
       } else {
         // Delegate to Play framework
-        invoker.invoke(new Netty4Invocation(request, response, ctx, nettyRequest.retain()));
+        invoker.invoke(new Netty4Invocation(request, response, out, ctx, nettyRequest.retain()));
+        invoked = true;
       }
     } catch (URISyntaxException ex) {
       // Do not log the stack trace for URI parsing errors. An info line suffices.
@@ -163,6 +172,11 @@ public class PlayHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
     } catch (Exception ex) {
       logger.warn("Exception on request. serving 500 back :{}:{}", nettyRequest.method(), nettyRequest.uri(), ex);
       serve500(ex, ctx, request, response);
+    } finally {
+      if (!invoked) {
+        // Not written, or a plugin replaced response.out
+        out.release();
+      }
     }
 
     logger.trace("channelRead: end :{}:{}", nettyRequest.method(), nettyRequest.uri());
@@ -172,16 +186,19 @@ public class PlayHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
     private final ChannelHandlerContext ctx;
     private final Request request;
     private final Response response;
+    private final ByteBufResponseOutputStream out;
     private final FullHttpRequest nettyRequest;
 
     private Netty4Invocation(
         Request request,
         Response response,
+        ByteBufResponseOutputStream out,
         ChannelHandlerContext ctx,
         FullHttpRequest nettyRequest) {
       this.ctx = ctx;
       this.request = request;
       this.response = response;
+      this.out = out;
       this.nettyRequest = nettyRequest;
     }
 
@@ -264,6 +281,8 @@ public class PlayHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
       } catch (Exception e) {
         serve500(e, ctx, request, response);
       } finally {
+        // Not written, or a plugin replaced response.out
+        out.release();
         nettyRequest.release();
       }
       logger.trace("run: end :{}:{}", request.method, request.path);
@@ -393,20 +412,31 @@ public class PlayHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
     logger.trace("writeResponse: begin :{}:{}", nettyRequest.method(), nettyRequest.uri());
 
     boolean keepAlive = isKeepAlive(nettyRequest);
-    byte[] content = nettyRequest.method().equals(HEAD) ? new byte[0] : response.out.toByteArray();
-
-    ByteBuf buf = Unpooled.copiedBuffer(content);
-    nettyResponse = nettyResponse.replace(buf);
+    int contentLength = response.out.size();
+    ByteBuf content;
+    if (response.out instanceof ByteBufResponseOutputStream pooledOut) {
+      // Written once by the action, no copy needed
+      content = pooledOut.detach();
+    } else {
+      // A plugin replaced response.out
+      content = Unpooled.wrappedBuffer(response.out.toByteArray());
+    }
+    if (nettyRequest.method().equals(HEAD)) {
+      content.release();
+      content = Unpooled.EMPTY_BUFFER;
+    }
+    nettyResponse = nettyResponse.replace(content);
 
     if (!nettyResponse.status().equals(NOT_MODIFIED)) {
-      logger.trace("writeResponse: content length [{}] :{}:{}", response.out.size(), nettyRequest.method(), nettyRequest.uri());
-      setContentLength(nettyResponse, response.out.size());
+      logger.trace("writeResponse: content length [{}] :{}:{}", contentLength, nettyRequest.method(), nettyRequest.uri());
+      setContentLength(nettyResponse, contentLength);
     }
 
     ChannelFuture f = null;
     if (ctx.channel().isOpen()) {
       f = ctx.channel().writeAndFlush(nettyResponse);
     } else {
+      nettyResponse.release();
       logger.debug(
           "Try to write on a closed channel[keepAlive:{}]: Remote host may have closed the connection",
           keepAlive);
@@ -484,7 +514,7 @@ public class PlayHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
   }
 
   Request parseRequest(ChannelHandlerContext ctx, FullHttpRequest nettyRequest)
-      throws URISyntaxException {
+      throws URISyntaxException, FileNotFoundException {
     logger.trace("parseRequest: begin :{}:{}", nettyRequest.method(), nettyRequest.uri());
 
     String host = nettyRequest.headers().get(HOST);
@@ -516,21 +546,12 @@ public class PlayHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
     return request;
   }
 
-  private static InputStream readBody(FullHttpRequest nettyRequest) {
-    InputStream body;
-    ByteBuf b = nettyRequest.content();
-    // if (b instanceof FileChannelBuffer) {
-    //    FileChannelBuffer buffer = (FileChannelBuffer) b;
-    //    // An error occurred
-    //    int max = serverHelper.maxContentLength();
-    //    body = buffer.getInputStream();
-    //    if (!(max == -1 || body.available() < max)) {
-    //        body = new ByteArrayInputStream(new byte[0]);
-    //    }
-    // } else {
-    body = new ByteBufInputStream(b);
-    // }
-    return body;
+  private static InputStream readBody(FullHttpRequest nettyRequest) throws FileNotFoundException {
+    if (nettyRequest instanceof FileBodyHttpRequest fileBodyRequest) {
+      // Large body streamed to disk by RequestBodyAggregator
+      return fileBodyRequest.body();
+    }
+    return new ByteBufInputStream(nettyRequest.content());
   }
 
   private Map<String, Http.Header> getHeaders(FullHttpRequest nettyRequest) {
@@ -606,6 +627,15 @@ public class PlayHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
   private void serve500(
       Exception e, ChannelHandlerContext ctx, Request request, Response response) {
     logger.trace("serve500: begin :{}:{}", request.method, request.path);
+    if (response.chunked) {
+      logger.error(
+          "Internal Server Error (500) after the first chunk ({}) :{}:{}",
+          e.getClass().getSimpleName(),
+          request.method, request.url,
+          e);
+      ctx.channel().close();
+      return;
+    }
     FullHttpResponse nettyResponse = createHttpResponse(INTERNAL_SERVER_ERROR);
     Charset encoding = response.encoding;
 
@@ -730,9 +760,33 @@ public class PlayHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
       HttpResponse nettyResponse =
           new DefaultHttpResponse(HttpVersion.HTTP_1_1,
               HttpResponseStatus.valueOf(playResponse.status));
-      addETag(nettyRequest, nettyResponse, localFile);
-      fileService.serve(localFile, nettyRequest, nettyResponse, ctx, playRequest, playResponse, ch);
+      File file = localFile;
+      File gzipped = precompressedFile(localFile, nettyRequest, HttpServerInitializer.compression);
+      if (gzipped != null) {
+        file = gzipped;
+        if (playResponse.contentType == null) {
+          playResponse.contentType = MimeTypes.getContentType(localFile.getName(), "text/plain");
+        }
+        nettyResponse.headers().set(CONTENT_ENCODING, HttpHeaderValues.GZIP);
+        String vary = nettyResponse.headers().get(VARY);
+        nettyResponse.headers().set(VARY, ResponseCompression.mergeVary(vary, "Accept-Encoding"));
+      }
+      addETag(nettyRequest, nettyResponse, file);
+      fileService.serve(file, nettyRequest, nettyResponse, ctx, playRequest, playResponse, ch);
+    }
+  }
+
+  /** @return the gzipped version of a static file, if there is one and the client accepts gzip */
+  static @Nullable File precompressedFile(
+      File localFile, HttpRequest nettyRequest, ResponseCompression compression) {
+    String acceptEncoding = nettyRequest.headers().get(ACCEPT_ENCODING);
+    if (!compression.servePrecompressed()
+        || nettyRequest.headers().contains(RANGE)
+        || !ResponseCompression.accepts(acceptEncoding, "gzip")) {
+      return null;
     }
+    File gzipped = new File(localFile.getPath() + ".gz");
+    return gzipped.isFile() ? gzipped : null;
   }
 
   private boolean isModified(String eTag, long last, FullHttpRequest nettyRequest) {
@@ -822,7 +876,13 @@ public class PlayHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
     }
   }
 
-  private void closeChunked(Response playResponse, ChannelHandlerContext ctx, FullHttpRequest nettyRequest) {
+  void closeChunked(
+      Response playResponse, ChannelHandlerContext ctx, FullHttpRequest nettyRequest) {
+    if (playResponse.isChunkedAborted()) {
+      // without the last chunk, the client sees that the response is incomplete
+      ctx.channel().close();
+      return;
+    }
     ChannelFuture future = ctx.channel().writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
     if (!isKeepAlive(nettyRequest)) {
       future.addListener(ChannelFutureListener.CLOSE);
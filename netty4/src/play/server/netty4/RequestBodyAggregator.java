@@ -0,0 +1,370 @@
+package play.server.netty4;
+
+import static io.netty.handler.codec.http.HttpHeaderNames.CONNECTION;
+import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_LENGTH;
+import static io.netty.handler.codec.http.HttpHeaderNames.EXPECT;
+import static io.netty.handler.codec.http.HttpHeaderNames.WARNING;
+import static io.netty.handler.codec.http.HttpHeaderValues.CLOSE;
+import static io.netty.handler.codec.http.HttpResponseStatus.BAD_REQUEST;
+import static io.netty.handler.codec.http.HttpResponseStatus.CONTINUE;
+import static io.netty.handler.codec.http.HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE;
+import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.ReferenceCountUtil;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import play.Play;
+
+/**
+ * Aggregates a request and its content chunks into a {@link FullHttpRequest}, like {@link
+ * io.netty.handler.codec.http.HttpObjectAggregator}, but keeps only small bodies in memory.
+ *
+ * <p>Once the body gets bigger than <code>maxInMemoryContentLength</code>, it is written to a
+ * temporary file chunk by chunk, and the request is passed on as a {@link FileBodyHttpRequest}.
+ * The aggregation runs on the event loop; only the file writes are handed to a blocking executor.
+ * Reading from the connection is paused from the moment a chunk is handed over until all handed
+ * over chunks are written, so a client cannot send faster than the disk accepts. Messages decoded
+ * after the last chunk of a spilled body wait until the body is complete.
+ *
+ * <p>A body exceeding <code>maxContentLength</code> is dropped and the request gets a <code>
+ * Warning: play.netty.content.length.exceeded</code> header, as in the Netty 3 server. A request
+ * expecting <code>100-continue</code> with a too long <code>Content-Length</code> is answered
+ * <code>413 Request Entity Too Large</code> instead, and a chunk which could not be decoded <code>
+ * 400 Bad Request</code>.
+ */
+@NullMarked
+public class RequestBodyAggregator extends ChannelInboundHandlerAdapter {
+  private static final Logger logger = LoggerFactory.getLogger(RequestBodyAggregator.class);
+
+  private final long maxContentLength;
+  private final int maxInMemoryContentLength;
+  private final Executor blockingExecutor;
+
+  @Nullable private HttpRequest request;
+  @Nullable private CompositeByteBuf content;
+  @Nullable private SpilledBody spilled;
+  private long length;
+  private boolean tooLong;
+
+  /** Trailing headers of a spilled body whose last chunks are still being written */
+  @Nullable private HttpHeaders trailingHeaders;
+
+  /** Messages received while waiting for {@link #trailingHeaders} */
+  private final Queue<Object> queued = new ArrayDeque<>();
+
+  /**
+   * @param maxContentLength the maximum body size, or -1 for no limit
+   * @param maxInMemoryContentLength the maximum body size kept in memory
+   * @param blockingExecutor writes the bodies exceeding <code>maxInMemoryContentLength</code> to
+   *     disk
+   */
+  public RequestBodyAggregator(
+      long maxContentLength, int maxInMemoryContentLength, Executor blockingExecutor) {
+    this.maxContentLength = maxContentLength;
+    this.maxInMemoryContentLength = maxInMemoryContentLength;
+    this.blockingExecutor = blockingExecutor;
+  }
+
+  @Override
+  public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+    if (trailingHeaders != null) {
+      queued.add(msg);
+    } else {
+      read(ctx, msg);
+    }
+  }
+
+  private void read(ChannelHandlerContext ctx, Object msg) {
+    if (msg instanceof FullHttpRequest
+        || !(msg instanceof HttpRequest || msg instanceof HttpContent)) {
+      ctx.fireChannelRead(msg);
+    } else if (msg instanceof HttpRequest httpRequest) {
+      start(ctx, httpRequest);
+    } else if (request == null) {
+      // Content of a request we gave up on
+      ReferenceCountUtil.release(msg);
+    } else {
+      HttpContent chunk = (HttpContent) msg;
+      if (chunk.decoderResult().isFailure()) {
+        logger.debug("Invalid request body: {}", request, chunk.decoderResult().cause());
+        chunk.release();
+        reset();
+        // the rest of the connection cannot be decoded either
+        ctx.writeAndFlush(response(BAD_REQUEST, true)).addListener(ChannelFutureListener.CLOSE);
+        return;
+      }
+      try {
+        append(ctx, chunk.content());
+      } finally {
+        chunk.release();
+      }
+      if (chunk instanceof LastHttpContent last) {
+        if (spilled != null) {
+          trailingHeaders = last.trailingHeaders();
+          handOver(ctx, spilled, spilled.close());
+        } else {
+          ctx.fireChannelRead(complete(last.trailingHeaders()));
+        }
+      }
+    }
+  }
+
+  private void start(ChannelHandlerContext ctx, HttpRequest httpRequest) {
+    reset();
+    if (HttpUtil.is100ContinueExpected(httpRequest)) {
+      if (maxContentLength != -1
+          && HttpUtil.getContentLength(httpRequest, -1L) > maxContentLength) {
+        // the client waits for our answer before sending the body: no need to read it
+        logger.debug("Request body exceeds {} bytes: {}", maxContentLength, httpRequest);
+        ctx.writeAndFlush(response(REQUEST_ENTITY_TOO_LARGE, false));
+        return;
+      }
+      ctx.writeAndFlush(new DefaultFullHttpResponse(HTTP_1_1, CONTINUE, Unpooled.EMPTY_BUFFER));
+      httpRequest.headers().remove(EXPECT);
+    }
+    request = httpRequest;
+    content = ctx.alloc().compositeBuffer();
+  }
+
+  private static DefaultFullHttpResponse response(HttpResponseStatus status, boolean close) {
+    DefaultFullHttpResponse response =
+        new DefaultFullHttpResponse(HTTP_1_1, status, Unpooled.EMPTY_BUFFER);
+    response.headers().set(CONTENT_LENGTH, 0);
+    if (close) {
+      response.headers().set(CONNECTION, CLOSE);
+    }
+    return response;
+  }
+
+  private void append(ChannelHandlerContext ctx, ByteBuf chunk) {
+    int size = chunk.readableBytes();
+    if (size == 0 || tooLong) {
+      return;
+    }
+    if (maxContentLength != -1 && length + size > maxContentLength) {
+      logger.debug("Request body exceeds {} bytes: {}", maxContentLength, request);
+      tooLong = true;
+      request.headers().set(WARNING, "play.netty.content.length.exceeded");
+      discardBody();
+      return;
+    }
+    length += size;
+
+    if (spilled == null && length <= maxInMemoryContentLength) {
+      content.addComponent(true, chunk.retain());
+      return;
+    }
+
+    ByteBuf data = chunk.retain();
+    if (spilled == null) {
+      spilled = new SpilledBody(blockingExecutor);
+      content.addComponent(true, data);
+      data = content;
+      content = null;
+    }
+    handOver(ctx, spilled, spilled.write(data));
+  }
+
+  /** Stops reading until the given write of a spilled body is done */
+  private void handOver(ChannelHandlerContext ctx, SpilledBody body, CompletableFuture<?> write) {
+    ctx.channel().config().setAutoRead(false);
+    body.pendingWrites++;
+    write.whenComplete((ignored, e) -> ctx.executor().execute(() -> written(ctx, body)));
+  }
+
+  private void written(ChannelHandlerContext ctx, SpilledBody body) {
+    if (body == spilled && --body.pendingWrites == 0) {
+      if (body.failure != null) {
+        Exception failure = body.failure;
+        reset();
+        ctx.fireExceptionCaught(failure);
+      } else if (trailingHeaders != null) {
+        HttpHeaders trailers = trailingHeaders;
+        trailingHeaders = null;
+        ctx.fireChannelRead(complete(trailers));
+      }
+    }
+    Object msg;
+    while (trailingHeaders == null && (msg = queued.poll()) != null) {
+      read(ctx, msg);
+    }
+    if (spilled == null || spilled.pendingWrites == 0) {
+      ctx.channel().config().setAutoRead(true);
+    }
+  }
+
+  private FullHttpRequest complete(HttpHeaders trailers) {
+    HttpRequest r = request;
+    if (!tooLong) {
+      HttpUtil.setTransferEncodingChunked(r, false);
+      r.headers().set(CONTENT_LENGTH, length);
+    }
+
+    FullHttpRequest fullRequest;
+    if (spilled != null) {
+      fullRequest =
+          new FileBodyHttpRequest(
+              r.protocolVersion(), r.method(), r.uri(), r.headers(), trailers, spilled.file);
+      spilled = null;
+    } else {
+      ByteBuf body = content != null ? content : Unpooled.EMPTY_BUFFER;
+      fullRequest =
+          new DefaultFullHttpRequest(
+              r.protocolVersion(), r.method(), r.uri(), body, r.headers(), trailers);
+      content = null;
+    }
+    fullRequest.setDecoderResult(r.decoderResult());
+    request = null;
+    return fullRequest;
+  }
+
+  private void discardBody() {
+    if (content != null) {
+      content.release();
+      content = null;
+    }
+    if (spilled != null) {
+      spilled.discard();
+      spilled = null;
+    }
+  }
+
+  private void reset() {
+    discardBody();
+    request = null;
+    length = 0;
+    tooLong = false;
+    trailingHeaders = null;
+  }
+
+  private void releaseQueued() {
+    Object msg;
+    while ((msg = queued.poll()) != null) {
+      ReferenceCountUtil.release(msg);
+    }
+  }
+
+  @Override
+  public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+    reset();
+    releaseQueued();
+    super.channelInactive(ctx);
+  }
+
+  @Override
+  public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+    reset();
+    releaseQueued();
+    super.handlerRemoved(ctx);
+  }
+
+  /**
+   * The temporary file of a body exceeding <code>maxInMemoryContentLength</code>. Its writes are
+   * chained, so that they run one after another on the blocking executor; the chaining also makes
+   * the file and a failure visible to the event loop once a write is done. A failed write does not
+   * stop the chain: the next steps still release their chunks, and close and delete the file.
+   */
+  private static final class SpilledBody {
+    private final Executor executor;
+    private CompletableFuture<@Nullable Void> writes = CompletableFuture.completedFuture(null);
+    @Nullable private File file;
+    @Nullable private OutputStream out;
+    @Nullable private Exception failure;
+    private volatile boolean discarded;
+
+    /** Writes handed over and not done yet, only used on the event loop */
+    private int pendingWrites;
+
+    private SpilledBody(Executor executor) {
+      this.executor = executor;
+    }
+
+    private CompletableFuture<?> write(ByteBuf data) {
+      return then(() -> writeBlocking(data));
+    }
+
+    private CompletableFuture<?> close() {
+      return then(this::closeBlocking);
+    }
+
+    private void discard() {
+      discarded = true;
+      then(this::deleteBlocking);
+    }
+
+    private CompletableFuture<?> then(Runnable step) {
+      writes =
+          writes.handleAsync(
+              (ignored, e) -> {
+                step.run();
+                return null;
+              },
+              executor);
+      return writes;
+    }
+
+    private void writeBlocking(ByteBuf data) {
+      try {
+        if (failure == null && !discarded) {
+          if (out == null) {
+            file = File.createTempFile("request-body-", ".tmp", Play.tmpDir);
+            out = new FileOutputStream(file);
+          }
+          data.readBytes(out, data.readableBytes());
+        }
+      } catch (IOException | RuntimeException e) {
+        failure = e;
+      } finally {
+        ReferenceCountUtil.safeRelease(data);
+      }
+    }
+
+    private void closeBlocking() {
+      if (out != null) {
+        try {
+          out.close();
+        } catch (IOException | RuntimeException e) {
+          failure = e;
+        }
+        out = null;
+      }
+    }
+
+    private void deleteBlocking() {
+      closeBlocking();
+      try {
+        if (file != null && !file.delete()) {
+          logger.warn("Failed to delete request body {}", file);
+        }
+      } catch (RuntimeException e) {
+        logger.warn("Failed to delete request body {}", file, e);
+      }
+      file = null;
+    }
+  }
+}
@@ -3,14 +3,20 @@ package play.server.netty4;
 import static java.lang.Integer.parseInt;
 
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.AdaptiveByteBufAllocator;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.MultiThreadIoEventLoopGroup;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import play.Play;
@@ -36,28 +42,55 @@ public class Server {
   public int start() {
     System.setProperty("file.encoding", "utf-8");
 
-    EventLoopGroup bossGroup = new NioEventLoopGroup(1);
-    EventLoopGroup workerGroup = new NioEventLoopGroup();
+    Transport transport =
+        Transport.of(Play.configuration.getProperty("play.netty.transport", "nio"));
+    boolean reusePort = "true".equals(Play.configuration.getProperty("play.netty.reusePort"));
+    int bossThreads = parseInt(Play.configuration.getProperty("play.netty.bossThreads", "1"));
+    // Without SO_REUSEPORT, only one channel can be bound to the port
+    int acceptors =
+        reusePort
+            ? parseInt(Play.configuration.getProperty("play.netty.acceptors", "" + bossThreads))
+            : 1;
+    // 0 means Netty's default: twice the number of cores
+    int workerThreads = parseInt(Play.configuration.getProperty("play.netty.workerThreads", "0"));
+
+    EventLoopGroup bossGroup =
+        new MultiThreadIoEventLoopGroup(
+            Math.max(bossThreads, acceptors), transport.ioHandlerFactory());
+    EventLoopGroup workerGroup =
+        new MultiThreadIoEventLoopGroup(workerThreads, transport.ioHandlerFactory());
     InetAddress address = address();
+    List<Channel> channels = new ArrayList<>(acceptors);
     try {
       ServerBootstrap b = new ServerBootstrap();
       b.group(bossGroup, workerGroup)
-          .channel(NioServerSocketChannel.class)
+          .channel(transport.serverChannelClass())
           .childHandler(new HttpServerInitializer(Play.invoker, play.getActionInvoker()));
+      configureOptions(b, transport, reusePort);
 
-      Channel ch = b.bind(new InetSocketAddress(address, port)).sync().channel();
-      b.option(ChannelOption.TCP_NODELAY, true);
-      readActualPort(ch);
+      for (int i = 0; i < acceptors; i++) {
+        Channel ch = b.bind(new InetSocketAddress(address, port)).sync().channel();
+        readActualPort(ch);
+        channels.add(ch);
+      }
 
       String modeSuffix = Play.mode == Mode.DEV ? " (Waiting a first request to start)" : "";
       String hostname = address == null ? "0.0.0.0" : address.getHostName();
       logger.info("Listening for HTTP at http://{}:{}{} ...", hostname, port, modeSuffix);
-      ch.closeFuture()
-          .addListener(
-              future -> {
-                bossGroup.shutdownGracefully();
-                workerGroup.shutdownGracefully();
-              });
+      logger.info(
+          "Netty transport: {}, acceptors: {}, worker threads: {}",
+          transport,
+          acceptors,
+          workerThreads == 0 ? "default" : workerThreads);
+      for (Channel ch : channels) {
+        ch.closeFuture()
+            .addListener(
+                future -> {
+                  channels.forEach(Channel::close);
+                  bossGroup.shutdownGracefully();
+                  workerGroup.shutdownGracefully();
+                });
+      }
       return port;
     } catch (Exception e) {
       bossGroup.shutdownGracefully().syncUninterruptibly();
@@ -66,6 +99,43 @@ public class Server {
     }
   }
 
+  private void configureOptions(ServerBootstrap b, Transport transport, boolean reusePort) {
+    String backlog = Play.configuration.getProperty("play.netty.backlog");
+    if (backlog != null) {
+      b.option(ChannelOption.SO_BACKLOG, parseInt(backlog));
+    }
+    if (reusePort) {
+      b.option(transport.reusePortOption(), true);
+    }
+    b.childOption(
+        ChannelOption.TCP_NODELAY,
+        "true".equals(Play.configuration.getProperty("play.netty.tcpNoDelay", "true")));
+    b.childOption(
+        ChannelOption.SO_KEEPALIVE,
+        "true".equals(Play.configuration.getProperty("play.netty.keepAlive", "false")));
+
+    ByteBufAllocator allocator = allocator(Play.configuration.getProperty("play.netty.allocator"));
+    if (allocator != null) {
+      b.option(ChannelOption.ALLOCATOR, allocator);
+      b.childOption(ChannelOption.ALLOCATOR, allocator);
+    }
+  }
+
+  @Nullable
+  static ByteBufAllocator allocator(@Nullable String name) {
+    if (name == null) {
+      return null;
+    }
+    return switch (name) {
+      case "pooled" -> PooledByteBufAllocator.DEFAULT;
+      case "unpooled" -> UnpooledByteBufAllocator.DEFAULT;
+      case "adaptive" -> new AdaptiveByteBufAllocator();
+      default ->
+          throw new IllegalArgumentException(
+              "Unknown play.netty.allocator " + name + ", expected pooled, unpooled or adaptive");
+    };
+  }
+
   private void readActualPort(Channel ch) {
     if (port == 0) {
       InetSocketAddress socketAddress = (InetSocketAddress) ch.localAddress();
@@ -0,0 +1,136 @@
+package play.server.netty4;
+
+import io.netty.channel.ChannelOption;
+import io.netty.channel.IoHandlerFactory;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollIoHandler;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.nio.NioIoHandler;
+import io.netty.channel.socket.nio.NioChannelOption;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.unix.UnixChannelOption;
+import io.netty.channel.uring.IoUring;
+import io.netty.channel.uring.IoUringIoHandler;
+import io.netty.channel.uring.IoUringServerSocketChannel;
+import java.net.StandardSocketOptions;
+import java.util.Locale;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * The Netty transport used by {@link Server}, configured by <code>play.netty.transport</code>.
+ *
+ * <p>Native transports need the native library of the platform on the classpath: if it cannot be
+ * loaded, {@link #isAvailable()} returns false.
+ */
+@NullMarked
+public enum Transport {
+  NIO {
+    @Override
+    IoHandlerFactory ioHandlerFactory() {
+      return NioIoHandler.newFactory();
+    }
+
+    @Override
+    Class<? extends ServerChannel> serverChannelClass() {
+      return NioServerSocketChannel.class;
+    }
+
+    @Override
+    ChannelOption<Boolean> reusePortOption() {
+      return NioChannelOption.of(StandardSocketOptions.SO_REUSEPORT);
+    }
+
+    @Override
+    boolean isAvailable() {
+      return true;
+    }
+  },
+
+  EPOLL {
+    @Override
+    IoHandlerFactory ioHandlerFactory() {
+      return EpollIoHandler.newFactory();
+    }
+
+    @Override
+    Class<? extends ServerChannel> serverChannelClass() {
+      return EpollServerSocketChannel.class;
+    }
+
+    @Override
+    ChannelOption<Boolean> reusePortOption() {
+      return EpollChannelOption.SO_REUSEPORT;
+    }
+
+    @Override
+    boolean isAvailable() {
+      try {
+        return Epoll.isAvailable();
+      } catch (LinkageError e) {
+        return false;
+      }
+    }
+  },
+
+  IO_URING {
+    @Override
+    IoHandlerFactory ioHandlerFactory() {
+      return IoUringIoHandler.newFactory();
+    }
+
+    @Override
+    Class<? extends ServerChannel> serverChannelClass() {
+      return IoUringServerSocketChannel.class;
+    }
+
+    @Override
+    ChannelOption<Boolean> reusePortOption() {
+      return UnixChannelOption.SO_REUSEPORT;
+    }
+
+    @Override
+    boolean isAvailable() {
+      try {
+        return IoUring.isAvailable();
+      } catch (LinkageError e) {
+        return false;
+      }
+    }
+  };
+
+  abstract IoHandlerFactory ioHandlerFactory();
+
+  abstract Class<? extends ServerChannel> serverChannelClass();
+
+  abstract ChannelOption<Boolean> reusePortOption();
+
+  abstract boolean isAvailable();
+
+  /**
+   * @param name "nio", "epoll", "io_uring" or "auto" (epoll if available, otherwise nio)
+   * @throws IllegalArgumentException if the name is unknown or the transport is not available on
+   *     this platform
+   */
+  static Transport of(String name) {
+    String key = name.trim().toLowerCase(Locale.ROOT);
+    if ("auto".equals(key)) {
+      return EPOLL.isAvailable() ? EPOLL : NIO;
+    }
+    Transport transport =
+        switch (key) {
+          case "nio" -> NIO;
+          case "epoll" -> EPOLL;
+          case "io_uring", "iouring" -> IO_URING;
+          default ->
+              throw new IllegalArgumentException(
+                  "Unknown Netty transport " + name + ", expected nio, epoll, io_uring or auto");
+        };
+    if (!transport.isAvailable()) {
+      throw new IllegalArgumentException(
+          "Netty transport " + name + " is not available on this platform");
+    }
+    return transport;
+  }
+}
@@ -0,0 +1,52 @@
+package play.server.netty4;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import java.io.ByteArrayOutputStream;
+import org.junit.jupiter.api.Test;
+
+public class ByteBufResponseOutputStreamTest {
+  private final ByteBufResponseOutputStream out =
+      new ByteBufResponseOutputStream(PooledByteBufAllocator.DEFAULT);
+
+  @Test
+  public void behavesLikeByteArrayOutputStream() throws Exception {
+    out.write("Hello, ".getBytes(UTF_8));
+    out.write('w');
+    out.write("-world-".getBytes(UTF_8), 2, 4);
+
+    assertThat(out.size()).isEqualTo(11);
+    assertThat(out.toString(UTF_8)).isEqualTo("Hello, worl");
+    assertThat(out.toByteArray()).isEqualTo("Hello, worl".getBytes(UTF_8));
+    ByteArrayOutputStream copy = new ByteArrayOutputStream();
+    out.writeTo(copy);
+    assertThat(copy.toString(UTF_8)).isEqualTo("Hello, worl");
+
+    out.reset();
+    assertThat(out.size()).isZero();
+    out.release();
+  }
+
+  @Test
+  public void detachHandsOverWrittenBuffer() {
+    out.write("<html></html>".getBytes(UTF_8));
+
+    ByteBuf content = out.detach();
+
+    assertThat(content.toString(UTF_8)).isEqualTo("<html></html>");
+    assertThat(out.size()).isZero();
+    out.release();
+    assertThat(content.refCnt()).isEqualTo(1);
+    assertThat(content.release()).isTrue();
+  }
+
+  @Test
+  public void emptyUntilWritten() {
+    assertThat(out.size()).isZero();
+    assertThat(out.toByteArray()).isEmpty();
+    assertThat(out.detach().readableBytes()).isZero();
+  }
+}
@@ -0,0 +1,171 @@
+package play.server.netty4;
+
+import static io.netty.handler.codec.http.HttpHeaderNames.ACCEPT_ENCODING;
+import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_ENCODING;
+import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_LENGTH;
+import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_TYPE;
+import static io.netty.handler.codec.http.HttpHeaderNames.RANGE;
+import static io.netty.handler.codec.http.HttpHeaderNames.VARY;
+import static io.netty.handler.codec.http.HttpMethod.GET;
+import static io.netty.handler.codec.http.HttpResponseStatus.OK;
+import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.util.ReferenceCountUtil;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Properties;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import play.server.ResponseCompression;
+
+public class PlayContentCompressorTest {
+  private static final String PAGE = "<p>Hello, world</p>\n".repeat(100);
+
+  private final ResponseCompression compression = compression();
+  private final EmbeddedChannel channel =
+      new EmbeddedChannel(new PlayContentCompressor(compression));
+  private HttpResponse head;
+  private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+  @TempDir File folder;
+
+  @AfterEach
+  public void tearDown() {
+    channel.finishAndReleaseAll();
+  }
+
+  @Test
+  public void compressesResponse() throws Exception {
+    request("gzip, deflate");
+    FullHttpResponse response = response(PAGE.getBytes(UTF_8));
+    response.headers().set(VARY, "Accept-Language");
+
+    send(response);
+
+    assertThat(head.headers().get(CONTENT_ENCODING)).isEqualTo("gzip");
+    assertThat(head.headers().get(VARY)).isEqualTo("Accept-Language, Accept-Encoding");
+    assertThat(gunzip(body.toByteArray())).isEqualTo(PAGE);
+  }
+
+  @Test
+  public void smallResponseIsNotCompressed() {
+    request("gzip");
+
+    send(response("small".getBytes(UTF_8)));
+
+    assertThat(head.headers().get(CONTENT_ENCODING)).isNull();
+    assertThat(body.toString(UTF_8)).isEqualTo("small");
+  }
+
+  @Test
+  public void encodedResponseIsSentAsIs() throws Exception {
+    request("gzip");
+    byte[] gzipped = gzip(PAGE);
+    FullHttpResponse response = response(gzipped);
+    response.headers().set(CONTENT_ENCODING, "gzip");
+    response.headers().set(VARY, "Accept-Encoding");
+
+    send(response);
+
+    assertThat(head.headers().get(CONTENT_ENCODING)).isEqualTo("gzip");
+    assertThat(head.headers().getAll(VARY)).containsExactly("Accept-Encoding");
+    assertThat(body.toByteArray()).isEqualTo(gzipped);
+  }
+
+  @Test
+  public void servesPrecompressedFileIfClientAcceptsGzip() throws Exception {
+    File file = new File(folder, "app.js");
+    Files.writeString(file.toPath(), "alert(1)");
+    File gzipped = new File(folder, "app.js.gz");
+    Files.write(gzipped.toPath(), gzip("alert(1)"));
+
+    assertThat(precompressedFile(file, "gzip")).isEqualTo(gzipped);
+    assertThat(precompressedFile(file, "deflate, gzip;q=0.5")).isEqualTo(gzipped);
+    assertThat(precompressedFile(file, "deflate")).isNull();
+    assertThat(precompressedFile(file, null)).isNull();
+
+    FullHttpRequest range = new DefaultFullHttpRequest(HTTP_1_1, GET, "/public/app.js");
+    range.headers().set(ACCEPT_ENCODING, "gzip");
+    range.headers().set(RANGE, "bytes=0-1");
+    assertThat(PlayHandler.precompressedFile(file, range, compression)).isNull();
+
+    File withoutGz = new File(folder, "other.js");
+    Files.writeString(withoutGz.toPath(), "alert(2)");
+    assertThat(precompressedFile(withoutGz, "gzip")).isNull();
+  }
+
+  private File precompressedFile(File file, String acceptEncoding) {
+    FullHttpRequest request = new DefaultFullHttpRequest(HTTP_1_1, GET, "/public/app.js");
+    if (acceptEncoding != null) {
+      request.headers().set(ACCEPT_ENCODING, acceptEncoding);
+    }
+    return PlayHandler.precompressedFile(file, request, compression);
+  }
+
+  private void request(String acceptEncoding) {
+    FullHttpRequest request = new DefaultFullHttpRequest(HTTP_1_1, GET, "/");
+    request.headers().set(ACCEPT_ENCODING, acceptEncoding);
+    channel.writeInbound(request);
+    ReferenceCountUtil.release(channel.readInbound());
+  }
+
+  private static FullHttpResponse response(byte[] content) {
+    FullHttpResponse response =
+        new DefaultFullHttpResponse(HTTP_1_1, OK, Unpooled.wrappedBuffer(content));
+    response.headers().set(CONTENT_TYPE, "text/html; charset=utf-8");
+    response.headers().set(CONTENT_LENGTH, content.length);
+    return response;
+  }
+
+  private void send(FullHttpResponse response) {
+    channel.writeOutbound(response);
+    Object msg;
+    while ((msg = channel.readOutbound()) != null) {
+      if (msg instanceof HttpResponse httpResponse) {
+        head = httpResponse;
+      }
+      if (msg instanceof HttpContent content) {
+        byte[] bytes = new byte[content.content().readableBytes()];
+        content.content().readBytes(bytes);
+        body.writeBytes(bytes);
+      }
+      ReferenceCountUtil.release(msg);
+    }
+  }
+
+  private static ResponseCompression compression() {
+    Properties configuration = new Properties();
+    configuration.setProperty("play.compression.enabled", "true");
+    configuration.setProperty("play.compression.minSize", "100");
+    configuration.setProperty("play.compression.precompressed", "true");
+    return new ResponseCompression(configuration);
+  }
+
+  private static byte[] gzip(String content) throws Exception {
+    ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+    try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+      out.write(content.getBytes(UTF_8));
+    }
+    return gzipped.toByteArray();
+  }
+
+  private static String gunzip(byte[] gzipped) throws Exception {
+    return new String(
+        new GZIPInputStream(new ByteArrayInputStream(gzipped)).readAllBytes(), UTF_8);
+  }
+}
@@ -2,20 +2,28 @@ package play.server.netty4;
 
 import io.netty.buffer.EmptyByteBuf;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.LastHttpContent;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import play.mvc.Http;
 
 import java.net.InetSocketAddress;
-import java.net.URISyntaxException;
 
 import static io.netty.buffer.ByteBufAllocator.DEFAULT;
+import static io.netty.handler.codec.http.HttpMethod.GET;
+import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class PlayHandlerTest {
@@ -31,7 +39,7 @@ public class PlayHandlerTest {
     "/login/to/shop, Good+morning, Good morning",
     "/login/to/shop, Good%2Bmorning, Good+morning",
   })
-  public void parseRequest(String path,String encodedParameterValue, String parameterValue) throws URISyntaxException {
+  public void parseRequest(String path,String encodedParameterValue, String parameterValue) throws Exception {
     when(nettyRequest.uri()).thenReturn(path + "?user=bob&pwd=secret&greeting=" + encodedParameterValue);
     when(nettyRequest.method()).thenReturn(HttpMethod.GET);
     when(nettyRequest.headers()).thenReturn(headers);
@@ -60,4 +68,32 @@ public class PlayHandlerTest {
     assertThat(request.port).isEqualTo(8080);
     assertThat(request.isSecure()).isEqualTo(false);
   }
+
+  @Test
+  public void closeChunked_sendsTheLastChunk() {
+    Channel ch = mock();
+    when(ctx.channel()).thenReturn(ch);
+    when(ch.writeAndFlush(any())).thenReturn(mock(ChannelFuture.class));
+    Http.Response response = new Http.Response();
+    response.chunked = true;
+
+    playHandler.closeChunked(response, ctx, new DefaultFullHttpRequest(HTTP_1_1, GET, "/"));
+
+    verify(ch).writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+    verify(ch, never()).close();
+  }
+
+  @Test
+  public void closeChunked_closesConnectionWithoutTheLastChunk_ifResponseFailedAfterFirstChunk() {
+    Channel ch = mock();
+    when(ctx.channel()).thenReturn(ch);
+    Http.Response response = new Http.Response();
+    response.chunked = true;
+    response.abortChunked();
+
+    playHandler.closeChunked(response, ctx, new DefaultFullHttpRequest(HTTP_1_1, GET, "/"));
+
+    verify(ch).close();
+    verify(ch, never()).writeAndFlush(any());
+  }
 }
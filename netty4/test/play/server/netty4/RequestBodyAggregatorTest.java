@@ -0,0 +1,207 @@
+package play.server.netty4;
+
+import static io.netty.handler.codec.http.HttpMethod.POST;
+import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.DecoderResult;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.util.IllegalReferenceCountException;
+import java.io.File;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import play.Play;
+
+public class RequestBodyAggregatorTest {
+  /** A disk which writes only when the test lets it */
+  private final Queue<Runnable> slowDisk = new ArrayDeque<>();
+
+  private final EmbeddedChannel channel =
+      new EmbeddedChannel(new RequestBodyAggregator(20, 8, Runnable::run));
+
+  @AfterEach
+  public void tearDown() {
+    channel.finishAndReleaseAll();
+  }
+
+  @Test
+  public void keepsSmallBodyInMemory() {
+    HttpRequest request = new DefaultHttpRequest(HTTP_1_1, POST, "/upload");
+    HttpUtil.setTransferEncodingChunked(request, true);
+
+    channel.writeInbound(request, chunk("abc"), last("de"));
+
+    FullHttpRequest fullRequest = channel.readInbound();
+    assertThat(fullRequest).isNotInstanceOf(FileBodyHttpRequest.class);
+    assertThat(fullRequest.content().toString(UTF_8)).isEqualTo("abcde");
+    assertThat(fullRequest.headers().get("Content-Length")).isEqualTo("5");
+    assertThat(HttpUtil.isTransferEncodingChunked(fullRequest)).isFalse();
+    fullRequest.release();
+  }
+
+  @Test
+  public void writesLargeBodyToFile() throws Exception {
+    channel.writeInbound(
+        new DefaultHttpRequest(HTTP_1_1, POST, "/upload"),
+        chunk("0123456"),
+        chunk("789abc"),
+        last("def"));
+
+    FileBodyHttpRequest fullRequest = channel.readInbound();
+    File file = fullRequest.file();
+    assertThat(fullRequest.headers().get("Content-Length")).isEqualTo("16");
+
+    InputStream body = fullRequest.body();
+    assertThat(new String(body.readAllBytes(), UTF_8)).isEqualTo("0123456789abcdef");
+    body.reset();
+    assertThat(new String(body.readAllBytes(), UTF_8)).isEqualTo("0123456789abcdef");
+
+    assertThat(fullRequest.release()).isTrue();
+    assertThat(file).doesNotExist();
+  }
+
+  @Test
+  public void pausesReadingUntilSpilledChunksAreWritten() throws Exception {
+    EmbeddedChannel channel = new EmbeddedChannel(new RequestBodyAggregator(20, 8, slowDisk::add));
+    channel.writeInbound(new DefaultHttpRequest(HTTP_1_1, POST, "/upload"), chunk("0123"));
+    assertThat(channel.config().isAutoRead()).isTrue();
+
+    channel.writeInbound(chunk("456789"));
+    assertThat(channel.config().isAutoRead()).isFalse();
+
+    // chunks decoded before reading paused are handed over too, the request waits for the disk
+    channel.writeInbound(last("abc"), new DefaultHttpRequest(HTTP_1_1, POST, "/next"));
+    assertThat(channel.config().isAutoRead()).isFalse();
+    assertThat((Object) channel.readInbound()).isNull();
+
+    slowDisk.poll().run();
+    channel.runPendingTasks();
+    assertThat(channel.config().isAutoRead()).isFalse();
+    assertThat((Object) channel.readInbound()).isNull();
+
+    while (!slowDisk.isEmpty()) {
+      slowDisk.poll().run();
+    }
+    channel.runPendingTasks();
+    assertThat(channel.config().isAutoRead()).isTrue();
+
+    FileBodyHttpRequest fullRequest = channel.readInbound();
+    assertThat(new String(fullRequest.body().readAllBytes(), UTF_8)).isEqualTo("0123456789abc");
+    fullRequest.release();
+
+    channel.writeInbound(last(""));
+    FullHttpRequest next = channel.readInbound();
+    assertThat(next.uri()).isEqualTo("/next");
+    next.release();
+    channel.finishAndReleaseAll();
+  }
+
+  @Test
+  public void failedWriteDeletesFileAndPassesNoRequest(@TempDir File tmpDir) {
+    File previousTmpDir = Play.tmpDir;
+    Play.tmpDir = tmpDir;
+    try {
+      // reading a released buffer throws IllegalReferenceCountException, not an IOException
+      CompositeByteBuf unreadable = Unpooled.compositeBuffer();
+      ByteBuf released = Unpooled.copiedBuffer("456789", UTF_8);
+      unreadable.addComponent(true, released);
+      released.release();
+
+      assertThatThrownBy(
+              () ->
+                  channel.writeInbound(
+                      new DefaultHttpRequest(HTTP_1_1, POST, "/upload"),
+                      chunk("0123"),
+                      new DefaultHttpContent(unreadable),
+                      last("abc")))
+          .isInstanceOf(IllegalReferenceCountException.class);
+
+      assertThat((Object) channel.readInbound()).isNull();
+      assertThat(channel.config().isAutoRead()).isTrue();
+      assertThat(tmpDir.listFiles()).isEmpty();
+    } finally {
+      Play.tmpDir = previousTmpDir;
+    }
+  }
+
+  @Test
+  public void dropsBodyExceedingMaxContentLength() {
+    HttpRequest request = new DefaultHttpRequest(HTTP_1_1, POST, "/upload");
+    request.headers().set("Content-Length", "24");
+
+    channel.writeInbound(request, chunk("0123456789"), chunk("0123456789"), last("0123"));
+
+    FullHttpRequest fullRequest = channel.readInbound();
+    assertThat(fullRequest.content().readableBytes()).isZero();
+    assertThat(fullRequest.headers().get("Warning"))
+        .isEqualTo("play.netty.content.length.exceeded");
+    assertThat(fullRequest.headers().get("Content-Length")).isEqualTo("24");
+    fullRequest.release();
+  }
+
+  @Test
+  public void answersExpectContinue() {
+    HttpRequest request = new DefaultHttpRequest(HTTP_1_1, POST, "/upload");
+    HttpUtil.set100ContinueExpected(request, true);
+
+    channel.writeInbound(request);
+
+    FullHttpResponse response = channel.readOutbound();
+    assertThat(response.status()).isEqualTo(HttpResponseStatus.CONTINUE);
+    assertThat(HttpUtil.is100ContinueExpected(request)).isFalse();
+  }
+
+  @Test
+  public void refusesExpectContinueWithTooLongBody() {
+    HttpRequest request = new DefaultHttpRequest(HTTP_1_1, POST, "/upload");
+    HttpUtil.set100ContinueExpected(request, true);
+    HttpUtil.setContentLength(request, 21);
+
+    channel.writeInbound(request);
+
+    FullHttpResponse response = channel.readOutbound();
+    assertThat(response.status()).isEqualTo(HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE);
+    assertThat(channel.isOpen()).isTrue();
+    // the body is dropped if the client sends it anyway
+    channel.writeInbound(chunk("0123456789"), last("0123456789a"));
+    assertThat((Object) channel.readInbound()).isNull();
+  }
+
+  @Test
+  public void rejectsChunkWhichCouldNotBeDecoded() {
+    DefaultHttpContent invalid = chunk("abc");
+    invalid.setDecoderResult(DecoderResult.failure(new IllegalArgumentException("bad chunk")));
+
+    channel.writeInbound(new DefaultHttpRequest(HTTP_1_1, POST, "/upload"), invalid);
+
+    FullHttpResponse response = channel.readOutbound();
+    assertThat(response.status()).isEqualTo(HttpResponseStatus.BAD_REQUEST);
+    assertThat((Object) channel.readInbound()).isNull();
+    assertThat(channel.isOpen()).isFalse();
+  }
+
+  private static DefaultHttpContent chunk(String content) {
+    return new DefaultHttpContent(Unpooled.copiedBuffer(content, UTF_8));
+  }
+
+  private static DefaultLastHttpContent last(String content) {
+    return new DefaultLastHttpContent(Unpooled.copiedBuffer(content, UTF_8));
+  }
+}
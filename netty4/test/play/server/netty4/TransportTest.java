@@ -0,0 +1,33 @@
+package play.server.netty4;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.junit.jupiter.api.Test;
+
+public class TransportTest {
+  @Test
+  public void byName() {
+    assertThat(Transport.of("nio")).isEqualTo(Transport.NIO);
+    assertThat(Transport.of(" NIO ")).isEqualTo(Transport.NIO);
+    assertThat(Transport.of("auto")).isIn(Transport.NIO, Transport.EPOLL);
+  }
+
+  @Test
+  public void unknownTransport() {
+    assertThatThrownBy(() -> Transport.of("kqueue"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("kqueue");
+  }
+
+  @Test
+  public void allocator() {
+    assertThat(Server.allocator(null)).isNull();
+    assertThat(Server.allocator("pooled")).isSameAs(PooledByteBufAllocator.DEFAULT);
+    assertThat(Server.allocator("unpooled")).isSameAs(UnpooledByteBufAllocator.DEFAULT);
+    assertThatThrownBy(() -> Server.allocator("direct"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}